@@ -0,0 +1,120 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.api.ApiServer;
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.connect.DBProp;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidCache;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+import be.vives.ti.service.VlootIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Doorvoer van de HTTP-API (be.vives.ti.api) bij een groeiend aantal gelijktijdige clients.
+ * Elke JMH-thread is een client; vergelijk de doorvoer bij verschillende aantallen:
+ *
+ *   java -jar benchmarks/target/benchmarks.jar Api -t 1
+ *   java -jar benchmarks/target/benchmarks.jar Api -t 16
+ *   java -jar benchmarks/target/benchmarks.jar Api -t 256
+ *
+ * De aanvragen lopen in de server op virtual threads, de connectiepool (poolMaxGrootte) begrenst
+ * enkel het aantal gelijktijdige databankoproepen. De doorvoer hoort te stijgen tot de pool of de
+ * processoren verzadigd zijn en daarna vlak te blijven, zonder fouten of weigeringen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dvivesbike.db.profiel=embedded")
+public class ApiBenchmark {
+
+    private static final int AANTAL_LEDEN = 1000;
+    private static final int AANTAL_FIETSEN = 500;
+
+    // elke waarde draait in een eigen JVM, de instelling geldt dus voor de hele pool
+    @Param({"4", "16"})
+    private int poolMaxGrootte;
+
+    private ApiServer server;
+    private HttpClient client;
+    private String basis;
+
+    @Setup
+    public void startServer() throws DBException, IOException {
+        System.setProperty(DBProp.INSTELLING_PREFIX + "pool.maxGrootte", String.valueOf(poolMaxGrootte));
+        Testdata.vul(AANTAL_LEDEN, AANTAL_FIETSEN, 10000, 0);
+
+        FietsDAO fietsDAO = new FietsDAO();
+        LidDAO lidDAO = new LidDAO();
+        RitDAO ritDAO = new RitDAO();
+        LidCache lidCache = new LidCache(AANTAL_LEDEN, 60000);
+        VlootIndex vlootIndex = new VlootIndex();
+        vlootIndex.laad(fietsDAO, ritDAO);
+        FietsService fietsService = new FietsService(fietsDAO, vlootIndex);
+        RitService ritService = new RitService(ritDAO, fietsService, lidDAO, lidCache, vlootIndex);
+        LidService lidService = new LidService(lidDAO, ritService, lidCache);
+
+        server = new ApiServer(new InetSocketAddress("localhost", 0), fietsService, lidService, ritService);
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        basis = "http://localhost:" + server.getPoort();
+    }
+
+    @TearDown
+    public void stopServer() {
+        server.stop(0);
+        ConnectionManager.sluitPool();
+    }
+
+    private int vraag(String pad) throws IOException, InterruptedException {
+        HttpResponse<String> antwoord = client.send(
+                HttpRequest.newBuilder(URI.create(basis + pad)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (antwoord.statusCode() != 200) {
+            throw new IllegalStateException(pad + " gaf " + antwoord.statusCode() + ": " + antwoord.body());
+        }
+        return antwoord.body().length();
+    }
+
+    /**
+     * Een fiets opzoeken: altijd een databankoproep.
+     */
+    @Benchmark
+    public int zoekFiets() throws IOException, InterruptedException {
+        return vraag("/fietsen/" + (Testdata.eersteFiets() + ThreadLocalRandom.current().nextInt(AANTAL_FIETSEN)));
+    }
+
+    /**
+     * De actieve ritten van een lid: het lid uit de ledencache, de ritten uit de databank.
+     */
+    @Benchmark
+    public int zoekActieveRittenVanLid() throws IOException, InterruptedException {
+        return vraag("/leden/" + Testdata.rijksregisternummer(ThreadLocalRandom.current().nextInt(AANTAL_LEDEN)) + "/ritten");
+    }
+}
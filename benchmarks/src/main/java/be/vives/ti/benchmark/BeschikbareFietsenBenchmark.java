@@ -0,0 +1,59 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.exception.DBException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FietsDAO.zoekAlleBeschikbareFietsen bij een groeiende rittengeschiedenis. Het aantal
+ * fietsen en open ritten blijft gelijk, enkel het aantal afgesloten ritten groeit:
+ * de tijd per oproep hoort over alle waarden van aantalRitten ongeveer gelijk te blijven.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dvivesbike.db.profiel=embedded")
+public class BeschikbareFietsenBenchmark {
+
+    private static final int AANTAL_LEDEN = 1000;
+    private static final int AANTAL_FIETSEN = 500;
+    private static final int AANTAL_OPEN = 50;
+
+    @Param({"10000", "100000", "1000000"})
+    private int aantalRitten;
+
+    private final FietsDAO fietsDAO = new FietsDAO();
+
+    @Setup
+    public void vulDatabank() throws DBException {
+        Testdata.vul(AANTAL_LEDEN, AANTAL_FIETSEN, aantalRitten, AANTAL_OPEN);
+    }
+
+    @TearDown
+    public void sluit() {
+        ConnectionManager.sluitPool();
+    }
+
+    @Benchmark
+    public List<Fiets> zoekAlleBeschikbareFietsen() throws DBException {
+        return fietsDAO.zoekAlleBeschikbareFietsen();
+    }
+}
@@ -0,0 +1,58 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LidDAO.zoekLid op de primary key, telkens voor een ander lid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dvivesbike.db.profiel=embedded")
+public class LidDAOBenchmark {
+
+    private static final int AANTAL_LEDEN = 10000;
+
+    private final LidDAO lidDAO = new LidDAO();
+    private String[] rijksregisternummers;
+    private int volgende;
+
+    @Setup
+    public void vulDatabank() throws DBException {
+        Testdata.vul(AANTAL_LEDEN, 10, 0, 0);
+        rijksregisternummers = new String[AANTAL_LEDEN];
+        for (int i = 0; i < AANTAL_LEDEN; i++) {
+            rijksregisternummers[i] = Testdata.rijksregisternummer(i);
+        }
+    }
+
+    @TearDown
+    public void sluit() {
+        ConnectionManager.sluitPool();
+    }
+
+    @Benchmark
+    public Lid zoekLid() throws DBException, ApplicationException {
+        volgende = (volgende + 1) % AANTAL_LEDEN;
+        return lidDAO.zoekLid(rijksregisternummers[volgende]);
+    }
+}
@@ -0,0 +1,116 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.RitService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RitService.toevoegenRit en RitService.afsluitenRit, met een geschiedenis van
+ * 100 000 afgesloten ritten. Elke oproep gebruikt een ander lid en een andere fiets;
+ * het openen of sluiten van de rit voor de volgende oproep wordt niet gemeten.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dvivesbike.db.profiel=embedded")
+public class RitServiceBenchmark {
+
+    private static final int AANTAL = 1000;
+
+    private final RitDAO ritDAO = new RitDAO();
+    private final RitService ritService = new RitService(ritDAO, new FietsService(new FietsDAO()), new LidDAO());
+    private Rijksregisternummer[] leden;
+    private int volgende;
+    private Rit rit;
+
+    @Setup
+    public void vulDatabank() throws DBException, ApplicationException {
+        Testdata.vul(AANTAL, AANTAL, 100000, 0);
+        leden = new Rijksregisternummer[AANTAL];
+        for (int i = 0; i < AANTAL; i++) {
+            leden[i] = new Rijksregisternummer(Testdata.rijksregisternummer(i));
+        }
+    }
+
+    @TearDown
+    public void sluit() {
+        ConnectionManager.sluitPool();
+    }
+
+    /**
+     * Nieuwe, nog niet toegevoegde rit voor het volgende lid en de volgende fiets.
+     */
+    @Setup(Level.Invocation)
+    public void volgendeRit() {
+        volgende = (volgende + 1) % AANTAL;
+        rit = new Rit();
+        rit.setLidRijksregisternummer(leden[volgende]);
+        rit.setFietsRegistratienummer(Testdata.eersteFiets() + volgende);
+    }
+
+    @Benchmark
+    public Integer toevoegenRit(SluitRitAf sluit) throws DBException, ApplicationException {
+        sluit.id = ritService.toevoegenRit(rit);
+        return sluit.id;
+    }
+
+    @Benchmark
+    public void afsluitenRit(OpenRit open) throws DBException, ApplicationException {
+        ritService.afsluitenRit(open.id);
+    }
+
+    /**
+     * Sluit de rit die de benchmark toevoegde, zodat lid en fiets weer vrij zijn.
+     */
+    @State(Scope.Thread)
+    public static class SluitRitAf {
+        private Integer id;
+
+        @TearDown(Level.Invocation)
+        public void sluitAf(RitServiceBenchmark b) throws DBException {
+            Rit toegevoegd = new Rit();
+            toegevoegd.setId(id);
+            toegevoegd.setEindtijd(LocalDateTime.now());
+            toegevoegd.setPrijs(BigDecimal.ONE);
+            b.ritDAO.afsluitenRit(toegevoegd);
+        }
+    }
+
+    /**
+     * Opent een rit die de benchmark daarna afsluit.
+     */
+    @State(Scope.Thread)
+    public static class OpenRit {
+        private Integer id;
+
+        @Setup(Level.Invocation)
+        public void open(RitServiceBenchmark b) throws DBException, ApplicationException {
+            id = b.ritDAO.huurFiets(b.rit);
+        }
+    }
+}
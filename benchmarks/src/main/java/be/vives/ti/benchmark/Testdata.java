@@ -0,0 +1,140 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.exception.DBException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Vult de (embedded) databank met leden, fietsen en een rittengeschiedenis.
+ * - lid i heeft rijksregisternummer rijksregisternummer(i)
+ * - fiets i heeft registratienummer eersteFiets() + i, allemaal actief
+ * - ritten zijn afgesloten, behalve de laatste aantalOpen: die lopen nog
+ *   (lid i op fiets i), zodat er maximaal een open rit per fiets en per lid is
+ */
+public final class Testdata {
+
+    private static final int BATCH = 5000;
+
+    private static int eersteFiets;
+
+    private Testdata() {
+    }
+
+    /**
+     * @param i volgnummer van het lid
+     * @return geldig rijksregisternummer (modulo 97-controle) dat uniek is per volgnummer
+     */
+    public static String rijksregisternummer(int i) {
+        int deel1 = 800101000 + i;
+        return String.format("%09d%02d", deel1, 97 - (deel1 % 97));
+    }
+
+    /**
+     * @return registratienummer van fiets 0 na de laatste vul()
+     */
+    public static int eersteFiets() {
+        return eersteFiets;
+    }
+
+    /**
+     * Verwijdert alle gegevens en vult de tabellen opnieuw.
+     */
+    public static void vul(int aantalLeden, int aantalFietsen, int aantalRitten, int aantalOpen) throws DBException {
+        if (aantalOpen > Math.min(aantalLeden, aantalFietsen)) {
+            throw new IllegalArgumentException("Meer open ritten dan leden of fietsen");
+        }
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("delete from rit_dagtotaal");
+                stmt.execute("delete from rit");
+                stmt.execute("delete from fiets");
+                stmt.execute("delete from lid");
+            }
+            vulLeden(conn, aantalLeden);
+            vulFietsen(conn, aantalFietsen);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet r = stmt.executeQuery("select min(registratienummer) from fiets")) {
+                r.next();
+                eersteFiets = r.getInt(1);
+            }
+            vulRitten(conn, aantalLeden, aantalFietsen, aantalRitten, aantalOpen);
+            conn.commit();
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in Testdata.vul - " + sqlEx);
+        }
+    }
+
+    private static void vulLeden(Connection conn, int aantal) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into lid(rijksregisternummer, voornaam, naam, emailadres, start_lidmaatschap)"
+                        + " values (?,?,?,?,?)")) {
+            java.sql.Date start = java.sql.Date.valueOf("2015-01-01");
+            for (int i = 0; i < aantal; i++) {
+                stmt.setString(1, rijksregisternummer(i));
+                stmt.setString(2, "Voornaam" + i);
+                stmt.setString(3, "Naam" + i);
+                stmt.setString(4, "lid" + i + "@vives.be");
+                stmt.setDate(5, start);
+                voegToeAanBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void vulFietsen(Connection conn, int aantal) throws SQLException {
+        Standplaats[] standplaatsen = Standplaats.values();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into fiets(status, standplaats, opmerkingen) values ('actief',?,?)")) {
+            for (int i = 0; i < aantal; i++) {
+                stmt.setString(1, standplaatsen[i % standplaatsen.length].toString());
+                stmt.setString(2, "fiets " + i);
+                voegToeAanBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void vulRitten(Connection conn, int aantalLeden, int aantalFietsen,
+                                  int aantalRitten, int aantalOpen) throws SQLException {
+        LocalDateTime begin = LocalDateTime.of(2015, 1, 1, 8, 0);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into rit(starttijd, eindtijd, prijs, lid_rijksregisternummer, fiets_registratienummer)"
+                        + " values (?,?,?,?,?)")) {
+            int afgesloten = aantalRitten - aantalOpen;
+            for (int i = 0; i < aantalRitten; i++) {
+                boolean open = i >= afgesloten;
+                int lid = open ? i - afgesloten : i % aantalLeden;
+                int fiets = open ? i - afgesloten : i % aantalFietsen;
+                LocalDateTime start = begin.plusMinutes(i);
+                stmt.setTimestamp(1, Timestamp.valueOf(start));
+                if (open) {
+                    stmt.setNull(2, java.sql.Types.TIMESTAMP);
+                    stmt.setNull(3, java.sql.Types.DECIMAL);
+                } else {
+                    stmt.setTimestamp(2, Timestamp.valueOf(start.plusHours(3)));
+                    stmt.setInt(3, 1);
+                }
+                stmt.setString(4, rijksregisternummer(lid));
+                stmt.setInt(5, eersteFiets + fiets);
+                voegToeAanBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void voegToeAanBatch(PreparedStatement stmt, int i) throws SQLException {
+        stmt.addBatch();
+        if ((i + 1) % BATCH == 0) {
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package be.vives.ti.service;
+
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validaties en berekeningen zonder databank: Rijksregisternummer, LidService.isValid
+ * (package-private, daarom in het package be.vives.ti.service) en RitService.prijsBerekenen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatieBenchmark {
+
+    private String geldigRijksregisternummer = "64101612335";
+    private String ongeldigRijksregisternummer = "64101612336";
+    private String geldigEmail = "sabbeandres@outlook.com";
+    private String ongeldigEmail = "sabbeandres@outlook";
+
+    private final RitService ritService = new RitService(null, null, null);
+    private final Rit rit = maakRit();
+
+    private static Rit maakRit() {
+        Rit rit = new Rit();
+        rit.setStarttijd(LocalDateTime.of(2020, 3, 1, 8, 15));
+        rit.setEindtijd(LocalDateTime.of(2020, 3, 3, 17, 40));
+        return rit;
+    }
+
+    @Benchmark
+    public Rijksregisternummer rijksregisternummerGeldig() throws ApplicationException {
+        return new Rijksregisternummer(geldigRijksregisternummer);
+    }
+
+    @Benchmark
+    public ApplicationException rijksregisternummerOngeldig() {
+        try {
+            new Rijksregisternummer(ongeldigRijksregisternummer);
+            return null;
+        } catch (ApplicationException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public boolean emailGeldig() {
+        return LidService.isValid(geldigEmail);
+    }
+
+    @Benchmark
+    public boolean emailOngeldig() {
+        return LidService.isValid(ongeldigEmail);
+    }
+
+    @Benchmark
+    public double prijsBerekenen() {
+        return ritService.prijsBerekenen(rit);
+    }
+}
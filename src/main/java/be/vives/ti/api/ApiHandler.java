@@ -0,0 +1,185 @@
+package be.vives.ti.api;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gemeenschappelijk deel van de handlers: het pad opsplitsen, de body lezen en het antwoord
+ * of de fout als JSON terugsturen.
+ * - ApplicationException: 400 met de boodschap van de service
+ * - ongeldige JSON, getallen of waarden: 400
+ * - DBException en andere fouten: 500, de details komen enkel in de log
+ */
+abstract class ApiHandler implements HttpHandler {
+
+    private static final int MAX_BODY = 64 * 1024;
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        Antwoord antwoord;
+        try {
+            antwoord = verwerk(new Aanvraag(exchange));
+        } catch (ApplicationException ex) {
+            antwoord = Antwoord.fout(400, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            antwoord = Antwoord.fout(400, ex.getMessage());
+        } catch (DBException | RuntimeException ex) {
+            System.out.println("SYSTEEMFOUT bij " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI() + ": " + ex);
+            antwoord = Antwoord.fout(500, "Er liep iets mis bij het verwerken van de aanvraag.");
+        }
+        stuur(exchange, antwoord);
+    }
+
+    /**
+     * @param aanvraag methode, pad en body van de aanvraag
+     * @return het antwoord, bv. Antwoord.ok(Json.fiets(fiets))
+     * @throws ApplicationException wanneer de service de aanvraag weigert
+     * @throws DBException          duidt op fouten vanuit de be.vives.DAO
+     */
+    protected abstract Antwoord verwerk(Aanvraag aanvraag) throws ApplicationException, DBException;
+
+    private static void stuur(HttpExchange exchange, Antwoord antwoord) throws IOException {
+        try {
+            if (antwoord.json == null) {
+                exchange.sendResponseHeaders(antwoord.status, -1);
+            } else {
+                byte[] inhoud = antwoord.json.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(antwoord.status, inhoud.length);
+                try (OutputStream uit = exchange.getResponseBody()) {
+                    uit.write(inhoud);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Een aanvraag aan de API.
+     */
+    static class Aanvraag {
+        private final HttpExchange exchange;
+        private final List<String> delen;
+        private final Map<String, String> parameters;
+
+        private Aanvraag(HttpExchange exchange) {
+            this.exchange = exchange;
+            // het pad na de context, bv. /fietsen/12/status geeft [12, status]
+            String pad = exchange.getRequestURI().getPath().substring(exchange.getHttpContext().getPath().length());
+            List<String> delen = new ArrayList<>();
+            for (String deel : pad.split("/")) {
+                if (!deel.isEmpty()) {
+                    delen.add(URLDecoder.decode(deel, StandardCharsets.UTF_8));
+                }
+            }
+            this.delen = Collections.unmodifiableList(delen);
+            Map<String, String> parameters = new HashMap<>();
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null) {
+                for (String parameter : query.split("&")) {
+                    int is = parameter.indexOf('=');
+                    if (is > 0) {
+                        parameters.put(URLDecoder.decode(parameter.substring(0, is), StandardCharsets.UTF_8),
+                                URLDecoder.decode(parameter.substring(is + 1), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            this.parameters = parameters;
+        }
+
+        String getMethode() {
+            return exchange.getRequestMethod();
+        }
+
+        /**
+         * @return true wanneer de methode en het aantal delen van het pad na de context overeenkomen,
+         * bv. is("PUT", 2) voor PUT /fietsen/12/status
+         */
+        boolean is(String methode, int aantalDelen) {
+            return getMethode().equalsIgnoreCase(methode) && delen.size() == aantalDelen;
+        }
+
+        String getDeel(int index) {
+            return delen.get(index);
+        }
+
+        /**
+         * @throws IllegalArgumentException wanneer het deel geen geheel getal is
+         */
+        int getGetal(int index) {
+            try {
+                return Integer.parseInt(delen.get(index));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Geen geldig nummer: " + delen.get(index));
+            }
+        }
+
+        String getParameter(String naam) {
+            return parameters.get(naam);
+        }
+
+        /**
+         * @return de body als plat JSON-object
+         * @throws IllegalArgumentException wanneer de body geen plat JSON-object is of te groot is
+         */
+        Map<String, String> leesJson() {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] body = in.readNBytes(MAX_BODY + 1);
+                if (body.length > MAX_BODY) {
+                    throw new IllegalArgumentException("De body is te groot.");
+                }
+                return Json.leesObject(new String(body, StandardCharsets.UTF_8));
+            } catch (IOException ex) {
+                throw new IllegalArgumentException("De body kon niet gelezen worden: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Status en JSON van een antwoord, json null voor een antwoord zonder inhoud.
+     */
+    static class Antwoord {
+        private final int status;
+        private final String json;
+
+        private Antwoord(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+
+        static Antwoord ok(String json) {
+            return new Antwoord(200, json);
+        }
+
+        static Antwoord aangemaakt(String json) {
+            return new Antwoord(201, json);
+        }
+
+        static Antwoord geenInhoud() {
+            return new Antwoord(204, null);
+        }
+
+        static Antwoord nietGevonden() {
+            return fout(404, "Niet gevonden.");
+        }
+
+        static Antwoord fout(int status, String boodschap) {
+            return new Antwoord(status, Json.fout(boodschap));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package be.vives.ti.api;
+
+import be.vives.ti.metriek.Metingen;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP/JSON-API over de services, voor o.a. de kiosken aan de standplaatsen en de apps van partners.
+ * Zie FietsenHandler, LedenHandler en RittenHandler voor de routes, en MetriekenHandler voor
+ * GET /metrics wanneer de server met Metingen gemaakt wordt.
+ *
+ * Elke aanvraag loopt op een eigen virtual thread: een aanvraag die op de databank wacht, houdt
+ * geen platform thread bezet, zodat het aantal gelijktijdige clients niet begrensd wordt door een
+ * threadpool. Het aantal gelijktijdige databankoproepen wordt enkel begrensd door de connectiepool
+ * (pool.maxGrootte), die los daarvan ingesteld wordt; aanvragen daarboven wachten op een connectie
+ * (pool.acquireTimeoutMillis).
+ */
+public class ApiServer {
+
+    // wachtrij van nieuwe TCP-verbindingen, ruim genoeg voor een piek van clients
+    private static final int BACKLOG = 1024;
+
+    static {
+        // zonder TCP_NODELAY wacht elk antwoord op de delayed ACK van de client, ~40 ms per aanvraag;
+        // moet gezet zijn voor de eerste HttpServer aangemaakt wordt
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService uitvoerder;
+
+    /**
+     * @param adres        adres en poort, poort 0 kiest een vrije poort (zie getPoort)
+     * @param fietsService service voor /fietsen
+     * @param lidService   service voor /leden
+     * @param ritService   service voor /ritten en /leden/{rijksregisternummer}/ritten
+     * @throws IOException wanneer de poort niet geopend kan worden
+     */
+    public ApiServer(InetSocketAddress adres, FietsService fietsService, LidService lidService,
+                     RitService ritService) throws IOException {
+        this(adres, fietsService, lidService, ritService, null);
+    }
+
+    /**
+     * @param metingen metingen voor GET /metrics, null voor een server zonder /metrics;
+     *                 de services worden best in GemetenFietsService enz. verpakt
+     * @throws IOException wanneer de poort niet geopend kan worden
+     */
+    public ApiServer(InetSocketAddress adres, FietsService fietsService, LidService lidService,
+                     RitService ritService, Metingen metingen) throws IOException {
+        this.server = HttpServer.create(adres, BACKLOG);
+        server.createContext("/fietsen", new FietsenHandler(fietsService));
+        server.createContext("/leden", new LedenHandler(lidService, ritService));
+        server.createContext("/ritten", new RittenHandler(ritService));
+        if (metingen != null) {
+            server.createContext("/metrics", new MetriekenHandler(metingen));
+        }
+        this.uitvoerder = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(uitvoerder);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return de poort waarop de server luistert
+     */
+    public int getPoort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stopt de server. Aanvragen die nog lopen, krijgen maximaal wachtSeconden om af te werken.
+     *
+     * @param wachtSeconden maximale wachttijd voor lopende aanvragen
+     */
+    public void stop(int wachtSeconden) {
+        server.stop(wachtSeconden);
+        uitvoerder.shutdown();
+    }
+}
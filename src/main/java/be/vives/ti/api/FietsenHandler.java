@@ -0,0 +1,96 @@
+package be.vives.ti.api;
+
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.FietsService;
+
+import java.util.Map;
+
+/**
+ * /fietsen
+ * - GET /fietsen: alle beschikbare fietsen
+ * - GET /fietsen/beschikbaar: aantal beschikbare fietsen per standplaats
+ * - GET /fietsen/{registratienummer}
+ * - POST /fietsen met standplaats en opmerking: geeft de nieuwe fiets terug
+ * - PUT /fietsen/{registratienummer}/status met status (actief, herstel of uit_omloop)
+ * - PUT /fietsen/{registratienummer}/opmerking met opmerking
+ */
+class FietsenHandler extends ApiHandler {
+
+    private final FietsService fietsService;
+
+    FietsenHandler(FietsService fietsService) {
+        this.fietsService = fietsService;
+    }
+
+    @Override
+    protected Antwoord verwerk(Aanvraag aanvraag) throws ApplicationException, DBException {
+        if (aanvraag.is("GET", 0)) {
+            return Antwoord.ok(Json.lijst(fietsService.zoekAlleBeschikbareFietsen(), Json::fiets));
+        }
+        if (aanvraag.is("GET", 1) && aanvraag.getDeel(0).equals("beschikbaar")) {
+            return Antwoord.ok(Json.getallen(fietsService.telBeschikbareFietsenPerStandplaats()));
+        }
+        if (aanvraag.is("GET", 1)) {
+            Fiets fiets = fietsService.zoekFiets(aanvraag.getGetal(0));
+            return fiets == null ? Antwoord.nietGevonden() : Antwoord.ok(Json.fiets(fiets));
+        }
+        if (aanvraag.is("POST", 0)) {
+            Map<String, String> velden = aanvraag.leesJson();
+            Fiets fiets = new Fiets();
+            fiets.setStandplaats(standplaats(velden.get("standplaats")));
+            // een nieuwe fiets is altijd actief
+            fiets.setStatus(Status.actief);
+            fiets.setOpmerking(velden.get("opmerking"));
+            Integer registratienummer = fietsService.toevoegenFiets(fiets);
+            return Antwoord.aangemaakt(Json.fiets(fietsService.zoekFiets(registratienummer)));
+        }
+        if (aanvraag.is("PUT", 2) && aanvraag.getDeel(1).equals("status")) {
+            int registratienummer = aanvraag.getGetal(0);
+            switch (status(aanvraag.leesJson().get("status"))) {
+                case actief:
+                    fietsService.wijzigenStatusNaarActief(registratienummer);
+                    break;
+                case herstel:
+                    fietsService.wijzigenStatusNaarHerstel(registratienummer);
+                    break;
+                case uit_omloop:
+                    fietsService.wijzigenStatusNaarUitOmloop(registratienummer);
+                    break;
+            }
+            return Antwoord.geenInhoud();
+        }
+        if (aanvraag.is("PUT", 2) && aanvraag.getDeel(1).equals("opmerking")) {
+            fietsService.wijzigenOpmerkingFiets(aanvraag.getGetal(0), aanvraag.leesJson().get("opmerking"));
+            return Antwoord.geenInhoud();
+        }
+        return Antwoord.nietGevonden();
+    }
+
+    private static Standplaats standplaats(String naam) throws ApplicationException {
+        if (naam == null) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_STANDPLAATS_LEEG);
+        }
+        for (Standplaats standplaats : Standplaats.values()) {
+            if (standplaats.name().equalsIgnoreCase(naam)) {
+                return standplaats;
+            }
+        }
+        throw new ApplicationException(ApplicationExceptionType.FIETS_STANDPLAATS_ONBEKEND);
+    }
+
+    private static Status status(String naam) throws ApplicationException {
+        if (naam == null) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_STATUS_LEEG);
+        }
+        try {
+            return Status.valueOf(naam.toLowerCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Onbekende status: " + naam);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package be.vives.ti.api;
+
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Leest en schrijft de JSON van de API. De aanvragen zijn platte objecten (geen geneste objecten
+ * of lijsten), dus een volledige JSON-bibliotheek is niet nodig.
+ * Tijdstippen worden geschreven zoals in RittenExport: yyyy-MM-dd'T'HH:mm:ss.
+ */
+final class Json {
+
+    private static final DateTimeFormatter TIJDSTIP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private Json() {
+    }
+
+    /**
+     * Leest een plat JSON-object.
+     *
+     * @param json tekst van het object
+     * @return de velden in volgorde, getallen en booleans als tekst, null voor null
+     * @throws IllegalArgumentException wanneer de tekst geen plat JSON-object is
+     */
+    static Map<String, String> leesObject(String json) {
+        Lezer lezer = new Lezer(json);
+        Map<String, String> velden = new LinkedHashMap<>();
+        lezer.verwacht('{');
+        if (!lezer.volgt('}')) {
+            do {
+                String naam = lezer.leesTekst();
+                lezer.verwacht(':');
+                velden.put(naam, lezer.leesWaarde());
+            } while (lezer.volgt(','));
+            lezer.verwacht('}');
+        }
+        lezer.verwachtEinde();
+        return velden;
+    }
+
+    static String tekst(String waarde) {
+        if (waarde == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(waarde.length() + 2).append('"');
+        for (int i = 0; i < waarde.length(); i++) {
+            char c = waarde.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static String fiets(Fiets fiets) {
+        return "{\"registratienummer\":" + fiets.getRegistratienummer()
+                + ",\"standplaats\":" + tekst(fiets.getStandplaats() == null ? null : fiets.getStandplaats().name())
+                + ",\"status\":" + tekst(fiets.getStatus() == null ? null : fiets.getStatus().name())
+                + ",\"opmerking\":" + tekst(fiets.getOpmerking())
+                + "}";
+    }
+
+    static String lid(Lid lid) {
+        return "{\"rijksregisternummer\":" + tekst(lid.getRijksregisternummer())
+                + ",\"naam\":" + tekst(lid.getNaam())
+                + ",\"voornaam\":" + tekst(lid.getVoornaam())
+                + ",\"emailadres\":" + tekst(lid.getEmailadres())
+                + ",\"start_lidmaatschap\":" + tekst(lid.getStart_lidmaatschap() == null ? null : lid.getStart_lidmaatschap().toString())
+                + ",\"einde_lidmaatschap\":" + tekst(lid.getEinde_lidmaatschap() == null ? null : lid.getEinde_lidmaatschap().toString())
+                + ",\"opmerking\":" + tekst(lid.getOpmerking())
+                + "}";
+    }
+
+    static String rit(Rit rit) {
+        return "{\"id\":" + rit.getId()
+                + ",\"starttijd\":" + tekst(rit.getStarttijd() == null ? null : TIJDSTIP.format(rit.getStarttijd()))
+                + ",\"eindtijd\":" + tekst(rit.getEindtijd() == null ? null : TIJDSTIP.format(rit.getEindtijd()))
+                + ",\"prijs\":" + (rit.getPrijs() == null ? "null" : rit.getPrijs().toPlainString())
+                + ",\"lid_rijksregisternummer\":" + tekst(rit.getLidRijksregisternummer())
+                + ",\"fiets_registratienummer\":" + rit.getFietsRegistratienummer()
+                + "}";
+    }
+
+    static <T> String lijst(List<T> elementen, Function<T, String> schrijver) {
+        StringBuilder sb = new StringBuilder("[");
+        for (T element : elementen) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append(schrijver.apply(element));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Schrijft een object met getallen als waarden, bv. het aantal beschikbare fietsen per standplaats.
+     */
+    static String getallen(Map<?, ? extends Number> getallen) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<?, ? extends Number> getal : getallen.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append(tekst(String.valueOf(getal.getKey()))).append(':').append(getal.getValue());
+        }
+        return sb.append('}').toString();
+    }
+
+    static String fout(String boodschap) {
+        return "{\"fout\":" + tekst(boodschap) + "}";
+    }
+
+    /**
+     * Leest een JSON-tekst teken per teken.
+     */
+    private static class Lezer {
+        private final String json;
+        private int positie;
+
+        private Lezer(String json) {
+            this.json = json == null ? "" : json;
+        }
+
+        private void slaWitruimteOver() {
+            while (positie < json.length() && Character.isWhitespace(json.charAt(positie))) {
+                positie++;
+            }
+        }
+
+        private boolean volgt(char c) {
+            slaWitruimteOver();
+            if (positie < json.length() && json.charAt(positie) == c) {
+                positie++;
+                return true;
+            }
+            return false;
+        }
+
+        private void verwacht(char c) {
+            if (!volgt(c)) {
+                throw fout("'" + c + "' verwacht");
+            }
+        }
+
+        private void verwachtEinde() {
+            slaWitruimteOver();
+            if (positie < json.length()) {
+                throw fout("einde verwacht");
+            }
+        }
+
+        private String leesWaarde() {
+            slaWitruimteOver();
+            if (positie < json.length() && json.charAt(positie) == '"') {
+                return leesTekst();
+            }
+            int begin = positie;
+            while (positie < json.length() && "-+.eE0123456789truefalsn".indexOf(json.charAt(positie)) >= 0) {
+                positie++;
+            }
+            String waarde = json.substring(begin, positie);
+            if (waarde.equals("null")) {
+                return null;
+            }
+            if (waarde.equals("true") || waarde.equals("false") || waarde.matches("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?")) {
+                return waarde;
+            }
+            throw fout("waarde verwacht");
+        }
+
+        private String leesTekst() {
+            verwacht('"');
+            StringBuilder sb = new StringBuilder();
+            while (positie < json.length()) {
+                char c = json.charAt(positie++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                } else if (positie < json.length()) {
+                    char escape = json.charAt(positie++);
+                    switch (escape) {
+                        case 'n':
+                            sb.append('\n');
+                            break;
+                        case 'r':
+                            sb.append('\r');
+                            break;
+                        case 't':
+                            sb.append('\t');
+                            break;
+                        case 'b':
+                            sb.append('\b');
+                            break;
+                        case 'f':
+                            sb.append('\f');
+                            break;
+                        case 'u':
+                            if (positie + 4 > json.length()) {
+                                throw fout("ongeldige \\u");
+                            }
+                            try {
+                                sb.append((char) Integer.parseInt(json.substring(positie, positie + 4), 16));
+                            } catch (NumberFormatException ex) {
+                                throw fout("ongeldige \\u");
+                            }
+                            positie += 4;
+                            break;
+                        default:
+                            // \" \\ en \/
+                            sb.append(escape);
+                    }
+                }
+            }
+            throw fout("'\"' verwacht");
+        }
+
+        private IllegalArgumentException fout(String reden) {
+            return new IllegalArgumentException("Ongeldige JSON op positie " + positie + ": " + reden);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package be.vives.ti.api;
+
+import be.vives.ti.databag.Lid;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+
+import java.util.Map;
+
+/**
+ * /leden
+ * - GET /leden/{rijksregisternummer}
+ * - GET /leden/{rijksregisternummer}/ritten: de actieve ritten van het lid
+ * - POST /leden met rijksregisternummer, naam, voornaam, emailadres en opmerking: schrijft het lid in
+ * - PUT /leden/{rijksregisternummer} met de velden die wijzigen (naam, voornaam, emailadres, opmerking)
+ * - DELETE /leden/{rijksregisternummer}: schrijft het lid uit
+ */
+class LedenHandler extends ApiHandler {
+
+    private final LidService lidService;
+    private final RitService ritService;
+
+    LedenHandler(LidService lidService, RitService ritService) {
+        this.lidService = lidService;
+        this.ritService = ritService;
+    }
+
+    @Override
+    protected Antwoord verwerk(Aanvraag aanvraag) throws ApplicationException, DBException {
+        if (aanvraag.is("GET", 1)) {
+            Lid lid = lidService.zoekLid(aanvraag.getDeel(0));
+            return lid == null ? Antwoord.nietGevonden() : Antwoord.ok(Json.lid(lid));
+        }
+        if (aanvraag.is("GET", 2) && aanvraag.getDeel(1).equals("ritten")) {
+            return Antwoord.ok(Json.lijst(ritService.zoekActieveRittenVanLid(aanvraag.getDeel(0)), Json::rit));
+        }
+        if (aanvraag.is("POST", 0)) {
+            Map<String, String> velden = aanvraag.leesJson();
+            String rr = velden.get("rijksregisternummer");
+            if (rr == null || rr.trim().isEmpty()) {
+                throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
+            }
+            Lid lid = new Lid();
+            lid.setRijksregisternummer(Rijksregisternummer.van(rr.trim()));
+            lid.setNaam(velden.get("naam"));
+            lid.setVoornaam(velden.get("voornaam"));
+            lid.setEmailadres(velden.get("emailadres"));
+            lid.setOpmerking(velden.get("opmerking"));
+            lidService.toevoegenLid(lid);
+            return Antwoord.aangemaakt(Json.lid(lid));
+        }
+        if (aanvraag.is("PUT", 1)) {
+            Lid gevonden = lidService.zoekLid(aanvraag.getDeel(0));
+            if (gevonden == null) {
+                return Antwoord.nietGevonden();
+            }
+            // niet het lid uit de cache aanpassen
+            Lid lid = new Lid(gevonden);
+            Map<String, String> velden = aanvraag.leesJson();
+            if (velden.containsKey("naam")) {
+                lid.setNaam(velden.get("naam"));
+            }
+            if (velden.containsKey("voornaam")) {
+                lid.setVoornaam(velden.get("voornaam"));
+            }
+            if (velden.containsKey("emailadres")) {
+                lid.setEmailadres(velden.get("emailadres"));
+            }
+            if (velden.containsKey("opmerking")) {
+                lid.setOpmerking(velden.get("opmerking"));
+            }
+            lidService.wijzigenLid(lid);
+            return Antwoord.ok(Json.lid(lid));
+        }
+        if (aanvraag.is("DELETE", 1)) {
+            lidService.uitschrijvenLid(aanvraag.getDeel(0));
+            return Antwoord.geenInhoud();
+        }
+        return Antwoord.nietGevonden();
+    }
+}
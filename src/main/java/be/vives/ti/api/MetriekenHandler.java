@@ -0,0 +1,42 @@
+package be.vives.ti.api;
+
+import be.vives.ti.metriek.Metingen;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GET /metrics: momentopname van de metingen van de services in het tekstformaat van Prometheus.
+ * Geen JSON zoals de andere routes, daarom geen ApiHandler.
+ */
+class MetriekenHandler implements HttpHandler {
+
+    private final Metingen metingen;
+
+    MetriekenHandler(Metingen metingen) {
+        this.metingen = metingen;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"/metrics".equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+            } else {
+                byte[] inhoud = metingen.alsPrometheus().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, inhoud.length);
+                try (OutputStream uit = exchange.getResponseBody()) {
+                    uit.write(inhoud);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package be.vives.ti.api;
+
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.RitService;
+
+import java.util.Map;
+
+/**
+ * /ritten
+ * - GET /ritten/{id}
+ * - POST /ritten met lid_rijksregisternummer en fiets_registratienummer: huurt de fiets,
+ *   geeft de nieuwe rit terug
+ * - POST /ritten/{id}/afsluiten: brengt de fiets terug, geeft de afgesloten rit met de prijs terug;
+ *   409 wanneer de rit al afgesloten werd
+ */
+class RittenHandler extends ApiHandler {
+
+    private final RitService ritService;
+
+    RittenHandler(RitService ritService) {
+        this.ritService = ritService;
+    }
+
+    @Override
+    protected Antwoord verwerk(Aanvraag aanvraag) throws ApplicationException, DBException {
+        if (aanvraag.is("GET", 1)) {
+            Rit rit = ritService.zoekRit(aanvraag.getGetal(0));
+            return rit == null ? Antwoord.nietGevonden() : Antwoord.ok(Json.rit(rit));
+        }
+        if (aanvraag.is("POST", 0)) {
+            Map<String, String> velden = aanvraag.leesJson();
+            String rr = velden.get("lid_rijksregisternummer");
+            if (rr == null || rr.trim().isEmpty()) {
+                throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
+            }
+            String regnr = velden.get("fiets_registratienummer");
+            if (regnr == null) {
+                throw new ApplicationException(ApplicationExceptionType.FIETS_REGISTRATIE_LEEG);
+            }
+            Rit rit = new Rit();
+            rit.setLidRijksregisternummer(Rijksregisternummer.van(rr.trim()));
+            try {
+                rit.setFietsRegistratienummer(Integer.parseInt(regnr));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Geen geldig nummer: " + regnr);
+            }
+            Integer id = ritService.toevoegenRit(rit);
+            return Antwoord.aangemaakt(Json.rit(ritService.zoekRit(id)));
+        }
+        if (aanvraag.is("POST", 2) && aanvraag.getDeel(1).equals("afsluiten")) {
+            int id = aanvraag.getGetal(0);
+            try {
+                ritService.afsluitenRit(id);
+            } catch (ApplicationException ex) {
+                if (ex.getType() == ApplicationExceptionType.RIT_AL_AFGESLOTEN) {
+                    return Antwoord.fout(409, ex.getMessage());
+                }
+                throw ex;
+            }
+            return Antwoord.ok(Json.rit(ritService.zoekRit(id)));
+        }
+        return Antwoord.nietGevonden();
+    }
+}
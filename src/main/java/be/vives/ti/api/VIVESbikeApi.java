@@ -0,0 +1,96 @@
+package be.vives.ti.api;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.connect.DBProp;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.metriek.GemetenFietsService;
+import be.vives.ti.metriek.GemetenLidService;
+import be.vives.ti.metriek.GemetenRitService;
+import be.vives.ti.metriek.Metingen;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidCache;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+import be.vives.ti.service.VlootIndex;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Start de HTTP-API zonder de JavaFX-applicatie:
+ *
+ *   java [-Dvivesbike.db.pool.maxGrootte=20] be.vives.ti.api.VIVESbikeApi [poort]
+ *
+ * - standaard op poort 8080
+ * - de services worden opgebouwd zoals in VIVESbike, met een eigen ledencache en vlootindex
+ * - de grootte van de connectiepool staat los van het aantal clients, zie ApiServer
+ * - de duur en het resultaat van elke service-oproep worden gemeten, op te vragen via GET /metrics
+ * - met -Dvivesbike.db.query.meten=true telt GET /metrics ook de (trage) databankoproepen, en komt bij het
+ *   stoppen het rapport van QueryMetingen in de log
+ */
+public class VIVESbikeApi {
+
+    private static final int STANDAARD_POORT = 8080;
+
+    // zelfde instellingen als de ledencache van VIVESbike
+    private static final int LEDEN_CACHE_GROOTTE = 1000;
+    private static final long LEDEN_CACHE_TTL_MILLIS = 5 * 60 * 1000;
+
+    public static void main(String[] args) {
+        if (args.length > 1) {
+            System.out.println("Gebruik: VIVESbikeApi [poort]");
+            System.exit(2);
+        }
+        int poort = STANDAARD_POORT;
+        if (args.length == 1) {
+            try {
+                poort = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                System.out.println("Ongeldige poort: " + args[0]);
+                System.exit(2);
+            }
+        }
+        try {
+            ConnectionManager.initialiseer();
+            FietsDAO fietsDAO = new FietsDAO();
+            LidDAO lidDAO = new LidDAO();
+            RitDAO ritDAO = new RitDAO();
+            LidCache lidCache = new LidCache(LEDEN_CACHE_GROOTTE, LEDEN_CACHE_TTL_MILLIS);
+            VlootIndex vlootIndex = new VlootIndex();
+            vlootIndex.laad(fietsDAO, ritDAO);
+            FietsService fietsService = new FietsService(fietsDAO, vlootIndex);
+            RitService ritService = new RitService(ritDAO, fietsService, lidDAO, lidCache, vlootIndex);
+            LidService lidService = new LidService(lidDAO, ritService, lidCache);
+
+            Metingen metingen = new Metingen();
+            metingen.voegCacheTellersToe(lidCache);
+            if (ConnectionManager.getQueryMetingen() != null) {
+                metingen.voegQueryTellersToe(ConnectionManager.getQueryMetingen());
+            }
+            ApiServer server = new ApiServer(new InetSocketAddress(poort),
+                    new GemetenFietsService(fietsService, metingen), new GemetenLidService(lidService, metingen),
+                    new GemetenRitService(ritService, metingen), metingen);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(2);
+                if (ConnectionManager.getQueryMetingen() != null) {
+                    System.out.println(ConnectionManager.getQueryMetingen().rapport());
+                }
+                ConnectionManager.sluitPool();
+            }));
+            server.start();
+            System.out.println("API luistert op poort " + server.getPoort()
+                    + " (connectiepool maximaal " + DBProp.getPoolMaxGrootte() + ")");
+        } catch (IOException e) {
+            System.out.println("FOUT bij openen van poort " + poort + ": " + e.getMessage());
+            ConnectionManager.sluitPool();
+            System.exit(1);
+        } catch (DBException e) {
+            System.out.println("SYSTEEMFOUT bij openen databank: " + e.getMessage());
+            ConnectionManager.sluitPool();
+            System.exit(1);
+        }
+    }
+}
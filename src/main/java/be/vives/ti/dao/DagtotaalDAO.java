@@ -0,0 +1,177 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.RitTotaal;
+import be.vives.ti.datatype.Groepering;
+import be.vives.ti.exception.DBException;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bevat alle functionaliteit op de tabel rit_dagtotaal: per dag (van de starttijd), fiets en
+ * standplaats het aantal afgesloten ritten, hun totale duur en de omzet.
+ * - bijwerken bij het afsluiten van een rit (RitDAO.afsluitenRit, in dezelfde transactie)
+ * - herbouwen van een periode uit de ritten, bv. na een import of een correctie in de databank
+ * - totaliseren per dag, maand, fiets of standplaats
+ *
+ * Ritten die nog niet afgesloten zijn, tellen niet mee.
+ */
+public class DagtotaalDAO {
+
+    /**
+     * Telt een afgesloten rit op bij zijn dagtotaal. Doet niets wanneer de rit niet afgesloten is.
+     * De rit telt bij de standplaats die bij het afsluiten op de rit bewaard werd, of bij die
+     * van de fiets voor ritten zonder standplaats.
+     * @param conn connectie waarop de transactie van het afsluiten loopt
+     * @param ritId id van de rit
+     */
+    static void telOp(Connection conn, int ritId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into rit_dagtotaal (dag, fiets_registratienummer, standplaats"
+                        + " , aantal_ritten, totaal_seconden, omzet)"
+                        + " select cast(r.starttijd as date)"
+                        + " , r.fiets_registratienummer"
+                        + " , coalesce(r.standplaats, f.standplaats)"
+                        + " , 1"
+                        + " , timestampdiff(second, r.starttijd, r.eindtijd)"
+                        + " , coalesce(r.prijs, 0)"
+                        + " from rit r"
+                        + " join fiets f on f.registratienummer = r.fiets_registratienummer"
+                        + " where r.id = ?"
+                        + " and r.eindtijd is not null"
+                        + " on duplicate key update"
+                        + " aantal_ritten = aantal_ritten + values(aantal_ritten)"
+                        + " , totaal_seconden = totaal_seconden + values(totaal_seconden)"
+                        + " , omzet = omzet + values(omzet)")) {
+            stmt.setInt(1, ritId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Berekent de dagtotalen van een periode opnieuw uit de afgesloten ritten, in een transactie.
+     * @param van eerste dag (inclusief), null voor alle dagen tot tot
+     * @param tot dag na de periode (exclusief), null voor alle dagen vanaf van
+     * @return aantal dagtotalen in de periode
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public int herbouw(LocalDate van, LocalDate tot) throws DBException {
+        String periode = (van == null ? "" : " and %1$s >= ?") + (tot == null ? "" : " and %1$s < ?");
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement verwijder = conn.prepareStatement(
+                    "delete from rit_dagtotaal"
+                            + " where 1 = 1"
+                            + String.format(periode, "dag"));
+                 PreparedStatement bereken = conn.prepareStatement(
+                         "insert into rit_dagtotaal (dag, fiets_registratienummer, standplaats"
+                                 + " , aantal_ritten, totaal_seconden, omzet)"
+                                 + " select cast(r.starttijd as date)"
+                                 + " , r.fiets_registratienummer"
+                                 + " , coalesce(r.standplaats, f.standplaats)"
+                                 + " , count(*)"
+                                 + " , sum(timestampdiff(second, r.starttijd, r.eindtijd))"
+                                 + " , coalesce(sum(r.prijs), 0)"
+                                 + " from rit r"
+                                 + " join fiets f on f.registratienummer = r.fiets_registratienummer"
+                                 + " where r.eindtijd is not null"
+                                 + String.format(periode, "r.starttijd")
+                                 + " group by cast(r.starttijd as date), r.fiets_registratienummer"
+                                 + " , coalesce(r.standplaats, f.standplaats)")) {
+                zetPeriode(verwijder, van, tot);
+                verwijder.executeUpdate();
+                zetPeriode(bereken, van, tot);
+                int aantal = bereken.executeUpdate();
+                conn.commit();
+                return aantal;
+            } catch (SQLException sqlEx) {
+                conn.rollback();
+                throw new DBException("SQL-exception in herbouw - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in herbouw - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Totaliseert de dagtotalen van een periode per groep, zie RitDAO.totaliseerRitten.
+     * Per lid wordt niet bijgehouden, daarvoor blijft RitDAO.totaliseerRitten nodig.
+     * @param groepering DAG, MAAND, FIETS of STANDPLAATS
+     * @param van eerste dag (inclusief), null voor alle dagen tot tot
+     * @param tot dag na de periode (exclusief), null voor alle dagen vanaf van
+     * @return een RitTotaal per groep met afgesloten ritten, gesorteerd op groep
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public List<RitTotaal> totaliseer(Groepering groepering, LocalDate van, LocalDate tot) throws DBException {
+        String groep;
+        switch (groepering) {
+            case DAG:
+                groep = "extract(year from dag) * 10000 + extract(month from dag) * 100 + extract(day from dag)";
+                break;
+            case MAAND:
+                groep = "extract(year from dag) * 100 + extract(month from dag)";
+                break;
+            case FIETS:
+                groep = "fiets_registratienummer";
+                break;
+            case STANDPLAATS:
+                groep = "standplaats";
+                break;
+            default:
+                throw new IllegalArgumentException("Dagtotalen worden niet per " + groepering + " bijgehouden");
+        }
+        try (Connection conn = ConnectionManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select " + groep + " as groep"
+                            + " , sum(aantal_ritten) as aantal"
+                            + " , sum(totaal_seconden) as seconden"
+                            + " , sum(omzet) as omzet"
+                            + " from rit_dagtotaal"
+                            + " where aantal_ritten > 0"
+                            + (van == null ? "" : " and dag >= ?")
+                            + (tot == null ? "" : " and dag < ?")
+                            + " group by " + groep
+                            + " order by groep")) {
+                zetPeriode(stmt, van, tot);
+                List<RitTotaal> totalen = new ArrayList<>();
+                try (ResultSet r = stmt.executeQuery()) {
+                    while (r.next()) {
+                        long aantal = r.getLong("aantal");
+                        BigDecimal omzet = r.getBigDecimal("omzet");
+                        totalen.add(new RitTotaal(
+                                RitDAO.formatteerGroep(groepering, r.getString("groep")),
+                                aantal,
+                                omzet,
+                                Duration.ofSeconds(Math.round((double) r.getLong("seconden") / aantal))));
+                    }
+                }
+                return totalen;
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in totaliseer - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in totaliseer - connection" + sqlEx);
+        }
+    }
+
+    private static void zetPeriode(PreparedStatement stmt, LocalDate van, LocalDate tot) throws SQLException {
+        int index = 1;
+        if (van != null) {
+            stmt.setDate(index++, Date.valueOf(van));
+        }
+        if (tot != null) {
+            stmt.setDate(index, Date.valueOf(tot));
+        }
+    }
+}
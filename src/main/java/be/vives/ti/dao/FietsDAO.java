@@ -1,6 +1,7 @@
 package be.vives.ti.dao;
 
 import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.connect.DBProp;
 import be.vives.ti.databag.Fiets;
 import be.vives.ti.datatype.Standplaats;
 import be.vives.ti.datatype.Status;
@@ -8,19 +9,30 @@ import be.vives.ti.exception.DBException;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class FietsDAO {
 
+    // aantal rijen per executeBatch bij toevoegenFietsen en wijzigenToestandFietsen
+    static final int BATCH_GROOTTE = 500;
 
     /**
      * Bevat alle functionaliteit op de DAO-tabel Fiets.
      * - toevoegen van een fiets
+     * - toevoegen van een reeks fietsen in een transactie
      * - wijzigen van de opmerking van een fiets
      * - wijzigen van de toestand waarin de fiets zich bevind
+     * - wijzigen van de toestand van een reeks fietsen in een transactie
      * - zoeken van een fiets in de database
      * - zoeken van een lijst van alle fietsen
+     * - zoeken van een pagina fietsen
+     * - overlopen van alle fietsen als Stream
      * - zoeken van alle beschikbare fietsen
+     * - controleren of een fiets beschikbaar is
+     * - tellen van de beschikbare fietsen per standplaats
      * - een fiets uit de database halen.
      * - een lijst van fietsen uit de database halen.
      */
@@ -38,7 +50,7 @@ public class FietsDAO {
             try (Connection conn = ConnectionManager.getConnection()) {
                 //PreparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "insert into Fiets(status, standplaats, opmerkingen) values (?,?,?)",
+                        "insert into fiets(status, standplaats, opmerkingen) values (?,?,?)",
                         Statement.RETURN_GENERATED_KEYS)) {
                     stmt.setObject(1, Status.actief.toString());
                     stmt.setObject(2, fiets.getStandplaats().toString());
@@ -63,6 +75,105 @@ public class FietsDAO {
         }
     }
 
+    /**
+     * Voegt een reeks fietsen in een transactie toe, in batches van BATCH_GROOTTE rijen.
+     * Net als bij toevoegenFiets krijgt elke fiets de status ACTIEF.
+     * @param fietsen de fietsen die toegevoegd moeten worden
+     * @return gegenereerde registratienummers, in dezelfde volgorde als fietsen
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     *                     Er werd dan geen enkele fiets toegevoegd.
+     */
+    public List<Integer> toevoegenFietsen(List<Fiets> fietsen) throws DBException {
+        List<Integer> registratienummers = new ArrayList<>(fietsen.size());
+        if (fietsen.isEmpty()) {
+            return registratienummers;
+        }
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            // kolomnaam i.p.v. RETURN_GENERATED_KEYS: dit statement komt niet in de statement cache,
+            // zodat toevoegenFiets nooit een statement krijgt waarop nog gegenereerde sleutels van een batch hangen
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "insert into fiets(status, standplaats, opmerkingen) values (?,?,?)",
+                    new String[]{"registratienummer"})) {
+                for (int i = 0; i < fietsen.size(); i++) {
+                    Fiets fiets = fietsen.get(i);
+                    stmt.setObject(1, Status.actief.toString());
+                    stmt.setObject(2, fiets.getStandplaats().toString());
+                    stmt.setString(3, fiets.getOpmerking());
+                    stmt.addBatch();
+                    if ((i + 1) % BATCH_GROOTTE == 0 || i == fietsen.size() - 1) {
+                        stmt.executeBatch();
+                        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                            while (generatedKeys.next()) {
+                                registratienummers.add(generatedKeys.getInt(1));
+                            }
+                        }
+                    }
+                }
+                if (registratienummers.size() != fietsen.size()) {
+                    throw new SQLException("Aantal gegenereerde registratienummers (" + registratienummers.size()
+                            + ") verschilt van het aantal fietsen (" + fietsen.size() + ")");
+                }
+                conn.commit();
+                return registratienummers;
+            } catch (SQLException sqlEx) {
+                conn.rollback();
+                throw new DBException("SQL-exception in toevoegenFietsen - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in toevoegenFietsen - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Wijzigt de status van een reeks fietsen in een transactie, in batches van BATCH_GROOTTE rijen.
+     * @param regnrs registratienummers van de fietsen
+     * @param status nieuwe status voor de fietsen
+     * @return registratienummers die niet bestaan; is die lijst niet leeg, dan werd er niets gewijzigd
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public List<Integer> wijzigenToestandFietsen(Collection<Integer> regnrs, Status status) throws DBException {
+        List<Integer> onbekend = new ArrayList<>();
+        if (regnrs.isEmpty()) {
+            return onbekend;
+        }
+        List<Integer> lijst = new ArrayList<>(regnrs);
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "update fiets"
+                            + " set status = ?"
+                            + " where registratienummer = ?")) {
+                int start = 0;
+                for (int i = 0; i < lijst.size(); i++) {
+                    stmt.setObject(1, status.toString());
+                    stmt.setInt(2, lijst.get(i));
+                    stmt.addBatch();
+                    if ((i + 1) % BATCH_GROOTTE == 0 || i == lijst.size() - 1) {
+                        int[] aantallen = stmt.executeBatch();
+                        for (int j = 0; j < aantallen.length; j++) {
+                            if (aantallen[j] == 0) {
+                                onbekend.add(lijst.get(start + j));
+                            }
+                        }
+                        start = i + 1;
+                    }
+                }
+                if (onbekend.isEmpty()) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+                return onbekend;
+            } catch (SQLException sqlEx) {
+                conn.rollback();
+                throw new DBException("SQL-exception in wijzigenToestandFietsen - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in wijzigenToestandFietsen - connection" + sqlEx);
+        }
+    }
+
     /**
      * Wijzigt de opmerking van een fiets.
      * @param regnr registratienummer van fiets waarvan opmerking gewijzigd moet worden.
@@ -205,6 +316,7 @@ public class FietsDAO {
 
     /**
      * Geeft een lijst terug van alle fietsen met de status ACTIEF en die momenteel geen openstaande rit hebben.
+     * Elke fiets komt maximaal een keer voor, hoeveel afgesloten ritten ze ook heeft.
      *
      * @return een lijst van alle beschikbare fietsen.
      * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
@@ -218,9 +330,13 @@ public class FietsDAO {
                             + " , status"
                             + " , standplaats"
                             + " , opmerkingen"
-                            + " from fiets f "
-                            + " LEFT JOIN rit r on f.registratienummer = r.fiets_registratienummer"
-                            + " where f.status = 'actief' AND r.eindtijd > r.starttijd or (r.starttijd is null and r.eindtijd is null)"
+                            + " from fiets f"
+                            + " where f.status = 'actief'"
+                            // anti-join op de openstaande ritten: afgesloten ritten worden
+                            // nooit gelezen (index ix_rit_fiets_eindtijd)
+                            + " and not exists (select 1 from rit r"
+                            + "                  where r.fiets_registratienummer = f.registratienummer"
+                            + "                    and r.eindtijd is null)"
                             + " order by registratienummer")) {
                 stmt.execute();
                 // result opvragen (en automatisch sluiten)
@@ -230,17 +346,153 @@ public class FietsDAO {
                     return getFietsenUitDatabase(r);
                 } catch (SQLException sqlEx) {
                     throw new DBException(
-                            "SQL-exception in zoekAlleFietsen - resultset" + sqlEx);
+                            "SQL-exception in zoekAlleBeschikbareFietsen - resultset" + sqlEx);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekAlleBeschikbareFietsen - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekAlleBeschikbareFietsen - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Telt per standplaats de fietsen met de status ACTIEF die geen openstaande rit hebben.
+     *
+     * @return aantal beschikbare fietsen per standplaats, 0 voor standplaatsen zonder beschikbare fiets
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public EnumMap<Standplaats, Integer> telBeschikbareFietsenPerStandplaats() throws DBException {
+        try (Connection conn = ConnectionManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select standplaats"
+                            + " , count(*) as aantal"
+                            + " from fiets f"
+                            + " where f.status = 'actief'"
+                            + " and not exists (select 1 from rit r"
+                            + "                  where r.fiets_registratienummer = f.registratienummer"
+                            + "                    and r.eindtijd is null)"
+                            + " group by standplaats")) {
+                EnumMap<Standplaats, Integer> aantallen = new EnumMap<>(Standplaats.class);
+                for (Standplaats standplaats : Standplaats.values()) {
+                    aantallen.put(standplaats, 0);
+                }
+                try (ResultSet r = stmt.executeQuery()) {
+                    while (r.next()) {
+                        aantallen.put(Standplaats.valueOf(r.getString("standplaats")), r.getInt("aantal"));
+                    }
+                }
+                return aantallen;
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in telBeschikbareFietsenPerStandplaats - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in telBeschikbareFietsenPerStandplaats - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Controleert of een fiets actief is en geen openstaande rit heeft.
+     *
+     * @param regnr registratienummer van de fiets
+     * @return true wanneer de fiets bestaat en verhuurd kan worden
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public boolean isBeschikbaar(int regnr) throws DBException {
+        try (Connection conn = ConnectionManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select 1"
+                            + " from fiets f"
+                            + " where f.registratienummer = ?"
+                            + " and f.status = 'actief'"
+                            + " and not exists (select 1 from rit r"
+                            + "                  where r.fiets_registratienummer = f.registratienummer"
+                            + "                    and r.eindtijd is null)")) {
+                stmt.setInt(1, regnr);
+                try (ResultSet r = stmt.executeQuery()) {
+                    return r.next();
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in isBeschikbaar - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in isBeschikbaar - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Zoekt een pagina fietsen, gesorteerd op registratienummer.
+     *
+     * @param naRegistratienummer registratienummer van de laatste fiets van de vorige pagina,
+     *                            null voor de eerste pagina
+     * @param aantal maximaal aantal fietsen op de pagina
+     * @return lijst van maximaal aantal fietsen met een registratienummer groter dan naRegistratienummer
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public List<Fiets> zoekFietsenNa(Integer naRegistratienummer, int aantal) throws DBException {
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection()) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select registratienummer"
+                            + " , status"
+                            + " , standplaats"
+                            + " , opmerkingen"
+                            + " from fiets"
+                            + " where registratienummer > ?"
+                            + " order by registratienummer"
+                            + " limit ?")) {
+                stmt.setInt(1, naRegistratienummer == null ? 0 : naRegistratienummer);
+                stmt.setInt(2, aantal);
+                stmt.execute();
+                try (ResultSet r = stmt.getResultSet()) {
+                    return getFietsenUitDatabase(r);
+                } catch (SQLException sqlEx) {
+                    throw new DBException(
+                            "SQL-exception in zoekFietsenNa - resultset " + sqlEx);
                 }
             } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in zoekAlleFietsen - statement" + sqlEx);
+                throw new DBException("SQL-exception in zoekFietsenNa - statement " + sqlEx);
             }
         } catch (SQLException sqlEx) {
             throw new DBException(
-                    "SQL-exception in zoekAlleFietsen - connection" + sqlEx);
+                    "SQL-exception in zoekFietsenNa - connection " + sqlEx);
         }
     }
 
+    /**
+     * Overloopt alle fietsen zonder ze allemaal tegelijk in het geheugen te laden.
+     * De Stream houdt een connectie bezet en moet gesloten worden.
+     *
+     * @return Stream van alle fietsen, gesorteerd op registratienummer
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     * Fouten tijdens het overlopen worden als UncheckedDBException gegooid.
+     */
+    public Stream<Fiets> streamAlleFietsen() throws DBException {
+        return streamAlleFietsen(DBProp.getStreamFetchGrootte());
+    }
+
+    /**
+     * Overloopt alle fietsen, zie streamAlleFietsen().
+     *
+     * @param fetchGrootte aantal fietsen dat per keer van de databank gehaald wordt
+     * @return Stream van alle fietsen, gesorteerd op registratienummer
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public Stream<Fiets> streamAlleFietsen(int fetchGrootte) throws DBException {
+        return ResultSetStream.open("streamAlleFietsen",
+                "select registratienummer"
+                        + " , status"
+                        + " , standplaats"
+                        + " , opmerkingen"
+                        + " from fiets"
+                        + " order by registratienummer",
+                this::getFietsUitDatabase, fetchGrootte);
+    }
+
     private Fiets getFietsUitDatabase(ResultSet r) throws SQLException {
         Fiets fiets = new Fiets();
         fiets.setRegistratienummer(r.getInt("registratienummer"));
@@ -2,6 +2,7 @@ package be.vives.ti.dao;
 
 
 import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.connect.DBProp;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.exception.ApplicationException;
@@ -10,21 +11,35 @@ import be.vives.ti.exception.DBException;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Bevat alle functionaliteit op de DAO-tabel Lid.
  * - toevoegen van een lid
+ * - toevoegen van een reeks leden in een transactie
+ * - zoeken welke rijksregisternummers al een lid zijn
  * - wijzigen van een lid
  * - uitschrijven van een lid
  * - zoeken van een lid uit de database
  * - zoeken van een lijst van alle leden
+ * - zoeken van een pagina leden
+ * - overlopen van alle leden als Stream
  * - een lid uit de database halen.
  * - een lijst van leden uit de database halen.
  */
 
 public class LidDAO {
 
+    // aantal rijksregisternummers per query in zoekBestaandeRijksregisternummers; kortere lijsten
+    // worden aangevuld zodat er maar een statement in de statement cache komt
+    public static final int IN_GROOTTE = 500;
+    // aantal rijen per executeBatch in toevoegenLeden
+    static final int BATCH_GROOTTE = 500;
+
     /**
      * Voegt een lid toe. Het id is het rijksregisternummer van het lid.
      * @param lid het lid dat toegevoegd moet worden.
@@ -37,7 +52,7 @@ public class LidDAO {
             try (Connection conn = ConnectionManager.getConnection()) {
                 //PreparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "insert into Lid(rijksregisternummer"
+                        "insert into lid(rijksregisternummer"
                                 + " , voornaam"
                                 + " , naam"
                                 + " , emailadres"
@@ -75,6 +90,95 @@ public class LidDAO {
         }
     }
 
+    /**
+     * Voegt een reeks leden in een transactie toe, in batches van BATCH_GROOTTE rijen.
+     * @param leden de leden die toegevoegd moeten worden.
+     * @return aantal toegevoegde leden
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     *                     Er werd dan geen enkel lid toegevoegd.
+     */
+    public int toevoegenLeden(List<Lid> leden) throws DBException {
+        if (leden.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "insert into lid(rijksregisternummer"
+                            + " , voornaam"
+                            + " , naam"
+                            + " , emailadres"
+                            + " , start_lidmaatschap"
+                            + " , einde_lidmaatschap"
+                            + " , opmerking"
+                            + " ) values(?,?,?,?,?,?,?)")) {
+                for (int i = 0; i < leden.size(); i++) {
+                    Lid lid = leden.get(i);
+                    stmt.setString(1, lid.getRijksregisternummer());
+                    stmt.setString(2, lid.getVoornaam());
+                    stmt.setString(3, lid.getNaam());
+                    stmt.setString(4, lid.getEmailadres());
+                    stmt.setDate(5, Date.valueOf(lid.getStart_lidmaatschap()));
+                    stmt.setObject(6, lid.getEinde_lidmaatschap(), Types.DATE);
+                    stmt.setString(7, lid.getOpmerking());
+                    stmt.addBatch();
+                    if ((i + 1) % BATCH_GROOTTE == 0 || i == leden.size() - 1) {
+                        stmt.executeBatch();
+                    }
+                }
+                conn.commit();
+                return leden.size();
+            } catch (SQLException sqlEx) {
+                conn.rollback();
+                throw new DBException("SQL-exception in toevoegenLeden - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in toevoegenLeden - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Zoekt welke van de opgegeven rijksregisternummers al een lid zijn, met een query per
+     * IN_GROOTTE nummers.
+     * @param rijksregisternummers te controleren rijksregisternummers
+     * @return de rijksregisternummers die al in de tabel lid staan
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public Set<String> zoekBestaandeRijksregisternummers(Collection<String> rijksregisternummers) throws DBException {
+        Set<String> bestaand = new HashSet<>();
+        if (rijksregisternummers.isEmpty()) {
+            return bestaand;
+        }
+        StringBuilder sql = new StringBuilder("select rijksregisternummer from lid where rijksregisternummer in (?");
+        for (int i = 1; i < IN_GROOTTE; i++) {
+            sql.append(",?");
+        }
+        sql.append(")");
+        List<String> lijst = new ArrayList<>(rijksregisternummers);
+        try (Connection conn = ConnectionManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int start = 0; start < lijst.size(); start += IN_GROOTTE) {
+                    for (int i = 0; i < IN_GROOTTE; i++) {
+                        // ontbrekende plaatsen aanvullen met het eerste nummer van het deel
+                        int index = start + i < lijst.size() ? start + i : start;
+                        stmt.setString(i + 1, lijst.get(index));
+                    }
+                    try (ResultSet r = stmt.executeQuery()) {
+                        while (r.next()) {
+                            bestaand.add(r.getString("rijksregisternummer"));
+                        }
+                    }
+                }
+                return bestaand;
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekBestaandeRijksregisternummers - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekBestaandeRijksregisternummers - connection" + sqlEx);
+        }
+    }
+
     /**
      * Maakt het wijzigen van het lid mogelijk.
      * @param lid het lid dat gewijzigd moet worden.
@@ -87,7 +191,7 @@ public class LidDAO {
             try (Connection conn = ConnectionManager.getConnection()) {
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.
-                        prepareStatement("update Lid "
+                        prepareStatement("update lid "
                                 + " set voornaam =?"
                                 + "   , naam = ?"
                                 + "   , emailadres = ?"
@@ -125,7 +229,7 @@ public class LidDAO {
             try (Connection conn = ConnectionManager.getConnection()) {
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "update Lid"
+                        "update lid"
                                 + " set einde_lidmaatschap = ?"
                                 + " where rijksregisternummer = ?")) {
 
@@ -165,7 +269,7 @@ public class LidDAO {
                                 + " , start_lidmaatschap"
                                 + " , einde_lidmaatschap"
                                 + " , opmerking "
-                                + " from Lid "
+                                + " from lid "
                                 + " where rijksregisternummer = ?")) {
 
                     // parameters invullen in query
@@ -217,7 +321,7 @@ public class LidDAO {
                             + " , start_lidmaatschap"
                             + " , einde_lidmaatschap"
                             + " , opmerking "
-                            + " from Lid "
+                            + " from lid "
                             + " order by naam"
                             + "        , voornaam")) {
                 stmt.execute();
@@ -239,7 +343,81 @@ public class LidDAO {
         }
     }
 
-    private ArrayList<Lid> getLedenUitDatabase(ResultSet r) throws SQLException {
+    /**
+     * Ophalen van een pagina leden, gesorteerd op rijksregisternummer (de primary key).
+     * @param naRijksregisternummer rijksregisternummer van het laatste lid van de vorige pagina,
+     *                              null voor de eerste pagina
+     * @param aantal maximaal aantal leden op de pagina
+     * @return lijst van maximaal aantal leden met een rijksregisternummer na naRijksregisternummer
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public List<Lid> zoekLedenNa(String naRijksregisternummer, int aantal) throws DBException {
+        try (Connection conn = ConnectionManager.getConnection()) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select rijksregisternummer"
+                            + " , voornaam"
+                            + " , naam"
+                            + " , emailadres"
+                            + " , start_lidmaatschap"
+                            + " , einde_lidmaatschap"
+                            + " , opmerking "
+                            + " from lid "
+                            + " where rijksregisternummer > ?"
+                            + " order by rijksregisternummer"
+                            + " limit ?")) {
+                stmt.setString(1, naRijksregisternummer == null ? "" : naRijksregisternummer);
+                stmt.setInt(2, aantal);
+                stmt.execute();
+                // result opvragen (en automatisch sluiten)
+                try (ResultSet r = stmt.getResultSet()) {
+                    return getLedenUitDatabase(r);
+                } catch (SQLException sqlEx) {
+                    throw new DBException(
+                            "SQL-exception in zoekLedenNa - resultset" + sqlEx);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekLedenNa - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekLedenNa - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Overloopt alle leden zonder ze allemaal tegelijk in het geheugen te laden.
+     * De Stream houdt een connectie bezet en moet gesloten worden.
+     * @return Stream van alle leden, gesorteerd op naam en voornaam
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     * Fouten tijdens het overlopen worden als UncheckedDBException gegooid.
+     */
+    public Stream<Lid> streamAlleLeden() throws DBException {
+        return streamAlleLeden(DBProp.getStreamFetchGrootte());
+    }
+
+    /**
+     * Overloopt alle leden, zie streamAlleLeden().
+     * @param fetchGrootte aantal leden dat per keer van de databank gehaald wordt
+     * @return Stream van alle leden, gesorteerd op naam en voornaam
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public Stream<Lid> streamAlleLeden(int fetchGrootte) throws DBException {
+        return ResultSetStream.open("streamAlleLeden",
+                "select rijksregisternummer"
+                        + " , voornaam"
+                        + " , naam"
+                        + " , emailadres"
+                        + " , start_lidmaatschap"
+                        + " , einde_lidmaatschap"
+                        + " , opmerking "
+                        + " from lid "
+                        + " order by naam"
+                        + "        , voornaam",
+                this::getLidUitDatabase, fetchGrootte);
+    }
+
+    private ArrayList<Lid> getLedenUitDatabase(ResultSet r) throws SQLException, DBException {
         ArrayList<Lid> Leden = new ArrayList<>();
         while (r.next()) {
             Lid lid = getLidUitDatabase(r);
@@ -248,13 +426,13 @@ public class LidDAO {
         return Leden;
     }
 
-    private Lid getLidUitDatabase(ResultSet r) throws SQLException {
+    private Lid getLidUitDatabase(ResultSet r) throws SQLException, DBException {
         Lid lid = new Lid();
         try{
-            Rijksregisternummer rijksregisternummer = new Rijksregisternummer(r.getString("rijksregisternummer"));
+            Rijksregisternummer rijksregisternummer = Rijksregisternummer.van(r.getString("rijksregisternummer"));
             lid.setRijksregisternummer(rijksregisternummer);
         }catch(ApplicationException ex){
-            System.out.println(ex);
+            throw new DBException("SQL-exception in getLidUitDatabase - " + ex);
         }
         lid.setVoornaam(r.getString("voornaam"));
         lid.setNaam(r.getString("naam"));
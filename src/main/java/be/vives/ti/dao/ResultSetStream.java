@@ -0,0 +1,123 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.exception.UncheckedDBException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Zet een query om in een Stream die rij per rij uit een forward-only, read-only
+ * ResultSet gelezen wordt. De connectie blijft uitgeleend tot de Stream gesloten
+ * wordt, gebruik de Stream dus altijd in een try-with-resources.
+ */
+class ResultSetStream {
+
+    /**
+     * Maakt een object van de huidige rij van de ResultSet.
+     */
+    interface RijLezer<T> {
+        T lees(ResultSet r) throws SQLException, DBException;
+    }
+
+    /**
+     * Vult de parameters van de query in.
+     */
+    interface Parameters {
+        void zet(PreparedStatement stmt) throws SQLException;
+    }
+
+    private ResultSetStream() {
+    }
+
+    /**
+     * @param bron         naam van de DAO-methode, voor de foutboodschappen
+     * @param sql          de query
+     * @param lezer        maakt een object van een rij
+     * @param fetchGrootte aantal rijen dat per keer van de databank gehaald wordt
+     * @return lazy Stream over het resultaat, moet gesloten worden
+     * @throws DBException wanneer de query niet uitgevoerd kon worden
+     */
+    static <T> Stream<T> open(String bron, String sql, RijLezer<T> lezer, int fetchGrootte)
+            throws DBException {
+        return open(bron, sql, stmt -> { }, lezer, fetchGrootte);
+    }
+
+    /**
+     * @param bron         naam van de DAO-methode, voor de foutboodschappen
+     * @param sql          de query
+     * @param parameters   vult de parameters van de query in
+     * @param lezer        maakt een object van een rij
+     * @param fetchGrootte aantal rijen dat per keer van de databank gehaald wordt
+     * @return lazy Stream over het resultaat, moet gesloten worden
+     * @throws DBException wanneer de query niet uitgevoerd kon worden
+     */
+    static <T> Stream<T> open(String bron, String sql, Parameters parameters, RijLezer<T> lezer, int fetchGrootte)
+            throws DBException {
+        Connection conn = ConnectionManager.getConnection();
+        PreparedStatement stmt = null;
+        ResultSet r = null;
+        try {
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchGrootte);
+            parameters.zet(stmt);
+            r = stmt.executeQuery();
+        } catch (SQLException sqlEx) {
+            sluit(r, stmt, conn);
+            throw new DBException("SQL-exception in " + bron + " - statement " + sqlEx);
+        }
+
+        ResultSet resultaat = r;
+        PreparedStatement statement = stmt;
+        Spliterator<T> rijen = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> actie) {
+                try {
+                    if (!resultaat.next()) {
+                        return false;
+                    }
+                    actie.accept(lezer.lees(resultaat));
+                    return true;
+                } catch (SQLException sqlEx) {
+                    throw new UncheckedDBException(
+                            new DBException("SQL-exception in " + bron + " - resultset " + sqlEx));
+                } catch (DBException dbEx) {
+                    throw new UncheckedDBException(dbEx);
+                }
+            }
+        };
+        return StreamSupport.stream(rijen, false)
+                .onClose(() -> sluit(resultaat, statement, conn));
+    }
+
+    private static void sluit(ResultSet r, PreparedStatement stmt, Connection conn) {
+        try {
+            if (r != null) {
+                r.close();
+            }
+        } catch (SQLException sqlEx) {
+            // resultset was al gesloten
+        }
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException sqlEx) {
+            // statement was al gesloten
+        }
+        try {
+            conn.close();
+        } catch (SQLException sqlEx) {
+            // connectie was al teruggegeven
+        }
+    }
+}
@@ -1,30 +1,57 @@
 package be.vives.ti.dao;
 
 import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.connect.DBProp;
 import be.vives.ti.databag.Rit;
+import be.vives.ti.databag.RitTotaal;
+import be.vives.ti.datatype.Groepering;
 import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Status;
 import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Bevat alle functionaliteit op de DAO-tabel Rit.
  * - toevoegen van een rit
+ * - verhuren van een fiets (controle en toevoegen van de rit in een transactie)
  * - afsluiten van een rit
  * - zoeken van een rit in de database
  * - zoeken van een lijst van alle actieve ritten van een lid
  * - zoeken van een lijst van alle actieve ritten van een fiets
+ * - zoeken van alle actieve ritten
+ * - zoeken van een pagina ritten, de nieuwste eerst
+ * - overlopen van alle ritten als Stream
+ * - overlopen van de ritten die in een periode gestart zijn als Stream
+ * - totaliseren van de ritten per dag, maand, fiets, lid of standplaats
  * - een rit uit de database halen.
  * - een lijst van ritten uit de database halen.
  */
 
 public class RitDAO {
 
+    // vervangt ritten.controle uit DB.properties, null om de instelling te volgen
+    private final String rittenControle;
+
+    public RitDAO() {
+        this(null);
+    }
+
+    /**
+     * @param rittenControle "vergrendeling" of "databank", zie huurFiets
+     */
+    RitDAO(String rittenControle) {
+        this.rittenControle = rittenControle;
+    }
+
     /**
      * Voegt een rit toe. Het id is het id van de rit.
      * @param rit de rit dat toegevoegd moet worden.
@@ -62,34 +89,182 @@ public class RitDAO {
     }
 
     /**
-     * beindigd de rit. returned null indien rit null is
+     * Verhuurt een fiets: controleert of de fiets bestaat, niet verhuurd is en actief is,
+     * en of het lid bestaat en nog geen fiets huurt, en voegt daarna de rit toe.
+     * Hoe gelijktijdige verhuringen bewaakt worden, hangt af van ritten.controle in DB.properties:
+     * - vergrendeling: de rijen van de fiets en het lid worden in een transactie vergrendeld tot de rit
+     *   is toegevoegd, zodat twee balies dezelfde fiets of hetzelfde lid niet tegelijk kunnen verhuren.
+     * - databank: er wordt niets vergrendeld, de unieke indexen op de actieve ritten weigeren een tweede
+     *   actieve rit en die schending wordt vertaald naar de overeenkomstige ApplicationExceptionType.
+     * @param rit de rit die toegevoegd moet worden.
+     * @return ritID wanneer het toevoegen van de rit gelukt is, null indien geen rit werd opgegeven.
+     * @throws ApplicationException met als type de reden waarom de fiets niet verhuurd kan worden.
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public Integer huurFiets(Rit rit) throws DBException, ApplicationException {
+        if (rit == null) {
+            return null;
+        }
+        boolean vergrendelen = !"databank".equalsIgnoreCase(
+                rittenControle != null ? rittenControle : DBProp.getRittenControle());
+        try (Connection conn = ConnectionManager.getConnection()) {
+            if (vergrendelen) {
+                conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+                conn.setAutoCommit(false);
+            }
+            try {
+                controleerVerhuur(conn, rit, vergrendelen);
+                Integer ritID = voegRitToe(conn, rit);
+                if (vergrendelen) {
+                    conn.commit();
+                }
+                return ritID;
+            } catch (ApplicationException | SQLException ex) {
+                if (vergrendelen) {
+                    conn.rollback();
+                }
+                ApplicationExceptionType schending = ex instanceof SQLException
+                        ? vertaalSchending((SQLException) ex) : null;
+                if (schending != null) {
+                    throw new ApplicationException(schending);
+                }
+                throw ex;
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in huurFiets - " + sqlEx);
+        }
+    }
+
+    /**
+     * Haalt in een query de toestand van de fiets, het lid en hun actieve ritten op.
+     * @param conn connectie waarop de transactie loopt
+     * @param rit de rit die toegevoegd moet worden
+     * @param vergrendelen true wanneer de rijen van de fiets en het lid vergrendeld moeten worden
+     * @throws ApplicationException wanneer de rit niet mag worden toegevoegd
+     */
+    private void controleerVerhuur(Connection conn, Rit rit, boolean vergrendelen) throws SQLException, ApplicationException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "select f.status"
+                        + " , (select count(*) from rit r"
+                        + "     where r.fiets_registratienummer = f.registratienummer"
+                        + "       and r.eindtijd is null) as actieve_ritten_fiets"
+                        + " , l.rijksregisternummer"
+                        + " , (select count(*) from rit r"
+                        + "     where r.lid_rijksregisternummer = l.rijksregisternummer"
+                        + "       and r.eindtijd is null) as actieve_ritten_lid"
+                        + " from fiets f"
+                        + " left join lid l on l.rijksregisternummer = ?"
+                        + " where f.registratienummer = ?"
+                        + (vergrendelen ? " for update" : ""))) {
+            stmt.setString(1, rit.getLidRijksregisternummer());
+            stmt.setInt(2, rit.getFietsRegistratienummer());
+            try (ResultSet r = stmt.executeQuery()) {
+                if (!r.next()) {
+                    throw new ApplicationException(ApplicationExceptionType.FIETS_BESTAAT_NIET);
+                }
+                if (r.getInt("actieve_ritten_fiets") > 0) {
+                    throw new ApplicationException(ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK);
+                }
+                if (Status.valueOf(r.getString("status")) != Status.actief) {
+                    throw new ApplicationException(ApplicationExceptionType.FIETS_STATUS_NIET_ACTIEF);
+                }
+                if (r.getString("rijksregisternummer") == null) {
+                    throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET);
+                }
+                if (r.getInt("actieve_ritten_lid") > 0) {
+                    throw new ApplicationException(ApplicationExceptionType.RIT_LID_HUURT);
+                }
+            }
+        }
+    }
+
+    /**
+     * Vertaalt de schending van een constraint op de tabel rit naar de reden waarom de rit geweigerd werd.
+     * @param sqlEx exception van de databank
+     * @return de reden, null wanneer het geen gekende constraint op rit betreft
+     */
+    static ApplicationExceptionType vertaalSchending(SQLException sqlEx) {
+        if (!(sqlEx instanceof SQLIntegrityConstraintViolationException)
+                && (sqlEx.getSQLState() == null || !sqlEx.getSQLState().startsWith("23"))) {
+            return null;
+        }
+        String boodschap = String.valueOf(sqlEx.getMessage()).toLowerCase();
+        if (boodschap.contains("uq_rit_actieve_fiets")) {
+            return ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK;
+        }
+        if (boodschap.contains("uq_rit_actief_lid")) {
+            return ApplicationExceptionType.RIT_LID_HUURT;
+        }
+        if (boodschap.contains("fk_rit_fiets")) {
+            return ApplicationExceptionType.FIETS_BESTAAT_NIET;
+        }
+        if (boodschap.contains("fk_rit_lid")) {
+            return ApplicationExceptionType.LID_BESTAAT_NIET;
+        }
+        return null;
+    }
+
+    private Integer voegRitToe(Connection conn, Rit rit) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into rit(lid_rijksregisternummer ,"
+                        + " fiets_registratienummer"
+                        + " ) values(?,?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, rit.getLidRijksregisternummer());
+            stmt.setInt(2, rit.getFietsRegistratienummer());
+            stmt.execute();
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getInt(1);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * beindigd de rit. returned 0 indien rit null is
+     * Enkel een rit die nog niet afgesloten is, wordt afgesloten, zodat van twee gelijktijdige
+     * oproepen er maar een slaagt. Het dagtotaal van de rit (zie DagtotaalDAO) wordt in
+     * dezelfde transactie bijgewerkt.
      * @param rit rit die moet afgesloten worden
+     * @return 1 wanneer de rit afgesloten werd, 0 wanneer hij niet bestaat of al afgesloten was
      * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
      */
-    public void afsluitenRit(Rit rit) throws DBException {
+    public int afsluitenRit(Rit rit) throws DBException {
         if(rit!=null){
             //verbinding testen
             try(Connection conn = ConnectionManager.getConnection()){
+                    conn.setAutoCommit(false);
                     try(PreparedStatement stmt = conn.
                             prepareStatement(
                                     "update rit"
                                     +" set eindtijd = ?,"
-                                    +" prijs = ?"
+                                    +" prijs = ?,"
+                                    +" standplaats = (select f.standplaats from fiets f"
+                                    +" where f.registratienummer = rit.fiets_registratienummer)"
                                     +" where id = ?"
+                                    +" and eindtijd is null"
                             )) {
                         stmt.setTimestamp(1, Timestamp.valueOf(rit.getEindtijd()));
-                        stmt.setDouble(2, rit.getPrijs().doubleValue());
+                        stmt.setBigDecimal(2, rit.getPrijs());
                         stmt.setInt(3, rit.getId());
-                        stmt.execute();
-
+                        int aantal = stmt.executeUpdate();
+                        if (aantal > 0) {
+                            DagtotaalDAO.telOp(conn, rit.getId());
+                        }
+                        conn.commit();
+                        return aantal;
                     }catch(SQLException sql){
+                        conn.rollback();
                         throw new DBException("Afsluiten rit SQLException "+sql);
                     }
             }catch(SQLException sql){
                 throw new DBException("afsluiten rit SQLException "+sql);
             }
         }
-
+        return 0;
     }
 
     /**
@@ -247,6 +422,35 @@ public class RitDAO {
 
     }
 
+    /**
+     * Zoekt alle ritten die nog niet afgesloten zijn.
+     * @return lijst van alle actieve ritten, gesorteerd op id
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public List<Rit> zoekAlleActieveRitten() throws DBException {
+        try (Connection conn = ConnectionManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select id"
+                            + " , starttijd"
+                            + " , eindtijd"
+                            + " , prijs"
+                            + " , lid_rijksregisternummer"
+                            + " , fiets_registratienummer"
+                            + " from rit"
+                            + " where eindtijd is null"
+                            + " order by id")) {
+                try (ResultSet r = stmt.executeQuery()) {
+                    return getRittenUitDatabase(r);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekAlleActieveRitten - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekAlleActieveRitten - connection" + sqlEx);
+        }
+    }
+
     /**
      * ophalen van alle ritten
      * @return lijst van alle ritten
@@ -283,12 +487,218 @@ public class RitDAO {
         }
     }
 
+    /**
+     * Ophalen van een pagina ritten, de nieuwste eerst (aflopend id). De volgende pagina begint
+     * voor het id van de laatste rit van deze pagina, zodat de databank via de primary key
+     * meteen naar het begin van de pagina springt, ongeacht hoeveel ritten er al zijn.
+     * Een nieuwe rit staat zo altijd op de eerste pagina.
+     * @param voorId id van de laatste rit van de vorige pagina, null voor de eerste pagina
+     * @param aantal maximaal aantal ritten op de pagina
+     * @return lijst van maximaal aantal ritten met een id kleiner dan voorId
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public List<Rit> zoekRittenVoor(Integer voorId, int aantal) throws DBException {
+        try (Connection conn = ConnectionManager.getConnection()) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select id"
+                            + " , lid_rijksregisternummer"
+                            + " , fiets_registratienummer"
+                            + " , starttijd"
+                            + " , eindtijd"
+                            + " , prijs"
+                            + " from rit "
+                            + " where id < ?"
+                            + " order by id desc"
+                            + " limit ?")) {
+                stmt.setInt(1, voorId == null ? Integer.MAX_VALUE : voorId);
+                stmt.setInt(2, aantal);
+                stmt.execute();
+                // result opvragen (en automatisch sluiten)
+                try (ResultSet r = stmt.getResultSet()) {
+                    return getRittenUitDatabase(r);
+                } catch (SQLException sqlEx) {
+                    throw new DBException(
+                            "SQL-exception in zoekRittenVoor - resultset" + sqlEx);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekRittenVoor - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekRittenVoor - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Overloopt alle ritten zonder ze allemaal tegelijk in het geheugen te laden.
+     * De ritten worden per fetchGrootte (zie DB.properties) van de databank gehaald.
+     * De Stream houdt een connectie bezet en moet gesloten worden, bv.
+     * try (Stream&lt;Rit&gt; ritten = ritDAO.streamAlleRitten()) { ... }
+     * @return Stream van alle ritten, gesorteerd op id
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     * Fouten tijdens het overlopen worden als UncheckedDBException gegooid.
+     */
+    public Stream<Rit> streamAlleRitten() throws DBException {
+        return streamAlleRitten(DBProp.getStreamFetchGrootte());
+    }
+
+    /**
+     * Overloopt alle ritten, zie streamAlleRitten().
+     * @param fetchGrootte aantal ritten dat per keer van de databank gehaald wordt
+     * @return Stream van alle ritten, gesorteerd op id
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public Stream<Rit> streamAlleRitten(int fetchGrootte) throws DBException {
+        return ResultSetStream.open("streamAlleRitten",
+                "select id"
+                        + " , lid_rijksregisternummer"
+                        + " , fiets_registratienummer"
+                        + " , starttijd"
+                        + " , eindtijd"
+                        + " , prijs"
+                        + " from rit "
+                        + " order by id",
+                this::getRitUitDatabase, fetchGrootte);
+    }
+
+    /**
+     * Overloopt de ritten die in een periode gestart zijn, zie streamAlleRitten().
+     * @param van begin van de periode (inclusief), null voor alle ritten tot tot
+     * @param tot einde van de periode (exclusief), null voor alle ritten vanaf van
+     * @return Stream van de ritten, gesorteerd op starttijd en id
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public Stream<Rit> streamRitten(LocalDateTime van, LocalDateTime tot) throws DBException {
+        return streamRitten(van, tot, DBProp.getStreamFetchGrootte());
+    }
+
+    /**
+     * Overloopt de ritten die in een periode gestart zijn, zie streamAlleRitten().
+     * De index ix_rit_starttijd levert de ritten in de gevraagde volgorde, zodat er niet gesorteerd moet worden.
+     * @param van begin van de periode (inclusief), null voor alle ritten tot tot
+     * @param tot einde van de periode (exclusief), null voor alle ritten vanaf van
+     * @param fetchGrootte aantal ritten dat per keer van de databank gehaald wordt
+     * @return Stream van de ritten, gesorteerd op starttijd en id
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public Stream<Rit> streamRitten(LocalDateTime van, LocalDateTime tot, int fetchGrootte) throws DBException {
+        return ResultSetStream.open("streamRitten",
+                "select id"
+                        + " , lid_rijksregisternummer"
+                        + " , fiets_registratienummer"
+                        + " , starttijd"
+                        + " , eindtijd"
+                        + " , prijs"
+                        + " from rit "
+                        + " where 1 = 1"
+                        + (van == null ? "" : " and starttijd >= ?")
+                        + (tot == null ? "" : " and starttijd < ?")
+                        + " order by starttijd, id",
+                stmt -> {
+                    int index = 1;
+                    if (van != null) {
+                        stmt.setTimestamp(index++, Timestamp.valueOf(van));
+                    }
+                    if (tot != null) {
+                        stmt.setTimestamp(index, Timestamp.valueOf(tot));
+                    }
+                },
+                this::getRitUitDatabase, fetchGrootte);
+    }
+
+    /**
+     * Totaliseert de ritten die in een periode gestart zijn per groep: aantal ritten, omzet en
+     * gemiddelde duur. De databank groepeert en telt, zodat enkel de totalen opgehaald worden,
+     * hoeveel ritten er ook zijn.
+     * @param groepering waarop gegroepeerd wordt
+     * @param van begin van de periode (inclusief), null voor alle ritten tot tot
+     * @param tot einde van de periode (exclusief), null voor alle ritten vanaf van
+     * @return een RitTotaal per groep met ritten, gesorteerd op groep
+     * @throws DBException Exception die duidt op een verkeerde installatie van de DAO of een fout in de query.
+     */
+    public List<RitTotaal> totaliseerRitten(Groepering groepering, LocalDateTime van, LocalDateTime tot) throws DBException {
+        String groep;
+        switch (groepering) {
+            case DAG:
+                groep = "extract(year from r.starttijd) * 10000 + extract(month from r.starttijd) * 100"
+                        + " + extract(day from r.starttijd)";
+                break;
+            case MAAND:
+                groep = "extract(year from r.starttijd) * 100 + extract(month from r.starttijd)";
+                break;
+            case FIETS:
+                groep = "r.fiets_registratienummer";
+                break;
+            case LID:
+                groep = "r.lid_rijksregisternummer";
+                break;
+            default:
+                groep = "coalesce(r.standplaats, f.standplaats)";
+        }
+        try (Connection conn = ConnectionManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select " + groep + " as groep"
+                            + " , count(*) as aantal"
+                            + " , coalesce(sum(r.prijs), 0) as omzet"
+                            + " , avg(case when r.eindtijd is not null"
+                            + "       then timestampdiff(second, r.starttijd, r.eindtijd) end) as duur"
+                            + " from rit r"
+                            + (groepering == Groepering.STANDPLAATS
+                                ? " join fiets f on f.registratienummer = r.fiets_registratienummer" : "")
+                            + " where 1 = 1"
+                            + (van == null ? "" : " and r.starttijd >= ?")
+                            + (tot == null ? "" : " and r.starttijd < ?")
+                            + " group by " + groep
+                            + " order by groep")) {
+                int index = 1;
+                if (van != null) {
+                    stmt.setTimestamp(index++, Timestamp.valueOf(van));
+                }
+                if (tot != null) {
+                    stmt.setTimestamp(index, Timestamp.valueOf(tot));
+                }
+                List<RitTotaal> totalen = new ArrayList<>();
+                try (ResultSet r = stmt.executeQuery()) {
+                    while (r.next()) {
+                        double duur = r.getDouble("duur");
+                        Duration gemiddeldeDuur = r.wasNull() ? null : Duration.ofSeconds(Math.round(duur));
+                        totalen.add(new RitTotaal(
+                                formatteerGroep(groepering, r.getString("groep")),
+                                r.getLong("aantal"),
+                                r.getBigDecimal("omzet"),
+                                gemiddeldeDuur));
+                    }
+                }
+                return totalen;
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in totaliseerRitten - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in totaliseerRitten - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Zet de dag (jjjjmmdd) en maand (jjjjmm) uit totaliseerRitten om naar jjjj-mm-dd en jjjj-mm.
+     */
+    static String formatteerGroep(Groepering groepering, String groep) {
+        if (groepering == Groepering.DAG) {
+            return groep.substring(0, 4) + "-" + groep.substring(4, 6) + "-" + groep.substring(6, 8);
+        }
+        if (groepering == Groepering.MAAND) {
+            return groep.substring(0, 4) + "-" + groep.substring(4, 6);
+        }
+        return groep;
+    }
+
     /**
      * Maakt een Arraylist adhv van de Resultset uit zoekActieveRittenVanFiets of zoekActieveRittenVanLid
      * @param r Resultset van de ritten
      * @return rittenlijst van de ritten uit getRitUitDatabase
      */
-    private ArrayList<Rit> getRittenUitDatabase(ResultSet r) throws SQLException {
+    private ArrayList<Rit> getRittenUitDatabase(ResultSet r) throws SQLException, DBException {
         ArrayList<Rit> ritten = new ArrayList<>();
         while (r.next()) {
             Rit rit = getRitUitDatabase(r);
@@ -301,15 +711,15 @@ public class RitDAO {
      * Maakt een Rit object adhv de waardes gegeven uit getRittenUitDatabase
      * @param r Resultset van getRittenUitDatabase
      * @return rit object gemaakt uit ResultSet r
-     * @throws ApplicationException Exception die duid op fout bij maken van Rijsregisternummer object
+     * @throws DBException Exception die duidt op een ongeldig rijksregisternummer in de databank
      */
-    private Rit getRitUitDatabase(ResultSet r) throws SQLException {
+    private Rit getRitUitDatabase(ResultSet r) throws SQLException, DBException {
         Rit rit = new Rit();
         try {
-            Rijksregisternummer rijksregisternummer = new Rijksregisternummer(r.getString("lid_rijksregisternummer"));
+            Rijksregisternummer rijksregisternummer = Rijksregisternummer.van(r.getString("lid_rijksregisternummer"));
             rit.setLidRijksregisternummer(rijksregisternummer);
         } catch (ApplicationException ex) {
-            System.out.println("getRitUitDatabase rr "+ex);
+            throw new DBException("SQL-exception in getRitUitDatabase - " + ex);
         }
         rit.setId(r.getInt("id"));
         rit.setStarttijd(r.getTimestamp("starttijd").toLocalDateTime());
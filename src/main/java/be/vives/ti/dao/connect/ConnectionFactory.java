@@ -0,0 +1,17 @@
+package be.vives.ti.dao.connect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Maakt een nieuwe fysieke connectie naar de databank. Wordt door de
+ * ConnectionPool gebruikt telkens er een extra connectie nodig is.
+ */
+public interface ConnectionFactory {
+
+    /**
+     * @return een nieuwe, open connectie naar de databank
+     * @throws SQLException wanneer de databank niet bereikbaar is
+     */
+    Connection maakConnectie() throws SQLException;
+}
@@ -5,24 +5,132 @@ import be.vives.ti.exception.DBException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.logging.Logger;
 
 public class ConnectionManager {
 
+    private static volatile ConnectionPool pool;
+    private static volatile QueryMetingen queryMetingen;
+
+    // trage queries, in te stellen via de logging-configuratie van de JVM
+    private static final Logger TRAGE_QUERIES = Logger.getLogger(QueryMetingen.class.getName());
+
     /**
-     * Levert een connectie naar de be.vives.DAO. Leest hiervoor uit het bestand
-     * DB.properties
+     * Levert een connectie naar de be.vives.DAO uit de connectiepool. De pool
+     * wordt bij de eerste aanvraag opgebouwd met de gegevens uit het bestand
+     * DB.properties. Het sluiten van de connectie geeft ze terug aan de pool.
+     * Met query.meten worden het wachten op de connectie en de PreparedStatements
+     * gemeten, zie getQueryMetingen.
      *
      * @return connectie-object naar de be.vives.DAO
      * @throws DBException wanneer de be.vives.DAO niet toegankelijk is
      */
     public static Connection getConnection() throws DBException {
+        ConnectionPool huidig = getPool();
+        QueryMetingen metingen = queryMetingen;
+        if (metingen == null) {
+            return huidig.geefConnectie();
+        }
+        long start = System.nanoTime();
+        Connection conn = huidig.geefConnectie();
+        metingen.registreerConnectie(System.nanoTime() - start);
+        return metingen.verpak(conn);
+    }
+
+    /**
+     * @return metingen van de databankoproepen, null wanneer query.meten uit staat
+     */
+    public static QueryMetingen getQueryMetingen() {
+        return queryMetingen;
+    }
+
+    /**
+     * Vervangt de metingen van de databankoproepen, null om niet meer te meten.
+     */
+    static void setQueryMetingen(QueryMetingen metingen) {
+        queryMetingen = metingen;
+    }
+
+    /**
+     * Bouwt de connectiepool op en brengt het schema op de laatste versie, zodat
+     * fouten in de configuratie of de migraties al bij het opstarten gemeld worden.
+     *
+     * @throws DBException wanneer de be.vives.DAO niet toegankelijk is of een migratie faalt
+     */
+    public static void initialiseer() throws DBException {
+        getPool();
+    }
+
+    /**
+     * Sluit de connectiepool, bv. bij het afsluiten van de applicatie.
+     */
+    public static synchronized void sluitPool() {
+        if (pool != null) {
+            pool.sluit();
+            pool = null;
+        }
+    }
+
+    /**
+     * @return aantal keer dat een PreparedStatement uit de statementcache hergebruikt werd
+     */
+    public static long getStatementCacheTreffers() {
+        ConnectionPool huidig = pool;
+        return huidig == null ? 0 : huidig.getStatementCacheTreffers();
+    }
+
+    /**
+     * @return aantal keer dat een PreparedStatement opnieuw voorbereid moest worden
+     */
+    public static long getStatementCacheMissers() {
+        ConnectionPool huidig = pool;
+        return huidig == null ? 0 : huidig.getStatementCacheMissers();
+    }
+
+    private static ConnectionPool getPool() throws DBException {
+        ConnectionPool huidig = pool;
+        return huidig != null ? huidig : maakPool();
+    }
 
-        try {
-            //driver laden
-            Class.forName(DBProp.getDriver());
-            return DriverManager.getConnection(DBProp.getDbUrl(), DBProp.getLogin(), DBProp.getPaswoord());
-        } catch (ClassNotFoundException | SQLException ex) {
-            throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+    private static synchronized ConnectionPool maakPool() throws DBException {
+        if (pool == null) {
+            ConnectionPool nieuw;
+            try {
+                //driver laden
+                Class.forName(DBProp.getDriver());
+            } catch (ClassNotFoundException ex) {
+                throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+            }
+            String url = DBProp.getDbUrl();
+            String login = DBProp.getLogin();
+            String paswoord = DBProp.getPaswoord();
+            nieuw = new ConnectionPool(
+                    () -> DriverManager.getConnection(url, login, paswoord),
+                    DBProp.getPoolMinGrootte(),
+                    DBProp.getPoolMaxGrootte(),
+                    DBProp.getPoolIdleTimeoutMillis(),
+                    DBProp.getPoolAcquireTimeoutMillis(),
+                    DBProp.getPoolValidatieNaMillis(),
+                    DBProp.getPoolValidatieTimeoutSeconden(),
+                    DBProp.getPoolStatementCacheGrootte());
+            if (DBProp.getSchemaMigreren()) {
+                // de pool pas vrijgeven wanneer het schema up-to-date is
+                try (Connection conn = nieuw.geefConnectie()) {
+                    new SchemaMigratie().migreer(conn);
+                } catch (DBException ex) {
+                    nieuw.sluit();
+                    throw ex;
+                } catch (SQLException sqlEx) {
+                    nieuw.sluit();
+                    throw new DBException("SQL-exception in maakPool - connection " + sqlEx);
+                }
+            }
+            if (DBProp.getQueryMeten()) {
+                queryMetingen = new QueryMetingen(DBProp.getQueryTraagMillis(), DBProp.getQueryTopN(),
+                        DBProp.getQueryLog() ? TRAGE_QUERIES::warning : null, DBProp.getQueryLogWaarden());
+            }
+            pool = nieuw;
         }
+        return pool;
     }
 }
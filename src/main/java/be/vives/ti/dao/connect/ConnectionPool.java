@@ -0,0 +1,343 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.exception.DBException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Begrensde pool van databankconnecties.
+ * - er zijn nooit meer dan maxGrootte connecties tegelijk uitgeleend
+ * - er worden minstens minGrootte connecties open gehouden
+ * - connecties die langer dan idleTimeout niet gebruikt werden, worden gesloten
+ * - een connectie die een tijd niet gebruikt werd, wordt bij het uitlenen gevalideerd
+ * - wie langer dan acquireTimeout moet wachten op een connectie krijgt een DBException
+ *
+ * De uitgeleende connectie is een proxy: close() sluit de fysieke connectie niet
+ * maar geeft ze terug aan de pool. Elke fysieke connectie houdt haar eigen
+ * StatementCache bij, zodat prepareStatement met dezelfde SQL-tekst het reeds
+ * voorbereide statement teruggeeft.
+ */
+public class ConnectionPool {
+
+    private final ConnectionFactory factory;
+    private final int minGrootte;
+    private final int maxGrootte;
+    private final long idleTimeoutMillis;
+    private final long acquireTimeoutMillis;
+    private final long validatieNaMillis;
+    private final int validatieTimeoutSeconden;
+    private final int statementCacheGrootte;
+
+    // vrije connecties, de meest recent teruggegeven connectie staat vooraan
+    private final LinkedBlockingDeque<PoolConnectie> vrij = new LinkedBlockingDeque<>();
+    private final Semaphore vergunningen;
+    private final AtomicInteger aantalOpen = new AtomicInteger();
+    private final AtomicLong statementTreffers = new AtomicLong();
+    private final AtomicLong statementMissers = new AtomicLong();
+    private final ScheduledExecutorService opruimer;
+    private volatile boolean gesloten;
+
+    public ConnectionPool(ConnectionFactory factory, int minGrootte, int maxGrootte,
+                          long idleTimeoutMillis, long acquireTimeoutMillis,
+                          long validatieNaMillis, int validatieTimeoutSeconden,
+                          int statementCacheGrootte) {
+        if (minGrootte < 0 || maxGrootte < 1 || minGrootte > maxGrootte) {
+            throw new IllegalArgumentException("Ongeldige poolgrootte: min=" + minGrootte + ", max=" + maxGrootte);
+        }
+        this.factory = factory;
+        this.minGrootte = minGrootte;
+        this.maxGrootte = maxGrootte;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.validatieNaMillis = validatieNaMillis;
+        this.validatieTimeoutSeconden = validatieTimeoutSeconden;
+        this.statementCacheGrootte = statementCacheGrootte;
+        this.vergunningen = new Semaphore(maxGrootte, true);
+
+        this.opruimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vivesbike-pool-opruimer");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1000, idleTimeoutMillis / 2);
+        opruimer.scheduleWithFixedDelay(this::onderhoud, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leent een connectie uit de pool. De connectie moet na gebruik gesloten
+     * worden (bv. via try-with-resources), waardoor ze terug in de pool komt.
+     *
+     * @return connectie naar de databank
+     * @throws DBException wanneer er binnen de acquireTimeout geen connectie vrijkwam
+     *                     of er geen nieuwe connectie gemaakt kon worden
+     */
+    public Connection geefConnectie() throws DBException {
+        if (gesloten) {
+            throw new DBException("Connectiepool is gesloten");
+        }
+        try {
+            if (!vergunningen.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new DBException("Geen vrije connectie beschikbaar binnen "
+                        + acquireTimeoutMillis + " ms (max " + maxGrootte + " connecties)");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DBException("Wachten op een connectie werd onderbroken");
+        }
+
+        try {
+            PoolConnectie pc;
+            while ((pc = vrij.pollFirst()) != null) {
+                if (isBruikbaar(pc)) {
+                    return pc.leenUit();
+                }
+                sluitFysiek(pc);
+            }
+            return nieuweConnectie().leenUit();
+        } catch (DBException | RuntimeException ex) {
+            vergunningen.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Sluit alle vrije connecties en weigert verdere aanvragen. Uitgeleende
+     * connecties worden fysiek gesloten zodra ze teruggegeven worden.
+     */
+    public void sluit() {
+        gesloten = true;
+        opruimer.shutdownNow();
+        PoolConnectie pc;
+        while ((pc = vrij.pollFirst()) != null) {
+            sluitFysiek(pc);
+        }
+    }
+
+    /**
+     * @return aantal fysieke connecties die momenteel open zijn (vrij en uitgeleend)
+     */
+    public int getAantalOpen() {
+        return aantalOpen.get();
+    }
+
+    /**
+     * @return aantal fysieke connecties die momenteel vrij in de pool liggen
+     */
+    public int getAantalVrij() {
+        return vrij.size();
+    }
+
+    /**
+     * @return aantal keer dat een PreparedStatement uit de cache kon worden hergebruikt
+     */
+    public long getStatementCacheTreffers() {
+        return statementTreffers.get();
+    }
+
+    /**
+     * @return aantal keer dat een PreparedStatement opnieuw moest worden voorbereid
+     */
+    public long getStatementCacheMissers() {
+        return statementMissers.get();
+    }
+
+    /**
+     * Sluit connecties die langer dan idleTimeout niet gebruikt werden en vult
+     * de pool aan tot minGrootte. Wordt periodiek door de opruimer uitgevoerd.
+     */
+    void onderhoud() {
+        long grens = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<PoolConnectie> oudsteEerst = vrij.descendingIterator();
+        while (oudsteEerst.hasNext() && aantalOpen.get() > minGrootte) {
+            PoolConnectie pc = oudsteEerst.next();
+            if (pc.laatstGebruikt < grens && vrij.removeFirstOccurrence(pc)) {
+                sluitFysiek(pc);
+            }
+        }
+        try {
+            while (!gesloten && aantalOpen.get() < minGrootte) {
+                vrij.offerLast(nieuweConnectie());
+            }
+        } catch (DBException ex) {
+            // databank (nog) niet bereikbaar, volgende ronde opnieuw proberen
+        }
+    }
+
+    private boolean isBruikbaar(PoolConnectie pc) {
+        if (System.currentTimeMillis() - pc.laatstGebruikt < validatieNaMillis) {
+            return true;
+        }
+        try {
+            return pc.fysiek.isValid(validatieTimeoutSeconden);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private PoolConnectie nieuweConnectie() throws DBException {
+        if (aantalOpen.incrementAndGet() > maxGrootte) {
+            aantalOpen.decrementAndGet();
+            throw new DBException("Maximum aantal connecties (" + maxGrootte + ") bereikt");
+        }
+        Connection fysiek = null;
+        try {
+            fysiek = factory.maakConnectie();
+            return new PoolConnectie(fysiek);
+        } catch (SQLException ex) {
+            aantalOpen.decrementAndGet();
+            if (fysiek != null) {
+                try {
+                    fysiek.close();
+                } catch (SQLException sluitEx) {
+                    // connectie was al onbruikbaar
+                }
+            }
+            throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+        }
+    }
+
+    private void sluitFysiek(PoolConnectie pc) {
+        aantalOpen.decrementAndGet();
+        try {
+            pc.fysiek.close();
+        } catch (SQLException ex) {
+            // connectie was al onbruikbaar
+        }
+    }
+
+    private void neemTerug(PoolConnectie pc) {
+        try {
+            boolean bruikbaar = !gesloten && !pc.fysiek.isClosed();
+            if (bruikbaar && !pc.fysiek.getAutoCommit()) {
+                // openstaande transactie van de vorige gebruiker niet doorgeven
+                pc.fysiek.rollback();
+                pc.fysiek.setAutoCommit(true);
+            }
+            if (bruikbaar && pc.isolatieGewijzigd) {
+                pc.fysiek.setTransactionIsolation(pc.standaardIsolatie);
+                pc.isolatieGewijzigd = false;
+            }
+            if (bruikbaar) {
+                pc.fysiek.clearWarnings();
+                pc.laatstGebruikt = System.currentTimeMillis();
+                vrij.offerFirst(pc);
+            } else {
+                sluitFysiek(pc);
+            }
+        } catch (SQLException ex) {
+            sluitFysiek(pc);
+        } finally {
+            vergunningen.release();
+        }
+    }
+
+    /**
+     * Fysieke connectie met de administratie die de pool erover bijhoudt.
+     */
+    private class PoolConnectie {
+        private final Connection fysiek;
+        private final int standaardIsolatie;
+        private final StatementCache statementCache;
+        private boolean isolatieGewijzigd;
+        private volatile long laatstGebruikt = System.currentTimeMillis();
+
+        private PoolConnectie(Connection fysiek) throws SQLException {
+            this.fysiek = fysiek;
+            this.standaardIsolatie = fysiek.getTransactionIsolation();
+            this.statementCache = new StatementCache(fysiek, statementCacheGrootte, statementTreffers, statementMissers);
+        }
+
+        private Connection leenUit() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new UitgeleendeConnectie(this));
+        }
+    }
+
+    /**
+     * Stuurt alle oproepen door naar de fysieke connectie, behalve close().
+     */
+    private class UitgeleendeConnectie implements InvocationHandler {
+        private final PoolConnectie pc;
+        private boolean teruggegeven;
+
+        private UitgeleendeConnectie(PoolConnectie pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!teruggegeven) {
+                        teruggegeven = true;
+                        neemTerug(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return teruggegeven || pc.fysiek.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pool" + pc.fysiek;
+                case "prepareStatement":
+                    if (!teruggegeven && isCachebaar(method)) {
+                        int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                        return pc.statementCache.geefStatement((String) args[0], autoGeneratedKeys, (Connection) proxy);
+                    }
+                    return StatementCache.metConnectie((PreparedStatement) doorgeven(method, args),
+                            PreparedStatement.class, (Connection) proxy);
+                case "createStatement":
+                    return StatementCache.metConnectie((Statement) doorgeven(method, args),
+                            Statement.class, (Connection) proxy);
+                case "prepareCall":
+                    return StatementCache.metConnectie((CallableStatement) doorgeven(method, args),
+                            CallableStatement.class, (Connection) proxy);
+                case "setTransactionIsolation":
+                    pc.isolatieGewijzigd = true;
+                    return doorgeven(method, args);
+                default:
+                    return doorgeven(method, args);
+            }
+        }
+
+        private Object doorgeven(Method method, Object[] args) throws Throwable {
+            if (teruggegeven) {
+                throw new SQLException("Connectie werd al teruggegeven aan de pool");
+            }
+            try {
+                return method.invoke(pc.fysiek, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        /**
+         * Enkel prepareStatement(sql) en prepareStatement(sql, autoGeneratedKeys) worden gecachet,
+         * statements met een ander type resultset worden telkens nieuw voorbereid.
+         */
+        private boolean isCachebaar(Method method) {
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+    }
+}
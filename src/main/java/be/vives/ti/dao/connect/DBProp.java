@@ -2,35 +2,128 @@ package be.vives.ti.dao.connect;
 
 import be.vives.ti.exception.DBException;
 
+import java.io.InputStream;
 import java.util.Properties;
 
 public class DBProp {
 
+    /**
+     * Systeemproperty waarmee een databankprofiel gekozen wordt, bv.
+     * -Dvivesbike.db.profiel=embedded. De instellingen uit DB-&lt;profiel&gt;.properties
+     * vervangen dan die uit DB.properties.
+     */
+    public static final String PROFIEL_PROPERTY = "vivesbike.db.profiel";
+
+    /**
+     * Systemproperties die met dit voorvoegsel beginnen, vervangen de overeenkomstige instelling
+     * uit de bestanden, bv. -Dvivesbike.db.pool.maxGrootte=20 voor pool.maxGrootte.
+     */
+    public static final String INSTELLING_PREFIX = "vivesbike.db.";
+
+    private static String profiel;
     private static String dbUrl;
     private static String driver;
     private static String login;
     private static String paswoord;
 
+    // instellingen van de connectiepool
+    private static Integer poolMinGrootte;
+    private static Integer poolMaxGrootte;
+    private static Long poolIdleTimeoutMillis;
+    private static Long poolAcquireTimeoutMillis;
+    private static Long poolValidatieNaMillis;
+    private static Integer poolValidatieTimeoutSeconden;
+    private static Integer poolStatementCacheGrootte;
+
+    // wie bewaakt "een actieve rit per fiets en per lid": vergrendeling of databank
+    private static String rittenControle;
+
+    // aantal rijen dat een streamende query per keer van de databank haalt
+    private static Integer streamFetchGrootte;
+
+    // schema bij het opbouwen van de pool migreren
+    private static Boolean schemaMigreren;
+
+    // meten van de databankoproepen, zie QueryMetingen
+    private static Boolean queryMeten;
+    private static Long queryTraagMillis;
+    private static Integer queryTopN;
+    private static Boolean queryLog;
+    private static Boolean queryLogWaarden;
+
     /**
      * Haalt de URL, driver paswoord en login uit het bestand DB.properties en
-     * vult deze in in de overeenkomstige velden
+     * vult deze in in de overeenkomstige velden. Wanneer een profiel gekozen is,
+     * worden de instellingen uit DB-&lt;profiel&gt;.properties erover gelegd, en daarover
+     * de systemproperties die met INSTELLING_PREFIX beginnen.
      */
     private DBProp() throws DBException {
         Properties appProperties = new Properties();
         try {
             appProperties.load(this.getClass().getResourceAsStream(
                     "/database/DB.properties"));
+            profiel = System.getProperty(PROFIEL_PROPERTY, "").trim();
+            if (!profiel.isEmpty()) {
+                InputStream profielBestand = this.getClass().getResourceAsStream(
+                        "/database/DB-" + profiel + ".properties");
+                if (profielBestand == null) {
+                    throw new DBException("Bestand (DB-" + profiel + ".properties) voor databankprofiel "
+                            + profiel + " niet gevonden.");
+                }
+                try (InputStream in = profielBestand) {
+                    appProperties.load(in);
+                }
+            }
+            for (String naam : System.getProperties().stringPropertyNames()) {
+                if (naam.startsWith(INSTELLING_PREFIX)) {
+                    appProperties.setProperty(naam.substring(INSTELLING_PREFIX.length()), System.getProperty(naam));
+                }
+            }
             dbUrl = appProperties.getProperty("dbUrl");
             driver = appProperties.getProperty("driver");
             login = appProperties.getProperty("login");
             paswoord = appProperties.getProperty("paswoord");
 
+            poolMinGrootte = Integer.valueOf(appProperties.getProperty("pool.minGrootte", "2"));
+            poolMaxGrootte = Integer.valueOf(appProperties.getProperty("pool.maxGrootte", "10"));
+            poolIdleTimeoutMillis = Long.valueOf(appProperties.getProperty("pool.idleTimeoutMillis", "300000"));
+            poolAcquireTimeoutMillis = Long.valueOf(appProperties.getProperty("pool.acquireTimeoutMillis", "5000"));
+            poolValidatieNaMillis = Long.valueOf(appProperties.getProperty("pool.validatieNaMillis", "500"));
+            poolValidatieTimeoutSeconden = Integer.valueOf(appProperties.getProperty("pool.validatieTimeoutSeconden", "2"));
+            poolStatementCacheGrootte = Integer.valueOf(appProperties.getProperty("pool.statementCacheGrootte", "50"));
+
+            rittenControle = appProperties.getProperty("ritten.controle", "vergrendeling");
+
+            streamFetchGrootte = Integer.valueOf(appProperties.getProperty("stream.fetchGrootte", "500"));
+
+            schemaMigreren = Boolean.valueOf(appProperties.getProperty("schema.migreren", "true"));
+
+            queryMeten = Boolean.valueOf(appProperties.getProperty("query.meten", "false"));
+            queryTraagMillis = Long.valueOf(appProperties.getProperty("query.traagMillis", "100"));
+            queryTopN = Integer.valueOf(appProperties.getProperty("query.topN", "20"));
+            queryLog = Boolean.valueOf(appProperties.getProperty("query.log", "true"));
+            queryLogWaarden = Boolean.valueOf(appProperties.getProperty("query.logWaarden", "false"));
+
         } catch (java.io.IOException ex) {
             throw new DBException(
                     "Bestand (DB.properties) met gegevens over DB niet gevonden.");
+        } catch (NumberFormatException ex) {
+            throw new DBException(
+                    "Ongeldige numerieke instelling in DB.properties: " + ex.getMessage());
         }
     }
 
+    /**
+     * @return naam van het gekozen databankprofiel, leeg voor de standaard databank uit DB.properties
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static String getProfiel() throws DBException {
+        if (profiel == null) {
+            DBProp db = new DBProp();
+        }
+        return profiel;
+    }
+
     /**
      * @return the dbUrl
      * @throws DBException wanneer DB.properties niet toegankelijk is
@@ -74,4 +167,170 @@ public class DBProp {
         }
         return paswoord;
     }
+
+    /**
+     * @return minimum aantal connecties dat de pool open houdt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolMinGrootte() throws DBException {
+        if (poolMinGrootte == null) {
+            DBProp db = new DBProp();
+        }
+        return poolMinGrootte;
+    }
+
+    /**
+     * @return maximum aantal connecties dat de pool tegelijk uitleent
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolMaxGrootte() throws DBException {
+        if (poolMaxGrootte == null) {
+            DBProp db = new DBProp();
+        }
+        return poolMaxGrootte;
+    }
+
+    /**
+     * @return tijd (ms) waarna een ongebruikte connectie boven het minimum gesloten wordt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static long getPoolIdleTimeoutMillis() throws DBException {
+        if (poolIdleTimeoutMillis == null) {
+            DBProp db = new DBProp();
+        }
+        return poolIdleTimeoutMillis;
+    }
+
+    /**
+     * @return maximale wachttijd (ms) op een vrije connectie
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static long getPoolAcquireTimeoutMillis() throws DBException {
+        if (poolAcquireTimeoutMillis == null) {
+            DBProp db = new DBProp();
+        }
+        return poolAcquireTimeoutMillis;
+    }
+
+    /**
+     * @return tijd (ms) dat een connectie ongebruikt moet zijn voor ze bij het uitlenen gevalideerd wordt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static long getPoolValidatieNaMillis() throws DBException {
+        if (poolValidatieNaMillis == null) {
+            DBProp db = new DBProp();
+        }
+        return poolValidatieNaMillis;
+    }
+
+    /**
+     * @return timeout (s) voor het valideren van een connectie
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolValidatieTimeoutSeconden() throws DBException {
+        if (poolValidatieTimeoutSeconden == null) {
+            DBProp db = new DBProp();
+        }
+        return poolValidatieTimeoutSeconden;
+    }
+
+    /**
+     * @return maximum aantal PreparedStatements dat per connectie bijgehouden wordt, 0 schakelt de cache uit
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolStatementCacheGrootte() throws DBException {
+        if (poolStatementCacheGrootte == null) {
+            DBProp db = new DBProp();
+        }
+        return poolStatementCacheGrootte;
+    }
+
+    /**
+     * @return "vergrendeling" wanneer verhuringen de fiets- en lidrij vergrendelen,
+     * "databank" wanneer de unieke indexen op actieve ritten de regels bewaken
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static String getRittenControle() throws DBException {
+        if (rittenControle == null) {
+            DBProp db = new DBProp();
+        }
+        return rittenControle;
+    }
+
+    /**
+     * @return aantal rijen dat een streamende query per keer van de databank haalt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getStreamFetchGrootte() throws DBException {
+        if (streamFetchGrootte == null) {
+            DBProp db = new DBProp();
+        }
+        return streamFetchGrootte;
+    }
+
+    /**
+     * @return true wanneer het schema bij het opstarten gemigreerd moet worden
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static boolean getSchemaMigreren() throws DBException {
+        if (schemaMigreren == null) {
+            DBProp db = new DBProp();
+        }
+        return schemaMigreren;
+    }
+
+    /**
+     * @return true wanneer de databankoproepen gemeten worden, zie QueryMetingen
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static boolean getQueryMeten() throws DBException {
+        if (queryMeten == null) {
+            DBProp db = new DBProp();
+        }
+        return queryMeten;
+    }
+
+    /**
+     * @return duur in milliseconden vanaf wanneer een uitvoering als trage query geteld wordt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static long getQueryTraagMillis() throws DBException {
+        if (queryTraagMillis == null) {
+            DBProp db = new DBProp();
+        }
+        return queryTraagMillis;
+    }
+
+    /**
+     * @return aantal traagste uitvoeringen dat bijgehouden wordt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getQueryTopN() throws DBException {
+        if (queryTopN == null) {
+            DBProp db = new DBProp();
+        }
+        return queryTopN;
+    }
+
+    /**
+     * @return true wanneer elke trage query in het logboek komt (java.util.logging, QueryMetingen)
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static boolean getQueryLog() throws DBException {
+        if (queryLog == null) {
+            DBProp db = new DBProp();
+        }
+        return queryLog;
+    }
+
+    /**
+     * @return true wanneer de waarde van parameters die geen tekst zijn getoond wordt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static boolean getQueryLogWaarden() throws DBException {
+        if (queryLogWaarden == null) {
+            DBProp db = new DBProp();
+        }
+        return queryLogWaarden;
+    }
 }
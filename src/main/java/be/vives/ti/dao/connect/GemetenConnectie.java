@@ -0,0 +1,237 @@
+package be.vives.ti.dao.connect;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Connectie die de PreparedStatements meet voor QueryMetingen:
+ * - prepareStatement: de voorbereiding (met de statementcache van de pool meestal een treffer)
+ * - execute, executeQuery, executeUpdate, executeBatch: de uitvoering, met de parameters
+ * - next, first, ... op de resultset: het doorlopen
+ *
+ * Een uitvoering wordt afgerond wanneer haar resultset gesloten wordt, het statement opnieuw
+ * uitgevoerd of gesloten wordt. Statements en resultsets worden door een thread tegelijk gebruikt,
+ * zoals in de DAO's.
+ */
+class GemetenConnectie implements InvocationHandler {
+
+    private final Connection conn;
+    private final QueryMetingen metingen;
+
+    private GemetenConnectie(Connection conn, QueryMetingen metingen) {
+        this.conn = conn;
+        this.metingen = metingen;
+    }
+
+    static Connection verpak(Connection conn, QueryMetingen metingen) {
+        return (Connection) Proxy.newProxyInstance(
+                GemetenConnectie.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new GemetenConnectie(conn, metingen));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Gemeten" + conn;
+            case "prepareStatement":
+                String sql = (String) args[0];
+                String bron = QueryMetingen.bron();
+                long start = System.nanoTime();
+                PreparedStatement stmt = (PreparedStatement) doorgeven(conn, method, args);
+                QueryMetingen.QueryStatistiek statistiek = metingen.statistiek(sql, bron);
+                statistiek.registreerVoorbereiding(System.nanoTime() - start);
+                return Proxy.newProxyInstance(
+                        GemetenConnectie.class.getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class},
+                        new GemetenStatement(stmt, statistiek));
+            default:
+                return doorgeven(conn, method, args);
+        }
+    }
+
+    private static Object doorgeven(Object doel, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(doel, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Een uitvoering van een statement, tot haar resultset gesloten wordt.
+     */
+    private class Uitvoering {
+        private final QueryMetingen.QueryStatistiek statistiek;
+        private final Map<Integer, Object> parameters;
+        private final int batch;
+        private long uitvoerNanos;
+        private long doorloopNanos;
+        private long rijen;
+        private boolean fout;
+        private boolean afgerond;
+
+        private Uitvoering(QueryMetingen.QueryStatistiek statistiek, Map<Integer, Object> parameters, int batch) {
+            this.statistiek = statistiek;
+            this.parameters = parameters;
+            this.batch = batch;
+        }
+
+        private void afronden() {
+            if (!afgerond) {
+                afgerond = true;
+                metingen.registreerUitvoering(statistiek, uitvoerNanos, doorloopNanos, rijen, fout, parameters, batch);
+            }
+        }
+    }
+
+    /**
+     * Houdt de parameters bij en meet de uitvoeringen van een PreparedStatement.
+     */
+    private class GemetenStatement implements InvocationHandler {
+        private final PreparedStatement stmt;
+        private final QueryMetingen.QueryStatistiek statistiek;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private int batch;
+        private Uitvoering lopend;
+
+        private GemetenStatement(PreparedStatement stmt, QueryMetingen.QueryStatistiek statistiek) {
+            this.stmt = stmt;
+            this.statistiek = statistiek;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String naam = method.getName();
+            if (naam.startsWith("execute")) {
+                return voerUit(method, args);
+            }
+            if (naam.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                // setString(1, "x"), setNull(2, Types.INTEGER), ...
+                parameters.put((Integer) args[0], naam.equals("setNull") ? null : args[1]);
+                return doorgeven(stmt, method, args);
+            }
+            switch (naam) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Gemeten" + stmt;
+                case "clearParameters":
+                    parameters.clear();
+                    return doorgeven(stmt, method, args);
+                case "addBatch":
+                    batch++;
+                    return doorgeven(stmt, method, args);
+                case "clearBatch":
+                    batch = 0;
+                    return doorgeven(stmt, method, args);
+                case "getResultSet":
+                case "getGeneratedKeys":
+                    ResultSet rs = (ResultSet) doorgeven(stmt, method, args);
+                    return rs == null || lopend == null ? rs : meet(rs, lopend);
+                case "close":
+                    rondLopendAf();
+                    return doorgeven(stmt, method, args);
+                default:
+                    return doorgeven(stmt, method, args);
+            }
+        }
+
+        private Object voerUit(Method method, Object[] args) throws Throwable {
+            rondLopendAf();
+            Uitvoering uitvoering = new Uitvoering(statistiek, new TreeMap<>(parameters), batch);
+            if (method.getName().equals("executeBatch") || method.getName().equals("executeLargeBatch")) {
+                batch = 0;
+            }
+            lopend = uitvoering;
+            long start = System.nanoTime();
+            try {
+                Object resultaat = doorgeven(stmt, method, args);
+                uitvoering.uitvoerNanos = System.nanoTime() - start;
+                return resultaat instanceof ResultSet ? meet((ResultSet) resultaat, uitvoering) : resultaat;
+            } catch (Throwable ex) {
+                uitvoering.uitvoerNanos = System.nanoTime() - start;
+                uitvoering.fout = true;
+                rondLopendAf();
+                throw ex;
+            }
+        }
+
+        private void rondLopendAf() {
+            if (lopend != null) {
+                lopend.afronden();
+                lopend = null;
+            }
+        }
+
+        private ResultSet meet(ResultSet rs, Uitvoering uitvoering) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    GemetenConnectie.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    new GemetenResultSet(rs, uitvoering));
+        }
+    }
+
+    /**
+     * Meet de tijd in de navigatiemethodes van een resultset en telt de rijen.
+     */
+    private class GemetenResultSet implements InvocationHandler {
+        private final ResultSet rs;
+        private final Uitvoering uitvoering;
+
+        private GemetenResultSet(ResultSet rs, Uitvoering uitvoering) {
+            this.rs = rs;
+            this.uitvoering = uitvoering;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                case "previous":
+                case "first":
+                case "last":
+                case "absolute":
+                case "relative":
+                    long start = System.nanoTime();
+                    try {
+                        Object resultaat = doorgeven(rs, method, args);
+                        if (Boolean.TRUE.equals(resultaat)) {
+                            uitvoering.rijen++;
+                        }
+                        return resultaat;
+                    } finally {
+                        uitvoering.doorloopNanos += System.nanoTime() - start;
+                    }
+                case "close":
+                    try {
+                        return doorgeven(rs, method, args);
+                    } finally {
+                        uitvoering.afronden();
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Gemeten" + rs;
+                default:
+                    return doorgeven(rs, method, args);
+            }
+        }
+    }
+}
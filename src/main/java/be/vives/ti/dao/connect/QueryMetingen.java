@@ -0,0 +1,459 @@
+package be.vives.ti.dao.connect;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.time.temporal.Temporal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Meet de databankoproepen van de DAO's, in te schakelen met query.meten in DB.properties
+ * (of -Dvivesbike.db.query.meten=true):
+ * - het wachten op een connectie uit de pool
+ * - per SQL-tekst en DAO-methode: het voorbereiden, het uitvoeren en het doorlopen van de resultset
+ *   (enkel de tijd in next(), first() enz., niet de verwerking door de DAO)
+ * - de topN traagste uitvoeringen, met hun parameters
+ * - het aantal uitvoeringen dat langer dan traagMillis duurt (zie Metingen.voegQueryTellersToe),
+ *   met een regel per uitvoering in het logboek wanneer er een opgegeven werd (query.log)
+ *
+ * Van de parameters wordt standaard enkel getoond of ze null zijn. Met toonWaarden
+ * (query.logWaarden) komen ook getallen, datums en booleans in de regels; tekst blijft
+ * altijd verborgen omdat die persoonsgegevens kan bevatten, bv. een rijksregisternummer,
+ * naam of e-mailadres.
+ *
+ * De bron van een SQL-tekst is de DAO-methode die ze voorbereidde, bv. RitDAO.zoekRit,
+ * zodat rapport() toont welke DAO de meeste tijd in de databank doorbrengt.
+ */
+public class QueryMetingen {
+
+    static final String BRON_ONBEKEND = "onbekend";
+
+    private static final String DAO_PACKAGE = "be.vives.ti.dao.";
+    private static final StackWalker STACK = StackWalker.getInstance();
+    private static final int RAPPORT_AANTAL_SQL = 10;
+
+    private final long traagNanos;
+    private final int topN;
+    private final Consumer<String> logboek;
+    private final boolean toonWaarden;
+
+    private final Map<String, QueryStatistiek> statistieken = new ConcurrentHashMap<>();
+    private final LongAdder trage = new LongAdder();
+    private final LongAdder connecties = new LongAdder();
+    private final LongAdder connectieNanos = new LongAdder();
+    private final AtomicLong connectieMaxNanos = new AtomicLong();
+
+    // de traagste uitvoeringen, de snelste staat vooraan
+    private final PriorityQueue<TrageQuery> traagste =
+            new PriorityQueue<>(Comparator.comparingLong(TrageQuery::getDuurNanos));
+    private volatile long traagsteDrempelNanos;
+
+    /**
+     * Meet zonder logboek: de trage uitvoeringen worden enkel geteld.
+     * @param traagMillis uitvoeringen vanaf deze duur tellen als traag, negatief om niets als traag te tellen
+     * @param topN        aantal traagste uitvoeringen dat bijgehouden wordt
+     */
+    public QueryMetingen(long traagMillis, int topN) {
+        this(traagMillis, topN, null);
+    }
+
+    /**
+     * @param logboek krijgt een regel per trage uitvoering, null voor geen logboek
+     */
+    public QueryMetingen(long traagMillis, int topN, Consumer<String> logboek) {
+        this(traagMillis, topN, logboek, false);
+    }
+
+    /**
+     * @param toonWaarden true om de waarde van parameters die geen tekst zijn te tonen
+     */
+    public QueryMetingen(long traagMillis, int topN, Consumer<String> logboek, boolean toonWaarden) {
+        this.traagNanos = traagMillis < 0 ? Long.MAX_VALUE : traagMillis * 1_000_000;
+        this.topN = topN;
+        this.logboek = logboek;
+        this.toonWaarden = toonWaarden;
+    }
+
+    /**
+     * @param conn connectie, bv. uit de pool
+     * @return connectie die de PreparedStatements en hun resultsets meet; close() gaat naar conn
+     */
+    public Connection verpak(Connection conn) {
+        return GemetenConnectie.verpak(conn, this);
+    }
+
+    /**
+     * @param nanos tijd die gewacht werd op een connectie uit de pool
+     */
+    void registreerConnectie(long nanos) {
+        connecties.increment();
+        connectieNanos.add(nanos);
+        connectieMaxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return de statistiek van sql, voorbereid door bron
+     */
+    QueryStatistiek statistiek(String sql, String bron) {
+        // dezelfde SQL-tekst kan in meerdere DAO-methodes staan, bv. zoekAlleFietsen en streamAlleFietsen
+        String sleutel = bron + '\n' + sql;
+        QueryStatistiek statistiek = statistieken.get(sleutel);
+        return statistiek != null ? statistiek
+                : statistieken.computeIfAbsent(sleutel, s -> new QueryStatistiek(sql, bron));
+    }
+
+    /**
+     * Registreert een afgeronde uitvoering: uitvoeren en doorlopen van de resultset.
+     */
+    void registreerUitvoering(QueryStatistiek statistiek, long uitvoerNanos, long doorloopNanos, long rijen,
+                              boolean fout, Map<Integer, Object> parameters, int batch) {
+        long duur = uitvoerNanos + doorloopNanos;
+        statistiek.registreer(uitvoerNanos, doorloopNanos, rijen, fout);
+        if (duur < traagNanos && (topN <= 0 || duur <= traagsteDrempelNanos)) {
+            return;
+        }
+        TrageQuery traag = new TrageQuery(statistiek.getSql(), statistiek.getBron(), parameters(parameters, batch),
+                duur, uitvoerNanos, doorloopNanos, rijen, System.currentTimeMillis());
+        if (topN > 0 && duur > traagsteDrempelNanos) {
+            synchronized (traagste) {
+                traagste.add(traag);
+                if (traagste.size() > topN) {
+                    traagste.poll();
+                }
+                if (traagste.size() == topN) {
+                    traagsteDrempelNanos = traagste.peek().getDuurNanos();
+                }
+            }
+        }
+        if (duur >= traagNanos) {
+            trage.increment();
+            if (logboek != null) {
+                logboek.accept("TRAGE QUERY " + traag);
+            }
+        }
+    }
+
+    /**
+     * @return de DAO-methode die de huidige thread uitvoert, bv. "RitDAO.zoekRit", of BRON_ONBEKEND
+     */
+    static String bron() {
+        // hulpklassen zoals ResultSetStream overslaan, tot de DAO die ze gebruikt
+        return STACK.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(DAO_PACKAGE) && klasse(f.getClassName()).endsWith("DAO"))
+                .findFirst()
+                .map(f -> klasse(f.getClassName()) + "." + methode(f.getMethodName()))
+                .orElse(BRON_ONBEKEND));
+    }
+
+    private static String klasse(String naam) {
+        String kort = naam.substring(naam.lastIndexOf('.') + 1);
+        int binnen = kort.indexOf('$');
+        return binnen < 0 ? kort : kort.substring(0, binnen);
+    }
+
+    private static String methode(String naam) {
+        // lambda$streamAlleRitten$3 -> streamAlleRitten
+        if (naam.startsWith("lambda$")) {
+            int einde = naam.indexOf('$', 7);
+            return einde < 0 ? naam.substring(7) : naam.substring(7, einde);
+        }
+        return naam;
+    }
+
+    private String parameters(Map<Integer, Object> parameters, int batch) {
+        StringBuilder sb = new StringBuilder("[");
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(parameter.getKey()).append('=').append(waarde(parameter.getValue()));
+        }
+        sb.append(']');
+        if (batch > 0) {
+            sb.append(" batch van ").append(batch);
+        }
+        return sb.toString();
+    }
+
+    private String waarde(Object waarde) {
+        if (waarde == null) {
+            return "null";
+        }
+        // tekst (en alles wat geen getal, datum of boolean is) kan een persoonsgegeven zijn
+        if (toonWaarden && (waarde instanceof Number || waarde instanceof Boolean
+                || waarde instanceof java.util.Date || waarde instanceof Temporal)) {
+            return waarde.toString();
+        }
+        return "?";
+    }
+
+    /**
+     * @return statistieken per SQL-tekst en bron, de grootste totale duur eerst
+     */
+    public List<QueryStatistiek> getStatistieken() {
+        List<QueryStatistiek> lijst = new ArrayList<>(statistieken.values());
+        lijst.sort(Comparator.comparingLong(QueryStatistiek::getTotaleDuurNanos).reversed());
+        return lijst;
+    }
+
+    /**
+     * @return totale duur (uitvoeren en doorlopen) per DAO, bv. "RitDAO", gesorteerd op naam
+     */
+    public Map<String, Long> getDuurPerDaoNanos() {
+        Map<String, Long> perDao = new TreeMap<>();
+        for (QueryStatistiek statistiek : statistieken.values()) {
+            perDao.merge(statistiek.getDao(), statistiek.getTotaleDuurNanos(), Long::sum);
+        }
+        return perDao;
+    }
+
+    /**
+     * @return de topN traagste uitvoeringen, de traagste eerst
+     */
+    public List<TrageQuery> getTraagste() {
+        List<TrageQuery> lijst;
+        synchronized (traagste) {
+            lijst = new ArrayList<>(traagste);
+        }
+        lijst.sort(Comparator.comparingLong(TrageQuery::getDuurNanos).reversed());
+        return lijst;
+    }
+
+    /**
+     * @return aantal uitvoeringen dat minstens traagMillis duurde
+     */
+    public long getAantalTrage() {
+        return trage.sum();
+    }
+
+    /**
+     * @return aantal uitvoeringen van alle SQL-teksten samen
+     */
+    public long getAantalUitvoeringen() {
+        long aantal = 0;
+        for (QueryStatistiek statistiek : statistieken.values()) {
+            aantal += statistiek.getUitvoeringen();
+        }
+        return aantal;
+    }
+
+    public long getAantalConnecties() {
+        return connecties.sum();
+    }
+
+    public long getConnectieNanos() {
+        return connectieNanos.sum();
+    }
+
+    public long getConnectieMaxNanos() {
+        return connectieMaxNanos.get();
+    }
+
+    /**
+     * @return overzicht van het wachten op connecties, de duur per DAO, de duurste SQL-teksten
+     * en de traagste uitvoeringen
+     */
+    public String rapport() {
+        StringBuilder sb = new StringBuilder();
+        long aantal = getAantalConnecties();
+        sb.append(String.format(Locale.ROOT, "Connecties: %d uitgeleend, wachten gemiddeld %.3f ms, max %.3f ms%n",
+                aantal, aantal == 0 ? 0 : millis(getConnectieNanos()) / aantal, millis(getConnectieMaxNanos())));
+
+        Map<String, Long> perDao = getDuurPerDaoNanos();
+        long totaal = perDao.values().stream().mapToLong(Long::longValue).sum();
+        sb.append("Per DAO (uitvoeren en doorlopen):").append(System.lineSeparator());
+        perDao.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(dao -> sb.append(String.format(Locale.ROOT, "  %-20s %10.1f ms %5.1f%%%n", dao.getKey(),
+                        millis(dao.getValue()), totaal == 0 ? 0 : 100.0 * dao.getValue() / totaal)));
+
+        sb.append("Per SQL (grootste totale duur eerst):").append(System.lineSeparator());
+        List<QueryStatistiek> lijst = getStatistieken();
+        for (QueryStatistiek statistiek : lijst.subList(0, Math.min(RAPPORT_AANTAL_SQL, lijst.size()))) {
+            sb.append("  ").append(statistiek).append(System.lineSeparator());
+        }
+
+        sb.append("Traagste uitvoeringen:").append(System.lineSeparator());
+        for (TrageQuery traag : getTraagste()) {
+            sb.append("  ").append(traag).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Metingen van een SQL-tekst uit een DAO-methode. Alle methodes mogen gelijktijdig opgeroepen worden.
+     */
+    public static class QueryStatistiek {
+        private final String sql;
+        private final String bron;
+        private final LongAdder voorbereidingen = new LongAdder();
+        private final LongAdder voorbereidNanos = new LongAdder();
+        private final LongAdder uitvoeringen = new LongAdder();
+        private final LongAdder uitvoerNanos = new LongAdder();
+        private final LongAdder doorloopNanos = new LongAdder();
+        private final LongAdder rijen = new LongAdder();
+        private final LongAdder fouten = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private QueryStatistiek(String sql, String bron) {
+            this.sql = sql;
+            this.bron = bron;
+        }
+
+        void registreerVoorbereiding(long nanos) {
+            voorbereidingen.increment();
+            voorbereidNanos.add(nanos);
+        }
+
+        private void registreer(long uitvoer, long doorlopen, long aantalRijen, boolean fout) {
+            uitvoeringen.increment();
+            uitvoerNanos.add(uitvoer);
+            doorloopNanos.add(doorlopen);
+            rijen.add(aantalRijen);
+            if (fout) {
+                fouten.increment();
+            }
+            maxNanos.accumulateAndGet(uitvoer + doorlopen, Math::max);
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return DAO-methode die de SQL-tekst voorbereidde, bv. "RitDAO.zoekRit"
+         */
+        public String getBron() {
+            return bron;
+        }
+
+        /**
+         * @return DAO van de bron, bv. "RitDAO"
+         */
+        public String getDao() {
+            int punt = bron.indexOf('.');
+            return punt < 0 ? bron : bron.substring(0, punt);
+        }
+
+        public long getVoorbereidingen() {
+            return voorbereidingen.sum();
+        }
+
+        public long getVoorbereidNanos() {
+            return voorbereidNanos.sum();
+        }
+
+        public long getUitvoeringen() {
+            return uitvoeringen.sum();
+        }
+
+        public long getUitvoerNanos() {
+            return uitvoerNanos.sum();
+        }
+
+        public long getDoorloopNanos() {
+            return doorloopNanos.sum();
+        }
+
+        /**
+         * @return uitvoeren en doorlopen samen
+         */
+        public long getTotaleDuurNanos() {
+            return getUitvoerNanos() + getDoorloopNanos();
+        }
+
+        public long getRijen() {
+            return rijen.sum();
+        }
+
+        public long getFouten() {
+            return fouten.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        @Override
+        public String toString() {
+            long n = getUitvoeringen();
+            return String.format(Locale.ROOT,
+                    "%s: n=%d totaal=%.1f ms gem=%.3f ms max=%.3f ms uitvoeren=%.1f ms doorlopen=%.1f ms"
+                            + " voorbereiden=%.1f ms (%d keer) rijen=%d fouten=%d | %s",
+                    bron, n, millis(getTotaleDuurNanos()), n == 0 ? 0 : millis(getTotaleDuurNanos()) / n,
+                    millis(getMaxNanos()), millis(getUitvoerNanos()), millis(getDoorloopNanos()),
+                    millis(getVoorbereidNanos()), getVoorbereidingen(), getRijen(), getFouten(), sql);
+        }
+    }
+
+    /**
+     * Een trage uitvoering van een SQL-tekst, met de parameters.
+     */
+    public static class TrageQuery {
+        private final String sql;
+        private final String bron;
+        private final String parameters;
+        private final long duurNanos;
+        private final long uitvoerNanos;
+        private final long doorloopNanos;
+        private final long rijen;
+        private final long tijdstipMillis;
+
+        private TrageQuery(String sql, String bron, String parameters, long duurNanos, long uitvoerNanos,
+                           long doorloopNanos, long rijen, long tijdstipMillis) {
+            this.sql = sql;
+            this.bron = bron;
+            this.parameters = parameters;
+            this.duurNanos = duurNanos;
+            this.uitvoerNanos = uitvoerNanos;
+            this.doorloopNanos = doorloopNanos;
+            this.rijen = rijen;
+            this.tijdstipMillis = tijdstipMillis;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public String getBron() {
+            return bron;
+        }
+
+        /**
+         * @return de parameters per index, bv. "[1=?, 2=null]" of met toonWaarden "[1=42, 2=?]"
+         */
+        public String getParameters() {
+            return parameters;
+        }
+
+        public long getDuurNanos() {
+            return duurNanos;
+        }
+
+        public long getRijen() {
+            return rijen;
+        }
+
+        public long getTijdstipMillis() {
+            return tijdstipMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.3f ms (uitvoeren %.3f ms, doorlopen %.3f ms, %d rijen) in %s: %s %s",
+                    millis(duurNanos), millis(uitvoerNanos), millis(doorloopNanos), rijen, bron, sql, parameters);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.exception.DBException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Brengt het schema van de databank op de versie die bij de code hoort.
+ * - de migraties staan als V&lt;versie&gt;__&lt;beschrijving&gt;.sql in een map op het classpath
+ * - migraties.lst in die map somt de scripts op, in volgorde van versie
+ * - de toegepaste versies en hun checksum worden bijgehouden in de tabel schema_versie
+ * - een toegepast script dat achteraf gewijzigd werd, doet de migratie falen
+ *
+ * Een script bevat een of meer statements, telkens afgesloten met een ';' op het einde
+ * van een regel. Regels die beginnen met '--' zijn commentaar.
+ *
+ * MySQL voert DDL niet in een transactie uit: faalt een script halverwege, dan blijven de
+ * statements ervoor toegepast terwijl de versie niet geregistreerd wordt. Een script moet
+ * daarom opnieuw uitgevoerd kunnen worden:
+ * - "create index if not exists" wordt hier zelf afgehandeld omdat MySQL het niet kent:
+ *   bestaat de index al op de tabel, dan wordt het statement overgeslagen
+ * - "alter table ... add [column] ..." wordt overgeslagen wanneer de kolom al bestaat
+ * - "controleer select ..." wijzigt niets: elke rij die de query teruggeeft is een probleem
+ *   in de bestaande gegevens. De controles van een script lopen voor alle andere statements,
+ *   zodat het script faalt met de rijen in de melding nog voor er iets gewijzigd is.
+ */
+public class SchemaMigratie {
+
+    public static final String STANDAARD_MAP = "/database/migraties/";
+
+    private static final String INDEX = "migraties.lst";
+    private static final Pattern BESTANDSNAAM = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern INDEX_INDIEN_NIEUW = Pattern.compile(
+            "create\\s+(unique\\s+)?index\\s+if\\s+not\\s+exists\\s+(\\w+)\\s+on\\s+(\\w+)(.*)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern KOLOM_TOEVOEGEN = Pattern.compile(
+            "alter\\s+table\\s+(\\w+)\\s+add\\s+(column\\s+)?(\\w+)\\s.*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern CONTROLE = Pattern.compile(
+            "controleer\\s+(select\\s.*)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final String map;
+
+    public SchemaMigratie() {
+        this(STANDAARD_MAP);
+    }
+
+    /**
+     * @param map map op het classpath met migraties.lst en de scripts, eindigend op '/'
+     */
+    public SchemaMigratie(String map) {
+        this.map = map;
+    }
+
+    /**
+     * Controleert de reeds toegepaste migraties en voert de ontbrekende uit.
+     *
+     * @param conn connectie naar de databank, in autocommit
+     * @return de versies die nu toegepast werden, leeg wanneer het schema al up-to-date was
+     * @throws DBException wanneer een script ontbreekt of gewijzigd werd, of een statement faalt
+     */
+    public List<Integer> migreer(Connection conn) throws DBException {
+        List<Migratie> migraties = leesMigraties();
+        try {
+            maakVersieTabel(conn);
+            Map<Integer, Long> toegepast = leesToegepast(conn);
+            int laatste = valideer(migraties, toegepast);
+
+            List<Integer> uitgevoerd = new ArrayList<>();
+            for (Migratie migratie : migraties) {
+                if (!toegepast.containsKey(migratie.versie)) {
+                    if (migratie.versie < laatste) {
+                        throw new DBException("Migratie " + migratie.bestand
+                                + " is ouder dan de laatst toegepaste versie V" + laatste);
+                    }
+                    voerUit(conn, migratie);
+                    uitgevoerd.add(migratie.versie);
+                }
+            }
+            return uitgevoerd;
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in migreer - " + sqlEx);
+        }
+    }
+
+    /**
+     * @return de migraties uit migraties.lst, gesorteerd op versie
+     * @throws DBException wanneer de lijst of een script niet gelezen kan worden
+     */
+    List<Migratie> leesMigraties() throws DBException {
+        List<Migratie> migraties = new ArrayList<>();
+        for (String regel : leesRegels(INDEX)) {
+            String bestand = regel.trim();
+            if (bestand.isEmpty() || bestand.startsWith("#")) {
+                continue;
+            }
+            Matcher m = BESTANDSNAAM.matcher(bestand);
+            if (!m.matches()) {
+                throw new DBException("Ongeldige naam voor een migratie: " + bestand);
+            }
+            int versie = Integer.parseInt(m.group(1));
+            if (!migraties.isEmpty() && migraties.get(migraties.size() - 1).versie >= versie) {
+                throw new DBException("Migraties staan niet in oplopende volgorde in " + INDEX + ": " + bestand);
+            }
+            String sql = String.join("\n", leesRegels(bestand));
+            migraties.add(new Migratie(versie, m.group(2).replace('_', ' '), bestand, sql));
+        }
+        return migraties;
+    }
+
+    /**
+     * @param sql inhoud van een script
+     * @return de afzonderlijke statements, zonder commentaar en zonder afsluitende ';'
+     */
+    static List<String> splitsStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder huidig = new StringBuilder();
+        for (String regel : sql.split("\n")) {
+            String r = regel.trim();
+            if (r.isEmpty() || r.startsWith("--")) {
+                continue;
+            }
+            if (huidig.length() > 0) {
+                huidig.append('\n');
+            }
+            if (r.endsWith(";")) {
+                huidig.append(regel, 0, regel.lastIndexOf(';'));
+                statements.add(huidig.toString().trim());
+                huidig.setLength(0);
+            } else {
+                huidig.append(regel);
+            }
+        }
+        if (huidig.toString().trim().length() > 0) {
+            statements.add(huidig.toString().trim());
+        }
+        return statements;
+    }
+
+    /**
+     * @param sql inhoud van een script, met regeleinden als '\n'
+     * @return CRC32 van de inhoud
+     */
+    static long checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private int valideer(List<Migratie> migraties, Map<Integer, Long> toegepast) throws DBException {
+        Map<Integer, Migratie> perVersie = migraties.stream()
+                .collect(Collectors.toMap(m -> m.versie, m -> m));
+        int laatste = 0;
+        for (Map.Entry<Integer, Long> versie : toegepast.entrySet()) {
+            Migratie migratie = perVersie.get(versie.getKey());
+            if (migratie == null) {
+                throw new DBException("Toegepaste migratie V" + versie.getKey() + " ontbreekt in " + map + INDEX);
+            }
+            if (migratie.checksum != versie.getValue()) {
+                throw new DBException("Migratie " + migratie.bestand + " werd gewijzigd nadat ze toegepast werd");
+            }
+            laatste = Math.max(laatste, versie.getKey());
+        }
+        return laatste;
+    }
+
+    private void maakVersieTabel(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table if not exists schema_versie ("
+                    + " versie int not null primary key,"
+                    + " beschrijving varchar(200) not null,"
+                    + " checksum bigint not null,"
+                    + " toegepast_op timestamp not null default current_timestamp)");
+        }
+    }
+
+    private Map<Integer, Long> leesToegepast(Connection conn) throws SQLException {
+        Map<Integer, Long> toegepast = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet r = stmt.executeQuery("select versie, checksum from schema_versie")) {
+            while (r.next()) {
+                toegepast.put(r.getInt("versie"), r.getLong("checksum"));
+            }
+        }
+        return toegepast;
+    }
+
+    private void voerUit(Connection conn, Migratie migratie) throws DBException, SQLException {
+        List<String> statements = splitsStatements(migratie.sql);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                Matcher controle = CONTROLE.matcher(sql);
+                if (controle.matches()) {
+                    controleer(stmt, migratie, controle.group(1));
+                }
+            }
+            for (String sql : statements) {
+                try {
+                    if (CONTROLE.matcher(sql).matches()) {
+                        continue;
+                    }
+                    Matcher index = INDEX_INDIEN_NIEUW.matcher(sql);
+                    if (index.matches()) {
+                        if (bestaatIndex(conn, index.group(3), index.group(2))) {
+                            continue;
+                        }
+                        sql = "create " + (index.group(1) == null ? "" : "unique ") + "index "
+                                + index.group(2) + " on " + index.group(3) + index.group(4);
+                    }
+                    Matcher kolom = KOLOM_TOEVOEGEN.matcher(sql);
+                    if (kolom.matches() && bestaatKolom(conn, kolom.group(1), kolom.group(3))) {
+                        continue;
+                    }
+                    stmt.execute(sql);
+                } catch (SQLException sqlEx) {
+                    throw new DBException("Migratie " + migratie.bestand + " mislukt bij: " + sql + " - " + sqlEx);
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into schema_versie(versie, beschrijving, checksum) values (?,?,?)")) {
+            stmt.setInt(1, migratie.versie);
+            stmt.setString(2, migratie.beschrijving);
+            stmt.setLong(3, migratie.checksum);
+            stmt.execute();
+        }
+    }
+
+    private void controleer(Statement stmt, Migratie migratie, String sql) throws DBException {
+        List<String> problemen = new ArrayList<>();
+        try (ResultSet r = stmt.executeQuery(sql)) {
+            while (r.next()) {
+                problemen.add(r.getString(1));
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("Migratie " + migratie.bestand + " mislukt bij: " + sql + " - " + sqlEx);
+        }
+        if (!problemen.isEmpty()) {
+            throw new DBException("Migratie " + migratie.bestand + " kan niet toegepast worden, er werd niets gewijzigd. "
+                    + "Los eerst op: " + String.join("; ", problemen));
+        }
+    }
+
+    private boolean bestaatIndex(Connection conn, String tabel, String index) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        // de databank kan de tabelnaam in kleine of hoofdletters bewaren
+        for (String naam : new LinkedHashSet<>(Arrays.asList(tabel, tabel.toLowerCase(), tabel.toUpperCase()))) {
+            try (ResultSet r = metaData.getIndexInfo(conn.getCatalog(), null, naam, false, true)) {
+                while (r.next()) {
+                    if (index.equalsIgnoreCase(r.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean bestaatKolom(Connection conn, String tabel, String kolom) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String naam : new LinkedHashSet<>(Arrays.asList(tabel, tabel.toLowerCase(), tabel.toUpperCase()))) {
+            try (ResultSet r = metaData.getColumns(conn.getCatalog(), null, naam, null)) {
+                while (r.next()) {
+                    if (kolom.equalsIgnoreCase(r.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<String> leesRegels(String bestand) throws DBException {
+        InputStream in = getClass().getResourceAsStream(map + bestand);
+        if (in == null) {
+            throw new DBException("Bestand " + map + bestand + " niet gevonden.");
+        }
+        try (BufferedReader lezer = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return lezer.lines().collect(Collectors.toList());
+        } catch (IOException ex) {
+            throw new DBException("Bestand " + map + bestand + " kon niet gelezen worden: " + ex);
+        }
+    }
+
+    /**
+     * Een script uit de migratiemap.
+     */
+    static class Migratie {
+        final int versie;
+        final String beschrijving;
+        final String bestand;
+        final String sql;
+        final long checksum;
+
+        Migratie(int versie, String beschrijving, String bestand, String sql) {
+            this.versie = versie;
+            this.beschrijving = beschrijving;
+            this.bestand = bestand;
+            this.sql = sql;
+            this.checksum = checksum(sql);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package be.vives.ti.dao.connect;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Houdt de PreparedStatements van een fysieke connectie bij, met de SQL-tekst als sleutel.
+ * Een DAO die hetzelfde statement opnieuw voorbereidt, krijgt het bestaande statement terug
+ * zodat de databank de query maar een keer moet parsen. close() op het uitgeleende statement
+ * wist enkel de parameters en de batch en zet fetchSize, maxRows en queryTimeout terug op hun
+ * beginwaarde; het statement blijft open tot het uit de cache valt of de connectie gesloten wordt.
+ * getConnection() op een uitgeleend statement geeft de uitgeleende connectie van de pool terug,
+ * nooit de fysieke connectie.
+ */
+class StatementCache {
+
+    private final Connection fysiek;
+    private final int maxGrootte;
+    private final AtomicLong treffers;
+    private final AtomicLong missers;
+
+    // least recently used volgorde: het langst niet gebruikte statement staat vooraan
+    private final LinkedHashMap<String, CacheStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection fysiek, int maxGrootte, AtomicLong treffers, AtomicLong missers) {
+        this.fysiek = fysiek;
+        this.maxGrootte = maxGrootte;
+        this.treffers = treffers;
+        this.missers = missers;
+    }
+
+    /**
+     * @param sql               SQL-tekst van het statement
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS of Statement.NO_GENERATED_KEYS
+     * @param uitgeleend        de connectie van de pool die het statement vraagt
+     * @return een voorbereid statement, uit de cache indien mogelijk
+     */
+    PreparedStatement geefStatement(String sql, int autoGeneratedKeys, Connection uitgeleend) throws SQLException {
+        if (maxGrootte <= 0) {
+            missers.incrementAndGet();
+            return metConnectie(fysiek.prepareStatement(sql, autoGeneratedKeys), PreparedStatement.class, uitgeleend);
+        }
+        String sleutel = autoGeneratedKeys + ":" + sql;
+        CacheStatement cs = statements.get(sleutel);
+        if (cs != null && !cs.inGebruik) {
+            treffers.incrementAndGet();
+            return cs.leenUit(uitgeleend);
+        }
+        missers.incrementAndGet();
+        PreparedStatement stmt = fysiek.prepareStatement(sql, autoGeneratedKeys);
+        if (cs != null) {
+            // hetzelfde statement is nog in gebruik (geneste query), niet cachen
+            return metConnectie(stmt, PreparedStatement.class, uitgeleend);
+        }
+        cs = new CacheStatement(stmt);
+        statements.put(sleutel, cs);
+        verwijderOudste();
+        return cs.leenUit(uitgeleend);
+    }
+
+    /**
+     * Verpakt een statement dat niet uit de cache komt, zodat getConnection() de uitgeleende
+     * connectie teruggeeft in plaats van de fysieke.
+     *
+     * @param stmt       statement van de fysieke connectie
+     * @param type       interface van het statement
+     * @param uitgeleend de connectie van de pool
+     * @return het verpakte statement
+     */
+    static <T extends Statement> T metConnectie(T stmt, Class<T> type, Connection uitgeleend) {
+        return type.cast(Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConnection":
+                            return uitgeleend;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            try {
+                                return method.invoke(stmt, args);
+                            } catch (InvocationTargetException ex) {
+                                throw ex.getCause();
+                            }
+                    }
+                }));
+    }
+
+    /**
+     * @return aantal statements in de cache
+     */
+    int getGrootte() {
+        return statements.size();
+    }
+
+    private void verwijderOudste() {
+        Iterator<CacheStatement> oudsteEerst = statements.values().iterator();
+        while (statements.size() > maxGrootte && oudsteEerst.hasNext()) {
+            CacheStatement cs = oudsteEerst.next();
+            oudsteEerst.remove();
+            cs.verwijderd = true;
+            if (!cs.inGebruik) {
+                cs.sluitFysiek();
+            }
+        }
+    }
+
+    /**
+     * Statement in de cache, met de toestand van het huidige gebruik.
+     */
+    private static class CacheStatement {
+        private final PreparedStatement stmt;
+        private boolean inGebruik;
+        private boolean verwijderd;
+        // oorspronkelijke waarde van een instelling die tijdens de huidige uitlening aangepast werd,
+        // null zolang ze niet aangepast werd; pas dan opgevraagd omdat de driver er soms een query voor uitvoert
+        private Integer standaardFetchSize;
+        private Integer standaardMaxRows;
+        private Integer standaardQueryTimeout;
+
+        private CacheStatement(PreparedStatement stmt) {
+            this.stmt = stmt;
+        }
+
+        private PreparedStatement leenUit(Connection uitgeleend) {
+            inGebruik = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new Uitgeleend(this, uitgeleend));
+        }
+
+        private void neemTerug() throws SQLException {
+            inGebruik = false;
+            if (verwijderd) {
+                sluitFysiek();
+            } else {
+                stmt.clearParameters();
+                stmt.clearBatch();
+                if (standaardFetchSize != null) {
+                    stmt.setFetchSize(standaardFetchSize);
+                    standaardFetchSize = null;
+                }
+                if (standaardMaxRows != null) {
+                    stmt.setMaxRows(standaardMaxRows);
+                    standaardMaxRows = null;
+                }
+                if (standaardQueryTimeout != null) {
+                    stmt.setQueryTimeout(standaardQueryTimeout);
+                    standaardQueryTimeout = null;
+                }
+            }
+        }
+
+        private void sluitFysiek() {
+            try {
+                stmt.close();
+            } catch (SQLException ex) {
+                // statement was al onbruikbaar
+            }
+        }
+    }
+
+    /**
+     * Een uitlening van een statement uit de cache: close() geeft het terug aan de cache.
+     */
+    private static class Uitgeleend implements InvocationHandler {
+        private final CacheStatement cs;
+        private final Connection uitgeleend;
+        private boolean gesloten;
+
+        private Uitgeleend(CacheStatement cs, Connection uitgeleend) {
+            this.cs = cs;
+            this.uitgeleend = uitgeleend;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!gesloten) {
+                        gesloten = true;
+                        cs.neemTerug();
+                    }
+                    return null;
+                case "isClosed":
+                    return gesloten || cs.stmt.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cache" + cs.stmt;
+                default:
+                    if (gesloten) {
+                        throw new SQLException("Statement werd al gesloten");
+                    }
+                    switch (method.getName()) {
+                        case "getConnection":
+                            return uitgeleend;
+                        case "setFetchSize":
+                            if (cs.standaardFetchSize == null) {
+                                cs.standaardFetchSize = cs.stmt.getFetchSize();
+                            }
+                            break;
+                        case "setMaxRows":
+                        case "setLargeMaxRows":
+                            if (cs.standaardMaxRows == null) {
+                                cs.standaardMaxRows = cs.stmt.getMaxRows();
+                            }
+                            break;
+                        case "setQueryTimeout":
+                            if (cs.standaardQueryTimeout == null) {
+                                cs.standaardQueryTimeout = cs.stmt.getQueryTimeout();
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(cs.stmt, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+            }
+        }
+    }
+}
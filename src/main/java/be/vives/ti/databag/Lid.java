@@ -15,6 +15,23 @@ public class Lid {
     private LocalDate einde_lidmaatschap;
     private String opmerking;
 
+    public Lid() {
+    }
+
+    /**
+     * Maakt een kopie van een lid.
+     * @param lid lid dat gekopieerd wordt
+     */
+    public Lid(Lid lid) {
+        this.rijksregisternummer = lid.rijksregisternummer;
+        this.naam = lid.naam;
+        this.voornaam = lid.voornaam;
+        this.emailadres = lid.emailadres;
+        this.start_lidmaatschap = lid.start_lidmaatschap;
+        this.einde_lidmaatschap = lid.einde_lidmaatschap;
+        this.opmerking = lid.opmerking;
+    }
+
     public String getRijksregisternummer() {
         if (rijksregisternummer == null) {
             return null;
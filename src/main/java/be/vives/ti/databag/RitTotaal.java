@@ -0,0 +1,48 @@
+package be.vives.ti.databag;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Totalen van de ritten van een groep in een rapport: een dag, maand, fiets, lid of standplaats.
+ */
+public class RitTotaal {
+
+    private final String groep;
+    private final long aantalRitten;
+    private final BigDecimal omzet;
+    private final Duration gemiddeldeDuur;
+
+    /**
+     * @param groep          dag (jjjj-mm-dd), maand (jjjj-mm), registratienummer, rijksregisternummer of standplaats
+     * @param aantalRitten   aantal ritten, ook de ritten die nog niet afgesloten zijn
+     * @param omzet          som van de prijzen van de afgesloten ritten
+     * @param gemiddeldeDuur gemiddelde duur van de afgesloten ritten, null wanneer er geen zijn
+     */
+    public RitTotaal(String groep, long aantalRitten, BigDecimal omzet, Duration gemiddeldeDuur) {
+        this.groep = groep;
+        this.aantalRitten = aantalRitten;
+        this.omzet = omzet;
+        this.gemiddeldeDuur = gemiddeldeDuur;
+    }
+
+    public String getGroep() {
+        return groep;
+    }
+
+    public long getAantalRitten() {
+        return aantalRitten;
+    }
+
+    public BigDecimal getOmzet() {
+        return omzet;
+    }
+
+    public Duration getGemiddeldeDuur() {
+        return gemiddeldeDuur;
+    }
+
+    public String toString() {
+        return "groep: " + groep + ", ritten: " + aantalRitten + ", omzet: " + omzet + ", gemiddelde duur: " + gemiddeldeDuur;
+    }
+}
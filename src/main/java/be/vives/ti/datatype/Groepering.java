@@ -0,0 +1,8 @@
+package be.vives.ti.datatype;
+
+/**
+ * Waarop de ritten in een rapport gegroepeerd worden (zie RitDAO.totaliseerRitten).
+ */
+public enum Groepering {
+    DAG, MAAND, FIETS, LID, STANDPLAATS;
+}
@@ -4,24 +4,115 @@ package be.vives.ti.datatype;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 
-public class Rijksregisternummer {
-    private String rijksregisternummer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gevalideerd rijksregisternummer: 11 cijfers waarvan de laatste twee het
+ * controlegetal (97 - eerste negen cijfers modulo 97) vormen. Voor wie na 1999
+ * geboren is, wordt er 2 voor de eerste negen cijfers geplaatst.
+ *
+ * Een Rijksregisternummer kan niet gewijzigd worden. Via van() krijgen gelezen
+ * rijen met hetzelfde nummer hetzelfde object.
+ */
+public final class Rijksregisternummer {
+
+    // boven dit aantal valt het langst niet gebruikte nummer uit de cache
+    private static final int MAX_CACHE_GROOTTE = 10000;
+
+    // least recently used volgorde: het langst niet gebruikte nummer staat vooraan
+    private static final LinkedHashMap<String, Rijksregisternummer> CACHE =
+            new LinkedHashMap<String, Rijksregisternummer>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Rijksregisternummer> oudste) {
+                    return size() > MAX_CACHE_GROOTTE;
+                }
+            };
+
+    private final String rijksregisternummer;
 
     public Rijksregisternummer(String rr) throws ApplicationException {
-        try {
-            int deel1 = Integer.parseInt(rr.substring(0, 9));
-            int controlegetal = Integer.parseInt(rr.substring(9, 11));
-            if ((97 - (deel1 % 97) == controlegetal) || (97 - ((2000000000 + deel1) % 97) == controlegetal)) {
-                rijksregisternummer = rr;
-            } else {
-                throw new ApplicationException();
+        if (!isGeldig(rr)) {
+            throw new ApplicationException(ApplicationExceptionType.LID_RIJKSREGISTERNUMMER_ONGELDIG);
+        }
+        rijksregisternummer = rr;
+    }
+
+    /**
+     * Geeft het gedeelde Rijksregisternummer voor rr terug en maakt het enkel aan
+     * wanneer het nog niet in de cache zit.
+     *
+     * @param rr rijksregisternummer (11 cijfers)
+     * @return Rijksregisternummer met waarde rr
+     * @throws ApplicationException wanneer rr geen geldig rijksregisternummer is
+     */
+    public static Rijksregisternummer van(String rr) throws ApplicationException {
+        Rijksregisternummer bestaand;
+        synchronized (CACHE) {
+            bestaand = rr == null ? null : CACHE.get(rr);
+        }
+        if (bestaand != null) {
+            return bestaand;
+        }
+        // valideren buiten het slot
+        Rijksregisternummer nieuw = new Rijksregisternummer(rr);
+        synchronized (CACHE) {
+            bestaand = CACHE.putIfAbsent(rr, nieuw);
+        }
+        return bestaand == null ? nieuw : bestaand;
+    }
+
+    /**
+     * Controleert lengte, cijfers en controlegetal rechtstreeks op de tekens,
+     * zonder substrings of exceptions.
+     *
+     * @param rr te controleren rijksregisternummer
+     * @return true wanneer rr een geldig rijksregisternummer is
+     */
+    public static boolean isGeldig(CharSequence rr) {
+        if (rr == null || rr.length() != 11) {
+            return false;
+        }
+        long deel1 = 0;
+        for (int i = 0; i < 9; i++) {
+            int cijfer = rr.charAt(i) - '0';
+            if (cijfer < 0 || cijfer > 9) {
+                return false;
+            }
+            deel1 = deel1 * 10 + cijfer;
+        }
+        int controlegetal = 0;
+        for (int i = 9; i < 11; i++) {
+            int cijfer = rr.charAt(i) - '0';
+            if (cijfer < 0 || cijfer > 9) {
+                return false;
             }
-        } catch (Exception ex) {
-            throw new ApplicationException(ApplicationExceptionType.LID_RIJKSREGISTERNUMMER_ONGELDIG.getMessage());
+            controlegetal = controlegetal * 10 + cijfer;
         }
+        return 97 - (deel1 % 97) == controlegetal
+                || 97 - ((2000000000L + deel1) % 97) == controlegetal;
     }
 
     public String getRijksregisternummer() {
         return rijksregisternummer;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Rijksregisternummer
+                && rijksregisternummer.equals(((Rijksregisternummer) o).rijksregisternummer);
+    }
+
+    @Override
+    public int hashCode() {
+        return rijksregisternummer.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return rijksregisternummer;
+    }
 }
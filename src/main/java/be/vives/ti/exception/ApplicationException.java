@@ -2,6 +2,8 @@ package be.vives.ti.exception;
 
 public class ApplicationException extends Exception {
 
+    private ApplicationExceptionType type;
+
     public ApplicationException() {
         super();
     }
@@ -9,4 +11,16 @@ public class ApplicationException extends Exception {
     public ApplicationException(String s) {
         super(s);
     }
+
+    public ApplicationException(ApplicationExceptionType type) {
+        super(type.getMessage());
+        this.type = type;
+    }
+
+    /**
+     * @return de reden van de fout, null indien de exception enkel met een boodschap werd aangemaakt
+     */
+    public ApplicationExceptionType getType() {
+        return type;
+    }
 }
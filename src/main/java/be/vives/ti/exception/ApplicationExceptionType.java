@@ -20,6 +20,11 @@ public enum ApplicationExceptionType {
 
     LID_RIJKSREGISTERNUMMER_ONGELDIG("Het opgegeven rijksregisternummer is ongeldig"),
 
+    // import van leden
+    IMPORT_HOOFDING_ONGELDIG("De eerste regel moet de kolommen rijksregisternummer, naam, voornaam en emailadres bevatten."),
+    IMPORT_REGEL_ONGELDIG("De regel heeft niet het verwachte aantal kolommen."),
+    IMPORT_LID_DUBBEL("Het rijksregisternummer komt al eerder in het bestand voor."),
+
     //ongeldige eigenschappen fiets
     FIETS_NULL("Er werd geen FIETS opgegeven."),
     FIETS_BESTAAT_NIET("De opgegeven fiets bestaat niet."),
@@ -34,13 +39,19 @@ public enum ApplicationExceptionType {
     //ongeldige eigenschappen rit
     RIT_NULL("Er werd geen RIT opgegeven."),
     RIT_ONBEKEND("Het opgegeven rit bestaat niet."),
+    RIT_AL_AFGESLOTEN("De opgegeven rit werd al afgesloten."),
     RIT_FIETS_IN_GEBRUIK("Fiets wordt al gehuurt."),
     RIT_LID_HUURT("Lid huurt al een fiets."),
     RIT_STARTTIJD_AUTOMATISCH("De starttijd wordt automatisch ingevuld"),
     RIT_ID_LEEG("Er werd geen RIT ID opgegeven."),
     RIT_GEEN_RITTEN("Lid heeft geen ritten."),
     RIT_GEEN_ACTIEVE_RIT_LID("Lid heeft geen actieve rit."),
-    RIT_GEEN_ACTIEVE_RIT_FIETS("Fiets heeft geen actieve rit.");
+    RIT_GEEN_ACTIEVE_RIT_FIETS("Fiets heeft geen actieve rit."),
+
+    //rapporten
+    RAPPORT_GROEPERING_LEEG("Er werd niet opgegeven waarop gegroepeerd moet worden."),
+    RAPPORT_GROEPERING_NIET_BIJGEHOUDEN("De dagtotalen worden niet per lid bijgehouden."),
+    RAPPORT_PERIODE_ONGELDIG("Het einde van de periode moet na het begin vallen.");
 
     private final String message;
 
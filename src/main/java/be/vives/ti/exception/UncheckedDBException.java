@@ -0,0 +1,17 @@
+package be.vives.ti.exception;
+
+/**
+ * Verpakt een DBException die optreedt terwijl een Stream uit de DAO-laag
+ * wordt doorlopen, waar geen checked exceptions gegooid kunnen worden.
+ */
+public class UncheckedDBException extends RuntimeException {
+
+    public UncheckedDBException(DBException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized DBException getCause() {
+        return (DBException) super.getCause();
+    }
+}
@@ -0,0 +1,131 @@
+package be.vives.ti.metriek;
+
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.VlootIndex;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * FietsService die elke oproep doorgeeft aan een andere FietsService en de duur en het
+ * resultaat ervan bijhoudt in Metingen, onder de service "FietsService".
+ * Bij de stream-methode wordt enkel het openen van de Stream gemeten.
+ */
+public class GemetenFietsService extends FietsService {
+
+    private final FietsService doel;
+    private final Metingen.Groep metingen;
+
+    public GemetenFietsService(FietsService doel, Metingen metingen) {
+        super(null, doel.getVlootIndex());
+        this.doel = doel;
+        this.metingen = metingen.groep("FietsService");
+    }
+
+    @Override
+    public Integer toevoegenFiets(Fiets fiets) throws ApplicationException, DBException {
+        return metingen.meting("toevoegenFiets").meet(() -> doel.toevoegenFiets(fiets));
+    }
+
+    @Override
+    public List<Integer> toevoegenFietsen(List<Fiets> fietsen) throws ApplicationException, DBException {
+        return metingen.meting("toevoegenFietsen").meet(() -> doel.toevoegenFietsen(fietsen));
+    }
+
+    @Override
+    public void wijzigenToestandFietsen(Collection<Integer> regnrs, Status status) throws ApplicationException, DBException {
+        metingen.meting("wijzigenToestandFietsen").meet(() -> {
+            doel.wijzigenToestandFietsen(regnrs, status);
+            return null;
+        });
+    }
+
+    @Override
+    public void wijzigenStatusNaarHerstel(int regnr) throws ApplicationException, DBException {
+        metingen.meting("wijzigenStatusNaarHerstel").meet(() -> {
+            doel.wijzigenStatusNaarHerstel(regnr);
+            return null;
+        });
+    }
+
+    @Override
+    public void wijzigenStatusNaarUitOmloop(int regnr) throws ApplicationException, DBException {
+        metingen.meting("wijzigenStatusNaarUitOmloop").meet(() -> {
+            doel.wijzigenStatusNaarUitOmloop(regnr);
+            return null;
+        });
+    }
+
+    @Override
+    public void wijzigenStatusNaarActief(int regnr) throws ApplicationException, DBException {
+        metingen.meting("wijzigenStatusNaarActief").meet(() -> {
+            doel.wijzigenStatusNaarActief(regnr);
+            return null;
+        });
+    }
+
+    @Override
+    public void wijzigenOpmerkingFiets(int regnr, String opmerking) throws ApplicationException, DBException {
+        metingen.meting("wijzigenOpmerkingFiets").meet(() -> {
+            doel.wijzigenOpmerkingFiets(regnr, opmerking);
+            return null;
+        });
+    }
+
+    @Override
+    public Fiets zoekFiets(int registratienummer) throws ApplicationException, DBException {
+        return metingen.meting("zoekFiets").meet(() -> doel.zoekFiets(registratienummer));
+    }
+
+    @Override
+    public List<Fiets> zoekAlleBeschikbareFietsen() throws DBException {
+        return metingen.meting("zoekAlleBeschikbareFietsen").meetDB(doel::zoekAlleBeschikbareFietsen);
+    }
+
+    @Override
+    public boolean isBeschikbaar(int registratienummer) throws ApplicationException, DBException {
+        return metingen.meting("isBeschikbaar").meet(() -> doel.isBeschikbaar(registratienummer));
+    }
+
+    @Override
+    public EnumMap<Standplaats, Integer> telBeschikbareFietsenPerStandplaats() throws DBException {
+        return metingen.meting("telBeschikbareFietsenPerStandplaats").meetDB(doel::telBeschikbareFietsenPerStandplaats);
+    }
+
+    @Override
+    public int telBeschikbareFietsen(Standplaats standplaats) throws ApplicationException, DBException {
+        return metingen.meting("telBeschikbareFietsen").meet(() -> doel.telBeschikbareFietsen(standplaats));
+    }
+
+    @Override
+    public VlootIndex getVlootIndex() {
+        return doel.getVlootIndex();
+    }
+
+    @Override
+    public long getVersie() {
+        return doel.getVersie();
+    }
+
+    @Override
+    public List<Fiets> zoekAlleFietsen() throws DBException {
+        return metingen.meting("zoekAlleFietsen").meetDB(doel::zoekAlleFietsen);
+    }
+
+    @Override
+    public List<Fiets> zoekFietsenNa(Integer naRegistratienummer, int aantal) throws DBException {
+        return metingen.meting("zoekFietsenNa").meetDB(() -> doel.zoekFietsenNa(naRegistratienummer, aantal));
+    }
+
+    @Override
+    public Stream<Fiets> streamAlleFietsen() throws DBException {
+        return metingen.meting("streamAlleFietsen").meetDB(doel::streamAlleFietsen);
+    }
+}
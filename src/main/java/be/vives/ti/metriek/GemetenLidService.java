@@ -0,0 +1,104 @@
+package be.vives.ti.metriek;
+
+import be.vives.ti.databag.Lid;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.LedenImport;
+import be.vives.ti.service.LidCache;
+import be.vives.ti.service.LidService;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * LidService die elke oproep doorgeeft aan een andere LidService en de duur en het
+ * resultaat ervan bijhoudt in Metingen, onder de service "LidService".
+ * Bij de stream-methode wordt enkel het openen van de Stream gemeten.
+ */
+public class GemetenLidService extends LidService {
+
+    private final LidService doel;
+    private final Metingen.Groep metingen;
+
+    public GemetenLidService(LidService doel, Metingen metingen) {
+        super(null, null, doel.getLidCache());
+        this.doel = doel;
+        this.metingen = metingen.groep("LidService");
+    }
+
+    @Override
+    public boolean toevoegenLid(Lid l) throws ApplicationException, DBException {
+        return metingen.meting("toevoegenLid").meet(() -> doel.toevoegenLid(l));
+    }
+
+    @Override
+    public void wijzigenLid(Lid teWijzigenLid) throws ApplicationException, DBException {
+        metingen.meting("wijzigenLid").meet(() -> {
+            doel.wijzigenLid(teWijzigenLid);
+            return null;
+        });
+    }
+
+    @Override
+    public void wijzigStartDatumVanLid(String rr, LocalDate startDatum) throws ApplicationException, DBException {
+        metingen.meting("wijzigStartDatumVanLid").meet(() -> {
+            doel.wijzigStartDatumVanLid(rr, startDatum);
+            return null;
+        });
+    }
+
+    @Override
+    public void uitschrijvenLid(String rr) throws ApplicationException, DBException {
+        metingen.meting("uitschrijvenLid").meet(() -> {
+            doel.uitschrijvenLid(rr);
+            return null;
+        });
+    }
+
+    @Override
+    public Lid zoekLid(String rijksregisternummer) throws ApplicationException, DBException {
+        return metingen.meting("zoekLid").meet(() -> doel.zoekLid(rijksregisternummer));
+    }
+
+    @Override
+    public LidCache getLidCache() {
+        return doel.getLidCache();
+    }
+
+    @Override
+    public long getVersie() {
+        return doel.getVersie();
+    }
+
+    @Override
+    public LedenImport.Resultaat importeerLeden(Reader csv) throws IOException, ApplicationException, DBException {
+        Meting meting = metingen.meting("importeerLeden");
+        long start = meting.start();
+        try {
+            LedenImport.Resultaat resultaat = doel.importeerLeden(csv);
+            meting.gelukt(start);
+            return resultaat;
+        } catch (Exception ex) {
+            meting.mislukt(start, ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public List<Lid> zoekAlleLeden() throws DBException {
+        return metingen.meting("zoekAlleLeden").meetDB(doel::zoekAlleLeden);
+    }
+
+    @Override
+    public List<Lid> zoekLedenNa(String naRijksregisternummer, int aantal) throws DBException {
+        return metingen.meting("zoekLedenNa").meetDB(() -> doel.zoekLedenNa(naRijksregisternummer, aantal));
+    }
+
+    @Override
+    public Stream<Lid> streamAlleLeden() throws DBException {
+        return metingen.meting("streamAlleLeden").meetDB(doel::streamAlleLeden);
+    }
+}
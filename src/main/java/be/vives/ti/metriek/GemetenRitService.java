@@ -0,0 +1,110 @@
+package be.vives.ti.metriek;
+
+import be.vives.ti.databag.Rit;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.LidCache;
+import be.vives.ti.service.RitService;
+import be.vives.ti.service.RittenExport;
+import be.vives.ti.service.VlootIndex;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * RitService die elke oproep doorgeeft aan een andere RitService en de duur en het
+ * resultaat ervan bijhoudt in Metingen, onder de service "RitService".
+ * Bij de stream-methode wordt enkel het openen van de Stream gemeten.
+ */
+public class GemetenRitService extends RitService {
+
+    private final RitService doel;
+    private final Metingen.Groep metingen;
+
+    public GemetenRitService(RitService doel, Metingen metingen) {
+        // alle publieke methodes gaan naar doel, de eigen toestand wordt niet gebruikt
+        super(null, null, null, new LidCache(0, 0), new VlootIndex());
+        this.doel = doel;
+        this.metingen = metingen.groep("RitService");
+    }
+
+    @Override
+    public Integer toevoegenRit(Rit rit) throws ApplicationException, DBException {
+        return metingen.meting("toevoegenRit").meet(() -> doel.toevoegenRit(rit));
+    }
+
+    @Override
+    public void afsluitenRit(Integer id) throws ApplicationException, DBException {
+        metingen.meting("afsluitenRit").meet(() -> {
+            doel.afsluitenRit(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Rit zoekRit(Integer ritID) throws ApplicationException, DBException {
+        return metingen.meting("zoekRit").meet(() -> doel.zoekRit(ritID));
+    }
+
+    @Override
+    public Rit zoekEersteRitVanLid(String rr) throws ApplicationException, DBException {
+        return metingen.meting("zoekEersteRitVanLid").meet(() -> doel.zoekEersteRitVanLid(rr));
+    }
+
+    @Override
+    public List<Rit> zoekAlleRitten() throws DBException {
+        return metingen.meting("zoekAlleRitten").meetDB(doel::zoekAlleRitten);
+    }
+
+    @Override
+    public List<Rit> zoekRittenVoor(Integer voorId, int aantal) throws DBException {
+        return metingen.meting("zoekRittenVoor").meetDB(() -> doel.zoekRittenVoor(voorId, aantal));
+    }
+
+    @Override
+    public Stream<Rit> streamAlleRitten() throws DBException {
+        return metingen.meting("streamAlleRitten").meetDB(doel::streamAlleRitten);
+    }
+
+    @Override
+    public long exporteerRitten(LocalDateTime van, LocalDateTime tot, RittenExport.Formaat formaat,
+                                OutputStream bestemming, boolean gzip) throws IOException, DBException {
+        Meting meting = metingen.meting("exporteerRitten");
+        long start = meting.start();
+        try {
+            long aantal = doel.exporteerRitten(van, tot, formaat, bestemming, gzip);
+            meting.gelukt(start);
+            return aantal;
+        } catch (Exception ex) {
+            meting.mislukt(start, ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public List<Rit> zoekActieveRittenVanLid(String rr) throws DBException, ApplicationException {
+        return metingen.meting("zoekActieveRittenVanLid").meet(() -> doel.zoekActieveRittenVanLid(rr));
+    }
+
+    @Override
+    public List<Rit> zoekActieveRittenVanFiets(Integer regnr) throws DBException, ApplicationException {
+        return metingen.meting("zoekActieveRittenVanFiets").meet(() -> doel.zoekActieveRittenVanFiets(regnr));
+    }
+
+    @Override
+    public double prijsBerekenen(Rit rit) {
+        Meting meting = metingen.meting("prijsBerekenen");
+        long start = meting.start();
+        try {
+            double prijs = doel.prijsBerekenen(rit);
+            meting.gelukt(start);
+            return prijs;
+        } catch (RuntimeException ex) {
+            meting.mislukt(start, ex);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package be.vives.ti.metriek;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metingen van een methode van een service:
+ * - de duur van elke oproep in een HdrHistogram (nanoseconden, 3 significante cijfers),
+ *   geslaagd of niet
+ * - het aantal geslaagde oproepen, ApplicationExceptions per type, DBExceptions en andere fouten
+ *
+ * Alle methodes mogen gelijktijdig door meerdere threads opgeroepen worden.
+ */
+public class Meting {
+
+    /**
+     * Oproep van een service-methode die ApplicationException en DBException kan gooien.
+     */
+    public interface Oproep<T> {
+        T voerUit() throws ApplicationException, DBException;
+    }
+
+    /**
+     * Oproep van een service-methode die enkel DBException kan gooien.
+     */
+    public interface DBOproep<T> {
+        T voerUit() throws DBException;
+    }
+
+    // resultaat van een ApplicationException waarvan het type niet gekend is
+    static final String TYPE_ONBEKEND = "ONBEKEND";
+
+    private final String service;
+    private final String methode;
+    private final Histogram duur = new ConcurrentHistogram(3);
+    private final LongAdder totaleDuurNanos = new LongAdder();
+    private final LongAdder gelukt = new LongAdder();
+    private final Map<String, LongAdder> applicatieFouten = new ConcurrentHashMap<>();
+    private final LongAdder dbFouten = new LongAdder();
+    private final LongAdder andereFouten = new LongAdder();
+
+    Meting(String service, String methode) {
+        this.service = service;
+        this.methode = methode;
+    }
+
+    public <T> T meet(Oproep<T> oproep) throws ApplicationException, DBException {
+        long start = start();
+        try {
+            T resultaat = oproep.voerUit();
+            gelukt(start);
+            return resultaat;
+        } catch (Exception ex) {
+            mislukt(start, ex);
+            throw ex;
+        }
+    }
+
+    public <T> T meetDB(DBOproep<T> oproep) throws DBException {
+        long start = start();
+        try {
+            T resultaat = oproep.voerUit();
+            gelukt(start);
+            return resultaat;
+        } catch (Exception ex) {
+            mislukt(start, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Voor oproepen die niet in Oproep of DBOproep passen: start() voor de oproep,
+     * daarna gelukt(start) of mislukt(start, fout).
+     *
+     * @return tijdstip in nanoseconden
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void gelukt(long start) {
+        registreerDuur(start);
+        gelukt.increment();
+    }
+
+    public void mislukt(long start, Exception fout) {
+        registreerDuur(start);
+        if (fout instanceof ApplicationException) {
+            applicatieFouten.computeIfAbsent(type((ApplicationException) fout), t -> new LongAdder()).increment();
+        } else if (fout instanceof DBException) {
+            dbFouten.increment();
+        } else {
+            andereFouten.increment();
+        }
+    }
+
+    private void registreerDuur(long start) {
+        long nanos = Math.max(0, System.nanoTime() - start);
+        duur.recordValue(nanos);
+        totaleDuurNanos.add(nanos);
+    }
+
+    private static String type(ApplicationException fout) {
+        return fout.getType() == null ? TYPE_ONBEKEND : fout.getType().name();
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getMethode() {
+        return methode;
+    }
+
+    /**
+     * @return kopie van het histogram van de duur in nanoseconden, van alle oproepen tot nu
+     */
+    public Histogram getDuur() {
+        return duur.copy();
+    }
+
+    public long getTotaleDuurNanos() {
+        return totaleDuurNanos.sum();
+    }
+
+    public long getGelukt() {
+        return gelukt.sum();
+    }
+
+    /**
+     * @return aantal ApplicationExceptions per type (naam van het ApplicationExceptionType), gesorteerd
+     */
+    public Map<String, Long> getApplicatieFouten() {
+        Map<String, Long> aantallen = new TreeMap<>();
+        applicatieFouten.forEach((type, aantal) -> aantallen.put(type, aantal.sum()));
+        return aantallen;
+    }
+
+    public long getDbFouten() {
+        return dbFouten.sum();
+    }
+
+    /**
+     * @return aantal andere exceptions, bv. een UncheckedDBException of een IOException
+     */
+    public long getAndereFouten() {
+        return andereFouten.sum();
+    }
+}
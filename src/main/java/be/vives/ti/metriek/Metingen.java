@@ -0,0 +1,187 @@
+package be.vives.ti.metriek;
+
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.connect.QueryMetingen;
+import be.vives.ti.service.LidCache;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Verzamelt de metingen van de services (zie GemetenFietsService, GemetenLidService en
+ * GemetenRitService) en exporteert ze als tekst in het Prometheus-formaat:
+ * - vivesbike_service_duur_seconden: summary per service en methode met de kwantielen
+ *   0.5, 0.9, 0.99, 0.999 en 1 (maximum), som en aantal
+ * - vivesbike_service_oproepen_total: aantal oproepen per service, methode en resultaat
+ *   (gelukt, ApplicationException met het type, DBException of fout)
+ * - extra tellers, bv. de treffers van de ledencache (voegTellerToe) of de trage queries
+ *   (voegQueryTellersToe)
+ *
+ * De kwantielen gaan over alle oproepen sinds het opstarten.
+ */
+public class Metingen {
+
+    private static final double[] KWANTIELEN = {0.5, 0.9, 0.99, 0.999, 1};
+
+    private final Map<String, Groep> groepen = new ConcurrentHashMap<>();
+    private final List<Teller> tellers = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param service naam van de service, bv. "RitService"
+     * @return de metingen van de methodes van die service
+     */
+    public Groep groep(String service) {
+        return groepen.computeIfAbsent(service, Groep::new);
+    }
+
+    /**
+     * Voegt een teller toe die bij elke export opgevraagd wordt.
+     *
+     * @param naam   naam in het Prometheus-formaat, eindigt op _total
+     * @param uitleg beschrijving voor de HELP-regel
+     * @param waarde levert de huidige waarde
+     */
+    public void voegTellerToe(String naam, String uitleg, LongSupplier waarde) {
+        tellers.add(new Teller(naam, uitleg, waarde));
+    }
+
+    /**
+     * Voegt de tellers van de ledencache en van de statement cache van de connectiepool toe.
+     *
+     * @param lidCache de ledencache die de services delen
+     */
+    public void voegCacheTellersToe(LidCache lidCache) {
+        voegTellerToe("vivesbike_ledencache_treffers_total",
+                "Opzoekingen van leden die uit de cache beantwoord werden.", lidCache::getTreffers);
+        voegTellerToe("vivesbike_ledencache_missers_total",
+                "Opzoekingen van leden die de databank nodig hadden.", lidCache::getMissers);
+        voegTellerToe("vivesbike_statementcache_treffers_total",
+                "PreparedStatements die uit de cache van de connectiepool kwamen.",
+                ConnectionManager::getStatementCacheTreffers);
+        voegTellerToe("vivesbike_statementcache_missers_total",
+                "PreparedStatements die opnieuw voorbereid moesten worden.",
+                ConnectionManager::getStatementCacheMissers);
+    }
+
+    /**
+     * Voegt de tellers van de databankoproepen toe, in plaats van een logboek van de trage queries.
+     *
+     * @param queryMetingen metingen van de databankoproepen, zie ConnectionManager.getQueryMetingen
+     */
+    public void voegQueryTellersToe(QueryMetingen queryMetingen) {
+        voegTellerToe("vivesbike_query_uitvoeringen_total",
+                "Uitvoeringen van SQL-teksten door de DAO's.", queryMetingen::getAantalUitvoeringen);
+        voegTellerToe("vivesbike_query_traag_total",
+                "Uitvoeringen van SQL-teksten die minstens query.traagMillis duurden.", queryMetingen::getAantalTrage);
+    }
+
+    /**
+     * @return alle metingen, gesorteerd op service en methode
+     */
+    public List<Meting> getMetingen() {
+        List<Meting> metingen = new ArrayList<>();
+        for (Groep groep : groepen.values()) {
+            metingen.addAll(groep.metingen.values());
+        }
+        metingen.sort(Comparator.comparing(Meting::getService).thenComparing(Meting::getMethode));
+        return metingen;
+    }
+
+    /**
+     * @return momentopname van alle metingen in het tekstformaat van Prometheus (versie 0.0.4)
+     */
+    public String alsPrometheus() {
+        List<Meting> metingen = getMetingen();
+        StringBuilder sb = new StringBuilder();
+        sb.append("# HELP vivesbike_service_duur_seconden Duur van de oproepen van de services.\n");
+        sb.append("# TYPE vivesbike_service_duur_seconden summary\n");
+        for (Meting meting : metingen) {
+            String labels = "service=\"" + meting.getService() + "\",methode=\"" + meting.getMethode() + "\"";
+            Histogram duur = meting.getDuur();
+            for (double kwantiel : KWANTIELEN) {
+                long nanos = kwantiel == 1 ? duur.getMaxValue() : duur.getValueAtPercentile(kwantiel * 100);
+                sb.append("vivesbike_service_duur_seconden{").append(labels)
+                        .append(",quantile=\"").append(getal(kwantiel)).append("\"} ")
+                        .append(seconden(nanos)).append('\n');
+            }
+            sb.append("vivesbike_service_duur_seconden_sum{").append(labels).append("} ")
+                    .append(seconden(meting.getTotaleDuurNanos())).append('\n');
+            sb.append("vivesbike_service_duur_seconden_count{").append(labels).append("} ")
+                    .append(duur.getTotalCount()).append('\n');
+        }
+        sb.append("# HELP vivesbike_service_oproepen_total Oproepen van de services per resultaat.\n");
+        sb.append("# TYPE vivesbike_service_oproepen_total counter\n");
+        for (Meting meting : metingen) {
+            String labels = "service=\"" + meting.getService() + "\",methode=\"" + meting.getMethode() + "\"";
+            oproepen(sb, labels, "gelukt", meting.getGelukt());
+            for (Map.Entry<String, Long> fout : meting.getApplicatieFouten().entrySet()) {
+                oproepen(sb, labels + ",type=\"" + fout.getKey() + "\"", "ApplicationException", fout.getValue());
+            }
+            oproepen(sb, labels, "DBException", meting.getDbFouten());
+            oproepen(sb, labels, "fout", meting.getAndereFouten());
+        }
+        for (Teller teller : tellers) {
+            sb.append("# HELP ").append(teller.naam).append(' ').append(teller.uitleg).append('\n');
+            sb.append("# TYPE ").append(teller.naam).append(" counter\n");
+            sb.append(teller.naam).append(' ').append(teller.waarde.getAsLong()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void oproepen(StringBuilder sb, String labels, String resultaat, long aantal) {
+        sb.append("vivesbike_service_oproepen_total{").append(labels)
+                .append(",resultaat=\"").append(resultaat).append("\"} ").append(aantal).append('\n');
+    }
+
+    private static String seconden(long nanos) {
+        return getal(nanos / 1e9);
+    }
+
+    private static String getal(double waarde) {
+        // geen wetenschappelijke notatie en altijd een punt, ongeacht de locale
+        return String.format(Locale.ROOT, "%.9f", waarde).replaceAll("0+$", "").replaceAll("\\.$", ".0");
+    }
+
+    /**
+     * De metingen van de methodes van een service.
+     */
+    public static class Groep {
+        private final String service;
+        private final Map<String, Meting> metingen = new ConcurrentHashMap<>();
+
+        private Groep(String service) {
+            this.service = service;
+        }
+
+        /**
+         * @param methode naam van de methode
+         * @return de meting van de methode, wordt bij de eerste oproep aangemaakt
+         */
+        public Meting meting(String methode) {
+            Meting meting = metingen.get(methode);
+            return meting != null ? meting : metingen.computeIfAbsent(methode, m -> new Meting(service, m));
+        }
+    }
+
+    /**
+     * Teller die bij de export opgevraagd wordt.
+     */
+    private static class Teller {
+        private final String naam;
+        private final String uitleg;
+        private final LongSupplier waarde;
+
+        private Teller(String naam, String uitleg, LongSupplier waarde) {
+            this.naam = naam;
+            this.uitleg = uitleg;
+            this.waarde = waarde;
+        }
+    }
+}
@@ -9,26 +9,45 @@ import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
 import org.apache.commons.lang3.EnumUtils;
 
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 
 /**
  * Bevat alle functionaliteit van een fiets, met de nodige checks.
  * - toevoegen van een fiets.
+ * - toevoegen van een reeks fietsen.
  * - wijzigen van status naar herstel van een fiets.
  * - wijzigen van status naar uitomloop van een fiets.
  * - wijzigen van status naar Actief van een fiets.
+ * - wijzigen van status van een reeks fietsen.
  * - wijzigen van opmering van een fiets.
  * - zoeken van een fiets
  * - zoeken van alle beschikbare fiets.
+ * - controleren of een fiets beschikbaar is.
+ * - tellen van de beschikbare fietsen per standplaats.
  * - zoeken alle fietsen
  * - check alle velden ingevuld.
  */
 public class FietsService {
     private FietsDAO fietsDAO;
+    private VlootIndex vlootIndex;
+    // verhoogt wanneer fietsen toegevoegd worden, zodat schermen weten of hun lijst van fietsen verouderd is
+    private final AtomicLong versie = new AtomicLong();
 
     public FietsService(FietsDAO fietsDAO) {
+        this(fietsDAO, new VlootIndex());
+    }
+
+    /**
+     * @param vlootIndex index van de vloot, gedeeld met RitService
+     */
+    public FietsService(FietsDAO fietsDAO, VlootIndex vlootIndex) {
         this.fietsDAO = fietsDAO;
+        this.vlootIndex = vlootIndex;
     }
 
     /**
@@ -41,20 +60,80 @@ public class FietsService {
      */
     public Integer toevoegenFiets(Fiets fiets) throws ApplicationException, DBException {
 
+        checkFiets(fiets);
+
+        Integer registratienummer = fietsDAO.toevoegenFiets(fiets);
+        versie.incrementAndGet();
+        if (registratienummer != null) {
+            // een nieuwe fiets is altijd actief
+            vlootIndex.fietsToegevoegd(registratienummer, fiets.getStandplaats(), Status.actief, fiets.getOpmerking());
+        }
+        return registratienummer;
+
+    }
+
+    /**
+     * Het toevoegen van een reeks fietsen, bv. een nieuwe levering, in een transactie.
+     *
+     * @param fietsen Fietsen die moeten worden toegevoegd.
+     * @return registratienummers van de toegevoegde fietsen, in dezelfde volgorde als fietsen.
+     * @throws ApplicationException Wordt gegooid wanneer fietsen of een van de fietsen null is.
+     * @throws ApplicationException Wordt gegooid wanneer de standplaats van een fiets niet gekend is.
+     * @throws DBException          duidt op fouten vanuit de be.vives.DAO, er werd dan geen enkele fiets toegevoegd.
+     */
+    public List<Integer> toevoegenFietsen(List<Fiets> fietsen) throws ApplicationException, DBException {
+        if (fietsen == null) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL);
+        }
+        for (Fiets fiets : fietsen) {
+            checkFiets(fiets);
+        }
+
+        List<Integer> registratienummers = fietsDAO.toevoegenFietsen(fietsen);
+        versie.incrementAndGet();
+        for (int i = 0; i < registratienummers.size(); i++) {
+            Fiets fiets = fietsen.get(i);
+            vlootIndex.fietsToegevoegd(registratienummers.get(i), fiets.getStandplaats(), Status.actief, fiets.getOpmerking());
+        }
+        return registratienummers;
+    }
+
+    private void checkFiets(Fiets fiets) throws ApplicationException {
         if (fiets == null) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL);
         }
 
         if (fiets.getStandplaats() == null || !EnumUtils.isValidEnum(Standplaats.class, fiets.getStandplaats().toString())) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_STANDPLAATS_ONBEKEND.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_STANDPLAATS_ONBEKEND);
         }
 
         if (fiets.getStatus() == null || !EnumUtils.isValidEnum(Status.class, fiets.getStatus().toString())) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_STATUS_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_STATUS_LEEG);
         }
+    }
 
-        return fietsDAO.toevoegenFiets(fiets);
-
+    /**
+     * veranderd de status van een reeks fietsen in een transactie, bv. om ze samen naar herstel te sturen.
+     *
+     * @param regnrs De registratienummers van de fietsen die moeten veranderd worden.
+     * @param status De nieuwe status.
+     * @throws ApplicationException Wordt gegooid wanneer regnrs null is of geen status opgegeven werd.
+     * @throws ApplicationException Wordt gegooid wanneer een van de fietsen niet bestaat, er werd dan niets gewijzigd.
+     * @throws DBException          Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public void wijzigenToestandFietsen(Collection<Integer> regnrs, Status status) throws ApplicationException, DBException {
+        if (regnrs == null) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL);
+        }
+        if (status == null) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_STATUS_LEEG);
+        }
+        if (!fietsDAO.wijzigenToestandFietsen(regnrs, status).isEmpty()) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_BESTAAT_NIET);
+        }
+        for (Integer regnr : regnrs) {
+            vlootIndex.statusGewijzigd(regnr, status);
+        }
     }
 
     /**
@@ -66,9 +145,10 @@ public class FietsService {
      */
     public void wijzigenStatusNaarHerstel(int regnr) throws ApplicationException, DBException {
         if (zoekFiets(regnr) == null) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL);
         }
         fietsDAO.wijzigenToestandFiets(regnr, Status.herstel);
+        vlootIndex.statusGewijzigd(regnr, Status.herstel);
     }
 
     /**
@@ -80,9 +160,10 @@ public class FietsService {
      */
     public void wijzigenStatusNaarUitOmloop(int regnr) throws ApplicationException, DBException {
         if (zoekFiets(regnr) == null) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL);
         }
         fietsDAO.wijzigenToestandFiets(regnr, Status.uit_omloop);
+        vlootIndex.statusGewijzigd(regnr, Status.uit_omloop);
     }
 
     /**
@@ -94,9 +175,10 @@ public class FietsService {
      */
     public void wijzigenStatusNaarActief(int regnr) throws ApplicationException, DBException {
         if (zoekFiets(regnr) == null) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL);
         }
         fietsDAO.wijzigenToestandFiets(regnr, Status.actief);
+        vlootIndex.statusGewijzigd(regnr, Status.actief);
     }
 
     /**
@@ -110,13 +192,14 @@ public class FietsService {
      */
     public void wijzigenOpmerkingFiets(int regnr, String opmerking) throws ApplicationException, DBException {
         if (zoekFiets(regnr) == null) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_NULL);
         }
         if (opmerking == null) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_OPMERKING_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_OPMERKING_LEEG);
 
         }
         fietsDAO.wijzigenOpmerkingFiets(regnr, opmerking);
+        vlootIndex.opmerkingGewijzigd(regnr, opmerking);
     }
 
     /**
@@ -129,21 +212,88 @@ public class FietsService {
      */
     public Fiets zoekFiets(int registratienummer) throws ApplicationException, DBException {
         if (registratienummer == 0) {
-            throw new ApplicationException(ApplicationExceptionType.FIETS_REGISTRATIE_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_REGISTRATIE_LEEG);
         }
         return fietsDAO.zoekFiets(registratienummer);
     }
 
     /**
-     * Zoekt alle beschikbare fietsen.
+     * Zoekt alle beschikbare fietsen, uit de vlootindex wanneer die geladen is.
      *
      * @return Lijst van alle beschikbare fietsen.
      * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
      */
     public List<Fiets> zoekAlleBeschikbareFietsen() throws DBException {
+        if (vlootIndex.isGeladen()) {
+            return vlootIndex.geefBeschikbareFietsen();
+        }
         return fietsDAO.zoekAlleBeschikbareFietsen();
     }
 
+    /**
+     * Controleert of een fiets verhuurd kan worden, uit de vlootindex wanneer die de fiets kent.
+     *
+     * @param registratienummer Het registratienummer van de fiets.
+     * @return true wanneer de fiets actief is en geen openstaande rit heeft.
+     * @throws ApplicationException Wordt gegooid wanneer registratienummer leeg is.
+     * @throws DBException          Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public boolean isBeschikbaar(int registratienummer) throws ApplicationException, DBException {
+        if (registratienummer == 0) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_REGISTRATIE_LEEG);
+        }
+        Boolean beschikbaar = vlootIndex.isBeschikbaar(registratienummer);
+        if (beschikbaar != null) {
+            return beschikbaar;
+        }
+        return fietsDAO.isBeschikbaar(registratienummer);
+    }
+
+    /**
+     * Telt de beschikbare fietsen per standplaats, uit de vlootindex wanneer die geladen is.
+     *
+     * @return aantal beschikbare fietsen per standplaats, ook standplaatsen zonder beschikbare fiets
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public EnumMap<Standplaats, Integer> telBeschikbareFietsenPerStandplaats() throws DBException {
+        if (vlootIndex.isGeladen()) {
+            return vlootIndex.geefAantalBeschikbaarPerStandplaats();
+        }
+        return fietsDAO.telBeschikbareFietsenPerStandplaats();
+    }
+
+    /**
+     * Telt de beschikbare fietsen van een standplaats.
+     *
+     * @param standplaats standplaats waarvan de fietsen geteld worden
+     * @return aantal beschikbare fietsen van de standplaats
+     * @throws ApplicationException Wordt gegooid wanneer de standplaats niet opgegeven is.
+     * @throws DBException          Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public int telBeschikbareFietsen(Standplaats standplaats) throws ApplicationException, DBException {
+        if (standplaats == null) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_STANDPLAATS_ONBEKEND);
+        }
+        if (vlootIndex.isGeladen()) {
+            return vlootIndex.geefAantalBeschikbaar(standplaats);
+        }
+        return fietsDAO.telBeschikbareFietsenPerStandplaats().get(standplaats);
+    }
+
+    /**
+     * @return index van de vloot, niet geladen wanneer de service zonder index gemaakt werd
+     */
+    public VlootIndex getVlootIndex() {
+        return vlootIndex;
+    }
+
+    /**
+     * @return versie van de fietsen, verhoogt wanneer via deze service fietsen toegevoegd worden
+     */
+    public long getVersie() {
+        return versie.get();
+    }
+
     /**
      * Zoekt alle fietsen.
      *
@@ -154,4 +304,28 @@ public class FietsService {
         return fietsDAO.zoekAlleFietsen();
     }
 
+    /**
+     * Zoekt een pagina fietsen, gesorteerd op registratienummer.
+     *
+     * @param naRegistratienummer registratienummer van de laatste fiets van de vorige pagina,
+     *                            null voor de eerste pagina
+     * @param aantal maximaal aantal fietsen op de pagina
+     * @return Lijst van maximaal aantal fietsen
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public List<Fiets> zoekFietsenNa(Integer naRegistratienummer, int aantal) throws DBException {
+        return fietsDAO.zoekFietsenNa(naRegistratienummer, aantal);
+    }
+
+    /**
+     * Overloopt alle fietsen zonder ze allemaal in het geheugen te laden.
+     * De Stream moet gesloten worden.
+     *
+     * @return Stream van alle fietsen
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public Stream<Fiets> streamAlleFietsen() throws DBException {
+        return fietsDAO.streamAlleFietsen();
+    }
+
 }
@@ -0,0 +1,274 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Importeert leden uit een CSV-bestand, bv. de ledenlijst van een partnerorganisatie.
+ * - de eerste regel bevat de kolomnamen: rijksregisternummer, naam, voornaam, emailadres en optioneel opmerking
+ * - kolommen worden gescheiden door ; of , (volgens de eerste regel), velden mogen tussen " staan
+ * - elke regel wordt gecontroleerd zoals bij LidService.toevoegenLid
+ * - per blok van BLOKGROOTTE regels wordt met een query nagegaan welke leden al bestaan en
+ *   worden de nieuwe leden in een transactie toegevoegd
+ *
+ * Het bestand wordt regel per regel gelezen, zodat ook grote bestanden niet volledig in het geheugen komen.
+ * Afgekeurde regels worden met hun reden in het Resultaat bijgehouden.
+ */
+public class LedenImport {
+
+    // een blok is precies een query in LidDAO.zoekBestaandeRijksregisternummers, zonder aangevulde plaatsen
+    static final int BLOKGROOTTE = LidDAO.IN_GROOTTE;
+
+    private final LidDAO lidDAO;
+
+    public LedenImport(LidDAO lidDAO) {
+        this.lidDAO = lidDAO;
+    }
+
+    /**
+     * @param bron CSV-bestand met leden
+     * @return aantal gelezen en toegevoegde leden en de afgekeurde regels
+     * @throws IOException          wanneer het bestand niet gelezen kan worden
+     * @throws ApplicationException wanneer de eerste regel de verplichte kolommen niet bevat
+     * @throws DBException          duidt op fouten vanuit de be.vives.DAO; de blokken die al
+     *                              toegevoegd werden, blijven toegevoegd
+     */
+    public Resultaat importeer(Reader bron) throws IOException, ApplicationException, DBException {
+        BufferedReader in = bron instanceof BufferedReader ? (BufferedReader) bron : new BufferedReader(bron);
+        String hoofding = in.readLine();
+        if (hoofding == null) {
+            throw new ApplicationException(ApplicationExceptionType.IMPORT_HOOFDING_ONGELDIG);
+        }
+        if (hoofding.startsWith("\uFEFF")) {
+            hoofding = hoofding.substring(1);
+        }
+        char scheiding = hoofding.indexOf(';') >= 0 ? ';' : ',';
+        Kolommen kolommen = new Kolommen(splits(hoofding, scheiding));
+
+        Resultaat resultaat = new Resultaat();
+        Set<String> gezien = new HashSet<>();
+        List<Regel> blok = new ArrayList<>(BLOKGROOTTE);
+        String lijn;
+        int regelnummer = 1;
+        while ((lijn = in.readLine()) != null) {
+            regelnummer++;
+            if (lijn.trim().isEmpty()) {
+                continue;
+            }
+            resultaat.aantalGelezen++;
+            try {
+                Lid lid = kolommen.maakLid(splits(lijn, scheiding));
+                if (!gezien.add(lid.getRijksregisternummer())) {
+                    throw new ApplicationException(ApplicationExceptionType.IMPORT_LID_DUBBEL);
+                }
+                blok.add(new Regel(regelnummer, lid));
+            } catch (ApplicationException ex) {
+                resultaat.afkeuren(regelnummer, ex.getMessage());
+            }
+            if (blok.size() == BLOKGROOTTE) {
+                verwerk(blok, resultaat);
+            }
+        }
+        verwerk(blok, resultaat);
+        return resultaat;
+    }
+
+    /**
+     * Keurt de leden die al bestaan af en voegt de andere in een transactie toe.
+     */
+    private void verwerk(List<Regel> blok, Resultaat resultaat) throws DBException {
+        if (blok.isEmpty()) {
+            return;
+        }
+        List<String> rijksregisternummers = new ArrayList<>(blok.size());
+        for (Regel regel : blok) {
+            rijksregisternummers.add(regel.lid.getRijksregisternummer());
+        }
+        Set<String> bestaand = lidDAO.zoekBestaandeRijksregisternummers(rijksregisternummers);
+        List<Lid> nieuw = new ArrayList<>(blok.size());
+        for (Regel regel : blok) {
+            if (bestaand.contains(regel.lid.getRijksregisternummer())) {
+                resultaat.afkeuren(regel.regelnummer, ApplicationExceptionType.LID_BESTAAT_AL.getMessage());
+            } else {
+                nieuw.add(regel.lid);
+            }
+        }
+        resultaat.aantalToegevoegd += lidDAO.toevoegenLeden(nieuw);
+        blok.clear();
+    }
+
+    /**
+     * Splitst een CSV-regel. Een veld tussen " mag de scheiding bevatten, "" staat voor een ".
+     */
+    static List<String> splits(String lijn, char scheiding) {
+        List<String> velden = new ArrayList<>();
+        StringBuilder veld = new StringBuilder();
+        boolean tussenAanhalingstekens = false;
+        for (int i = 0; i < lijn.length(); i++) {
+            char c = lijn.charAt(i);
+            if (tussenAanhalingstekens) {
+                if (c == '"' && i + 1 < lijn.length() && lijn.charAt(i + 1) == '"') {
+                    veld.append('"');
+                    i++;
+                } else if (c == '"') {
+                    tussenAanhalingstekens = false;
+                } else {
+                    veld.append(c);
+                }
+            } else if (c == '"') {
+                tussenAanhalingstekens = true;
+            } else if (c == scheiding) {
+                velden.add(veld.toString());
+                veld.setLength(0);
+            } else {
+                veld.append(c);
+            }
+        }
+        velden.add(veld.toString());
+        return velden;
+    }
+
+    /**
+     * Plaats van de kolommen volgens de eerste regel.
+     */
+    private static class Kolommen {
+        private final int aantal;
+        private final int rijksregisternummer;
+        private final int naam;
+        private final int voornaam;
+        private final int emailadres;
+        private final int opmerking;
+
+        private Kolommen(List<String> hoofding) throws ApplicationException {
+            List<String> namen = new ArrayList<>(hoofding.size());
+            for (String naam : hoofding) {
+                namen.add(naam.trim().toLowerCase(Locale.ROOT));
+            }
+            this.aantal = namen.size();
+            this.rijksregisternummer = namen.indexOf("rijksregisternummer");
+            this.naam = namen.indexOf("naam");
+            this.voornaam = namen.indexOf("voornaam");
+            this.emailadres = namen.indexOf("emailadres");
+            this.opmerking = namen.indexOf("opmerking");
+            if (rijksregisternummer < 0 || naam < 0 || voornaam < 0 || emailadres < 0) {
+                throw new ApplicationException(ApplicationExceptionType.IMPORT_HOOFDING_ONGELDIG);
+            }
+        }
+
+        private Lid maakLid(List<String> velden) throws ApplicationException {
+            if (velden.size() != aantal) {
+                throw new ApplicationException(ApplicationExceptionType.IMPORT_REGEL_ONGELDIG);
+            }
+            String rr = velden.get(rijksregisternummer).trim();
+            if (StringUtils.isBlank(rr)) {
+                throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
+            }
+            Lid lid = new Lid();
+            lid.setRijksregisternummer(new Rijksregisternummer(rr));
+            lid.setNaam(velden.get(naam).trim());
+            lid.setVoornaam(velden.get(voornaam).trim());
+            lid.setEmailadres(velden.get(emailadres).trim());
+            if (opmerking >= 0 && !velden.get(opmerking).trim().isEmpty()) {
+                lid.setOpmerking(velden.get(opmerking).trim());
+            }
+            LidService.checkAlleVeldenIngevuld(lid);
+            lid.setStart_lidmaatschap(LocalDate.now());
+            return lid;
+        }
+    }
+
+    /**
+     * Gelezen lid met de regel waarop het stond.
+     */
+    private static class Regel {
+        private final int regelnummer;
+        private final Lid lid;
+
+        private Regel(int regelnummer, Lid lid) {
+            this.regelnummer = regelnummer;
+            this.lid = lid;
+        }
+    }
+
+    /**
+     * Resultaat van een import.
+     */
+    public static class Resultaat {
+        private int aantalGelezen;
+        private int aantalToegevoegd;
+        private final List<Afkeuring> afgekeurd = new ArrayList<>();
+
+        private void afkeuren(int regelnummer, String reden) {
+            afgekeurd.add(new Afkeuring(regelnummer, reden));
+        }
+
+        /**
+         * @return aantal niet-lege regels na de eerste regel
+         */
+        public int getAantalGelezen() {
+            return aantalGelezen;
+        }
+
+        public int getAantalToegevoegd() {
+            return aantalToegevoegd;
+        }
+
+        /**
+         * @return afgekeurde regels, in de volgorde waarin ze afgekeurd werden
+         */
+        public List<Afkeuring> getAfgekeurd() {
+            return Collections.unmodifiableList(afgekeurd);
+        }
+
+        @Override
+        public String toString() {
+            return aantalToegevoegd + " van " + aantalGelezen + " leden geïmporteerd, "
+                    + afgekeurd.size() + " regels afgekeurd";
+        }
+    }
+
+    /**
+     * Afgekeurde regel met de reden.
+     */
+    public static class Afkeuring {
+        private final int regelnummer;
+        private final String reden;
+
+        private Afkeuring(int regelnummer, String reden) {
+            this.regelnummer = regelnummer;
+            this.reden = reden;
+        }
+
+        /**
+         * @return regelnummer in het bestand, de eerste regel (kolomnamen) is regel 1
+         */
+        public int getRegelnummer() {
+            return regelnummer;
+        }
+
+        public String getReden() {
+            return reden;
+        }
+
+        @Override
+        public String toString() {
+            return "regel " + regelnummer + ": " + reden;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package be.vives.ti.service;
+
+import be.vives.ti.databag.Lid;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Begrensde cache van leden voor LidService.zoekLid, met het rijksregisternummer als sleutel.
+ * - er worden nooit meer dan maxGrootte leden bijgehouden, het langst niet gebruikte lid valt eerst weg
+ * - een lid dat langer dan ttl in de cache zit, wordt opnieuw uit de databank gehaald
+ * - LidService verwijdert een lid uit de cache bij elke wijziging
+ *
+ * De cache bewaart en geeft kopieën, zodat wijzigingen aan een opgevraagd lid de cache
+ * niet raken. Een cache met maxGrootte 0 bewaart niets.
+ */
+public class LidCache {
+
+    private final int maxGrootte;
+    private final long ttlMillis;
+    private final LongSupplier klok;
+
+    // least recently used volgorde: het langst niet gebruikte lid staat vooraan
+    private final LinkedHashMap<String, Bewaard> leden = new LinkedHashMap<>(16, 0.75f, true);
+    private long treffers;
+    private long missers;
+    // verhoogt bij elke verwijdering, zodat een lid dat tijdens een wijziging gelezen werd niet bewaard wordt
+    private long versie;
+
+    /**
+     * @param maxGrootte maximum aantal leden in de cache, 0 schakelt de cache uit
+     * @param ttlMillis  tijd (ms) dat een lid in de cache geldig blijft
+     */
+    public LidCache(int maxGrootte, long ttlMillis) {
+        this(maxGrootte, ttlMillis, System::currentTimeMillis);
+    }
+
+    LidCache(int maxGrootte, long ttlMillis, LongSupplier klok) {
+        if (maxGrootte < 0 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Ongeldige cache-instelling: grootte=" + maxGrootte + ", ttl=" + ttlMillis);
+        }
+        this.maxGrootte = maxGrootte;
+        this.ttlMillis = ttlMillis;
+        this.klok = klok;
+    }
+
+    /**
+     * @param rijksregisternummer rijksregisternummer van het gezochte lid
+     * @return kopie van het bewaarde lid, null wanneer het lid niet (meer) in de cache zit
+     */
+    synchronized Lid geef(String rijksregisternummer) {
+        Bewaard bewaard = leden.get(rijksregisternummer);
+        if (bewaard != null && klok.getAsLong() - bewaard.tijdstip >= ttlMillis) {
+            leden.remove(rijksregisternummer);
+            bewaard = null;
+        }
+        if (bewaard == null) {
+            missers++;
+            return null;
+        }
+        treffers++;
+        return new Lid(bewaard.lid);
+    }
+
+    /**
+     * @return versie die aan bewaar meegegeven moet worden, op te vragen voor het lid gelezen wordt
+     */
+    synchronized long getVersie() {
+        return versie;
+    }
+
+    /**
+     * Bewaart een kopie van het lid, tenzij de cache intussen gewijzigd werd.
+     *
+     * @param lid    uit de databank gelezen lid
+     * @param versie versie van de cache voor het lid gelezen werd
+     */
+    synchronized void bewaar(Lid lid, long versie) {
+        if (maxGrootte == 0 || lid == null || versie != this.versie) {
+            return;
+        }
+        leden.put(lid.getRijksregisternummer(), new Bewaard(new Lid(lid), klok.getAsLong()));
+        Iterator<Bewaard> oudsteEerst = leden.values().iterator();
+        while (leden.size() > maxGrootte && oudsteEerst.hasNext()) {
+            oudsteEerst.next();
+            oudsteEerst.remove();
+        }
+    }
+
+    /**
+     * @param rijksregisternummer rijksregisternummer van het gewijzigde lid
+     */
+    synchronized void verwijder(String rijksregisternummer) {
+        versie++;
+        leden.remove(rijksregisternummer);
+    }
+
+    /**
+     * Verwijdert alle leden uit de cache.
+     */
+    public synchronized void leegmaken() {
+        versie++;
+        leden.clear();
+    }
+
+    /**
+     * @return aantal leden in de cache
+     */
+    public synchronized int getGrootte() {
+        return leden.size();
+    }
+
+    /**
+     * @return aantal keer dat een lid uit de cache kwam
+     */
+    public synchronized long getTreffers() {
+        return treffers;
+    }
+
+    /**
+     * @return aantal keer dat een lid in de databank gezocht moest worden
+     */
+    public synchronized long getMissers() {
+        return missers;
+    }
+
+    /**
+     * @return aandeel van de opvragingen dat uit de cache kwam, 0 wanneer er nog niets opgevraagd werd
+     */
+    public synchronized double getTrefkans() {
+        long totaal = treffers + missers;
+        return totaal == 0 ? 0 : (double) treffers / totaal;
+    }
+
+    /**
+     * Lid in de cache met het tijdstip waarop het gelezen werd.
+     */
+    private static class Bewaard {
+        private final Lid lid;
+        private final long tijdstip;
+
+        private Bewaard(Lid lid, long tijdstip) {
+            this.lid = lid;
+            this.tijdstip = tijdstip;
+        }
+    }
+}
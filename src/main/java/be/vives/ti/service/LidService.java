@@ -9,9 +9,13 @@ import be.vives.ti.exception.DBException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.time.LocalDate;
 import java.time.chrono.ChronoLocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 
 /**
@@ -23,16 +27,28 @@ import java.util.List;
  * - Uitschrijven van een lid.
  * - zoeken achter een lid
  * - zoeken achter all leden.
+ * - importeren van leden uit een CSV-bestand.
  */
 
 public class LidService {
 
     private LidDAO lidDAO;
     private RitService ritService;
+    private LidCache lidCache;
+    // verhoogt wanneer leden toegevoegd worden, zodat schermen weten of hun lijst van leden verouderd is
+    private final AtomicLong versie = new AtomicLong();
 
     public LidService(LidDAO lidDAO, RitService ritService) {
+        this(lidDAO, ritService, new LidCache(0, 0));
+    }
+
+    /**
+     * @param lidCache cache voor zoekLid, gedeeld met de LidService van ritService
+     */
+    public LidService(LidDAO lidDAO, RitService ritService, LidCache lidCache) {
         this.lidDAO = lidDAO;
         this.ritService = ritService;
+        this.lidCache = lidCache;
     }
 
     /**
@@ -47,43 +63,48 @@ public class LidService {
     public boolean toevoegenLid(Lid l) throws ApplicationException, DBException {
         // parameter ingevuld?
         if (l == null) {
-            throw new ApplicationException(ApplicationExceptionType.LID_NULL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_NULL);
         }
         // alle gegevens ingevuld?
         checkAlleVeldenIngevuld(l);
 
         // start_lidmaatschap mag niet ingevuld zijn
         if (l.getStart_lidmaatschap() != null) {
-            throw new ApplicationException(ApplicationExceptionType.LID_MOET_INGESCHREVEN_ZIJN.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_MOET_INGESCHREVEN_ZIJN);
         }
 
         // bestaat lid?
         if (zoekLid(l.getRijksregisternummer()) != null) {
-            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_AL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_AL);
         }
 
         l.setStart_lidmaatschap(LocalDate.now());
 
         //toevoegen
-        return lidDAO.toevoegenLid(l);
+        try {
+            return lidDAO.toevoegenLid(l);
+        } finally {
+            lidCache.verwijder(l.getRijksregisternummer());
+            versie.incrementAndGet();
+        }
     }
 
-    private void checkAlleVeldenIngevuld(Lid lid) throws ApplicationException {
+    static void checkAlleVeldenIngevuld(Lid lid) throws ApplicationException {
 
         if (StringUtils.isBlank(lid.getNaam())) {
-            throw new ApplicationException(ApplicationExceptionType.LID_NAAM_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_NAAM_LEEG);
         }
         if (StringUtils.isBlank(lid.getVoornaam())) {
-            throw new ApplicationException(ApplicationExceptionType.LID_VOORNAAM_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_VOORNAAM_LEEG);
         }
         if (StringUtils.isBlank(lid.getRijksregisternummer())) {
-            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
         }
         if (StringUtils.isBlank(lid.getEmailadres())) {
-            throw new ApplicationException(ApplicationExceptionType.LID_EMAIL_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_EMAIL_LEEG);
         }
         if(!isValid(lid.getEmailadres())){
-            throw new ApplicationException(ApplicationExceptionType.LID_EMAIL_ONGELDIG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_EMAIL_ONGELDIG);
         }
     }
 
@@ -104,21 +125,25 @@ public class LidService {
     public void wijzigenLid(Lid teWijzigenLid) throws ApplicationException, DBException {
         // parameter ingevuld?
         if (teWijzigenLid == null) {
-            throw new ApplicationException(ApplicationExceptionType.LID_NULL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_NULL);
         }
 
         if(teWijzigenLid.getEinde_lidmaatschap() != null){
-            throw new ApplicationException(ApplicationExceptionType.LID_IS_AL_UITGESCHREVEN.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_IS_AL_UITGESCHREVEN);
         }
         // alle gegevens ingevuld?
         checkAlleVeldenIngevuld(teWijzigenLid);
         
 
         if (zoekLid(teWijzigenLid.getRijksregisternummer()) == null) {
-            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET);
         }
 
-        lidDAO.wijzigenLid(teWijzigenLid);
+        try {
+            lidDAO.wijzigenLid(teWijzigenLid);
+        } finally {
+            lidCache.verwijder(teWijzigenLid.getRijksregisternummer());
+        }
     }
 
     /**
@@ -135,21 +160,21 @@ public class LidService {
     public void wijzigStartDatumVanLid(String rr, LocalDate startDatum) throws ApplicationException, DBException {
         // kijken of rijksregisternummer is opgegeven
         if(rr.equals("") || rr == null){
-            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
         }
         // kijken of het lid bestaat
         Lid lid = zoekLid(rr);
         if(lid == null) {
-            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET);
         }
 
         if(lid.getEinde_lidmaatschap() != null){
-            throw new ApplicationException(ApplicationExceptionType.LID_IS_AL_UITGESCHREVEN.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_IS_AL_UITGESCHREVEN);
         }
 
         // kijken of een startdatum werd meegegeven
         if(startDatum == null){
-            throw new ApplicationException(ApplicationExceptionType.GEEN_STARTDATUM_OPGEGEVEN.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.GEEN_STARTDATUM_OPGEGEVEN);
         }
 
         // startdatum moet lager zijn of startdatum van eerste rit.
@@ -159,7 +184,7 @@ public class LidService {
                 lid.setStart_lidmaatschap(startDatum);
                 wijzigenLid(lid);
             }else{
-                throw new ApplicationException(ApplicationExceptionType.LID_STARTDATUM_TE_LAAT.getMessage());
+                throw new ApplicationException(ApplicationExceptionType.LID_STARTDATUM_TE_LAAT);
             }
 
         }else{
@@ -182,19 +207,23 @@ public class LidService {
     public void uitschrijvenLid(String rr) throws ApplicationException, DBException {
         Lid lid = this.zoekLid(rr);
         if(lid == null){
-            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET);
         }
         if(lid.getEinde_lidmaatschap() != null){
-            throw new ApplicationException(ApplicationExceptionType.LID_WERD_AL_UITGESCHREVEN.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_WERD_AL_UITGESCHREVEN);
         }
         if(ritService.zoekActieveRittenVanLid(rr).size() > 0){
-            throw new ApplicationException(ApplicationExceptionType.LID_HEEFT_ACTIEVE_RITTEN.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_HEEFT_ACTIEVE_RITTEN);
+        }
+        try {
+            lidDAO.uitschrijvenLid(rr);
+        } finally {
+            lidCache.verwijder(rr);
         }
-        lidDAO.uitschrijvenLid(rr);
     }
 
     /**
-     * Zoekt een lid aan de hand van zijn rijksregisternummer.
+     * Zoekt een lid aan de hand van zijn rijksregisternummer, eerst in de cache.
      * @return Het lid dat het rijksregisternummer heeft van de paranmeter.
      * @param rijksregisternummer van het lid dat moet worden opgezocht.
      * @throws ApplicationException Wanneer de parameter rijksregisternummer leeg is.
@@ -204,12 +233,70 @@ public class LidService {
     public Lid zoekLid(String rijksregisternummer) throws ApplicationException, DBException {
         // parameter ingevuld?
         if (StringUtils.isBlank(rijksregisternummer)) {
-            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
+        }
+        Lid lid = lidCache.geef(rijksregisternummer);
+        if (lid == null) {
+            long versie = lidCache.getVersie();
+            lid = lidDAO.zoekLid(rijksregisternummer);
+            lidCache.bewaar(lid, versie);
+        }
+        return lid;
+    }
+
+    /**
+     * @return cache voor zoekLid, met het aantal treffers en missers
+     */
+    public LidCache getLidCache() {
+        return lidCache;
+    }
+
+    /**
+     * Importeert leden uit een CSV-bestand, zie LedenImport.
+     * @param csv CSV-bestand met een regel kolomnamen en daarna een lid per regel
+     * @return aantal gelezen en toegevoegde leden en de afgekeurde regels
+     * @throws IOException wanneer het bestand niet gelezen kan worden
+     * @throws ApplicationException wanneer de eerste regel de verplichte kolommen niet bevat
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public LedenImport.Resultaat importeerLeden(Reader csv) throws IOException, ApplicationException, DBException {
+        try {
+            return new LedenImport(lidDAO).importeer(csv);
+        } finally {
+            versie.incrementAndGet();
         }
-        return lidDAO.zoekLid(rijksregisternummer);
+    }
+
+    /**
+     * @return versie van de leden, verhoogt wanneer via deze service leden toegevoegd of geïmporteerd worden
+     */
+    public long getVersie() {
+        return versie.get();
     }
 
     public List<Lid> zoekAlleLeden() throws DBException {
         return lidDAO.zoekAlleLeden();
     }
+
+    /**
+     * Zoekt een pagina leden, gesorteerd op rijksregisternummer.
+     * @param naRijksregisternummer rijksregisternummer van het laatste lid van de vorige pagina,
+     *                              null voor de eerste pagina
+     * @param aantal maximaal aantal leden op de pagina
+     * @return lijst van maximaal aantal leden
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public List<Lid> zoekLedenNa(String naRijksregisternummer, int aantal) throws DBException {
+        return lidDAO.zoekLedenNa(naRijksregisternummer, aantal);
+    }
+
+    /**
+     * Overloopt alle leden zonder ze allemaal in het geheugen te laden.
+     * De Stream moet gesloten worden.
+     * @return Stream van alle leden
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public Stream<Lid> streamAlleLeden() throws DBException {
+        return lidDAO.streamAlleLeden();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.DagtotaalDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.databag.RitTotaal;
+import be.vives.ti.datatype.Groepering;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rapporten over de ritten: aantal ritten, omzet en gemiddelde duur per dag, maand, fiets, lid of standplaats.
+ * De totalen worden in de databank berekend (RitDAO.totaliseerRitten), er worden geen ritten ingelezen.
+ * Rapporten over lange periodes lezen de dagtotalen (DagtotaalDAO) in plaats van alle ritten.
+ */
+public class RapportService {
+
+    private final RitDAO ritDAO;
+    private final DagtotaalDAO dagtotaalDAO;
+
+    public RapportService(RitDAO ritDAO) {
+        this(ritDAO, new DagtotaalDAO());
+    }
+
+    public RapportService(RitDAO ritDAO, DagtotaalDAO dagtotaalDAO) {
+        this.ritDAO = ritDAO;
+        this.dagtotaalDAO = dagtotaalDAO;
+    }
+
+    /**
+     * @param groepering waarop gegroepeerd wordt
+     * @param van eerste dag van de periode, null voor alle ritten tot tot
+     * @param tot eerste dag na de periode, null voor alle ritten vanaf van
+     * @return een RitTotaal per groep met ritten, gesorteerd op groep
+     * @throws ApplicationException wanneer er geen groepering opgegeven werd of tot niet na van valt
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public List<RitTotaal> totaliseerRitten(Groepering groepering, LocalDate van, LocalDate tot)
+            throws ApplicationException, DBException {
+        if (groepering == null) {
+            throw new ApplicationException(ApplicationExceptionType.RAPPORT_GROEPERING_LEEG);
+        }
+        checkPeriode(van, tot);
+        return ritDAO.totaliseerRitten(groepering,
+                van == null ? null : van.atStartOfDay(),
+                tot == null ? null : tot.atStartOfDay());
+    }
+
+    /**
+     * Totaliseert de afgesloten ritten uit de dagtotalen, zonder de ritten zelf te lezen.
+     * @param groepering DAG, MAAND, FIETS of STANDPLAATS
+     * @param van eerste dag van de periode, null voor alle ritten tot tot
+     * @param tot eerste dag na de periode, null voor alle ritten vanaf van
+     * @return een RitTotaal per groep met afgesloten ritten, gesorteerd op groep
+     * @throws ApplicationException wanneer er geen of per LID gegroepeerd wordt of tot niet na van valt
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public List<RitTotaal> totaliseerDagtotalen(Groepering groepering, LocalDate van, LocalDate tot)
+            throws ApplicationException, DBException {
+        if (groepering == null) {
+            throw new ApplicationException(ApplicationExceptionType.RAPPORT_GROEPERING_LEEG);
+        }
+        if (groepering == Groepering.LID) {
+            throw new ApplicationException(ApplicationExceptionType.RAPPORT_GROEPERING_NIET_BIJGEHOUDEN);
+        }
+        checkPeriode(van, tot);
+        return dagtotaalDAO.totaliseer(groepering, van, tot);
+    }
+
+    /**
+     * @param jaar jaar van het rapport
+     * @return aantal afgesloten ritten, omzet en gemiddelde duur per maand van het jaar, enkel maanden met ritten
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public List<RitTotaal> omzetPerMaand(int jaar) throws DBException {
+        return dagtotaalDAO.totaliseer(Groepering.MAAND, LocalDate.of(jaar, 1, 1), LocalDate.of(jaar + 1, 1, 1));
+    }
+
+    /**
+     * Berekent de dagtotalen van een periode opnieuw uit de ritten, bv. om ritten van voor
+     * de dagtotalen of een correctie in de databank op te nemen.
+     * @param van eerste dag van de periode, null voor alle ritten tot tot
+     * @param tot eerste dag na de periode, null voor alle ritten vanaf van
+     * @return aantal dagtotalen in de periode
+     * @throws ApplicationException wanneer tot niet na van valt
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public int herbouwDagtotalen(LocalDate van, LocalDate tot) throws ApplicationException, DBException {
+        checkPeriode(van, tot);
+        return dagtotaalDAO.herbouw(van, tot);
+    }
+
+    private void checkPeriode(LocalDate van, LocalDate tot) throws ApplicationException {
+        if (van != null && tot != null && !tot.isAfter(van)) {
+            throw new ApplicationException(ApplicationExceptionType.RAPPORT_PERIODE_ONGELDIG);
+        }
+    }
+}
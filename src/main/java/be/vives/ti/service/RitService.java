@@ -2,17 +2,19 @@ package be.vives.ti.service;
 
 import be.vives.ti.dao.LidDAO;
 import be.vives.ti.dao.RitDAO;
-import be.vives.ti.databag.Fiets;
 import be.vives.ti.databag.Rit;
-import be.vives.ti.datatype.Status;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
+import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Bevat alle functionaliteit van een rit, met de nodige checks.
@@ -23,6 +25,7 @@ import java.util.List;
  * - zoeken naar actieve rit van een lid.
  * - zoeken naar actieve rit van een fiets.
  * - berekenen van prijs van een rit.
+ * - exporteren van de ritten van een periode.
  */
 
 public class RitService {
@@ -31,48 +34,59 @@ public class RitService {
     private FietsService fietsService;
     private LidDAO lidDAO;
     private LidService lidService;
+    private VlootIndex vlootIndex;
     private static final double PRIJS_PER_DAG = 1.00;
 
     public RitService(RitDAO ritDAO, FietsService fietsService, LidDAO lidDAO) {
+        this(ritDAO, fietsService, lidDAO, new LidCache(0, 0));
+    }
+
+    /**
+     * @param lidCache cache voor het opzoeken van leden, te delen met de LidService van de applicatie
+     */
+    public RitService(RitDAO ritDAO, FietsService fietsService, LidDAO lidDAO, LidCache lidCache) {
+        this(ritDAO, fietsService, lidDAO, lidCache, new VlootIndex());
+    }
+
+    /**
+     * @param lidCache cache voor het opzoeken van leden, te delen met de LidService van de applicatie
+     * @param vlootIndex index van de vloot, te delen met de FietsService van de applicatie
+     */
+    public RitService(RitDAO ritDAO, FietsService fietsService, LidDAO lidDAO, LidCache lidCache, VlootIndex vlootIndex) {
         this.ritDAO = ritDAO;
         this.fietsService = fietsService;
         this.lidDAO = lidDAO;
-        lidService = new LidService(lidDAO, this);
+        this.vlootIndex = vlootIndex;
+        lidService = new LidService(lidDAO, this, lidCache);
     }
     /**
-     * Het toevoegen van een rit.
+     * Het toevoegen van een rit. De controles op fiets en lid en het toevoegen van de rit
+     * gebeuren in een transactie in de DAO.
      *
      * @param rit Het rit object dat moet worden toegevoegd.
      * @throws ApplicationException wanneer de rit parameter null is.
-     * @throws ApplicationException Wanneer een rit al toegevoegd is.
-     * @throws ApplicationException Wanneer een fiets al in gebruik is.
-     * @throws ApplicationException Wanneer een fiets niet bestaat.
+     * @throws ApplicationException Wanneer de starttijd al ingevuld is.
+     * @throws ApplicationException Wanneer het rijksregisternummer van het lid leeg is.
+     * @throws ApplicationException Wanneer een fiets niet bestaat, al in gebruik is of niet actief is.
+     * @throws ApplicationException Wanneer een lid niet bestaat of al een fiets huurt.
      * @throws DBException duidt op fouten vanuit de be.vives.DAO.
      */
     public Integer toevoegenRit(Rit rit) throws ApplicationException, DBException {
         if(rit==null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_NULL.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.RIT_NULL);
         }
         if(rit.getStarttijd() !=null){
-            throw new ApplicationException(ApplicationExceptionType.RIT_STARTTIJD_AUTOMATISCH.getMessage());
-        }
-        if(!bestaatFiets(rit.getFietsRegistratienummer())){
-            throw new ApplicationException(ApplicationExceptionType.FIETS_BESTAAT_NIET.getMessage());
-        }
-        if(isFietsVerhuurd(rit.getFietsRegistratienummer())){
-            throw new ApplicationException(ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.RIT_STARTTIJD_AUTOMATISCH);
         }
-        if(!isFietsVerhuurbaar(rit.getFietsRegistratienummer())){
-            throw new ApplicationException(ApplicationExceptionType.FIETS_STATUS_NIET_ACTIEF.getMessage());
-        }
-        if(!bestaatLid(rit.getLidRijksregisternummer())){
-            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
-        }
-        if(isLidAanHetHuren(rit.getLidRijksregisternummer())){
-            throw new ApplicationException(ApplicationExceptionType.RIT_LID_HUURT.getMessage());
+        if(StringUtils.isBlank(rit.getLidRijksregisternummer())){
+            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
         }
 
-        return ritDAO.toevoegenRit(rit);
+        Integer ritID = ritDAO.huurFiets(rit);
+        if (ritID != null) {
+            vlootIndex.ritGestart(rit.getFietsRegistratienummer(), ritID);
+        }
+        return ritID;
     }
 
     /**
@@ -80,19 +94,27 @@ public class RitService {
      * @param id ritID van de rit dat moet worden afgesloten.
      * @throws ApplicationException Wanneer het opgegeven id null is.
      * @throws ApplicationException Wanneer een rit niet bestaat.
+     * @throws ApplicationException Wanneer de rit al afgesloten werd.
      */
     public void afsluitenRit(Integer id) throws ApplicationException, DBException {
         if(id==null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_ID_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.RIT_ID_LEEG);
         }
         Rit afTeSluitenRit = ritDAO.zoekRit(id);
         if(afTeSluitenRit == null){
-            throw new ApplicationException(ApplicationExceptionType.RIT_ONBEKEND.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.RIT_ONBEKEND);
+        }
+        if(afTeSluitenRit.getEindtijd() != null){
+            throw new ApplicationException(ApplicationExceptionType.RIT_AL_AFGESLOTEN);
         }
         afTeSluitenRit.setEindtijd(LocalDateTime.now());
         double prijs = prijsBerekenen(afTeSluitenRit);
         afTeSluitenRit.setPrijs(BigDecimal.valueOf(prijs));
-        ritDAO.afsluitenRit(afTeSluitenRit);
+        // intussen door een andere oproep afgesloten
+        if(ritDAO.afsluitenRit(afTeSluitenRit) == 0){
+            throw new ApplicationException(ApplicationExceptionType.RIT_AL_AFGESLOTEN);
+        }
+        vlootIndex.ritAfgesloten(afTeSluitenRit.getFietsRegistratienummer(), afTeSluitenRit.getId());
     }
 
     /**
@@ -102,7 +124,7 @@ public class RitService {
      */
     public Rit zoekRit(Integer ritID) throws ApplicationException, DBException {
         if(ritID == null){
-            throw new ApplicationException(ApplicationExceptionType.RIT_ID_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.RIT_ID_LEEG);
         }
         return ritDAO.zoekRit(ritID);
     }
@@ -114,10 +136,10 @@ public class RitService {
      */
     public Rit zoekEersteRitVanLid(String rr) throws ApplicationException, DBException {
         if(rr == null){
-            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
         }
         if(!bestaatLid(rr)) {
-            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET);
         }
         return ritDAO.zoekEersteRitVanLid(rr);
     }
@@ -126,6 +148,44 @@ public class RitService {
         return ritDAO.zoekAlleRitten();
     }
 
+    /**
+     * Zoekt een pagina ritten, de nieuwste eerst.
+     * @param voorId id van de laatste rit van de vorige pagina, null voor de eerste pagina
+     * @param aantal maximaal aantal ritten op de pagina
+     * @return lijst van maximaal aantal ritten
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public List<Rit> zoekRittenVoor(Integer voorId, int aantal) throws DBException {
+        return ritDAO.zoekRittenVoor(voorId, aantal);
+    }
+
+    /**
+     * Overloopt alle ritten zonder ze allemaal in het geheugen te laden,
+     * bedoeld voor exports en rapporten over de volledige rittentabel.
+     * De Stream moet gesloten worden.
+     * @return Stream van alle ritten, gesorteerd op id
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public Stream<Rit> streamAlleRitten() throws DBException {
+        return ritDAO.streamAlleRitten();
+    }
+
+    /**
+     * Schrijft de ritten die in een periode gestart zijn naar een bestand, zie RittenExport.
+     * @param van begin van de periode (inclusief), null voor alle ritten tot tot
+     * @param tot einde van de periode (exclusief), null voor alle ritten vanaf van
+     * @param formaat CSV of JSON
+     * @param doel bestand waarnaar geschreven wordt, wordt gesloten
+     * @param gzip true om de export te comprimeren
+     * @return aantal geschreven ritten
+     * @throws IOException wanneer er niet geschreven kan worden
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public long exporteerRitten(LocalDateTime van, LocalDateTime tot, RittenExport.Formaat formaat,
+                                OutputStream doel, boolean gzip) throws IOException, DBException {
+        return new RittenExport(ritDAO).exporteer(van, tot, formaat, doel, gzip);
+    }
+
     /**
      * Zoekt de actieve rit van een lid
      * @param rr rijksregisternummer van het lid dat de rit van gezocht wordt.
@@ -133,10 +193,10 @@ public class RitService {
      */
     public List<Rit> zoekActieveRittenVanLid(String rr) throws DBException, ApplicationException {
         if(rr == null){
-            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG);
         }
         if(!bestaatLid(rr)) {
-            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET);
         }
         return ritDAO.zoekActieveRittenVanLid(rr);
     }
@@ -148,10 +208,10 @@ public class RitService {
      */
     public List<Rit> zoekActieveRittenVanFiets(Integer regnr) throws DBException, ApplicationException {
         if(regnr == null){
-            throw new ApplicationException(ApplicationExceptionType.FIETS_REGISTRATIE_LEEG.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_REGISTRATIE_LEEG);
         }
         if(!bestaatFiets(regnr)){
-            throw new ApplicationException(ApplicationExceptionType.FIETS_BESTAAT_NIET.getMessage());
+            throw new ApplicationException(ApplicationExceptionType.FIETS_BESTAAT_NIET);
         }
         return ritDAO.zoekActieveRittenVanFiets(regnr);
     }
@@ -179,21 +239,6 @@ public class RitService {
         return true;
     }
 
-    /**
-     *
-     * @param rrn rijksregisternummer van het lid dat gecontroleerd moet worden.
-     * @return false als het lid al een fiets huurt. true als het lid nog geen fiets huurt.
-     * @throws DBException duidt op fouten vanuit de be.vives.DAO.
-     * @throws ApplicationException Als het lid niet bestaat.
-     */
-    private Boolean isLidAanHetHuren(String rrn) throws DBException, ApplicationException {
-        List<Rit> lijstLid = zoekActieveRittenVanLid(rrn); // 1 lid
-        if(lijstLid.size() == 0){
-            return false;
-        }
-        return true;
-    }
-
     /**
      * Hier wordt getest of de fiets bestaat.
      * @param rn fietsregistratienummer van de fiets die moet gecontroleerd worden
@@ -207,35 +252,7 @@ public class RitService {
         return true;
     }
 
-    /**
-     * Hier wordt getest of de fiets verhuurd wordt of niet.
-     * @param rn het fietsregistratienummer van de fiets die moet gecontroleerd worden.
-     * @return false als de fiets al verhuurd wordt, true als de fiets niet verhuurd wordt
-     * @throws DBException duidt op fouten vanuit de be.vives.DAO.
-     * @throws ApplicationException Als de fiets niet bestaat.
-     */
-    private Boolean isFietsVerhuurd(int rn) throws DBException, ApplicationException {
-        List<Rit> lijstFiets = zoekActieveRittenVanFiets(rn); // 1 fiets
-        if(lijstFiets.size() == 0){
-            return false;
-        }
-        return true;
-    }
 
-    /**
-     * Hier wordt getest of de fiets kan verhuurd worden. Ofdat de fiets op actief staat.
-     * @param rn Het fietsregistratienummer
-     * @return False als de fiets niet actief is voor verhuur, true als de fiets actief is.
-     * @throws DBException  duidt op fouten vanuit de be.vives.DAO.
-     * @throws ApplicationException Als de fiets niet bestaat
-     */
-    private Boolean isFietsVerhuurbaar(int rn) throws DBException, ApplicationException {
-        Fiets fiets = fietsService.zoekFiets(rn);
-        if(!fiets.getStatus().equals(Status.actief)){
-            return false;
-        }
-        return true;
-    }
 
 
 
@@ -0,0 +1,147 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.exception.UncheckedDBException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Schrijft de ritten, met hun prijs, naar een CSV- of JSON-lines-bestand, bv. de maandelijkse export voor de boekhouding.
+ * - enkel de ritten met een starttijd in de gevraagde periode, gesorteerd op starttijd
+ * - de ritten komen rechtstreeks uit RitDAO.streamRitten en worden meteen geschreven,
+ *   zodat ook een export van miljoenen ritten weinig geheugen gebruikt
+ * - optioneel gecomprimeerd met gzip
+ *
+ * CSV: kolommen gescheiden door ; met een eerste regel met de kolomnamen, zoals LedenImport ze leest.
+ * JSON: een object per regel.
+ * Een rit die nog niet afgesloten is, heeft een lege eindtijd en prijs.
+ */
+public class RittenExport {
+
+    public enum Formaat {
+        CSV, JSON
+    }
+
+    private static final int BUFFERGROOTTE = 64 * 1024;
+    private static final DateTimeFormatter TIJDSTIP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final RitDAO ritDAO;
+
+    public RittenExport(RitDAO ritDAO) {
+        this.ritDAO = ritDAO;
+    }
+
+    /**
+     * @param van     begin van de periode (inclusief), null voor alle ritten tot tot
+     * @param tot     einde van de periode (exclusief), null voor alle ritten vanaf van
+     * @param formaat CSV of JSON
+     * @param doel    bestand waarnaar geschreven wordt, wordt gesloten
+     * @param gzip    true om de export te comprimeren
+     * @return aantal geschreven ritten
+     * @throws IOException wanneer er niet geschreven kan worden
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public long exporteer(LocalDateTime van, LocalDateTime tot, Formaat formaat, OutputStream doel, boolean gzip)
+            throws IOException, DBException {
+        OutputStream uit = gzip ? new GZIPOutputStream(doel, BUFFERGROOTTE) : doel;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(uit, StandardCharsets.UTF_8), BUFFERGROOTTE)) {
+            return exporteer(van, tot, formaat, writer);
+        }
+    }
+
+    /**
+     * @param van     begin van de periode (inclusief), null voor alle ritten tot tot
+     * @param tot     einde van de periode (exclusief), null voor alle ritten vanaf van
+     * @param formaat CSV of JSON
+     * @param writer  writer waarnaar geschreven wordt, wordt niet gesloten maar wel geflusht
+     * @return aantal geschreven ritten
+     * @throws IOException wanneer er niet geschreven kan worden
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public long exporteer(LocalDateTime van, LocalDateTime tot, Formaat formaat, Writer writer)
+            throws IOException, DBException {
+        long aantal = 0;
+        if (formaat == Formaat.CSV) {
+            writer.write("id;starttijd;eindtijd;prijs;lid_rijksregisternummer;fiets_registratienummer\n");
+        }
+        try (Stream<Rit> ritten = ritDAO.streamRitten(van, tot)) {
+            // een iterator in plaats van forEach, zodat een IOException gewoon doorgegeven wordt
+            Iterator<Rit> iterator = ritten.iterator();
+            while (iterator.hasNext()) {
+                Rit rit = iterator.next();
+                if (formaat == Formaat.CSV) {
+                    schrijfCsv(rit, writer);
+                } else {
+                    schrijfJson(rit, writer);
+                }
+                aantal++;
+            }
+        } catch (UncheckedDBException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+        return aantal;
+    }
+
+    private void schrijfCsv(Rit rit, Writer writer) throws IOException {
+        writer.write(String.valueOf(rit.getId()));
+        writer.write(';');
+        writer.write(TIJDSTIP.format(rit.getStarttijd()));
+        writer.write(';');
+        if (rit.getEindtijd() != null) {
+            writer.write(TIJDSTIP.format(rit.getEindtijd()));
+        }
+        writer.write(';');
+        if (rit.getPrijs() != null) {
+            writer.write(rit.getPrijs().toPlainString());
+        }
+        writer.write(';');
+        if (rit.getLidRijksregisternummer() != null) {
+            writer.write(rit.getLidRijksregisternummer());
+        }
+        writer.write(';');
+        writer.write(String.valueOf(rit.getFietsRegistratienummer()));
+        writer.write('\n');
+    }
+
+    private void schrijfJson(Rit rit, Writer writer) throws IOException {
+        // alle velden zijn getallen, tijdstippen of cijfers, er moet dus niets ge-escaped worden
+        writer.write("{\"id\":");
+        writer.write(String.valueOf(rit.getId()));
+        writer.write(",\"starttijd\":\"");
+        writer.write(TIJDSTIP.format(rit.getStarttijd()));
+        writer.write("\",\"eindtijd\":");
+        if (rit.getEindtijd() == null) {
+            writer.write("null");
+        } else {
+            writer.write('"');
+            writer.write(TIJDSTIP.format(rit.getEindtijd()));
+            writer.write('"');
+        }
+        writer.write(",\"prijs\":");
+        writer.write(rit.getPrijs() == null ? "null" : rit.getPrijs().toPlainString());
+        writer.write(",\"lid_rijksregisternummer\":");
+        if (rit.getLidRijksregisternummer() == null) {
+            writer.write("null");
+        } else {
+            writer.write('"');
+            writer.write(rit.getLidRijksregisternummer());
+            writer.write('"');
+        }
+        writer.write(",\"fiets_registratienummer\":");
+        writer.write(String.valueOf(rit.getFietsRegistratienummer()));
+        writer.write("}\n");
+    }
+}
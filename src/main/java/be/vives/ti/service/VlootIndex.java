@@ -0,0 +1,280 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.DBException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Toestand van de volledige vloot in het geheugen: per fiets de status, de standplaats en
+ * de openstaande rit, en per standplaats de fietsen die verhuurd kunnen worden. Het aantal
+ * beschikbare fietsen per standplaats is daardoor meteen gekend.
+ * - laad() leest alle fietsen en actieve ritten, bij het opstarten of om te vernieuwen
+ * - FietsService en RitService werken de index bij na elke geslaagde wijziging
+ * - zolang de index niet geladen is, worden wijzigingen genegeerd en vragen de services de databank
+ * - wijzigingen die binnenkomen terwijl laad() de databank leest, worden na het laden opnieuw
+ *   toegepast, zodat ze niet door de gelezen (mogelijk oudere) toestand overschreven worden
+ * - de meldingen over ritten mogen in een andere volgorde binnenkomen dan de commits: een rit
+ *   wordt enkel afgesloten wanneer hij de openstaande rit is, en een gestarte rit die ouder is
+ *   dan de laatst gemelde rit van de fiets wordt genegeerd (rit-id's lopen op)
+ *
+ * Wijzigingen door een andere applicatie op dezelfde databank zijn pas zichtbaar na laad().
+ * De verhuring zelf blijft in de databank gecontroleerd (RitDAO.huurFiets).
+ */
+public class VlootIndex {
+
+    private final Map<Integer, FietsToestand> fietsen = new HashMap<>();
+    // per standplaats de beschikbare fietsen, gesorteerd op registratienummer
+    private final EnumMap<Standplaats, TreeMap<Integer, FietsToestand>> beschikbaar = new EnumMap<>(Standplaats.class);
+    private boolean geladen;
+    // wijzigingen tijdens laad(fietsDAO, ritDAO), null wanneer er niet geladen wordt
+    private List<Runnable> tijdensLaden;
+    // laat maar een laad() tegelijk de databank lezen; geen synchronized zodat een virtuele thread
+    // tijdens het lezen niet aan zijn drager vastzit
+    private final ReentrantLock laden = new ReentrantLock();
+
+    public VlootIndex() {
+        for (Standplaats standplaats : Standplaats.values()) {
+            beschikbaar.put(standplaats, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Leest alle fietsen en actieve ritten uit de databank en vervangt de inhoud van de index.
+     *
+     * @param fietsDAO DAO voor de fietsen
+     * @param ritDAO   DAO voor de ritten
+     * @throws DBException Duidt op fouten vanuit de be.vives.DAO.
+     */
+    public void laad(FietsDAO fietsDAO, RitDAO ritDAO) throws DBException {
+        laden.lock();
+        try {
+            synchronized (this) {
+                tijdensLaden = new ArrayList<>();
+            }
+            try {
+                laad(fietsDAO.zoekAlleFietsen(), ritDAO.zoekAlleActieveRitten());
+            } finally {
+                synchronized (this) {
+                    tijdensLaden = null;
+                }
+            }
+        } finally {
+            laden.unlock();
+        }
+    }
+
+    /**
+     * Vervangt de inhoud van de index en past daarna de wijzigingen toe die binnenkwamen
+     * terwijl de databank gelezen werd.
+     *
+     * @param alleFietsen    alle fietsen
+     * @param actieveRitten alle ritten zonder eindtijd
+     */
+    synchronized void laad(List<Fiets> alleFietsen, List<Rit> actieveRitten) {
+        fietsen.clear();
+        beschikbaar.values().forEach(TreeMap::clear);
+        for (Fiets fiets : alleFietsen) {
+            fietsen.put(fiets.getRegistratienummer(),
+                    new FietsToestand(fiets.getRegistratienummer(), fiets.getStandplaats(), fiets.getStatus(), fiets.getOpmerking()));
+        }
+        for (Rit rit : actieveRitten) {
+            FietsToestand toestand = fietsen.get(rit.getFietsRegistratienummer());
+            if (toestand != null) {
+                toestand.openRit = rit.getId();
+                toestand.laatsteRit = rit.getId();
+            }
+        }
+        fietsen.values().forEach(this::werkBeschikbaarBij);
+        geladen = true;
+        if (tijdensLaden != null) {
+            List<Runnable> wijzigingen = tijdensLaden;
+            tijdensLaden = null;
+            wijzigingen.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * @return true wanneer de index geladen is en dus gebruikt kan worden
+     */
+    public synchronized boolean isGeladen() {
+        return geladen;
+    }
+
+    /**
+     * @param regnr registratienummer van de fiets
+     * @return true wanneer de fiets actief is en geen openstaande rit heeft,
+     * null wanneer de index niet geladen is of de fiets niet kent
+     */
+    public synchronized Boolean isBeschikbaar(int regnr) {
+        FietsToestand toestand = geladen ? fietsen.get(regnr) : null;
+        return toestand == null ? null : toestand.isBeschikbaar();
+    }
+
+    /**
+     * @param regnr registratienummer van de fiets
+     * @return id van de openstaande rit van de fiets, null wanneer er geen is of de fiets niet gekend is
+     */
+    public synchronized Integer geefOpenRit(int regnr) {
+        FietsToestand toestand = fietsen.get(regnr);
+        return toestand == null ? null : toestand.openRit;
+    }
+
+    /**
+     * @return alle beschikbare fietsen, op registratienummer zoals FietsDAO.zoekAlleBeschikbareFietsen
+     */
+    public synchronized List<Fiets> geefBeschikbareFietsen() {
+        TreeMap<Integer, FietsToestand> alle = new TreeMap<>();
+        for (TreeMap<Integer, FietsToestand> perStandplaats : beschikbaar.values()) {
+            alle.putAll(perStandplaats);
+        }
+        List<Fiets> lijst = new ArrayList<>(alle.size());
+        for (FietsToestand toestand : alle.values()) {
+            lijst.add(toestand.alsFiets());
+        }
+        return lijst;
+    }
+
+    /**
+     * @param standplaats standplaats waarvan de beschikbare fietsen gevraagd worden
+     * @return beschikbare fietsen van de standplaats, op registratienummer
+     */
+    public synchronized List<Fiets> geefBeschikbareFietsen(Standplaats standplaats) {
+        List<Fiets> lijst = new ArrayList<>();
+        for (FietsToestand toestand : beschikbaar.get(standplaats).values()) {
+            lijst.add(toestand.alsFiets());
+        }
+        return lijst;
+    }
+
+    /**
+     * @param standplaats standplaats waarvan het aantal gevraagd wordt
+     * @return aantal beschikbare fietsen van de standplaats
+     */
+    public synchronized int geefAantalBeschikbaar(Standplaats standplaats) {
+        return beschikbaar.get(standplaats).size();
+    }
+
+    /**
+     * @return per standplaats het aantal beschikbare fietsen, ook standplaatsen zonder beschikbare fiets
+     */
+    public synchronized EnumMap<Standplaats, Integer> geefAantalBeschikbaarPerStandplaats() {
+        EnumMap<Standplaats, Integer> aantallen = new EnumMap<>(Standplaats.class);
+        beschikbaar.forEach((standplaats, perStandplaats) -> aantallen.put(standplaats, perStandplaats.size()));
+        return aantallen;
+    }
+
+    synchronized void fietsToegevoegd(int regnr, Standplaats standplaats, Status status, String opmerking) {
+        onthoud(() -> fietsToegevoegd(regnr, standplaats, status, opmerking));
+        if (!geladen) {
+            return;
+        }
+        FietsToestand toestand = new FietsToestand(regnr, standplaats, status, opmerking);
+        fietsen.put(regnr, toestand);
+        werkBeschikbaarBij(toestand);
+    }
+
+    synchronized void statusGewijzigd(int regnr, Status status) {
+        onthoud(() -> statusGewijzigd(regnr, status));
+        FietsToestand toestand = fietsen.get(regnr);
+        if (toestand != null) {
+            toestand.status = status;
+            werkBeschikbaarBij(toestand);
+        }
+    }
+
+    synchronized void opmerkingGewijzigd(int regnr, String opmerking) {
+        onthoud(() -> opmerkingGewijzigd(regnr, opmerking));
+        FietsToestand toestand = fietsen.get(regnr);
+        if (toestand != null) {
+            toestand.opmerking = opmerking;
+        }
+    }
+
+    synchronized void ritGestart(int regnr, int ritId) {
+        onthoud(() -> ritGestart(regnr, ritId));
+        FietsToestand toestand = fietsen.get(regnr);
+        if (toestand != null && (toestand.laatsteRit == null || ritId > toestand.laatsteRit)) {
+            toestand.openRit = ritId;
+            toestand.laatsteRit = ritId;
+            werkBeschikbaarBij(toestand);
+        }
+    }
+
+    /**
+     * @param regnr registratienummer van de fiets
+     * @param ritId id van de afgesloten rit, enkel als die de openstaande rit is, wordt de fiets vrij
+     */
+    synchronized void ritAfgesloten(int regnr, int ritId) {
+        onthoud(() -> ritAfgesloten(regnr, ritId));
+        FietsToestand toestand = fietsen.get(regnr);
+        if (toestand != null) {
+            if (toestand.laatsteRit == null || ritId > toestand.laatsteRit) {
+                toestand.laatsteRit = ritId;
+            }
+            if (Integer.valueOf(ritId).equals(toestand.openRit)) {
+                toestand.openRit = null;
+                werkBeschikbaarBij(toestand);
+            }
+        }
+    }
+
+    private void onthoud(Runnable wijziging) {
+        if (tijdensLaden != null) {
+            tijdensLaden.add(wijziging);
+        }
+    }
+
+    private void werkBeschikbaarBij(FietsToestand toestand) {
+        TreeMap<Integer, FietsToestand> perStandplaats = beschikbaar.get(toestand.standplaats);
+        if (toestand.isBeschikbaar()) {
+            perStandplaats.put(toestand.registratienummer, toestand);
+        } else {
+            perStandplaats.remove(toestand.registratienummer);
+        }
+    }
+
+    /**
+     * Toestand van een fiets in de index.
+     */
+    private static class FietsToestand {
+        private final int registratienummer;
+        private final Standplaats standplaats;
+        private Status status;
+        private String opmerking;
+        private Integer openRit;
+        // hoogste rit-id dat voor de fiets gemeld werd, gestart of afgesloten
+        private Integer laatsteRit;
+
+        private FietsToestand(int registratienummer, Standplaats standplaats, Status status, String opmerking) {
+            this.registratienummer = registratienummer;
+            this.standplaats = standplaats;
+            this.status = status;
+            this.opmerking = opmerking;
+        }
+
+        private boolean isBeschikbaar() {
+            return status == Status.actief && openRit == null;
+        }
+
+        private Fiets alsFiets() {
+            Fiets fiets = new Fiets();
+            fiets.setRegistratienummer(registratienummer);
+            fiets.setStandplaats(standplaats);
+            fiets.setStatus(status);
+            fiets.setOpmerking(opmerking);
+            return fiets;
+        }
+    }
+}
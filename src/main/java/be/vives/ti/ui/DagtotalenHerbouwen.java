@@ -0,0 +1,47 @@
+package be.vives.ti.ui;
+
+import be.vives.ti.dao.DagtotaalDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.RapportService;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Berekent de dagtotalen van de ritten opnieuw vanaf de opdrachtregel, bv. na een correctie in de databank:
+ *
+ *   java be.vives.ti.ui.DagtotalenHerbouwen [van [tot]]
+ *
+ * van en tot zijn datums (jjjj-mm-dd), tot is exclusief. Zonder datums wordt alles herbouwd.
+ */
+public class DagtotalenHerbouwen {
+
+    public static void main(String[] args) {
+        if (args.length > 2) {
+            System.out.println("Gebruik: DagtotalenHerbouwen [van jjjj-mm-dd [tot jjjj-mm-dd]]");
+            System.exit(2);
+        }
+        try {
+            LocalDate van = args.length > 0 ? LocalDate.parse(args[0]) : null;
+            LocalDate tot = args.length > 1 ? LocalDate.parse(args[1]) : null;
+
+            ConnectionManager.initialiseer();
+            int aantal = new RapportService(new RitDAO(), new DagtotaalDAO()).herbouwDagtotalen(van, tot);
+            System.out.println(aantal + " dagtotalen herbouwd");
+        } catch (DateTimeParseException e) {
+            System.out.println("Ongeldige datum: " + e.getParsedString());
+            System.exit(2);
+        } catch (ApplicationException e) {
+            System.out.println(e.getMessage());
+            System.exit(2);
+        } catch (DBException e) {
+            System.out.println("SYSTEEMFOUT bij herbouwen: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            ConnectionManager.sluitPool();
+        }
+    }
+}
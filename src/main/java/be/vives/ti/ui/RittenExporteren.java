@@ -0,0 +1,62 @@
+package be.vives.ti.ui;
+
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.RittenExport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Exporteert de ritten vanaf de opdrachtregel, zonder de JavaFX-applicatie te starten:
+ *
+ *   java be.vives.ti.ui.RittenExporteren bestand [van [tot]]
+ *
+ * - van en tot zijn datums (jjjj-mm-dd), tot is exclusief: 2024-01-01 2024-02-01 is januari 2024
+ * - het formaat volgt uit de extensie: .csv of .jsonl, met .gz erachter wordt de export gecomprimeerd
+ */
+public class RittenExporteren {
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Gebruik: RittenExporteren bestand(.csv|.jsonl)[.gz] [van jjjj-mm-dd [tot jjjj-mm-dd]]");
+            System.exit(2);
+        }
+        Path bestand = Paths.get(args[0]);
+        String naam = bestand.getFileName().toString().toLowerCase();
+        boolean gzip = naam.endsWith(".gz");
+        if (gzip) {
+            naam = naam.substring(0, naam.length() - ".gz".length());
+        }
+        RittenExport.Formaat formaat = naam.endsWith(".csv") ? RittenExport.Formaat.CSV : RittenExport.Formaat.JSON;
+        try {
+            LocalDateTime van = args.length > 1 ? LocalDate.parse(args[1]).atStartOfDay() : null;
+            LocalDateTime tot = args.length > 2 ? LocalDate.parse(args[2]).atStartOfDay() : null;
+
+            ConnectionManager.initialiseer();
+            long aantal;
+            try (OutputStream uit = Files.newOutputStream(bestand)) {
+                aantal = new RittenExport(new RitDAO()).exporteer(van, tot, formaat, uit, gzip);
+            }
+            System.out.println(aantal + " ritten geëxporteerd naar " + bestand);
+        } catch (DateTimeParseException e) {
+            System.out.println("Ongeldige datum: " + e.getParsedString());
+            System.exit(2);
+        } catch (IOException e) {
+            System.out.println("FOUT bij schrijven van " + bestand + ": " + e.getMessage());
+            System.exit(1);
+        } catch (DBException e) {
+            System.out.println("SYSTEEMFOUT bij exporteren: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            ConnectionManager.sluitPool();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package be.vives.ti.ui;
+
+import be.vives.ti.ui.controller.BeheerController;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Houdt de schermen van de applicatie bij: elk scherm (FXML, controller en Scene) wordt
+ * maar een keer opgebouwd en daarna hergebruikt. Bij het opnieuw tonen worden enkel de
+ * gegevens van het scherm vernieuwd (BeheerController.vernieuw).
+ *
+ * Wordt enkel vanop de JavaFX-thread gebruikt.
+ */
+class SchermRegister {
+
+    private final VIVESbike parent;
+    private final Map<String, Scherm> schermen = new HashMap<>();
+
+    SchermRegister(VIVESbike parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * @param fxml           FXML-bestand van het scherm
+     * @param maakController maakt de controller wanneer het scherm nog niet opgebouwd is
+     * @return de Scene van het scherm, met vernieuwde gegevens wanneer het al eerder opgebouwd was
+     * @throws IOException wanneer het FXML-bestand niet geladen kan worden
+     */
+    Scene geef(String fxml, Supplier<BeheerController> maakController) throws IOException {
+        Scherm scherm = schermen.get(fxml);
+        if (scherm == null) {
+            // initialize() van de controller laadt de gegevens al
+            return bouw(fxml, maakController).scene;
+        }
+        scherm.controller.vernieuw();
+        return scherm.scene;
+    }
+
+    /**
+     * Bouwt een scherm op zonder het te tonen, zodat het later meteen getoond kan worden.
+     *
+     * @param fxml           FXML-bestand van het scherm
+     * @param maakController maakt de controller wanneer het scherm nog niet opgebouwd is
+     * @throws IOException wanneer het FXML-bestand niet geladen kan worden
+     */
+    void bouwVooraf(String fxml, Supplier<BeheerController> maakController) throws IOException {
+        if (!schermen.containsKey(fxml)) {
+            bouw(fxml, maakController);
+        }
+    }
+
+    private Scherm bouw(String fxml, Supplier<BeheerController> maakController) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml));
+
+        // controller instellen
+        BeheerController controller = maakController.get();
+        loader.setController(controller);
+
+        Parent root = loader.load();
+        controller.setParent(parent);
+        Scherm scherm = new Scherm(new Scene(root), controller);
+        schermen.put(fxml, scherm);
+        return scherm;
+    }
+
+    /**
+     * Opgebouwd scherm.
+     */
+    private static class Scherm {
+        private final Scene scene;
+        private final BeheerController controller;
+
+        private Scherm(Scene scene, BeheerController controller) {
+            this.scene = scene;
+            this.controller = controller;
+        }
+    }
+}
@@ -3,16 +3,18 @@ package be.vives.ti.ui;
 import be.vives.ti.dao.FietsDAO;
 import be.vives.ti.dao.LidDAO;
 import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
 import be.vives.ti.exception.DBException;
 import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidCache;
 import be.vives.ti.service.LidService;
 import be.vives.ti.service.RitService;
+import be.vives.ti.service.VlootIndex;
 import be.vives.ti.ui.controller.FietsenBeheerController;
 import be.vives.ti.ui.controller.LedenBeheerController;
 import be.vives.ti.ui.controller.RittenBeheerController;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
@@ -20,7 +22,18 @@ import java.io.IOException;
 
 public class VIVESbike extends Application {
 
+    // leden worden maximaal 5 minuten uit het geheugen gehaald
+    private static final int LEDEN_CACHE_GROOTTE = 1000;
+    private static final long LEDEN_CACHE_TTL_MILLIS = 5 * 60 * 1000;
+
+    private static final String LEDENBEHEER = "/fxml/LedenBeheer.fxml";
+    private static final String RITTENBEHEER = "/fxml/RittenBeheer.fxml";
+    private static final String FIETSENBEHEER = "/fxml/FietsenBeheer.fxml";
+    // -Dvivesbike.ui.voorladen=false bouwt elk scherm pas op wanneer het de eerste keer getoond wordt
+    public static final String VOORLADEN_PROPERTY = "vivesbike.ui.voorladen";
+
     private final Stage stage = new Stage();
+    private final SchermRegister schermen = new SchermRegister(this);
 
     private FietsService fietsService;
     private LidService lidService;
@@ -28,10 +41,12 @@ public class VIVESbike extends Application {
     private FietsDAO fietsDAO;
     private LidDAO lidDAO;
     private RitDAO ritDAO;
+    private LidCache lidCache;
+    private VlootIndex vlootIndex;
 
     private FietsService createFietsService() {
         if (fietsService == null) {
-            this.fietsService = new FietsService(createFietsDAO());
+            this.fietsService = new FietsService(createFietsDAO(), createVlootIndex());
         }
         return fietsService;
     }
@@ -43,7 +58,7 @@ public class VIVESbike extends Application {
     }
     private LidService createLidService() {
         if (lidService == null) {
-            this.lidService = new LidService(createLidDAO(), createRitService());
+            this.lidService = new LidService(createLidDAO(), createRitService(), createLidCache());
         }
         return lidService;
     }
@@ -55,10 +70,22 @@ public class VIVESbike extends Application {
     }
     private RitService createRitService() {
         if (ritService == null) {
-            this.ritService = new RitService(createRitDAO(), createFietsService(), createLidDAO());
+            this.ritService = new RitService(createRitDAO(), createFietsService(), createLidDAO(), createLidCache(), createVlootIndex());
         }
         return ritService;
     }
+    private LidCache createLidCache() {
+        if (lidCache == null) {
+            this.lidCache = new LidCache(LEDEN_CACHE_GROOTTE, LEDEN_CACHE_TTL_MILLIS);
+        }
+        return lidCache;
+    }
+    private VlootIndex createVlootIndex() {
+        if (vlootIndex == null) {
+            this.vlootIndex = new VlootIndex();
+        }
+        return vlootIndex;
+    }
     private RitDAO createRitDAO() {
         if (ritDAO == null) {
             this.ritDAO = new RitDAO();
@@ -72,26 +99,29 @@ public class VIVESbike extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        try {
+            // pool opbouwen, schema migreren en vloot inlezen voor het eerste scherm geladen wordt
+            ConnectionManager.initialiseer();
+            createVlootIndex().laad(createFietsDAO(), createRitDAO());
+        } catch (DBException e) {
+            System.out.println("SYSTEEMFOUT bij openen databank: " + e.getMessage());
+        }
         laadLedenbeheer();
         stage.show();
+        if (Boolean.parseBoolean(System.getProperty(VOORLADEN_PROPERTY, "true"))) {
+            bouwSchermenVooraf();
+        }
+    }
+
+    @Override
+    public void stop() {
+        ConnectionManager.sluitPool();
     }
 
 
     public void laadLedenbeheer() {
         try {
-            String fxmlFile = "/fxml/LedenBeheer.fxml";
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlFile));
-
-            // controller instellen
-            LedenBeheerController controller = new LedenBeheerController(createLidService());
-            loader.setController(controller);
-
-            Parent root = loader.load();
-            controller.setParent(this);
-            Scene scene = new Scene(root);
-            stage.setTitle("Leden beheren");
-            stage.setScene(scene);
-
+            toon("Leden beheren", schermen.geef(LEDENBEHEER, this::maakLedenBeheerController));
         } catch (IOException e) {
             System.out.println("SYSTEEMFOUT bij laden ledenbeheer: " + e.getMessage());
         }
@@ -99,42 +129,51 @@ public class VIVESbike extends Application {
 
     public void laadRittenBeheer(){
         try {
-            String fxmlFile = "/fxml/RittenBeheer.fxml";
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlFile));
-
-            // controller instellen
-            RittenBeheerController controller = new RittenBeheerController(createRitService(), createLidService(), createFietsService());
-            loader.setController(controller);
-
-            Parent root = loader.load();
-            controller.setParent(this);
-            Scene scene = new Scene(root);
-            stage.setTitle("Ritten beheren");
-            stage.setScene(scene);
-
-        } catch (IOException | DBException e) {
+            toon("Ritten beheren", schermen.geef(RITTENBEHEER, this::maakRittenBeheerController));
+        } catch (IOException e) {
             System.out.println("SYSTEEMFOUT bij laden rittenbeheer: " + e.getMessage());
         }
     }
 
     public void laadFietsenBeheer(){
         try {
-            String fxmlFile = "/fxml/FietsenBeheer.fxml";
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlFile));
+            toon("Fietsen beheer", schermen.geef(FIETSENBEHEER, this::maakFietsenBeheerController));
+        } catch (IOException e) {
+            System.out.println("SYSTEEMFOUT bij laden fietsenbeheer: " + e.getMessage());
+        }
+    }
 
-            // controller instellen
-            FietsenBeheerController controller = new FietsenBeheerController(createFietsService());
-            loader.setController(controller);
+    private void toon(String titel, Scene scene) {
+        stage.setTitle(titel);
+        stage.setScene(scene);
+    }
 
-            Parent root = loader.load();
-            controller.setParent(this);
-            Scene scene = new Scene(root);
-            stage.setTitle("Fietsen beheer");
-            stage.setScene(scene);
+    /**
+     * Bouwt de schermen die nog niet getoond werden op nadat het eerste scherm zichtbaar is,
+     * zodat de eerste keer wisselen even snel gaat als de volgende keren. De FXML moet op de
+     * JavaFX-thread geladen worden; de gegevens van de schermen worden op de achtergrond opgehaald.
+     */
+    private void bouwSchermenVooraf() {
+        Platform.runLater(() -> {
+            try {
+                schermen.bouwVooraf(FIETSENBEHEER, this::maakFietsenBeheerController);
+                schermen.bouwVooraf(RITTENBEHEER, this::maakRittenBeheerController);
+            } catch (IOException e) {
+                System.out.println("SYSTEEMFOUT bij vooraf laden schermen: " + e.getMessage());
+            }
+        });
+    }
 
-        } catch (IOException e) {
-            System.out.println("SYSTEEMFOUT bij laden rittenbeheer: " + e.getMessage());
-        }
+    private LedenBeheerController maakLedenBeheerController() {
+        return new LedenBeheerController(createLidService());
+    }
+
+    private RittenBeheerController maakRittenBeheerController() {
+        return new RittenBeheerController(createRitService(), createLidService(), createFietsService());
+    }
+
+    private FietsenBeheerController maakFietsenBeheerController() {
+        return new FietsenBeheerController(createFietsService());
     }
 
     public Stage getPrimaryStage() {
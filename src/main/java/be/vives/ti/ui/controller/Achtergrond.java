@@ -0,0 +1,109 @@
+package be.vives.ti.ui.controller;
+
+import javafx.concurrent.Task;
+import javafx.scene.control.ProgressIndicator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Voert de service-oproepen van een scherm uit op een achtergrondthread, zodat het scherm
+ * niet bevriest terwijl de databank bezig is.
+ * - het resultaat of de fout wordt op de JavaFX-thread verwerkt
+ * - laad(): een nieuwe lading van dezelfde soort annuleert de vorige, enkel het laatst
+ *   gevraagde resultaat wordt getoond (bv. snel na elkaar bladeren)
+ * - voerUit(): wijzigingen worden nooit geannuleerd
+ * - de ProgressIndicator is zichtbaar zolang er iets loopt
+ *
+ * Alle taken lopen na elkaar op een gedeelde thread, zodat wijzigingen in dezelfde volgorde
+ * gebeuren als voorheen. Een taak levert haar resultaat af op de JavaFX-thread en raakt de
+ * toestand van de controller zelf niet aan (zie Paginering).
+ * Alle methodes worden enkel vanop de JavaFX-thread opgeroepen.
+ */
+class Achtergrond {
+
+    /**
+     * Werk dat op de achtergrond uitgevoerd wordt, meestal een service-oproep.
+     */
+    interface Werk<T> {
+        T voerUit() throws Exception;
+    }
+
+    private static final ExecutorService UITVOERDER = Executors.newSingleThreadExecutor(taak -> {
+        Thread thread = new Thread(taak, "vivesbike-achtergrond");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ProgressIndicator indicator;
+    private final Map<String, Task<?>> ladingen = new HashMap<>();
+    private int lopend;
+
+    Achtergrond(ProgressIndicator indicator) {
+        this.indicator = indicator;
+        indicator.setVisible(false);
+    }
+
+    /**
+     * Laadt gegevens op de achtergrond en annuleert de vorige lading van dezelfde soort.
+     * Een geannuleerde lading die al loopt, wordt afgewerkt maar het resultaat wordt niet getoond.
+     *
+     * @param soort wat er geladen wordt, bv. "pagina"
+     * @param werk  de service-oproep
+     * @param klaar verwerkt het resultaat op de JavaFX-thread
+     * @param fout  verwerkt een fout op de JavaFX-thread
+     */
+    <T> void laad(String soort, Werk<T> werk, Consumer<T> klaar, Consumer<Throwable> fout) {
+        Task<T> taak = maakTaak(werk, klaar, fout);
+        Task<?> vorige = ladingen.put(soort, taak);
+        if (vorige != null) {
+            // niet onderbreken: een onderbroken JDBC-oproep kan de connectie onbruikbaar maken
+            vorige.cancel(false);
+        }
+        start(taak);
+    }
+
+    /**
+     * Voert een wijziging uit op de achtergrond.
+     *
+     * @param werk  de service-oproep
+     * @param klaar verwerkt het resultaat op de JavaFX-thread
+     * @param fout  verwerkt een fout op de JavaFX-thread
+     */
+    <T> void voerUit(Werk<T> werk, Consumer<T> klaar, Consumer<Throwable> fout) {
+        start(maakTaak(werk, klaar, fout));
+    }
+
+    private <T> Task<T> maakTaak(Werk<T> werk, Consumer<T> klaar, Consumer<Throwable> fout) {
+        Task<T> taak = new Task<T>() {
+            @Override
+            protected T call() throws Exception {
+                return werk.voerUit();
+            }
+        };
+        taak.setOnSucceeded(e -> {
+            gestopt();
+            klaar.accept(taak.getValue());
+        });
+        taak.setOnFailed(e -> {
+            gestopt();
+            fout.accept(taak.getException());
+        });
+        taak.setOnCancelled(e -> gestopt());
+        return taak;
+    }
+
+    private void start(Task<?> taak) {
+        lopend++;
+        indicator.setVisible(true);
+        UITVOERDER.execute(taak);
+    }
+
+    private void gestopt() {
+        lopend--;
+        indicator.setVisible(lopend > 0);
+    }
+}
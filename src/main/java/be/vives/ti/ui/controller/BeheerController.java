@@ -0,0 +1,17 @@
+package be.vives.ti.ui.controller;
+
+import be.vives.ti.ui.VIVESbike;
+
+/**
+ * Controller van een beheerscherm. Elk scherm wordt maar een keer opgebouwd (zie SchermRegister);
+ * wanneer het opnieuw getoond wordt, haalt vernieuw() enkel de zichtbare gegevens opnieuw op.
+ */
+public interface BeheerController {
+
+    void setParent(VIVESbike parent);
+
+    /**
+     * Haalt de gegevens van het scherm opnieuw op, op de achtergrond.
+     */
+    void vernieuw();
+}
@@ -4,8 +4,6 @@ import be.vives.ti.databag.Fiets;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.datatype.Standplaats;
 import be.vives.ti.datatype.Status;
-import be.vives.ti.exception.ApplicationException;
-import be.vives.ti.exception.DBException;
 import be.vives.ti.service.FietsService;
 import be.vives.ti.ui.VIVESbike;
 import javafx.collections.FXCollections;
@@ -14,10 +12,11 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
-import java.util.List;
 
 
-public class FietsenBeheerController {
+public class FietsenBeheerController implements BeheerController {
+
+    private static final int PAGINAGROOTTE = 50;
 
     @FXML
     private TextField tfRegistratienummer;
@@ -42,11 +41,23 @@ public class FietsenBeheerController {
     @FXML
     private TableView<Fiets> tvFietsen;
 
+    @FXML
+    private Button btnVorigePagina;
+    @FXML
+    private Button btnVolgendePagina;
+    @FXML
+    private Label laPagina;
+    @FXML
+    private ProgressIndicator piLaden;
+
     private FietsService fietsService;
     private VIVESbike parent;
+    private Paginering<Fiets, Integer> paginering;
+    private Achtergrond achtergrond;
 
     public FietsenBeheerController(FietsService fietsService){
         this.fietsService = fietsService;
+        this.paginering = new Paginering<>(fietsService::zoekFietsenNa, Fiets::getRegistratienummer, PAGINAGROOTTE);
     }
 
     public void initialize() {
@@ -57,17 +68,37 @@ public class FietsenBeheerController {
         tcStandplaats.setCellValueFactory(
                 new PropertyValueFactory<>("standplaats"));
         disableVelden();
-        try {
-            List<Fiets> fietsenLijst = fietsService.zoekAlleFietsen();
+        achtergrond = new Achtergrond(piLaden);
+        laadPagina(paginering.eerste());
+    }
 
-            ObservableList<Fiets> fietsen = FXCollections.
-                    observableArrayList(fietsenLijst);
-            tvFietsen.setItems(fietsen);
+    @Override
+    public void vernieuw() {
+        resetErrorMessage();
+        laadPagina(paginering.vernieuw());
+    }
 
-        } catch (DBException ae) {
-            laErrorFietsen.setText("onherstelbare fout: " + ae.
-                    getMessage());
-        }
+    public void vorigePagina() {
+        laadPagina(paginering.vorige());
+    }
+
+    public void volgendePagina() {
+        laadPagina(paginering.volgende());
+    }
+
+    private void laadPagina(Achtergrond.Werk<Paginering.Pagina<Fiets, Integer>> pagina) {
+        achtergrond.laad("pagina", pagina, this::toonPagina,
+                ex -> laErrorFietsen.setText("onherstelbare fout: " + ex.getMessage()));
+    }
+
+    private void toonPagina(Paginering.Pagina<Fiets, Integer> pagina) {
+        paginering.toon(pagina);
+        ObservableList<Fiets> fietsen = FXCollections.
+                observableArrayList(pagina.getRijen());
+        tvFietsen.setItems(fietsen);
+        btnVorigePagina.setDisable(!pagina.heeftVorige());
+        btnVolgendePagina.setDisable(!pagina.heeftVolgende());
+        laPagina.setText("Pagina " + pagina.getPaginanummer());
     }
 
     /**
@@ -156,17 +187,15 @@ public class FietsenBeheerController {
             Fiets nieuweFiets = new Fiets();
             nieuweFiets.setStandplaats(cbStandplaats.getValue());
             nieuweFiets.setStatus(Status.actief);
-            try{
-                nieuweFiets.setRegistratienummer(fietsService.toevoegenFiets(nieuweFiets));
-
+            achtergrond.voerUit(() -> fietsService.toevoegenFiets(nieuweFiets), registratienummer -> {
+                nieuweFiets.setRegistratienummer(registratienummer);
                 tvFietsen.getItems().add(nieuweFiets);
                 resetVelden();
-            }catch(ApplicationException | DBException ex){
-                laErrorFietsen.setText(ex.getMessage());
-            }
+            }, ex -> laErrorFietsen.setText(ex.getMessage()));
         }else if(!cbStatus.isDisabled() && taOpmerkingen.isDisabled() && cbStandplaats.isDisabled() && tfRegistratienummer.isDisabled()){
             GeselecteerdeFiets.setStatus(cbStatus.getValue());
-            try{
+            int index = tvFietsen.getSelectionModel().getSelectedIndex();
+            achtergrond.voerUit(() -> {
                 switch (GeselecteerdeFiets.getStatus()) {
                     case actief: fietsService.wijzigenStatusNaarActief(GeselecteerdeFiets.getRegistratienummer());
                     break;
@@ -175,20 +204,22 @@ public class FietsenBeheerController {
                     case uit_omloop: fietsService.wijzigenStatusNaarUitOmloop(GeselecteerdeFiets.getRegistratienummer());
                     break;
                 }
-                tvFietsen.getItems().set(tvFietsen.getSelectionModel().getSelectedIndex(), GeselecteerdeFiets);
+                return null;
+            }, geen -> {
+                tvFietsen.getItems().set(index, GeselecteerdeFiets);
                 resetVelden();
-            }catch(ApplicationException | DBException ex){
-                laErrorFietsen.setText(ex.getMessage());
-            }
+            }, ex -> laErrorFietsen.setText(ex.getMessage()));
         }else if(cbStatus.isDisabled() && !taOpmerkingen.isDisabled() && cbStandplaats.isDisabled() && tfRegistratienummer.isDisabled()){
             GeselecteerdeFiets.setOpmerking(taOpmerkingen.getText());
-            try{
-                fietsService.wijzigenOpmerkingFiets(GeselecteerdeFiets.getRegistratienummer(), taOpmerkingen.getText());
-                tvFietsen.getItems().set(tvFietsen.getSelectionModel().getSelectedIndex(), GeselecteerdeFiets);
+            String opmerking = taOpmerkingen.getText();
+            int index = tvFietsen.getSelectionModel().getSelectedIndex();
+            achtergrond.voerUit(() -> {
+                fietsService.wijzigenOpmerkingFiets(GeselecteerdeFiets.getRegistratienummer(), opmerking);
+                return null;
+            }, geen -> {
+                tvFietsen.getItems().set(index, GeselecteerdeFiets);
                 resetVelden();
-            }catch(ApplicationException | DBException ex){
-                laErrorFietsen.setText(ex.getMessage());
-            }
+            }, ex -> laErrorFietsen.setText(ex.getMessage()));
         }
     }
 
@@ -199,6 +230,7 @@ public class FietsenBeheerController {
         parent.laadRittenBeheer();
     }
 
+    @Override
     public void setParent(VIVESbike p) {
         parent = p;
     }
@@ -3,7 +3,7 @@ package be.vives.ti.ui.controller;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.exception.ApplicationException;
-import be.vives.ti.exception.DBException;
+import be.vives.ti.service.LedenImport;
 import be.vives.ti.service.LidService;
 import be.vives.ti.ui.VIVESbike;
 import javafx.collections.FXCollections;
@@ -11,14 +11,26 @@ import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.stream.Collectors;
 
-public class LedenBeheerController {
+public class LedenBeheerController implements BeheerController {
+
+    private static final int PAGINAGROOTTE = 50;
 
     private LidService lidService;
 
+    private Paginering<Lid, String> paginering;
+
+    private Achtergrond achtergrond;
+
     private VIVESbike parent;
 
     private String geselecteerdeLid;
@@ -51,6 +63,14 @@ public class LedenBeheerController {
     private Button btnAnnuleren;
     @FXML
     private Button btnOpslaan;
+    @FXML
+    private Button btnVorigePagina;
+    @FXML
+    private Button btnVolgendePagina;
+    @FXML
+    private Label laPagina;
+    @FXML
+    private ProgressIndicator piLaden;
 
 
 
@@ -58,6 +78,7 @@ public class LedenBeheerController {
 
     public LedenBeheerController(LidService lidService){
         this.lidService = lidService;
+        this.paginering = new Paginering<>(lidService::zoekLedenNa, Lid::getRijksregisternummer, PAGINAGROOTTE);
     }
 
     public void initialize() {
@@ -68,9 +89,31 @@ public class LedenBeheerController {
         tcVoornaam.setCellValueFactory(
                 new PropertyValueFactory<>("voornaam"));
         disableVelden();
+        resetErrorMessage();
+        achtergrond = new Achtergrond(piLaden);
+        laadPagina(paginering.eerste());
+    }
+
+    @Override
+    public void vernieuw() {
         initialiseerTabel();
     }
 
+    public void vorigePagina() {
+        resetErrorMessage();
+        laadPagina(paginering.vorige());
+    }
+
+    public void volgendePagina() {
+        resetErrorMessage();
+        laadPagina(paginering.volgende());
+    }
+
+    private void laadPagina(Achtergrond.Werk<Paginering.Pagina<Lid, String>> pagina) {
+        achtergrond.laad("pagina", pagina, this::toonPagina,
+                ex -> laErrorLeden.setText("onherstelbare fout: " + ex.getMessage()));
+    }
+
     public void SelecteerLid(){
         disableVelden();
         Lid GeselecteerdeLid = tvLeden.getSelectionModel().getSelectedItem();
@@ -118,13 +161,54 @@ public class LedenBeheerController {
     public void uitschrijvenLid() {
         Lid GeselecteerdeLid = tvLeden.getSelectionModel().getSelectedItem();
         if(GeselecteerdeLid == null) return;
-        try{
+        achtergrond.voerUit(() -> {
             lidService.uitschrijvenLid(GeselecteerdeLid.getRijksregisternummer());
-        }catch(ApplicationException | DBException ex){
-            laErrorLeden.setText(ex.getMessage());
-        }
-        tvLeden.getSelectionModel().getSelectedItem().setEinde_lidmaatschap(LocalDate.now());
-        cbUitgeschreven.setSelected(true);
+            return null;
+        }, geen -> {
+            GeselecteerdeLid.setEinde_lidmaatschap(LocalDate.now());
+            cbUitgeschreven.setSelected(true);
+        }, ex -> laErrorLeden.setText(ex.getMessage()));
+    }
+
+    //Button Importeren
+    public void importerenLeden() {
+        resetErrorMessage();
+        FileChooser kiezer = new FileChooser();
+        kiezer.setTitle("Leden importeren");
+        kiezer.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV-bestanden", "*.csv"));
+        File bestand = kiezer.showOpenDialog(tvLeden.getScene().getWindow());
+        if (bestand == null) return;
+        achtergrond.voerUit(() -> {
+            try (Reader csv = Files.newBufferedReader(bestand.toPath(), StandardCharsets.UTF_8)) {
+                return lidService.importeerLeden(csv);
+            }
+        }, resultaat -> {
+            initialiseerTabel();
+            laErrorLeden.setText(resultaat.toString());
+            toonAfgekeurd(resultaat);
+        }, ex -> laErrorLeden.setText(ex instanceof IOException
+                ? "Bestand kan niet gelezen worden: " + ex.getMessage() : ex.getMessage()));
+    }
+
+    /**
+     * Toont de afgekeurde regels van een import met hun reden in een venster.
+     */
+    private void toonAfgekeurd(LedenImport.Resultaat resultaat) {
+        if (resultaat.getAfgekeurd().isEmpty()) return;
+        TextArea regels = new TextArea(resultaat.getAfgekeurd().stream()
+                .map(LedenImport.Afkeuring::toString)
+                .collect(Collectors.joining("\n")));
+        regels.setEditable(false);
+        regels.setWrapText(true);
+
+        Alert venster = new Alert(Alert.AlertType.WARNING);
+        venster.initOwner(tvLeden.getScene().getWindow());
+        venster.setTitle("Leden importeren");
+        venster.setHeaderText(resultaat.toString());
+        venster.setContentText("Deze regels werden niet geïmporteerd:");
+        venster.getDialogPane().setExpandableContent(regels);
+        venster.getDialogPane().setExpanded(true);
+        venster.show();
     }
 
     //Button annuleren
@@ -138,10 +222,10 @@ public class LedenBeheerController {
             if(!tfRijksregisternummer.isDisabled() && !tfEmail.isDisabled() && dpStartdatum.isDisabled()){
                 // toevoegen van een lid
                 try{
-                    System.out.println("test");
-                    lidService.toevoegenLid(maakLid(new Rijksregisternummer(tfRijksregisternummer.getText()), tfVoornaam.getText(), tfNaam.getText(), tfEmail.getText(), taOpmerking.getText()));
-                    initialiseerTabel();
-                }catch(ApplicationException | DBException ex){
+                    Lid nieuwLid = maakLid(new Rijksregisternummer(tfRijksregisternummer.getText()), tfVoornaam.getText(), tfNaam.getText(), tfEmail.getText(), taOpmerking.getText());
+                    achtergrond.voerUit(() -> lidService.toevoegenLid(nieuwLid), toegevoegd -> initialiseerTabel(),
+                            ex -> laErrorLeden.setText(ex.getMessage()));
+                }catch(ApplicationException ex){
                     laErrorLeden.setText(ex.getMessage());
                 }
             }else if(tfRijksregisternummer.isDisabled() && !tfEmail.isDisabled() && dpStartdatum.isDisabled()){
@@ -151,22 +235,25 @@ public class LedenBeheerController {
                 teWijzigenLid.setNaam(tfNaam.getText());
                 teWijzigenLid.setOpmerking(taOpmerking.getText());
                 teWijzigenLid.setVoornaam(tfVoornaam.getText());
-                try{
+                int index = tvLeden.getSelectionModel().getSelectedIndex();
+                achtergrond.voerUit(() -> {
                     lidService.wijzigenLid(teWijzigenLid);
+                    return null;
+                }, geen -> {
                     disableVelden();
-                    tvLeden.getItems().set(tvLeden.getSelectionModel().getSelectedIndex(), teWijzigenLid); // lid updaten in lijst
-                }catch(ApplicationException | DBException ex){
-                    laErrorLeden.setText(ex.getMessage());
-                }
+                    tvLeden.getItems().set(index, teWijzigenLid); // lid updaten in lijst
+                }, ex -> laErrorLeden.setText(ex.getMessage()));
             }else if(tfRijksregisternummer.isDisabled() && tfEmail.isDisabled() && !dpStartdatum.isDisabled()){
                 // veranderen startdatum van een lid
-                try{
-                    lidService.wijzigStartDatumVanLid(tvLeden.getSelectionModel().getSelectedItem().getRijksregisternummer(), dpStartdatum.getValue());
-                    tvLeden.getSelectionModel().getSelectedItem().setStart_lidmaatschap(dpStartdatum.getValue());
+                Lid teWijzigenLid = tvLeden.getSelectionModel().getSelectedItem();
+                LocalDate startdatum = dpStartdatum.getValue();
+                achtergrond.voerUit(() -> {
+                    lidService.wijzigStartDatumVanLid(teWijzigenLid.getRijksregisternummer(), startdatum);
+                    return null;
+                }, geen -> {
+                    teWijzigenLid.setStart_lidmaatschap(startdatum);
                     disableVelden();
-                }catch(ApplicationException | DBException ex){
-                    laErrorLeden.setText(ex.getMessage());
-                }
+                }, ex -> laErrorLeden.setText(ex.getMessage()));
             }
     }
 
@@ -206,18 +293,18 @@ public class LedenBeheerController {
             System.out.println(db);
         }
          */
-        try {
-            // alle rekeningen van de geselecteerde klant ophalen
-            List<Lid> lidlijst = lidService.zoekAlleLeden();
-
-            ObservableList<Lid> rekeningen = FXCollections.
-                    observableArrayList(lidlijst);
-            tvLeden.setItems(rekeningen);
+        // enkel de getoonde pagina opnieuw ophalen
+        laadPagina(paginering.vernieuw());
+    }
 
-        } catch (DBException ae) {
-            laErrorLeden.setText("onherstelbare fout: " + ae.
-                    getMessage());
-        }
+    private void toonPagina(Paginering.Pagina<Lid, String> pagina) {
+        paginering.toon(pagina);
+        ObservableList<Lid> leden = FXCollections.
+                observableArrayList(pagina.getRijen());
+        tvLeden.setItems(leden);
+        btnVorigePagina.setDisable(!pagina.heeftVorige());
+        btnVolgendePagina.setDisable(!pagina.heeftVolgende());
+        laPagina.setText("Pagina " + pagina.getPaginanummer());
     }
 
     private void vulAlleVeldenIn(){
@@ -263,6 +350,7 @@ public class LedenBeheerController {
         btnOpslaan.setDisable(false);
     }
 
+    @Override
     public void setParent(VIVESbike p) {
         parent = p;
     }
@@ -0,0 +1,148 @@
+package be.vives.ti.ui.controller;
+
+import be.vives.ti.exception.DBException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Houdt bij welke pagina van een tabel getoond wordt. Er wordt telkens enkel de
+ * zichtbare pagina opgehaald (keyset paginering): een pagina begint na de sleutel
+ * van de laatste rij van de vorige pagina. Van de vorige pagina's worden enkel de
+ * startsleutels onthouden, zodat terugbladeren dezelfde query gebruikt.
+ *
+ * eerste(), volgende(), vorige() en vernieuw() geven het werk terug dat de pagina op een
+ * achtergrondthread laadt (zie Achtergrond). Dat werk deelt geen toestand met de Paginering:
+ * het levert een onveranderlijke Pagina, die pas met toon() de huidige pagina wordt.
+ * Alle methodes worden enkel vanop de JavaFX-thread opgeroepen, zodat die nooit op een
+ * lading moet wachten.
+ *
+ * @param <T> type van de rijen in de tabel
+ * @param <K> type van de sleutel waarop gesorteerd wordt
+ */
+class Paginering<T, K> {
+
+    /**
+     * Haalt maximaal aantal rijen op met een sleutel na de opgegeven sleutel.
+     */
+    interface PaginaLader<T, K> {
+        List<T> laad(K na, int aantal) throws DBException;
+    }
+
+    /**
+     * Een geladen pagina met alles wat nodig is om ze te tonen en verder te bladeren.
+     */
+    static final class Pagina<T, K> {
+        private final List<T> rijen;
+        // startsleutel van deze pagina (null = begin van de tabel)
+        private final K start;
+        // startsleutels van de vorige pagina's, de meest recente achteraan
+        private final List<K> vorigeStarts;
+        private final boolean heeftVolgende;
+
+        private Pagina(List<T> rijen, K start, List<K> vorigeStarts, boolean heeftVolgende) {
+            this.rijen = Collections.unmodifiableList(new ArrayList<>(rijen));
+            this.start = start;
+            this.vorigeStarts = Collections.unmodifiableList(new ArrayList<>(vorigeStarts));
+            this.heeftVolgende = heeftVolgende;
+        }
+
+        List<T> getRijen() {
+            return rijen;
+        }
+
+        boolean heeftVolgende() {
+            return heeftVolgende;
+        }
+
+        boolean heeftVorige() {
+            return !vorigeStarts.isEmpty();
+        }
+
+        /**
+         * @return volgnummer van de pagina, beginnend bij 1
+         */
+        int getPaginanummer() {
+            return vorigeStarts.size() + 1;
+        }
+    }
+
+    private final PaginaLader<T, K> lader;
+    private final Function<T, K> sleutel;
+    private final int paginaGrootte;
+
+    private Pagina<T, K> huidig = new Pagina<>(Collections.emptyList(), null, Collections.emptyList(), false);
+
+    Paginering(PaginaLader<T, K> lader, Function<T, K> sleutel, int paginaGrootte) {
+        if (paginaGrootte < 1) {
+            throw new IllegalArgumentException("Paginagrootte moet minstens 1 zijn: " + paginaGrootte);
+        }
+        this.lader = lader;
+        this.sleutel = sleutel;
+        this.paginaGrootte = paginaGrootte;
+    }
+
+    /**
+     * @return werk dat de eerste pagina laadt
+     */
+    Achtergrond.Werk<Pagina<T, K>> eerste() {
+        return () -> laad(null, Collections.emptyList());
+    }
+
+    /**
+     * @return werk dat de volgende pagina laadt, of de huidige wanneer er geen volgende is
+     */
+    Achtergrond.Werk<Pagina<T, K>> volgende() {
+        Pagina<T, K> pagina = huidig;
+        if (!pagina.heeftVolgende) {
+            return () -> pagina;
+        }
+        K na = sleutel.apply(pagina.rijen.get(pagina.rijen.size() - 1));
+        List<K> vorigeStarts = new ArrayList<>(pagina.vorigeStarts);
+        vorigeStarts.add(pagina.start);
+        return () -> laad(na, vorigeStarts);
+    }
+
+    /**
+     * @return werk dat de vorige pagina laadt, of de huidige wanneer dit de eerste pagina is
+     */
+    Achtergrond.Werk<Pagina<T, K>> vorige() {
+        Pagina<T, K> pagina = huidig;
+        if (pagina.vorigeStarts.isEmpty()) {
+            return () -> pagina;
+        }
+        int laatste = pagina.vorigeStarts.size() - 1;
+        K start = pagina.vorigeStarts.get(laatste);
+        List<K> vorigeStarts = pagina.vorigeStarts.subList(0, laatste);
+        return () -> laad(start, vorigeStarts);
+    }
+
+    /**
+     * Haalt de huidige pagina opnieuw op, bv. na het toevoegen of wijzigen van een rij.
+     * @return werk dat de huidige pagina laadt
+     */
+    Achtergrond.Werk<Pagina<T, K>> vernieuw() {
+        Pagina<T, K> pagina = huidig;
+        return () -> laad(pagina.start, pagina.vorigeStarts);
+    }
+
+    /**
+     * Maakt een geladen pagina de huidige, van waaruit verder gebladerd wordt.
+     * @param pagina pagina die getoond wordt
+     */
+    void toon(Pagina<T, K> pagina) {
+        huidig = pagina;
+    }
+
+    private Pagina<T, K> laad(K na, List<K> vorigeStarts) throws DBException {
+        // een rij extra ophalen om te weten of er nog een volgende pagina is
+        List<T> rijen = lader.laad(na, paginaGrootte + 1);
+        boolean heeftVolgende = rijen.size() > paginaGrootte;
+        if (heeftVolgende) {
+            rijen = rijen.subList(0, paginaGrootte);
+        }
+        return new Pagina<>(rijen, na, vorigeStarts, heeftVolgende);
+    }
+}
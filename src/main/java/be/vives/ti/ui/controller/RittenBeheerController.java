@@ -6,7 +6,6 @@ import be.vives.ti.databag.Rit;
 import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
-import be.vives.ti.exception.DBException;
 import be.vives.ti.service.FietsService;
 import be.vives.ti.service.LidService;
 import be.vives.ti.service.RitService;
@@ -17,18 +16,22 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
-import java.util.List;
 import java.util.stream.Collectors;
 
 
-public class RittenBeheerController {
+public class RittenBeheerController implements BeheerController {
+    private static final int PAGINAGROOTTE = 50;
+
     private VIVESbike parent;
     private RitService ritService;
     private LidService lidService;
     private FietsService fietsService;
     private Rit geselecteerdeRit;
-    private List<Lid> leden;
-    private List<Fiets> fietsen;
+    private Paginering<Rit, Integer> paginering;
+    private Achtergrond achtergrond;
+    // versies (zie LidService.getVersie en FietsService.getVersie) van de geladen keuzelijsten, -1 wanneer niet geladen
+    private long ledenVersie = -1;
+    private long fietsenVersie = -1;
     @FXML
     private TableView<Rit> tvRitten;
     @FXML
@@ -54,8 +57,16 @@ public class RittenBeheerController {
     @FXML
     private Button btnActiveRitVanFiets;
     @FXML
+    private Button btnVorigePagina;
+    @FXML
+    private Button btnVolgendePagina;
+    @FXML
+    private Label laPagina;
+    @FXML
     private Label laError;
     @FXML
+    private ProgressIndicator piLaden;
+    @FXML
     private ComboBox<String> cbRijksregisternr;
     @FXML
     private ComboBox<Integer> cbFietsregistratienr;
@@ -66,12 +77,11 @@ public class RittenBeheerController {
     @FXML
     private TextField tfPrijs;
 
-    public RittenBeheerController(RitService ritService, LidService lidService, FietsService fietsService) throws DBException {
+    public RittenBeheerController(RitService ritService, LidService lidService, FietsService fietsService) {
         this.ritService = ritService;
         this.lidService = lidService;
         this.fietsService = fietsService;
-        leden = lidService.zoekAlleLeden();
-        fietsen = fietsService.zoekAlleFietsen();
+        paginering = new Paginering<>(ritService::zoekRittenVoor, Rit::getId, PAGINAGROOTTE);
     }
 
     public void openLedenBeheer() {
@@ -82,11 +92,12 @@ public class RittenBeheerController {
         parent.laadFietsenBeheer();
     }
 
+    @Override
     public void setParent(VIVESbike p) {
         parent = p;
     }
 
-    public void initialize() throws DBException {
+    public void initialize() {
         tcId.setCellValueFactory(
                 new PropertyValueFactory<>("id"));
         tcRijksregisternummer.setCellValueFactory(
@@ -102,31 +113,72 @@ public class RittenBeheerController {
         tfPrijs.setDisable(true);
         tfEindtijd.setDisable(true);
         tfStarttijd.setDisable(true);
-        ObservableList<String> alleleden = FXCollections.
-                observableArrayList(leden.stream().map(Lid::getRijksregisternummer).collect(Collectors.toList()));
-        if (alleleden.size() != 0) {
-            cbRijksregisternr.setItems(alleleden);
+        achtergrond = new Achtergrond(piLaden);
+        laadKeuzelijsten();
+        laadPagina(paginering.eerste());
+    }
+
+    /**
+     * Haalt de getoonde pagina opnieuw op, en de keuzelijsten enkel wanneer er intussen
+     * op de andere schermen leden of fietsen toegevoegd werden.
+     */
+    @Override
+    public void vernieuw() {
+        laadKeuzelijsten();
+        initialiseerTabel();
+    }
+
+    private void laadKeuzelijsten() {
+        long leden = lidService.getVersie();
+        if (leden != ledenVersie) {
+            achtergrond.laad("leden", () -> lidService.zoekAlleLeden().stream()
+                    .map(Lid::getRijksregisternummer).collect(Collectors.toList()), alleleden -> {
+                if (alleleden.size() != 0) {
+                    cbRijksregisternr.setItems(FXCollections.observableArrayList(alleleden));
+                }
+                ledenVersie = leden;
+            }, ex -> laError.setText("Fout bij leden halen uit DB: " + ex));
         }
-        ObservableList<Integer> allefietsen = FXCollections.
-                observableArrayList(fietsen.stream().map(Fiets::getRegistratienummer).collect(Collectors.toList()));
-        if (allefietsen.size() != 0) {
-            cbFietsregistratienr.setItems(allefietsen);
+        long fietsen = fietsService.getVersie();
+        if (fietsen != fietsenVersie) {
+            achtergrond.laad("fietsen", () -> fietsService.zoekAlleFietsen().stream()
+                    .map(Fiets::getRegistratienummer).collect(Collectors.toList()), allefietsen -> {
+                if (allefietsen.size() != 0) {
+                    cbFietsregistratienr.setItems(FXCollections.observableArrayList(allefietsen));
+                }
+                fietsenVersie = fietsen;
+            }, ex -> laError.setText("Fout bij fietsen halen uit DB: " + ex));
         }
-        initialiseerTabel();
     }
 
+    public void vorigePagina() {
+        laadPagina(paginering.vorige());
+    }
+
+    public void volgendePagina() {
+        laadPagina(paginering.volgende());
+    }
 
+    /**
+     * Haalt enkel de getoonde pagina opnieuw op, niet alle ritten.
+     */
     private void initialiseerTabel() {
-        try {
-            List<Rit> rittenLijst = ritService.zoekAlleRitten();
+        laadPagina(paginering.vernieuw());
+    }
 
-            ObservableList<Rit> ritten = FXCollections.
-                    observableArrayList(rittenLijst);
-            tvRitten.setItems(ritten);
+    private void laadPagina(Achtergrond.Werk<Paginering.Pagina<Rit, Integer>> pagina) {
+        achtergrond.laad("pagina", pagina, this::toonPagina,
+                ex -> laError.setText("Fout bij ritten halen uit DB: " + ex));
+    }
 
-        } catch (DBException ae) {
-            laError.setText("Fout bij alleRitten halen uit DB: " + ae);
-        }
+    private void toonPagina(Paginering.Pagina<Rit, Integer> pagina) {
+        paginering.toon(pagina);
+        ObservableList<Rit> ritten = FXCollections.
+                observableArrayList(pagina.getRijen());
+        tvRitten.setItems(ritten);
+        btnVorigePagina.setDisable(!pagina.heeftVorige());
+        btnVolgendePagina.setDisable(!pagina.heeftVolgende());
+        laPagina.setText("Pagina " + pagina.getPaginanummer());
     }
 
     public void SelecteerRit() {
@@ -146,63 +198,60 @@ public class RittenBeheerController {
 
     public void toevoegenRit() {
         try {
-            System.out.println(cbFietsregistratienr.getValue());
-            ritService.toevoegenRit(maakRit(new Rijksregisternummer(cbRijksregisternr.getValue()),
-                    cbFietsregistratienr.getValue() == null ? 0 : cbFietsregistratienr.getValue()));
-            initialiseerTabel();
-            wisAlleVelden();
-        } catch (ApplicationException | DBException ex) {
+            Rit rit = maakRit(new Rijksregisternummer(cbRijksregisternr.getValue()),
+                    cbFietsregistratienr.getValue() == null ? 0 : cbFietsregistratienr.getValue());
+            achtergrond.voerUit(() -> ritService.toevoegenRit(rit), id -> {
+                // de nieuwste ritten staan vooraan: de nieuwe rit staat op de eerste pagina
+                laadPagina(paginering.eerste());
+                wisAlleVelden();
+            }, ex -> laError.setText(ex.getMessage()));
+        } catch (ApplicationException ex) {
             laError.setText(ex.getMessage());
         }
     }
 
     public void afsluitenRit() {
-        try {
-            ritService.afsluitenRit(geselecteerdeRit.getId());
+        Integer id = geselecteerdeRit == null ? null : geselecteerdeRit.getId();
+        achtergrond.voerUit(() -> {
+            ritService.afsluitenRit(id);
+            return null;
+        }, geen -> {
             initialiseerTabel();
             wisAlleVelden();
-        } catch (ApplicationException | DBException ex) {
-            laError.setText(ex.getMessage());
-        }
+        }, ex -> laError.setText(ex.getMessage()));
     }
 
     public void zoekenEersteRit() {
-        try {
-            Rit rit = ritService.zoekEersteRitVanLid(cbRijksregisternr.getValue());
+        String rr = cbRijksregisternr.getValue();
+        achtergrond.laad("zoeken", () -> ritService.zoekEersteRitVanLid(rr), rit -> {
             if (rit != null) {
                 setVelden(rit);
             } else {
                 laError.setText(ApplicationExceptionType.RIT_GEEN_RITTEN.getMessage());
             }
-        } catch (ApplicationException | DBException ex) {
-            laError.setText(ex.getMessage());
-        }
+        }, ex -> laError.setText(ex.getMessage()));
     }
 
     public void zoekActiefLid() {
-        try {
-            List<Rit> lijst = ritService.zoekActieveRittenVanLid(cbRijksregisternr.getValue());
+        String rr = cbRijksregisternr.getValue();
+        achtergrond.laad("zoeken", () -> ritService.zoekActieveRittenVanLid(rr), lijst -> {
             if (lijst.size() != 0) {
                 setVelden(lijst.get(0));
             } else {
                 laError.setText(ApplicationExceptionType.RIT_GEEN_ACTIEVE_RIT_LID.getMessage());
             }
-        } catch (ApplicationException | DBException ex) {
-            laError.setText(ex.getMessage());
-        }
+        }, ex -> laError.setText(ex.getMessage()));
     }
 
     public void zoekActiefFiets() {
-        try {
-            List<Rit> lijst = ritService.zoekActieveRittenVanFiets(cbFietsregistratienr.getValue());
+        Integer regnr = cbFietsregistratienr.getValue();
+        achtergrond.laad("zoeken", () -> ritService.zoekActieveRittenVanFiets(regnr), lijst -> {
             if (lijst.size() != 0) {
                 setVelden(lijst.get(0));
             } else {
                 laError.setText(ApplicationExceptionType.RIT_GEEN_ACTIEVE_RIT_FIETS.getMessage());
             }
-        } catch (ApplicationException | DBException ex) {
-            laError.setText(ex.getMessage());
-        }
+        }, ex -> laError.setText(ex.getMessage()));
     }
 
     private Rit maakRit(Rijksregisternummer rijksregisternummer, int fietsRegistratienummer) {
@@ -0,0 +1,32 @@
+-- Basisschema van VIVESbike. "if not exists" zodat een bestaande databank
+-- zonder schema_versie zonder verlies van gegevens overgenomen wordt.
+create table if not exists lid (
+    rijksregisternummer varchar(11) not null primary key,
+    voornaam varchar(50) not null,
+    naam varchar(50) not null,
+    emailadres varchar(100) not null,
+    start_lidmaatschap date not null,
+    einde_lidmaatschap date,
+    opmerking varchar(500)
+);
+
+create table if not exists fiets (
+    registratienummer int not null auto_increment primary key,
+    status enum('actief', 'herstel', 'uit_omloop') not null,
+    standplaats enum('Roeselare', 'Torhout', 'Kortrijk', 'Brugge', 'Oostende', 'Tielt') not null,
+    opmerkingen varchar(500)
+);
+
+create table if not exists rit (
+    id int not null auto_increment primary key,
+    starttijd timestamp not null default current_timestamp,
+    eindtijd timestamp null,
+    prijs decimal(10, 2),
+    lid_rijksregisternummer varchar(11) not null,
+    fiets_registratienummer int not null,
+    constraint fk_rit_lid foreign key (lid_rijksregisternummer) references lid (rijksregisternummer),
+    constraint fk_rit_fiets foreign key (fiets_registratienummer) references fiets (registratienummer)
+);
+
+-- een overgenomen databank kan prijzen nog zonder centen bewaren
+alter table rit modify prijs decimal(10, 2);
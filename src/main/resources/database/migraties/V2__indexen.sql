@@ -0,0 +1,13 @@
+-- Indexen voor de queries op rit en fiets die bij elke verhuring en elk scherm
+-- uitgevoerd worden. De eindtijd staat achteraan zodat "eindtijd is null" enkel
+-- de openstaande ritten leest, hoe lang de geschiedenis van een fiets of lid ook is.
+-- "if not exists" zodat indexen die een overgenomen databank al heeft, behouden blijven.
+
+-- FietsDAO.zoekAlleBeschikbareFietsen, RitDAO.zoekActieveRittenVanFiets, controle bij verhuren
+create index if not exists ix_rit_fiets_eindtijd on rit (fiets_registratienummer, eindtijd);
+
+-- RitDAO.zoekActieveRittenVanLid, RitDAO.zoekEersteRitVanLid, controle bij verhuren
+create index if not exists ix_rit_lid_eindtijd on rit (lid_rijksregisternummer, eindtijd);
+
+-- FietsDAO.zoekAlleBeschikbareFietsen: enkel actieve fietsen, in volgorde van registratienummer
+create index if not exists ix_fiets_status on fiets (status, registratienummer);
@@ -0,0 +1,31 @@
+-- Maximaal een openstaande rit (eindtijd is null) per fiets en per lid.
+-- De gegenereerde kolommen zijn enkel ingevuld zolang de rit loopt, zodat de
+-- unieke indexen alle afgesloten ritten (null) negeren.
+
+-- een bestaande databank met meerdere openstaande ritten per fiets of lid kan de unieke
+-- indexen niet krijgen: die ritten moeten eerst afgesloten worden
+controleer
+select concat('fiets ', fiets_registratienummer, ' heeft openstaande ritten ',
+              group_concat(id order by id separator ', '))
+from rit
+where eindtijd is null
+group by fiets_registratienummer
+having count(*) > 1
+union all
+select concat('lid ', lid_rijksregisternummer, ' heeft openstaande ritten ',
+              group_concat(id order by id separator ', '))
+from rit
+where eindtijd is null
+group by lid_rijksregisternummer
+having count(*) > 1;
+alter table rit
+    add column actieve_fiets int
+        generated always as (case when eindtijd is null then fiets_registratienummer end);
+
+alter table rit
+    add column actief_lid varchar(11)
+        generated always as (case when eindtijd is null then lid_rijksregisternummer end);
+
+create unique index uq_rit_actieve_fiets on rit (actieve_fiets);
+
+create unique index uq_rit_actief_lid on rit (actief_lid);
@@ -0,0 +1,4 @@
+-- RitDAO.streamRitten: ritten die in een periode gestart zijn, in volgorde van starttijd.
+-- Het id staat achteraan zodat ritten met dezelfde starttijd zonder sorteren in volgorde
+-- van id komen en een export van miljoenen ritten enkel de gevraagde periode leest.
+create index ix_rit_starttijd on rit (starttijd, id);
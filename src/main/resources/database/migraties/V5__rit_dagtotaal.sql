@@ -0,0 +1,35 @@
+-- Dagtotalen van de afgesloten ritten per fiets en standplaats, zodat rapporten over
+-- lange periodes enkel deze tabel lezen in plaats van alle ritten.
+-- RitDAO.afsluitenRit werkt de tabel bij in dezelfde transactie als de rit,
+-- DagtotaalDAO.herbouw berekent een periode opnieuw uit de ritten.
+
+-- standplaats van de fiets op het moment dat de rit afgesloten werd, zodat een
+-- verplaatste fiets zijn oude ritten niet meeneemt naar de nieuwe standplaats
+alter table rit add standplaats enum('Roeselare', 'Torhout', 'Kortrijk', 'Brugge', 'Oostende', 'Tielt') null;
+
+update rit
+set standplaats = (select f.standplaats from fiets f where f.registratienummer = rit.fiets_registratienummer)
+where eindtijd is not null;
+
+create table if not exists rit_dagtotaal (
+    dag date not null,
+    fiets_registratienummer int not null,
+    standplaats enum('Roeselare', 'Torhout', 'Kortrijk', 'Brugge', 'Oostende', 'Tielt') not null,
+    aantal_ritten int not null,
+    totaal_seconden bigint not null,
+    omzet decimal(14, 2) not null,
+    primary key (dag, fiets_registratienummer, standplaats),
+    constraint fk_rit_dagtotaal_fiets foreign key (fiets_registratienummer) references fiets (registratienummer)
+);
+
+-- de ritten die al afgesloten waren
+insert into rit_dagtotaal (dag, fiets_registratienummer, standplaats, aantal_ritten, totaal_seconden, omzet)
+select cast(r.starttijd as date)
+     , r.fiets_registratienummer
+     , r.standplaats
+     , count(*)
+     , sum(timestampdiff(second, r.starttijd, r.eindtijd))
+     , coalesce(sum(r.prijs), 0)
+from rit r
+where r.eindtijd is not null
+group by cast(r.starttijd as date), r.fiets_registratienummer, r.standplaats;
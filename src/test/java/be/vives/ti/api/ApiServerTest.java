@@ -0,0 +1,266 @@
+package be.vives.ti.api;
+
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.metriek.GemetenFietsService;
+import be.vives.ti.metriek.Metingen;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ApiServerTest {
+    private static final String RR = "93051822361";
+
+    private FietsService fietsService;
+    private LidService lidService;
+    private RitService ritService;
+    private ApiServer server;
+    private HttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        fietsService = mock(FietsService.class);
+        lidService = mock(LidService.class);
+        ritService = mock(RitService.class);
+        server = new ApiServer(new InetSocketAddress("localhost", 0), fietsService, lidService, ritService);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> vraag(String methode, String pad, String json) throws Exception {
+        HttpRequest.Builder aanvraag = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPoort() + pad));
+        aanvraag.method(methode, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json));
+        return client.send(aanvraag.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Fiets maakFiets(int regnr) {
+        Fiets fiets = new Fiets();
+        fiets.setRegistratienummer(regnr);
+        fiets.setStandplaats(Standplaats.Brugge);
+        fiets.setStatus(Status.actief);
+        fiets.setOpmerking("zadel \"los\"");
+        return fiets;
+    }
+
+    private Rit maakRit(int id) throws ApplicationException {
+        Rit rit = new Rit();
+        rit.setId(id);
+        rit.setStarttijd(LocalDateTime.of(2024, 3, 1, 8, 30));
+        rit.setLidRijksregisternummer(Rijksregisternummer.van(RR));
+        rit.setFietsRegistratienummer(7);
+        return rit;
+    }
+
+    @Test
+    public void fiets_zoeken() throws Exception {
+        when(fietsService.zoekFiets(7)).thenReturn(maakFiets(7));
+
+        HttpResponse<String> antwoord = vraag("GET", "/fietsen/7", null);
+
+        assertThat(antwoord.statusCode()).isEqualTo(200);
+        assertThat(antwoord.body()).isEqualTo("{\"registratienummer\":7,\"standplaats\":\"Brugge\","
+                + "\"status\":\"actief\",\"opmerking\":\"zadel \\\"los\\\"\"}");
+    }
+
+    @Test
+    public void fiets_zoeken_onbekend_of_ongeldig() throws Exception {
+        assertThat(vraag("GET", "/fietsen/8", null).statusCode()).isEqualTo(404);
+        assertThat(vraag("GET", "/fietsen/abc", null).statusCode()).isEqualTo(400);
+        assertThat(vraag("GET", "/onbestaand", null).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    public void fiets_toevoegen() throws Exception {
+        when(fietsService.toevoegenFiets(any(Fiets.class))).thenReturn(7);
+        when(fietsService.zoekFiets(7)).thenReturn(maakFiets(7));
+
+        HttpResponse<String> antwoord = vraag("POST", "/fietsen", "{\"standplaats\": \"brugge\", \"opmerking\": null}");
+
+        assertThat(antwoord.statusCode()).isEqualTo(201);
+        ArgumentCaptor<Fiets> fiets = ArgumentCaptor.forClass(Fiets.class);
+        verify(fietsService).toevoegenFiets(fiets.capture());
+        assertThat(fiets.getValue().getStandplaats()).isEqualTo(Standplaats.Brugge);
+        assertThat(fiets.getValue().getStatus()).isEqualTo(Status.actief);
+        assertThat(fiets.getValue().getOpmerking()).isNull();
+    }
+
+    @Test
+    public void fiets_status_wijzigen() throws Exception {
+        HttpResponse<String> antwoord = vraag("PUT", "/fietsen/7/status", "{\"status\":\"herstel\"}");
+
+        assertThat(antwoord.statusCode()).isEqualTo(204);
+        verify(fietsService).wijzigenStatusNaarHerstel(7);
+    }
+
+    @Test
+    public void lid_toevoegen_ongeldig() throws Exception {
+        doThrow(new ApplicationException(ApplicationExceptionType.LID_NAAM_LEEG))
+                .when(lidService).toevoegenLid(any(Lid.class));
+
+        HttpResponse<String> antwoord = vraag("POST", "/leden", "{\"rijksregisternummer\":\"" + RR + "\"}");
+
+        assertThat(antwoord.statusCode()).isEqualTo(400);
+        assertThat(antwoord.body()).isEqualTo("{\"fout\":\"" + ApplicationExceptionType.LID_NAAM_LEEG.getMessage() + "\"}");
+    }
+
+    @Test
+    public void lid_wijzigen_past_enkel_opgegeven_velden_aan() throws Exception {
+        Lid lid = new Lid();
+        lid.setRijksregisternummer(Rijksregisternummer.van(RR));
+        lid.setNaam("Peeters");
+        lid.setVoornaam("Jan");
+        lid.setEmailadres("jan@peeters.be");
+        lid.setStart_lidmaatschap(LocalDate.of(2024, 1, 1));
+        when(lidService.zoekLid(RR)).thenReturn(lid);
+
+        HttpResponse<String> antwoord = vraag("PUT", "/leden/" + RR, "{\"emailadres\":\"jan@vives.be\"}");
+
+        assertThat(antwoord.statusCode()).isEqualTo(200);
+        ArgumentCaptor<Lid> gewijzigd = ArgumentCaptor.forClass(Lid.class);
+        verify(lidService).wijzigenLid(gewijzigd.capture());
+        assertThat(gewijzigd.getValue().getEmailadres()).isEqualTo("jan@vives.be");
+        assertThat(gewijzigd.getValue().getNaam()).isEqualTo("Peeters");
+        // het gevonden lid (uit de cache) blijft ongewijzigd
+        assertThat(lid.getEmailadres()).isEqualTo("jan@peeters.be");
+    }
+
+    @Test
+    public void rit_huren_en_afsluiten() throws Exception {
+        when(ritService.toevoegenRit(any(Rit.class))).thenReturn(12);
+        when(ritService.zoekRit(12)).thenReturn(maakRit(12));
+
+        HttpResponse<String> gehuurd = vraag("POST", "/ritten",
+                "{\"lid_rijksregisternummer\":\"" + RR + "\",\"fiets_registratienummer\":7}");
+
+        assertThat(gehuurd.statusCode()).isEqualTo(201);
+        assertThat(gehuurd.body()).isEqualTo("{\"id\":12,\"starttijd\":\"2024-03-01T08:30:00\",\"eindtijd\":null,"
+                + "\"prijs\":null,\"lid_rijksregisternummer\":\"" + RR + "\",\"fiets_registratienummer\":7}");
+
+        Rit afgesloten = maakRit(12);
+        afgesloten.setEindtijd(LocalDateTime.of(2024, 3, 1, 9, 0));
+        afgesloten.setPrijs(BigDecimal.ONE);
+        when(ritService.zoekRit(12)).thenReturn(afgesloten);
+
+        HttpResponse<String> terug = vraag("POST", "/ritten/12/afsluiten", null);
+
+        assertThat(terug.statusCode()).isEqualTo(200);
+        assertThat(terug.body()).contains("\"eindtijd\":\"2024-03-01T09:00:00\",\"prijs\":1");
+        verify(ritService).afsluitenRit(12);
+    }
+
+    @Test
+    public void afgesloten_rit_afsluiten_geeft_409() throws Exception {
+        doThrow(new ApplicationException(ApplicationExceptionType.RIT_AL_AFGESLOTEN))
+                .when(ritService).afsluitenRit(12);
+        doThrow(new ApplicationException(ApplicationExceptionType.RIT_ONBEKEND))
+                .when(ritService).afsluitenRit(13);
+
+        HttpResponse<String> afgesloten = vraag("POST", "/ritten/12/afsluiten", null);
+        HttpResponse<String> onbekend = vraag("POST", "/ritten/13/afsluiten", null);
+
+        assertThat(afgesloten.statusCode()).isEqualTo(409);
+        assertThat(afgesloten.body()).contains(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
+        assertThat(onbekend.statusCode()).isEqualTo(400);
+        verify(ritService, never()).zoekRit(anyInt());
+    }
+
+    @Test
+    public void databankfout_geeft_500() throws Exception {
+        when(ritService.zoekRit(12)).thenThrow(new DBException("SQL-exception in zoekRit - statement"));
+
+        HttpResponse<String> antwoord = vraag("GET", "/ritten/12", null);
+
+        assertThat(antwoord.statusCode()).isEqualTo(500);
+        assertThat(antwoord.body()).doesNotContain("SQL");
+    }
+
+    @Test
+    public void ongeldige_json_geeft_400() throws Exception {
+        assertThat(vraag("POST", "/ritten", "{\"lid_rijksregisternummer\":").statusCode()).isEqualTo(400);
+        assertThat(vraag("POST", "/ritten", "[1, 2]").statusCode()).isEqualTo(400);
+        verify(ritService, never()).toevoegenRit(any(Rit.class));
+    }
+
+    @Test
+    public void aanvragen_lopen_gelijktijdig() throws Exception {
+        // elke aanvraag blokkeert tot alle aanvragen binnen zijn, dat lukt enkel als ze gelijktijdig lopen
+        int aantal = 50;
+        CountDownLatch allemaalBinnen = new CountDownLatch(aantal);
+        when(fietsService.zoekAlleBeschikbareFietsen()).thenAnswer(oproep -> {
+            allemaalBinnen.countDown();
+            allemaalBinnen.await();
+            return Collections.singletonList(maakFiets(7));
+        });
+
+        ExecutorService clients = Executors.newFixedThreadPool(aantal);
+        try {
+            List<Future<HttpResponse<String>>> antwoorden = new ArrayList<>();
+            for (int i = 0; i < aantal; i++) {
+                antwoorden.add(clients.submit(() -> vraag("GET", "/fietsen", null)));
+            }
+            for (Future<HttpResponse<String>> antwoord : antwoorden) {
+                assertThat(antwoord.get(10, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void metrieken() throws Exception {
+        assertThat(vraag("GET", "/metrics", null).statusCode()).isEqualTo(404);
+        server.stop(0);
+        Metingen metingen = new Metingen();
+        server = new ApiServer(new InetSocketAddress("localhost", 0), new GemetenFietsService(fietsService, metingen),
+                lidService, ritService, metingen);
+        server.start();
+        when(fietsService.zoekFiets(7)).thenReturn(maakFiets(7));
+
+        assertThat(vraag("GET", "/fietsen/7", null).statusCode()).isEqualTo(200);
+        assertThat(vraag("GET", "/fietsen/8", null).statusCode()).isEqualTo(404);
+        HttpResponse<String> antwoord = vraag("GET", "/metrics", null);
+
+        assertThat(antwoord.statusCode()).isEqualTo(200);
+        assertThat(antwoord.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("text/plain; version=0.0.4"));
+        assertThat(antwoord.body()).contains(
+                "vivesbike_service_oproepen_total{service=\"FietsService\",methode=\"zoekFiets\",resultaat=\"gelukt\"} 2\n");
+        assertThat(vraag("POST", "/metrics", "").statusCode()).isEqualTo(405);
+    }
+}
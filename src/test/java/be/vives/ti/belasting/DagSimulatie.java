@@ -0,0 +1,575 @@
+package be.vives.ti.belasting;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.extra.Removals;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidCache;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+import be.vives.ti.service.VlootIndex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Belastingtest: simuleert een dag verhuur aan alle standplaatsen tegen RitService, bv. om te zien
+ * hoe de applicatie zich tijdens de spits gedraagt.
+ * - maakt eerst leden en fietsen aan via LidService en FietsService (fietsen verdeeld over de standplaatsen)
+ * - per standplaats komen huurders aan volgens een Poissonproces, met per uur van de dag een factor
+ *   uit het profiel (standaard spitsen rond 8 en 17 uur); een dag duurt dagSeconden echte seconden
+ * - een huurder neemt een willekeurige beschikbare fiets uit de vlootindex en brengt ze na een
+ *   exponentieel verdeelde ritduur terug, ten laatste bij het einde van de dag
+ * - een deel van de pogingen (conflictKans) huurt bewust een fiets die al verhuurd is of met een lid
+ *   dat al een fiets huurt: de service moet die weigeren, anders telt het als overtreding
+ * - clients threads voeren de oproepen gelijktijdig uit
+ *
+ * Op het einde worden de ritten in de databank nagekeken (hoogstens een actieve rit per fiets en per lid)
+ * en worden doorvoer, latentiepercentielen, weigeringen en overtredingen gerapporteerd.
+ *
+ * Vanaf de opdrachtregel, tegen de embedded databank:
+ *
+ *   mvn -Pembedded test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=be.vives.ti.belasting.DagSimulatie -Dvivesbike.db.profiel=embedded
+ *       [-Dsimulatie.leden=1000 -Dsimulatie.fietsen=300 -Dsimulatie.clients=32 ...]
+ *
+ * Zie Instellingen voor alle instellingen.
+ */
+public class DagSimulatie {
+
+    // per uur van de dag (0 tot 23) een factor op het aantal aankomsten
+    static final double[] STANDAARD_PROFIEL = {
+            0.1, 0.1, 0.1, 0.1, 0.1, 0.2, 0.6, 2.5, 3.0, 1.5, 0.8, 0.8,
+            1.0, 0.8, 0.8, 1.0, 2.0, 3.0, 2.0, 1.0, 0.6, 0.4, 0.2, 0.1};
+
+    /**
+     * Instellingen van een simulatie, vanaf de opdrachtregel met -Dsimulatie.&lt;naam&gt;=waarde.
+     */
+    static class Instellingen {
+        // aantal leden en fietsen dat aangemaakt wordt
+        int leden = 1000;
+        int fietsen = 300;
+        // aantal threads dat gelijktijdig oproepen doet
+        int clients = 32;
+        // echte duur van een gesimuleerde dag
+        double dagSeconden = 60;
+        // gemiddeld aantal aankomsten per standplaats per uur, bij factor 1 in het profiel
+        double aankomstenPerUur = 30;
+        double gemiddeldeRitMinuten = 40;
+        // kans dat een poging bewust een regel overtreedt
+        double conflictKans = 0.05;
+        // voor de aankomsten: dezelfde seed geeft dezelfde aankomsten
+        long seed = 42;
+        // volgnummer van het eerste lid, zodat simulaties elkaars leden niet gebruiken
+        int eersteLid = 0;
+        double[] profiel = STANDAARD_PROFIEL;
+
+        static Instellingen uitSystemProperties() {
+            Instellingen instellingen = new Instellingen();
+            instellingen.leden = Integer.getInteger("simulatie.leden", instellingen.leden);
+            instellingen.fietsen = Integer.getInteger("simulatie.fietsen", instellingen.fietsen);
+            instellingen.clients = Integer.getInteger("simulatie.clients", instellingen.clients);
+            instellingen.dagSeconden = getal("simulatie.dagSeconden", instellingen.dagSeconden);
+            instellingen.aankomstenPerUur = getal("simulatie.aankomstenPerUur", instellingen.aankomstenPerUur);
+            instellingen.gemiddeldeRitMinuten = getal("simulatie.gemiddeldeRitMinuten", instellingen.gemiddeldeRitMinuten);
+            instellingen.conflictKans = getal("simulatie.conflictKans", instellingen.conflictKans);
+            instellingen.seed = Long.getLong("simulatie.seed", instellingen.seed);
+            instellingen.eersteLid = Integer.getInteger("simulatie.eersteLid", instellingen.eersteLid);
+            return instellingen;
+        }
+
+        private static double getal(String naam, double standaard) {
+            String waarde = System.getProperty(naam);
+            return waarde == null ? standaard : Double.parseDouble(waarde);
+        }
+    }
+
+    private final Instellingen instellingen;
+    private final FietsDAO fietsDAO = new FietsDAO();
+    private final RitDAO ritDAO = new RitDAO();
+    private final VlootIndex vlootIndex = new VlootIndex();
+    private final FietsService fietsService;
+    private final LidService lidService;
+    private final RitService ritService;
+
+    private final List<Rijksregisternummer> leden = new ArrayList<>();
+    private final Set<Integer> fietsen = new HashSet<>();
+    private final ConcurrentLinkedQueue<Rijksregisternummer> vrijeLeden = new ConcurrentLinkedQueue<>();
+    // lopende verhuringen per lid
+    private final ConcurrentHashMap<Rijksregisternummer, Verhuur> verhuringen = new ConcurrentHashMap<>();
+    private final AtomicInteger lopend = new AtomicInteger();
+    private ScheduledThreadPoolExecutor uitvoerder;
+    private long dagEinde;
+    private Resultaat resultaat;
+
+    DagSimulatie(Instellingen instellingen) {
+        this.instellingen = instellingen;
+        LidDAO lidDAO = new LidDAO();
+        LidCache lidCache = new LidCache(Math.max(instellingen.leden, 1), 60 * 1000);
+        this.fietsService = new FietsService(fietsDAO, vlootIndex);
+        this.ritService = new RitService(ritDAO, fietsService, lidDAO, lidCache, vlootIndex);
+        this.lidService = new LidService(lidDAO, ritService, lidCache);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Instellingen instellingen = Instellingen.uitSystemProperties();
+        DagSimulatie simulatie = new DagSimulatie(instellingen);
+        try {
+            simulatie.maakLedenEnFietsen();
+            System.out.println(simulatie.voerUit());
+            if (ConnectionManager.getQueryMetingen() != null) {
+                // met -Dvivesbike.db.query.meten=true: welke DAO domineert de databanktijd
+                System.out.println(ConnectionManager.getQueryMetingen().rapport());
+            }
+            if (Boolean.parseBoolean(System.getProperty("simulatie.opruimen", "true"))) {
+                simulatie.opruimen();
+            }
+        } finally {
+            ConnectionManager.sluitPool();
+        }
+    }
+
+    /**
+     * @param i volgnummer van het lid
+     * @return geldig rijksregisternummer (modulo 97-controle) dat uniek is per volgnummer
+     */
+    static String rijksregisternummer(int i) {
+        int deel1 = 700101000 + i;
+        return String.format("%09d%02d", deel1, 97 - (deel1 % 97));
+    }
+
+    /**
+     * Maakt de leden en fietsen van de simulatie aan via de services. Leden die al bestaan
+     * (bv. van een vorige simulatie op een databank op schijf) worden hergebruikt.
+     */
+    void maakLedenEnFietsen() throws ApplicationException, DBException {
+        for (int i = 0; i < instellingen.leden; i++) {
+            Lid lid = new Lid();
+            lid.setRijksregisternummer(Rijksregisternummer.van(rijksregisternummer(instellingen.eersteLid + i)));
+            lid.setNaam("Simulatie");
+            lid.setVoornaam("Lid" + i);
+            lid.setEmailadres("lid" + i + "@simulatie.vives.be");
+            try {
+                lidService.toevoegenLid(lid);
+            } catch (ApplicationException ex) {
+                if (!ApplicationExceptionType.LID_BESTAAT_AL.getMessage().equals(ex.getMessage())) {
+                    throw ex;
+                }
+            }
+            leden.add(Rijksregisternummer.van(lid.getRijksregisternummer()));
+        }
+        Standplaats[] standplaatsen = Standplaats.values();
+        List<Fiets> nieuw = new ArrayList<>(instellingen.fietsen);
+        for (int i = 0; i < instellingen.fietsen; i++) {
+            Fiets fiets = new Fiets();
+            fiets.setStandplaats(standplaatsen[i % standplaatsen.length]);
+            fiets.setStatus(Status.actief);
+            fiets.setOpmerking("simulatie");
+            nieuw.add(fiets);
+        }
+        fietsen.addAll(fietsService.toevoegenFietsen(nieuw));
+        vlootIndex.laad(fietsDAO, ritDAO);
+    }
+
+    /**
+     * Simuleert een dag en wacht tot alle fietsen terug zijn.
+     *
+     * @return het resultaat, ook na fouten
+     */
+    Resultaat voerUit() throws InterruptedException, DBException {
+        resultaat = new Resultaat();
+        List<Rijksregisternummer> geschud = new ArrayList<>(leden);
+        Collections.shuffle(geschud, new Random(instellingen.seed));
+        vrijeLeden.addAll(geschud);
+
+        List<Aankomst> aankomsten = genereerAankomsten();
+        uitvoerder = new ScheduledThreadPoolExecutor(instellingen.clients);
+        long begin = System.nanoTime();
+        dagEinde = begin + (long) (instellingen.dagSeconden * 1e9);
+        for (Aankomst aankomst : aankomsten) {
+            plan(() -> huur(aankomst.standplaats), begin + aankomst.nanos);
+        }
+        // de terugbrengsten worden tijdens de dag gepland, dus wachten tot er niets meer loopt
+        while (lopend.get() > 0) {
+            Thread.sleep(10);
+        }
+        resultaat.duurNanos = System.nanoTime() - begin;
+        uitvoerder.shutdown();
+        uitvoerder.awaitTermination(10, TimeUnit.SECONDS);
+
+        // ritten die door een fout niet afgesloten werden
+        for (Verhuur verhuur : new ArrayList<>(verhuringen.values())) {
+            brengTerug(verhuur);
+        }
+        controleerDatabank();
+        return resultaat;
+    }
+
+    /**
+     * Aankomsten van de hele dag, per standplaats een Poissonproces met per uur een eigen intensiteit.
+     */
+    List<Aankomst> genereerAankomsten() {
+        Random random = new Random(instellingen.seed);
+        double nanosPerUur = instellingen.dagSeconden * 1e9 / 24;
+        List<Aankomst> aankomsten = new ArrayList<>();
+        for (Standplaats standplaats : Standplaats.values()) {
+            for (int uur = 0; uur < 24; uur++) {
+                double perUur = instellingen.aankomstenPerUur * instellingen.profiel[uur];
+                if (perUur <= 0) {
+                    continue;
+                }
+                double tijdstip = uur - Math.log(1 - random.nextDouble()) / perUur;
+                while (tijdstip < uur + 1) {
+                    aankomsten.add(new Aankomst((long) (tijdstip * nanosPerUur), standplaats));
+                    tijdstip -= Math.log(1 - random.nextDouble()) / perUur;
+                }
+            }
+        }
+        aankomsten.sort((a, b) -> Long.compare(a.nanos, b.nanos));
+        return aankomsten;
+    }
+
+    private void plan(Runnable taak, long tijdstipNanos) {
+        lopend.incrementAndGet();
+        uitvoerder.schedule(() -> {
+            try {
+                taak.run();
+            } finally {
+                lopend.decrementAndGet();
+            }
+        }, Math.max(0, tijdstipNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private void huur(Standplaats standplaats) {
+        if (ThreadLocalRandom.current().nextDouble() < instellingen.conflictKans && !verhuringen.isEmpty()) {
+            probeerConflict(standplaats);
+            return;
+        }
+        Rijksregisternummer lid = vrijeLeden.poll();
+        if (lid == null) {
+            resultaat.geenLid.incrementAndGet();
+            return;
+        }
+        Integer regnr = kiesFiets(standplaats);
+        if (regnr == null) {
+            resultaat.per(standplaats).geenFiets.incrementAndGet();
+            vrijeLeden.add(lid);
+            return;
+        }
+        Verhuur verhuur = probeerTeHuren(lid, regnr, standplaats);
+        if (verhuur == null) {
+            vrijeLeden.add(lid);
+        }
+    }
+
+    /**
+     * Huurt een fiets die verhuurd is met een vrij lid, of een tweede fiets met een lid dat al huurt.
+     * De verhuring waarmee het conflict gemaakt wordt, kan ondertussen niet teruggebracht worden.
+     */
+    private void probeerConflict(Standplaats standplaats) {
+        List<Verhuur> lopende = new ArrayList<>(verhuringen.values());
+        if (lopende.isEmpty()) {
+            return;
+        }
+        Verhuur bestaand = lopende.get(ThreadLocalRandom.current().nextInt(lopende.size()));
+        synchronized (bestaand) {
+            if (bestaand.teruggebracht) {
+                return;
+            }
+            resultaat.conflictPogingen.incrementAndGet();
+            Verhuur verhuur;
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                // zelfde lid, andere (of dezelfde) fiets
+                Integer regnr = kiesFiets(standplaats);
+                verhuur = probeerTeHuren(bestaand.lid, regnr == null ? bestaand.regnr : regnr, standplaats);
+            } else {
+                // zelfde fiets, ander lid
+                Rijksregisternummer lid = vrijeLeden.poll();
+                if (lid == null) {
+                    resultaat.conflictPogingen.decrementAndGet();
+                    return;
+                }
+                verhuur = probeerTeHuren(lid, bestaand.regnr, bestaand.standplaats);
+                if (verhuur == null) {
+                    vrijeLeden.add(lid);
+                }
+            }
+            if (verhuur != null) {
+                resultaat.overtredingen.incrementAndGet();
+            }
+        }
+    }
+
+    private Integer kiesFiets(Standplaats standplaats) {
+        List<Integer> beschikbaar = new ArrayList<>();
+        for (Fiets fiets : vlootIndex.geefBeschikbareFietsen(standplaats)) {
+            if (fietsen.contains(fiets.getRegistratienummer())) {
+                beschikbaar.add(fiets.getRegistratienummer());
+            }
+        }
+        return beschikbaar.isEmpty() ? null : beschikbaar.get(ThreadLocalRandom.current().nextInt(beschikbaar.size()));
+    }
+
+    /**
+     * @return de verhuring, null wanneer de service ze weigerde of een fout gaf
+     */
+    private Verhuur probeerTeHuren(Rijksregisternummer lid, int regnr, Standplaats standplaats) {
+        Rit rit = new Rit();
+        rit.setLidRijksregisternummer(lid);
+        rit.setFietsRegistratienummer(regnr);
+        long start = System.nanoTime();
+        try {
+            Integer id = ritService.toevoegenRit(rit);
+            resultaat.huren.voegToe(System.nanoTime() - start);
+            resultaat.per(standplaats).verhuurd.incrementAndGet();
+            Verhuur verhuur = new Verhuur(id, lid, regnr, standplaats);
+            // bij een aanvaard conflict bestaat er al een verhuring voor het lid, die blijft bijgehouden
+            Verhuur vorige = verhuringen.putIfAbsent(lid, verhuur);
+            double ritNanos = -Math.log(1 - ThreadLocalRandom.current().nextDouble())
+                    * instellingen.gemiddeldeRitMinuten / (24 * 60) * instellingen.dagSeconden * 1e9;
+            long terug = Math.min(System.nanoTime() + (long) ritNanos, dagEinde);
+            plan(() -> brengTerug(verhuur), vorige == null ? terug : System.nanoTime());
+            return verhuur;
+        } catch (ApplicationException ex) {
+            resultaat.huren.voegToe(System.nanoTime() - start);
+            resultaat.weiger(ex);
+        } catch (DBException | RuntimeException ex) {
+            resultaat.fout(ex);
+        }
+        return null;
+    }
+
+    private void brengTerug(Verhuur verhuur) {
+        synchronized (verhuur) {
+            if (verhuur.teruggebracht) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                ritService.afsluitenRit(verhuur.ritId);
+                resultaat.terugbrengen.voegToe(System.nanoTime() - start);
+                resultaat.per(verhuur.standplaats).teruggebracht.incrementAndGet();
+                verhuur.teruggebracht = true;
+            } catch (ApplicationException ex) {
+                resultaat.terugbrengen.voegToe(System.nanoTime() - start);
+                resultaat.weiger(ex);
+                return;
+            } catch (DBException | RuntimeException ex) {
+                resultaat.fout(ex);
+                return;
+            }
+        }
+        if (verhuringen.remove(verhuur.lid, verhuur)) {
+            vrijeLeden.add(verhuur.lid);
+        }
+    }
+
+    /**
+     * Telt de fietsen en leden van de simulatie met meer dan een actieve rit, en de ritten die nog open zijn.
+     */
+    private void controleerDatabank() throws DBException {
+        Set<String> rijksregisternummers = new HashSet<>();
+        for (Rijksregisternummer lid : leden) {
+            rijksregisternummers.add(lid.getRijksregisternummer());
+        }
+        try (Connection conn = ConnectionManager.getConnection();
+             PreparedStatement perFiets = conn.prepareStatement(
+                     "select fiets_registratienummer, count(*) from rit where eindtijd is null"
+                             + " group by fiets_registratienummer");
+             PreparedStatement perLid = conn.prepareStatement(
+                     "select lid_rijksregisternummer, count(*) from rit where eindtijd is null"
+                             + " group by lid_rijksregisternummer")) {
+            try (ResultSet r = perFiets.executeQuery()) {
+                while (r.next()) {
+                    if (fietsen.contains(r.getInt(1))) {
+                        resultaat.openRitten += r.getInt(2);
+                        if (r.getInt(2) > 1) {
+                            resultaat.fietsenMetMeerdereRitten++;
+                        }
+                    }
+                }
+            }
+            try (ResultSet r = perLid.executeQuery()) {
+                while (r.next()) {
+                    if (rijksregisternummers.contains(r.getString(1)) && r.getInt(2) > 1) {
+                        resultaat.ledenMetMeerdereRitten++;
+                    }
+                }
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in controleerDatabank - " + sqlEx);
+        }
+    }
+
+    /**
+     * Verwijdert de ritten, fietsen en leden van de simulatie.
+     */
+    void opruimen() throws DBException {
+        try (Connection conn = ConnectionManager.getConnection();
+             PreparedStatement ritten = conn.prepareStatement("delete from rit where fiets_registratienummer = ?")) {
+            for (Integer regnr : fietsen) {
+                ritten.setInt(1, regnr);
+                ritten.executeUpdate();
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in opruimen - " + sqlEx);
+        }
+        for (Integer regnr : fietsen) {
+            Removals.removeFiets(regnr);
+        }
+        for (Rijksregisternummer lid : leden) {
+            Removals.removeLid(lid.getRijksregisternummer());
+        }
+    }
+
+    /**
+     * Een huurder die op een tijdstip (sinds het begin van de dag) aan een standplaats aankomt.
+     */
+    static class Aankomst {
+        final long nanos;
+        final Standplaats standplaats;
+
+        Aankomst(long nanos, Standplaats standplaats) {
+            this.nanos = nanos;
+            this.standplaats = standplaats;
+        }
+    }
+
+    /**
+     * Een lopende rit van de simulatie.
+     */
+    private static class Verhuur {
+        private final int ritId;
+        private final Rijksregisternummer lid;
+        private final int regnr;
+        private final Standplaats standplaats;
+        private boolean teruggebracht;
+
+        private Verhuur(int ritId, Rijksregisternummer lid, int regnr, Standplaats standplaats) {
+            this.ritId = ritId;
+            this.lid = lid;
+            this.regnr = regnr;
+            this.standplaats = standplaats;
+        }
+    }
+
+    /**
+     * Tellers per standplaats.
+     */
+    static class PerStandplaats {
+        final AtomicInteger verhuurd = new AtomicInteger();
+        final AtomicInteger teruggebracht = new AtomicInteger();
+        // aankomsten zonder beschikbare fiets
+        final AtomicInteger geenFiets = new AtomicInteger();
+    }
+
+    /**
+     * Resultaat van een gesimuleerde dag.
+     */
+    static class Resultaat {
+        final Latenties huren = new Latenties();
+        final Latenties terugbrengen = new Latenties();
+        final EnumMap<Standplaats, PerStandplaats> standplaatsen = new EnumMap<>(Standplaats.class);
+        // weigeringen door de service, per ApplicationExceptionType of boodschap
+        final Map<String, AtomicInteger> geweigerd = new ConcurrentHashMap<>();
+        // DBExceptions en onverwachte fouten, per klasse
+        final Map<String, AtomicInteger> fouten = new ConcurrentHashMap<>();
+        // aankomsten zonder vrij lid
+        final AtomicInteger geenLid = new AtomicInteger();
+        final AtomicInteger conflictPogingen = new AtomicInteger();
+        // conflicten die de service aanvaardde
+        final AtomicInteger overtredingen = new AtomicInteger();
+        int fietsenMetMeerdereRitten;
+        int ledenMetMeerdereRitten;
+        int openRitten;
+        long duurNanos;
+
+        Resultaat() {
+            for (Standplaats standplaats : Standplaats.values()) {
+                standplaatsen.put(standplaats, new PerStandplaats());
+            }
+        }
+
+        PerStandplaats per(Standplaats standplaats) {
+            return standplaatsen.get(standplaats);
+        }
+
+        private void weiger(ApplicationException ex) {
+            String reden = ex.getType() != null ? ex.getType().name() : ex.getMessage();
+            geweigerd.computeIfAbsent(reden, r -> new AtomicInteger()).incrementAndGet();
+        }
+
+        private void fout(Exception ex) {
+            fouten.computeIfAbsent(ex.getClass().getSimpleName(), r -> new AtomicInteger()).incrementAndGet();
+        }
+
+        int getVerhuurd() {
+            int verhuurd = 0;
+            for (PerStandplaats per : standplaatsen.values()) {
+                verhuurd += per.verhuurd.get();
+            }
+            return verhuurd;
+        }
+
+        /**
+         * @return overtredingen in de service en in de databank samen, hoort 0 te zijn
+         */
+        int getAantalOvertredingen() {
+            return overtredingen.get() + fietsenMetMeerdereRitten + ledenMetMeerdereRitten;
+        }
+
+        /**
+         * @return geslaagde en geweigerde oproepen per seconde
+         */
+        double getDoorvoer() {
+            return (huren.getAantal() + terugbrengen.getAantal()) / (duurNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Duur %.1f s, doorvoer %.1f oproepen/s%n", duurNanos / 1e9, getDoorvoer()));
+            sb.append("Huren:        ").append(huren).append('\n');
+            sb.append("Terugbrengen: ").append(terugbrengen).append('\n');
+            for (Map.Entry<Standplaats, PerStandplaats> per : standplaatsen.entrySet()) {
+                sb.append(String.format("  %-10s verhuurd %6d  teruggebracht %6d  geen fiets %6d%n", per.getKey(),
+                        per.getValue().verhuurd.get(), per.getValue().teruggebracht.get(), per.getValue().geenFiets.get()));
+            }
+            sb.append("Geen vrij lid: ").append(geenLid.get()).append('\n');
+            sb.append("Geweigerd: ").append(new TreeMap<>(geweigerd)).append('\n');
+            sb.append("Fouten: ").append(new TreeMap<>(fouten)).append('\n');
+            sb.append(String.format("Overtredingen: %d van %d conflictpogingen aanvaard, %d fietsen en %d leden"
+                            + " met meerdere actieve ritten, %d ritten nog open%n", overtredingen.get(),
+                    conflictPogingen.get(), fietsenMetMeerdereRitten, ledenMetMeerdereRitten, openRitten));
+            return sb.toString();
+        }
+    }
+}
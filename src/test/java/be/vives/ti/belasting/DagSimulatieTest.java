@@ -0,0 +1,70 @@
+package be.vives.ti.belasting;
+
+import be.vives.ti.datatype.Standplaats;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DagSimulatieTest {
+
+    private DagSimulatie simulatie;
+
+    private DagSimulatie.Instellingen klein() {
+        DagSimulatie.Instellingen instellingen = new DagSimulatie.Instellingen();
+        instellingen.leden = 40;
+        instellingen.fietsen = 12;
+        instellingen.clients = 8;
+        instellingen.dagSeconden = 2;
+        instellingen.aankomstenPerUur = 4;
+        instellingen.conflictKans = 0.2;
+        instellingen.eersteLid = 900;
+        return instellingen;
+    }
+
+    @After
+    public void opruimen() throws Exception {
+        if (simulatie != null) {
+            simulatie.opruimen();
+        }
+    }
+
+    @Test
+    public void aankomsten_volgen_het_profiel() {
+        DagSimulatie.Instellingen instellingen = klein();
+        instellingen.aankomstenPerUur = 100;
+        List<DagSimulatie.Aankomst> aankomsten = new DagSimulatie(instellingen).genereerAankomsten();
+
+        long nanosPerUur = (long) (instellingen.dagSeconden * 1e9 / 24);
+        long nacht = aankomsten.stream().filter(a -> a.nanos / nanosPerUur == 3).count();
+        long spits = aankomsten.stream().filter(a -> a.nanos / nanosPerUur == 8).count();
+        // verwacht 6 standplaatsen * 100 * factor: 60 om 3 uur, 1800 om 8 uur
+        assertThat(nacht).isBetween(20L, 120L);
+        assertThat(spits).isBetween(1500L, 2100L);
+        assertThat(aankomsten).isSortedAccordingTo((a, b) -> Long.compare(a.nanos, b.nanos));
+        assertThat(aankomsten.get(aankomsten.size() - 1).nanos).isLessThan((long) (instellingen.dagSeconden * 1e9));
+    }
+
+    @Test
+    public void dag_zonder_overtredingen() throws Exception {
+        simulatie = new DagSimulatie(klein());
+        simulatie.maakLedenEnFietsen();
+
+        DagSimulatie.Resultaat resultaat = simulatie.voerUit();
+
+        assertThat(resultaat.getVerhuurd()).isGreaterThan(0);
+        assertThat(resultaat.getAantalOvertredingen()).as(resultaat.toString()).isZero();
+        assertThat(resultaat.openRitten).isZero();
+        assertThat(resultaat.fouten).isEmpty();
+        for (Standplaats standplaats : Standplaats.values()) {
+            DagSimulatie.PerStandplaats per = resultaat.per(standplaats);
+            assertThat(per.teruggebracht.get()).isEqualTo(per.verhuurd.get());
+        }
+        if (resultaat.conflictPogingen.get() > 0) {
+            assertThat(resultaat.geweigerd).isNotEmpty();
+        }
+        assertThat(resultaat.huren.getAantal()).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,44 @@
+package be.vives.ti.belasting;
+
+import java.util.Arrays;
+
+/**
+ * Houdt alle gemeten latenties van een soort oproep bij, om achteraf percentielen te berekenen.
+ * Een simulatie van een dag meet hooguit enkele honderdduizenden oproepen, die passen gewoon in een array.
+ */
+class Latenties {
+
+    private long[] nanos = new long[1024];
+    private int aantal;
+
+    synchronized void voegToe(long duurNanos) {
+        if (aantal == nanos.length) {
+            nanos = Arrays.copyOf(nanos, aantal * 2);
+        }
+        nanos[aantal++] = duurNanos;
+    }
+
+    synchronized int getAantal() {
+        return aantal;
+    }
+
+    /**
+     * @param percentiel tussen 0 en 100, bv. 99 voor p99
+     * @return latentie in milliseconden waaronder percentiel procent van de oproepen bleef, 0 zonder metingen
+     */
+    synchronized double percentielMillis(double percentiel) {
+        if (aantal == 0) {
+            return 0;
+        }
+        long[] gesorteerd = Arrays.copyOf(nanos, aantal);
+        Arrays.sort(gesorteerd);
+        int index = (int) Math.ceil(percentiel / 100 * aantal) - 1;
+        return gesorteerd[Math.max(0, Math.min(index, aantal - 1))] / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms", getAantal(),
+                percentielMillis(50), percentielMillis(90), percentielMillis(99), percentielMillis(100));
+    }
+}
@@ -0,0 +1,139 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.databag.RitTotaal;
+import be.vives.ti.datatype.Groepering;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.extra.Removals;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DagtotaalDAOTest {
+    private final DagtotaalDAO dagtotaalDAO = new DagtotaalDAO();
+    private final RitDAO ritDAO = new RitDAO();
+    private final FietsDAO fietsDAO = new FietsDAO();
+    private final LidDAO lidDAO = new LidDAO();
+
+    private Lid lid;
+    private Fiets fiets;
+    private Rit rit;
+
+    @Before
+    public void setUp() throws Exception {
+        lid = new Lid();
+        lid.setRijksregisternummer(new Rijksregisternummer("64101612335"));
+        lid.setVoornaam("Andres");
+        lid.setNaam("Sabbe");
+        lid.setEmailadres("sabbeandres@outlook.com");
+        lid.setStart_lidmaatschap(LocalDate.now());
+        lidDAO.toevoegenLid(lid);
+        fiets = new Fiets();
+        fiets.setStatus(Status.actief);
+        fiets.setStandplaats(Standplaats.Tielt);
+        fiets.setRegistratienummer(fietsDAO.toevoegenFiets(fiets));
+
+        rit = new Rit();
+        rit.setLidRijksregisternummer(new Rijksregisternummer(lid.getRijksregisternummer()));
+        rit.setFietsRegistratienummer(fiets.getRegistratienummer());
+        rit.setId(ritDAO.toevoegenRit(rit));
+        rit.setStarttijd(ritDAO.zoekRit(rit.getId()).getStarttijd());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Removals.removeRit(rit.getId());
+        Removals.removeFiets(fiets.getRegistratienummer());
+        Removals.removeLid(lid.getRijksregisternummer());
+    }
+
+    private int sluitAf(Duration duur, int prijs) throws Exception {
+        rit.setEindtijd(rit.getStarttijd().plus(duur));
+        rit.setPrijs(BigDecimal.valueOf(prijs));
+        return ritDAO.afsluitenRit(rit);
+    }
+
+    private RitTotaal totaalVanFiets() throws Exception {
+        LocalDate dag = rit.getStarttijd().toLocalDate();
+        return dagtotaalDAO.totaliseer(Groepering.FIETS, dag, dag.plusDays(1)).stream()
+                .filter(t -> t.getGroep().equals(String.valueOf(fiets.getRegistratienummer())))
+                .findFirst().orElse(null);
+    }
+
+    @Test
+    public void afsluitenRit_werktDagtotaalBij() throws Exception {
+        assertThat(totaalVanFiets()).isNull();
+
+        assertThat(sluitAf(Duration.ofHours(2), 4)).isEqualTo(1);
+        RitTotaal totaal = totaalVanFiets();
+        assertThat(totaal.getAantalRitten()).isEqualTo(1);
+        assertThat(totaal.getOmzet()).isEqualByComparingTo("4");
+        assertThat(totaal.getGemiddeldeDuur()).isEqualTo(Duration.ofHours(2));
+
+        // een afgesloten rit wordt niet opnieuw afgesloten, het dagtotaal blijft
+        assertThat(sluitAf(Duration.ofHours(3), 6)).isZero();
+        totaal = totaalVanFiets();
+        assertThat(totaal.getAantalRitten()).isEqualTo(1);
+        assertThat(totaal.getOmzet()).isEqualByComparingTo("4");
+        assertThat(totaal.getGemiddeldeDuur()).isEqualTo(Duration.ofHours(2));
+    }
+
+    @Test
+    public void afsluitenRit_verhuisdeFietsBlijftBijOudeStandplaats() throws Exception {
+        sluitAf(Duration.ofHours(1), 2);
+        try (Connection conn = ConnectionManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("update fiets set standplaats = 'Brugge' where registratienummer = "
+                    + fiets.getRegistratienummer());
+        }
+
+        LocalDate dag = rit.getStarttijd().toLocalDate();
+        assertThat(dagtotaalDAO.herbouw(dag, dag.plusDays(1))).isGreaterThanOrEqualTo(1);
+
+        try (Connection conn = ConnectionManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet r = stmt.executeQuery("select standplaats, aantal_ritten, omzet from rit_dagtotaal"
+                     + " where fiets_registratienummer = " + fiets.getRegistratienummer())) {
+            assertThat(r.next()).isTrue();
+            assertThat(r.getString("standplaats")).isEqualTo("Tielt");
+            assertThat(r.getInt("aantal_ritten")).isEqualTo(1);
+            assertThat(r.getBigDecimal("omzet")).isEqualByComparingTo("2");
+            assertThat(r.next()).isFalse();
+        }
+        assertThat(dagtotaalDAO.totaliseer(Groepering.STANDPLAATS, dag, dag.plusDays(1)))
+                .extracting(RitTotaal::getGroep).doesNotContain("Brugge");
+    }
+
+    @Test
+    public void herbouw() throws Exception {
+        sluitAf(Duration.ofMinutes(30), 1);
+        LocalDate dag = rit.getStarttijd().toLocalDate();
+        try (Connection conn = ConnectionManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("update rit_dagtotaal set omzet = 999 where fiets_registratienummer = "
+                    + fiets.getRegistratienummer());
+        }
+
+        assertThat(dagtotaalDAO.herbouw(dag, dag.plusDays(1))).isGreaterThanOrEqualTo(1);
+
+        assertThat(totaalVanFiets().getOmzet()).isEqualByComparingTo("1");
+        assertThat(dagtotaalDAO.totaliseer(Groepering.STANDPLAATS, dag, dag.plusDays(1)))
+                .extracting(RitTotaal::getGroep).contains("Tielt");
+        assertThat(dagtotaalDAO.totaliseer(Groepering.DAG, dag, dag.plusDays(1)))
+                .extracting(RitTotaal::getGroep).containsExactly(dag.toString());
+    }
+}
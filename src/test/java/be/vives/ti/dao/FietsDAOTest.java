@@ -1,6 +1,9 @@
 package be.vives.ti.dao;
 
 import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.datatype.Standplaats;
 import be.vives.ti.datatype.Status;
 import be.vives.ti.exception.DBException;
@@ -9,7 +12,14 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -203,4 +213,137 @@ public class FietsDAOTest {
             System.out.println("test = " + dbEx);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void zoekFietsenNa() throws Exception {
+        Fiets fiets1 = maakFiets(Status.actief, Standplaats.Kortrijk, "Eerste fiets zoekFietsenNa");
+        Fiets fiets2 = maakFiets(Status.actief, Standplaats.Brugge, "Tweede fiets zoekFietsenNa");
+        Fiets fiets3 = maakFiets(Status.actief, Standplaats.Tielt, "Derde fiets zoekFietsenNa");
+        try {
+            fiets1.setRegistratienummer(fietsDAO.toevoegenFiets(fiets1));
+            fiets2.setRegistratienummer(fietsDAO.toevoegenFiets(fiets2));
+            fiets3.setRegistratienummer(fietsDAO.toevoegenFiets(fiets3));
+
+            List<Fiets> pagina = fietsDAO.zoekFietsenNa(fiets1.getRegistratienummer(), 1);
+            assertThat(pagina).extracting(Fiets::getRegistratienummer).containsExactly(fiets2.getRegistratienummer());
+
+            pagina = fietsDAO.zoekFietsenNa(fiets1.getRegistratienummer(), 10);
+            assertThat(pagina).extracting(Fiets::getRegistratienummer)
+                    .containsSequence(fiets2.getRegistratienummer(), fiets3.getRegistratienummer());
+
+            assertThat(fietsDAO.zoekFietsenNa(null, 1)).hasSize(1);
+        } finally {
+            Removals.removeFiets(fiets1.getRegistratienummer());
+            Removals.removeFiets(fiets2.getRegistratienummer());
+            Removals.removeFiets(fiets3.getRegistratienummer());
+        }
+    }
+
+    @Test
+    public void toevoegenFietsen() throws Exception {
+        List<Fiets> fietsen = new ArrayList<>();
+        for (int i = 0; i < FietsDAO.BATCH_GROOTTE + 3; i++) {
+            fietsen.add(maakFiets(Status.herstel, Standplaats.values()[i % Standplaats.values().length], "levering " + i));
+        }
+        List<Integer> registratienummers = new ArrayList<>();
+        try {
+            registratienummers = fietsDAO.toevoegenFietsen(fietsen);
+
+            assertThat(registratienummers).hasSize(fietsen.size()).isSorted().doesNotHaveDuplicates();
+            for (int i : new int[]{0, FietsDAO.BATCH_GROOTTE, fietsen.size() - 1}) {
+                Fiets opgehaald = fietsDAO.zoekFiets(registratienummers.get(i));
+                assertThat(opgehaald.getOpmerking()).isEqualTo("levering " + i);
+                assertThat(opgehaald.getStandplaats()).isEqualTo(fietsen.get(i).getStandplaats());
+                assertThat(opgehaald.getStatus()).isEqualTo(Status.actief);
+            }
+        } finally {
+            for (Integer regnr : registratienummers) {
+                Removals.removeFiets(regnr);
+            }
+        }
+    }
+
+    @Test
+    public void wijzigenToestandFietsen() throws Exception {
+        List<Integer> registratienummers = new ArrayList<>();
+        try {
+            registratienummers = fietsDAO.toevoegenFietsen(Arrays.asList(
+                    maakFiets(Status.actief, Standplaats.Kortrijk, "eerste"),
+                    maakFiets(Status.actief, Standplaats.Brugge, "tweede")));
+
+            assertThat(fietsDAO.wijzigenToestandFietsen(registratienummers, Status.herstel)).isEmpty();
+            for (Integer regnr : registratienummers) {
+                assertThat(fietsDAO.zoekFiets(regnr).getStatus()).isEqualTo(Status.herstel);
+            }
+
+            List<Integer> metOnbekende = new ArrayList<>(registratienummers);
+            metOnbekende.add(-1);
+            assertThat(fietsDAO.wijzigenToestandFietsen(metOnbekende, Status.uit_omloop)).containsExactly(-1);
+            for (Integer regnr : registratienummers) {
+                assertThat(fietsDAO.zoekFiets(regnr).getStatus()).isEqualTo(Status.herstel);
+            }
+        } finally {
+            for (Integer regnr : registratienummers) {
+                Removals.removeFiets(regnr);
+            }
+        }
+    }
+
+    @Test
+    public void zoekAlleBeschikbareFietsen_EnkelOpenstaandeRittenTellen() throws Exception {
+        RitDAO ritDAO = new RitDAO();
+        LidDAO lidDAO = new LidDAO();
+        Lid lid = new Lid();
+        lid.setRijksregisternummer(new Rijksregisternummer("64101612335"));
+        lid.setVoornaam("Andres");
+        lid.setNaam("Sabbe");
+        lid.setEmailadres("sabbeandres@outlook.com");
+        lid.setStart_lidmaatschap(LocalDate.now());
+        Fiets vrij = maakFiets(Status.actief, Standplaats.Kortrijk, "Fiets met afgesloten ritten");
+        Fiets verhuurd = maakFiets(Status.actief, Standplaats.Brugge, "Fiets met openstaande rit");
+        List<Integer> ritten = new ArrayList<>();
+        try {
+            lidDAO.toevoegenLid(lid);
+            vrij.setRegistratienummer(fietsDAO.toevoegenFiets(vrij));
+            verhuurd.setRegistratienummer(fietsDAO.toevoegenFiets(verhuurd));
+            for (int i = 0; i < 3; i++) {
+                Rit rit = new Rit();
+                rit.setLidRijksregisternummer(new Rijksregisternummer(lid.getRijksregisternummer()));
+                rit.setFietsRegistratienummer(vrij.getRegistratienummer());
+                rit.setId(ritDAO.toevoegenRit(rit));
+                ritten.add(rit.getId());
+                rit.setEindtijd(LocalDateTime.now());
+                rit.setPrijs(BigDecimal.ONE);
+                ritDAO.afsluitenRit(rit);
+            }
+            Rit open = new Rit();
+            open.setLidRijksregisternummer(new Rijksregisternummer(lid.getRijksregisternummer()));
+            open.setFietsRegistratienummer(verhuurd.getRegistratienummer());
+            ritten.add(ritDAO.toevoegenRit(open));
+
+            EnumMap<Standplaats, Integer> perStandplaats = fietsDAO.telBeschikbareFietsenPerStandplaats();
+            assertThat(perStandplaats).hasSize(Standplaats.values().length);
+            assertThat(perStandplaats.values().stream().mapToInt(Integer::intValue).sum())
+                    .isEqualTo(fietsDAO.zoekAlleBeschikbareFietsen().size());
+
+            List<Integer> beschikbaar = fietsDAO.zoekAlleBeschikbareFietsen().stream()
+                    .map(Fiets::getRegistratienummer).collect(Collectors.toList());
+
+            assertThat(beschikbaar).containsOnlyOnce(vrij.getRegistratienummer());
+            assertThat(beschikbaar).doesNotContain(verhuurd.getRegistratienummer());
+            assertThat(fietsDAO.isBeschikbaar(vrij.getRegistratienummer())).isTrue();
+            assertThat(fietsDAO.isBeschikbaar(verhuurd.getRegistratienummer())).isFalse();
+            assertThat(ritDAO.zoekAlleActieveRitten()).extracting(Rit::getId).contains(ritten.get(3));
+
+            fietsDAO.wijzigenToestandFiets(vrij.getRegistratienummer(), Status.herstel);
+            assertThat(fietsDAO.isBeschikbaar(vrij.getRegistratienummer())).isFalse();
+        } finally {
+            for (Integer id : ritten) {
+                Removals.removeRit(id);
+            }
+            Removals.removeFiets(vrij.getRegistratienummer());
+            Removals.removeFiets(verhuurd.getRegistratienummer());
+            Removals.removeLid(lid.getRijksregisternummer());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package be.vives.ti.dao;
 
+import be.vives.ti.dao.connect.ConnectionManager;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.exception.DBException;
@@ -7,8 +8,13 @@ import be.vives.ti.extra.Removals;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import java.sql.Connection;
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -329,4 +335,78 @@ public class LidDAOTest {
             Removals.removeLid("75120513714");
         }
     }
+
+    @Test
+    public void streamAlleLeden() throws Exception {
+        try {
+            Lid lid1 = maakLid(new Rijksregisternummer("64101612335"), "Andres", "Sabbe", "sabbeandres@outlook.com", LocalDate.now(), "dit is een opmerking");
+            assertThat(lidDAO.toevoegenLid(lid1)).isTrue();
+
+            List<Lid> alleLeden = lidDAO.zoekAlleLeden();
+            try (Stream<Lid> leden = lidDAO.streamAlleLeden(2)) {
+                assertThat(leden.map(Lid::getRijksregisternummer).collect(Collectors.toList()))
+                        .containsExactlyElementsOf(alleLeden.stream().map(Lid::getRijksregisternummer).collect(Collectors.toList()))
+                        .contains("64101612335");
+            }
+        } finally {
+            Removals.removeLid("64101612335");
+        }
+    }
+
+    @Test
+    public void zoekLedenNa() throws Exception {
+        try {
+            LocalDate huidigTijdstip = LocalDate.now();
+            assertThat(lidDAO.toevoegenLid(maakLid(new Rijksregisternummer("64101612335"), "Andres", "Sabbe", "sabbeandres@outlook.com", huidigTijdstip, ""))).isTrue();
+            assertThat(lidDAO.toevoegenLid(maakLid(new Rijksregisternummer("75120513714"), "Franky", "Testman", "frankytestman@outlook.com", huidigTijdstip, ""))).isTrue();
+            assertThat(lidDAO.toevoegenLid(maakLid(new Rijksregisternummer("93051822361"), "Pieter", "Post", "pieterpost@outlook.com", huidigTijdstip, ""))).isTrue();
+
+            List<Lid> pagina = lidDAO.zoekLedenNa("64101612335", 1);
+            assertThat(pagina).extracting(Lid::getRijksregisternummer).containsExactly("75120513714");
+
+            pagina = lidDAO.zoekLedenNa("75120513714", 10);
+            assertThat(pagina).extracting(Lid::getRijksregisternummer).startsWith("93051822361");
+        } finally {
+            Removals.removeLid("64101612335");
+            Removals.removeLid("93051822361");
+            Removals.removeLid("75120513714");
+        }
+    }
+
+    @Test
+    public void toevoegenLedenEnZoekBestaandeRijksregisternummers() throws Exception {
+        try {
+            LocalDate huidigTijdstip = LocalDate.now();
+            List<Lid> leden = Stream.of(
+                    maakLid(new Rijksregisternummer("64101612335"), "Andres", "Sabbe", "sabbeandres@outlook.com", huidigTijdstip, null),
+                    maakLid(new Rijksregisternummer("93051822361"), "Pieter", "Post", "pieterpost@gmail.com", huidigTijdstip, "opmerking"))
+                    .collect(Collectors.toList());
+            assertThat(lidDAO.toevoegenLeden(leden)).isEqualTo(2);
+            assertThat(lidDAO.zoekLid("93051822361").getOpmerking()).isEqualTo("opmerking");
+
+            assertThat(lidDAO.zoekBestaandeRijksregisternummers(Stream.of("64101612335", "75120513714", "93051822361")
+                    .collect(Collectors.toList()))).containsExactlyInAnyOrder("64101612335", "93051822361");
+            assertThat(lidDAO.zoekBestaandeRijksregisternummers(Collections.emptyList())).isEmpty();
+        } finally {
+            Removals.removeLid("64101612335");
+            Removals.removeLid("93051822361");
+        }
+    }
+
+    @Test
+    public void zoekLidOngeldigRijksregisternummerInDatabank() throws Exception {
+        try {
+            try (Connection conn = ConnectionManager.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("insert into lid(rijksregisternummer, voornaam, naam, emailadres, start_lidmaatschap)"
+                        + " values ('64101612336', 'Andres', 'Sabbe', 'sabbeandres@outlook.com', current_date)");
+            }
+
+            assertThatThrownBy(() -> lidDAO.zoekLid("64101612336"))
+                    .isInstanceOf(DBException.class)
+                    .hasMessageStartingWith("SQL-exception in getLidUitDatabase - ");
+        } finally {
+            Removals.removeLid("64101612336");
+        }
+    }
 }
@@ -1,11 +1,16 @@
 package be.vives.ti.dao;
 
+import be.vives.ti.dao.connect.ConnectionManager;
 import be.vives.ti.databag.Fiets;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.databag.Rit;
+import be.vives.ti.databag.RitTotaal;
+import be.vives.ti.datatype.Groepering;
 import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.datatype.Standplaats;
 import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
 import be.vives.ti.extra.Removals;
 import org.junit.After;
@@ -14,10 +19,24 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -42,6 +61,12 @@ public class RitDAOTest {
         return rit;
     }
 
+    private void sluitAf(Rit rit) throws DBException {
+        rit.setEindtijd(LocalDateTime.now());
+        rit.setPrijs(BigDecimal.valueOf(20));
+        ritDAO.afsluitenRit(rit);
+    }
+
     private Lid maakLid(Rijksregisternummer rijksregisternummer, String voornaam, String naam, String emailadres, LocalDate start_lidmaatschap, String opmerking) {
         Lid lid = new Lid();
         lid.setRijksregisternummer(rijksregisternummer);
@@ -116,6 +141,224 @@ public class RitDAOTest {
         assertThatThrownBy(() -> ritDAO.toevoegenRit(toevoegenRit)).isInstanceOf(DBException.class);
     }
 
+    @Test
+    public void huurFiets() throws Exception {
+        Rit huurRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        try {
+            huurRit.setId(ritDAO.huurFiets(huurRit));
+            Rit ophaalRit = ritDAO.zoekRit(huurRit.getId());
+
+            assertThat(ophaalRit.getLidRijksregisternummer()).isEqualTo(huurRit.getLidRijksregisternummer());
+            assertThat(ophaalRit.getFietsRegistratienummer()).isEqualTo(huurRit.getFietsRegistratienummer());
+            assertThat(ophaalRit.getEindtijd()).isNull();
+        } finally {
+            Removals.removeRit(huurRit.getId());
+        }
+    }
+
+    @Test
+    public void huurFietsAlInGebruik() throws Exception {
+        Lid lid2 = maakLid(new Rijksregisternummer("93051822361"), "Pieter", "Post", "pieterpost@outlook.com", LocalDate.now(), "");
+        Rit eersteRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        Rit tweedeRit = maakRit(new Rijksregisternummer(lid2.getRijksregisternummer()), fiets.getRegistratienummer());
+        try {
+            lidDAO.toevoegenLid(lid2);
+            eersteRit.setId(ritDAO.huurFiets(eersteRit));
+
+            assertThatThrownBy(() -> ritDAO.huurFiets(tweedeRit))
+                    .isInstanceOf(ApplicationException.class)
+                    .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK);
+        } finally {
+            Removals.removeRit(eersteRit.getId());
+            Removals.removeLid(lid2.getRijksregisternummer());
+        }
+    }
+
+    @Test
+    public void huurFietsLidHuurtAl() throws Exception {
+        Rit eersteRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        Rit tweedeRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets2.getRegistratienummer());
+        try {
+            eersteRit.setId(ritDAO.huurFiets(eersteRit));
+
+            assertThatThrownBy(() -> ritDAO.huurFiets(tweedeRit))
+                    .isInstanceOf(ApplicationException.class)
+                    .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.RIT_LID_HUURT);
+        } finally {
+            Removals.removeRit(eersteRit.getId());
+        }
+    }
+
+    @Test
+    public void huurFietsNietActief() throws Exception {
+        // toevoegenFiets zet de status altijd op actief
+        fietsDAO.wijzigenToestandFiets(fiets4.getRegistratienummer(), Status.herstel);
+        Rit huurRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets4.getRegistratienummer());
+        assertThatThrownBy(() -> ritDAO.huurFiets(huurRit))
+                .isInstanceOf(ApplicationException.class)
+                .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.FIETS_STATUS_NIET_ACTIEF);
+    }
+
+    @Test
+    public void huurFietsDatabankControle() throws Exception {
+        RitDAO databank = new RitDAO("databank");
+        Lid lid2 = maakLid(new Rijksregisternummer("93051822361"), "Pieter", "Post", "pieterpost@outlook.com", LocalDate.now(), "");
+        Rit eersteRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        Rit zelfdeFiets = maakRit(new Rijksregisternummer(lid2.getRijksregisternummer()), fiets.getRegistratienummer());
+        Rit zelfdeLid = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets2.getRegistratienummer());
+        try {
+            lidDAO.toevoegenLid(lid2);
+            eersteRit.setId(databank.huurFiets(eersteRit));
+
+            assertThatThrownBy(() -> databank.huurFiets(zelfdeFiets))
+                    .isInstanceOf(ApplicationException.class)
+                    .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK);
+            assertThatThrownBy(() -> databank.huurFiets(zelfdeLid))
+                    .isInstanceOf(ApplicationException.class)
+                    .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.RIT_LID_HUURT);
+        } finally {
+            Removals.removeRit(eersteRit.getId());
+            Removals.removeLid(lid2.getRijksregisternummer());
+        }
+    }
+
+    @Test
+    public void vertaalSchendingTweedeActieveRit() throws Exception {
+        Lid lid2 = maakLid(new Rijksregisternummer("93051822361"), "Pieter", "Post", "pieterpost@outlook.com", LocalDate.now(), "");
+        Rit eersteRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        try {
+            lidDAO.toevoegenLid(lid2);
+            eersteRit.setId(ritDAO.toevoegenRit(eersteRit));
+
+            // rechtstreeks toevoegen, zonder de controle van huurFiets: enkel de unieke indexen weigeren
+            assertThat(RitDAO.vertaalSchending(voegActieveRitToe(lid2.getRijksregisternummer(), fiets.getRegistratienummer())))
+                    .isEqualTo(ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK);
+            assertThat(RitDAO.vertaalSchending(voegActieveRitToe(lid.getRijksregisternummer(), fiets2.getRegistratienummer())))
+                    .isEqualTo(ApplicationExceptionType.RIT_LID_HUURT);
+            assertThat(RitDAO.vertaalSchending(voegActieveRitToe(lid2.getRijksregisternummer(), 999999)))
+                    .isEqualTo(ApplicationExceptionType.FIETS_BESTAAT_NIET);
+            assertThat(RitDAO.vertaalSchending(new SQLException("verbinding verbroken", "08S01")))
+                    .isNull();
+        } finally {
+            Removals.removeRit(eersteRit.getId());
+            Removals.removeLid(lid2.getRijksregisternummer());
+        }
+    }
+
+    private SQLException voegActieveRitToe(String rr, int regnr) throws Exception {
+        try (Connection conn = ConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "insert into rit(lid_rijksregisternummer, fiets_registratienummer) values(?,?)")) {
+            stmt.setString(1, rr);
+            stmt.setInt(2, regnr);
+            stmt.executeUpdate();
+        } catch (SQLException sqlEx) {
+            return sqlEx;
+        }
+        throw new AssertionError("tweede actieve rit werd niet geweigerd");
+    }
+
+    @Test
+    public void huurFietsDatabankControleGelijktijdig() throws Exception {
+        RitDAO databank = new RitDAO("databank");
+        Lid lid2 = maakLid(new Rijksregisternummer("93051822361"), "Pieter", "Post", "pieterpost@outlook.com", LocalDate.now(), "");
+        ExecutorService balies = Executors.newFixedThreadPool(2);
+        try {
+            lidDAO.toevoegenLid(lid2);
+            for (int ronde = 0; ronde < 20; ronde++) {
+                // twee balies verhuren op hetzelfde moment dezelfde fiets aan een ander lid
+                CyclicBarrier start = new CyclicBarrier(2);
+                List<Future<Integer>> pogingen = new ArrayList<>();
+                for (Lid huurder : new Lid[]{lid, lid2}) {
+                    Rit huurRit = maakRit(new Rijksregisternummer(huurder.getRijksregisternummer()), fiets.getRegistratienummer());
+                    pogingen.add(balies.submit(() -> {
+                        start.await();
+                        return databank.huurFiets(huurRit);
+                    }));
+                }
+
+                List<Integer> gelukt = new ArrayList<>();
+                for (Future<Integer> poging : pogingen) {
+                    try {
+                        gelukt.add(poging.get(10, TimeUnit.SECONDS));
+                    } catch (ExecutionException ex) {
+                        assertThat(ex.getCause())
+                                .isInstanceOf(ApplicationException.class)
+                                .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK);
+                    }
+                }
+                try {
+                    assertThat(gelukt).hasSize(1);
+                    assertThat(ritDAO.zoekActieveRittenVanFiets(fiets.getRegistratienummer())).hasSize(1);
+                } finally {
+                    for (Integer id : gelukt) {
+                        Removals.removeRit(id);
+                    }
+                }
+            }
+        } finally {
+            balies.shutdownNow();
+            Removals.removeLid(lid2.getRijksregisternummer());
+        }
+    }
+
+    @Test
+    public void afsluitenRitGelijktijdig() throws Exception {
+        ExecutorService kiosken = Executors.newFixedThreadPool(2);
+        try {
+            for (int ronde = 0; ronde < 20; ronde++) {
+                Rit open = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+                open.setId(ritDAO.toevoegenRit(open));
+                try {
+                    // twee kiosken sluiten op hetzelfde moment dezelfde rit af
+                    CyclicBarrier start = new CyclicBarrier(2);
+                    List<Future<Integer>> pogingen = new ArrayList<>();
+                    for (int kiosk = 0; kiosk < 2; kiosk++) {
+                        Rit afTeSluiten = ritDAO.zoekRit(open.getId());
+                        afTeSluiten.setEindtijd(LocalDateTime.now());
+                        afTeSluiten.setPrijs(BigDecimal.valueOf(kiosk + 1));
+                        pogingen.add(kiosken.submit(() -> {
+                            start.await();
+                            return ritDAO.afsluitenRit(afTeSluiten);
+                        }));
+                    }
+                    int afgesloten = 0;
+                    for (Future<Integer> poging : pogingen) {
+                        afgesloten += poging.get(10, TimeUnit.SECONDS);
+                    }
+                    assertThat(afgesloten).isEqualTo(1);
+                } finally {
+                    Removals.removeRit(open.getId());
+                }
+            }
+            try (Connection conn = ConnectionManager.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet r = stmt.executeQuery("select sum(aantal_ritten) from rit_dagtotaal"
+                         + " where fiets_registratienummer = " + fiets.getRegistratienummer())) {
+                assertThat(r.next()).isTrue();
+                assertThat(r.getInt(1)).isEqualTo(20);
+            }
+        } finally {
+            kiosken.shutdownNow();
+        }
+    }
+
+    @Test
+    public void huurFietsOnbestaandeFiets() throws Exception {
+        Rit huurRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), 999999);
+        assertThatThrownBy(() -> ritDAO.huurFiets(huurRit))
+                .isInstanceOf(ApplicationException.class)
+                .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.FIETS_BESTAAT_NIET);
+    }
+
+    @Test
+    public void huurFietsOnbestaandLid() throws Exception {
+        Rit huurRit = maakRit(new Rijksregisternummer("01031200101"), fiets.getRegistratienummer());
+        assertThatThrownBy(() -> ritDAO.huurFiets(huurRit))
+                .isInstanceOf(ApplicationException.class)
+                .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.LID_BESTAAT_NIET);
+    }
+
     @Test
     public void afsluitenRit() throws Exception {
         Rit toevoegenRit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
@@ -136,7 +379,7 @@ public class RitDAOTest {
             assertThat(ophaalRit.getFietsRegistratienummer()).isEqualTo(toevoegenRit.getFietsRegistratienummer());
             assertThat(ophaalRit.getStarttijd()).isNotNull();
             assertThat(ophaalRit.getEindtijd()).isNotNull();
-            assertThat(ophaalRit.getPrijs()).isEqualTo(toevoegenRit.getPrijs());
+            assertThat(ophaalRit.getPrijs()).isEqualByComparingTo(toevoegenRit.getPrijs());
         }finally {
             Removals.removeRit(toevoegenRit.getId());
         }
@@ -178,9 +421,11 @@ public class RitDAOTest {
         Rit rit2 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets2.getRegistratienummer());
         Rit rit3 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets3.getRegistratienummer());
         try {
-            //Ritten
+            //Ritten, een lid heeft maximaal een actieve rit
             rit2.setId(ritDAO.toevoegenRit(rit2));
+            sluitAf(rit2);
             rit1.setId(ritDAO.toevoegenRit(rit1));
+            sluitAf(rit1);
             rit3.setId(ritDAO.toevoegenRit(rit3));
 
             Rit eersteRit = ritDAO.zoekEersteRitVanLid(lid.getRijksregisternummer());
@@ -211,18 +456,12 @@ public class RitDAOTest {
 
         try {
 
-            rit2.setId(ritDAO.toevoegenRit(rit2));
+            // een lid heeft maximaal een actieve rit
             rit1.setId(ritDAO.toevoegenRit(rit1));
+            sluitAf(rit1);
             rit3.setId(ritDAO.toevoegenRit(rit3));
-
-            rit1.setEindtijd(LocalDateTime.now());
-            rit3.setEindtijd(LocalDateTime.now());
-
-            rit1.setPrijs(BigDecimal.valueOf(20));
-            rit3.setPrijs(BigDecimal.valueOf(20));
-
-            ritDAO.afsluitenRit(rit1);
-            ritDAO.afsluitenRit(rit3);
+            sluitAf(rit3);
+            rit2.setId(ritDAO.toevoegenRit(rit2));
 
             List<Rit> ophaalRitten = ritDAO.zoekActieveRittenVanLid(lid.getRijksregisternummer());
             assertThat(ophaalRitten.size()).isEqualTo(1);
@@ -260,19 +499,13 @@ public class RitDAOTest {
 
         try {
 
+            // een lid heeft maximaal een actieve rit
             rit2.setId(ritDAO.toevoegenRit(rit2));
+            sluitAf(rit2);
             rit1.setId(ritDAO.toevoegenRit(rit1));
+            sluitAf(rit1);
             rit3.setId(ritDAO.toevoegenRit(rit3));
 
-            rit1.setEindtijd(LocalDateTime.now());
-            rit2.setEindtijd(LocalDateTime.now());
-
-            rit1.setPrijs(BigDecimal.valueOf(20));
-            rit2.setPrijs(BigDecimal.valueOf(20));
-
-            ritDAO.afsluitenRit(rit1);
-            ritDAO.afsluitenRit(rit2);
-
             List<Rit> ophaalRitten = ritDAO.zoekActieveRittenVanFiets(fiets3.getRegistratienummer());
             assertThat(ophaalRitten.size()).isEqualTo(1);
 
@@ -290,4 +523,130 @@ public class RitDAOTest {
             Removals.removeRit(rit3.getId());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void streamAlleRitten() throws Exception {
+        Rit rit1 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        Rit rit2 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets2.getRegistratienummer());
+        try {
+            rit1.setId(ritDAO.toevoegenRit(rit1));
+            sluitAf(rit1);
+            rit2.setId(ritDAO.toevoegenRit(rit2));
+
+            List<Rit> alleRitten = ritDAO.zoekAlleRitten();
+            List<Rit> gestreamd;
+            // kleine fetchgrootte zodat de ritten in meerdere keren opgehaald worden
+            try (Stream<Rit> ritten = ritDAO.streamAlleRitten(1)) {
+                gestreamd = ritten.collect(Collectors.toList());
+            }
+
+            assertThat(gestreamd).extracting(Rit::getId)
+                    .containsExactlyElementsOf(alleRitten.stream().map(Rit::getId).collect(Collectors.toList()))
+                    .contains(rit1.getId(), rit2.getId());
+        } finally {
+            Removals.removeRit(rit1.getId());
+            Removals.removeRit(rit2.getId());
+        }
+    }
+
+    @Test
+    public void streamRitten() throws Exception {
+        Rit rit1 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        Rit rit2 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets2.getRegistratienummer());
+        try {
+            LocalDateTime van = LocalDateTime.now().minusMinutes(1);
+            rit1.setId(ritDAO.toevoegenRit(rit1));
+            sluitAf(rit1);
+            rit2.setId(ritDAO.toevoegenRit(rit2));
+            LocalDateTime tot = LocalDateTime.now().plusMinutes(1);
+
+            try (Stream<Rit> ritten = ritDAO.streamRitten(van, tot, 1)) {
+                assertThat(ritten.map(Rit::getId).collect(Collectors.toList())).containsExactly(rit1.getId(), rit2.getId());
+            }
+            try (Stream<Rit> ritten = ritDAO.streamRitten(van, null)) {
+                assertThat(ritten.map(Rit::getId).collect(Collectors.toList())).containsExactly(rit1.getId(), rit2.getId());
+            }
+            try (Stream<Rit> ritten = ritDAO.streamRitten(null, van)) {
+                assertThat(ritten.map(Rit::getId).collect(Collectors.toList())).doesNotContain(rit1.getId(), rit2.getId());
+            }
+            try (Stream<Rit> ritten = ritDAO.streamRitten(tot, null)) {
+                assertThat(ritten.count()).isEqualTo(0);
+            }
+        } finally {
+            Removals.removeRit(rit1.getId());
+            Removals.removeRit(rit2.getId());
+        }
+    }
+
+    @Test
+    public void totaliseerRitten() throws Exception {
+        Rit rit1 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        Rit rit2 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets2.getRegistratienummer());
+        try {
+            LocalDateTime van = LocalDateTime.now().minusMinutes(1);
+            rit1.setId(ritDAO.toevoegenRit(rit1));
+            rit1.setEindtijd(ritDAO.zoekRit(rit1.getId()).getStarttijd().plusHours(2));
+            rit1.setPrijs(BigDecimal.valueOf(20));
+            ritDAO.afsluitenRit(rit1);
+            rit2.setId(ritDAO.toevoegenRit(rit2));
+            LocalDateTime tot = LocalDateTime.now().plusMinutes(1);
+
+            List<RitTotaal> perStandplaats = ritDAO.totaliseerRitten(Groepering.STANDPLAATS, van, tot);
+            assertThat(perStandplaats).extracting(RitTotaal::getGroep).containsExactlyInAnyOrder("Kortrijk", "Brugge");
+            RitTotaal kortrijk = perStandplaats.stream().filter(t -> t.getGroep().equals("Kortrijk")).findFirst().get();
+            assertThat(kortrijk.getAantalRitten()).isEqualTo(1);
+            assertThat(kortrijk.getOmzet()).isEqualByComparingTo("20");
+            assertThat(kortrijk.getGemiddeldeDuur()).isEqualTo(Duration.ofHours(2));
+
+            List<RitTotaal> perLid = ritDAO.totaliseerRitten(Groepering.LID, van, tot);
+            assertThat(perLid).hasSize(1);
+            assertThat(perLid.get(0).getGroep()).isEqualTo(lid.getRijksregisternummer());
+            assertThat(perLid.get(0).getAantalRitten()).isEqualTo(2);
+            assertThat(perLid.get(0).getOmzet()).isEqualByComparingTo("20");
+
+            RitTotaal fiets2Totaal = ritDAO.totaliseerRitten(Groepering.FIETS, van, tot).stream()
+                    .filter(t -> t.getGroep().equals(String.valueOf(fiets2.getRegistratienummer()))).findFirst().get();
+            assertThat(fiets2Totaal.getOmzet()).isEqualByComparingTo("0");
+            assertThat(fiets2Totaal.getGemiddeldeDuur()).isNull();
+
+            assertThat(ritDAO.totaliseerRitten(Groepering.DAG, van, tot)).extracting(RitTotaal::getGroep)
+                    .containsExactly(rit1.getEindtijd().minusHours(2).toLocalDate().toString());
+            assertThat(ritDAO.totaliseerRitten(Groepering.MAAND, van, tot)).extracting(RitTotaal::getGroep)
+                    .containsExactly(rit1.getEindtijd().minusHours(2).toLocalDate().toString().substring(0, 7));
+            assertThat(ritDAO.totaliseerRitten(Groepering.MAAND, tot, null)).isEmpty();
+        } finally {
+            Removals.removeRit(rit1.getId());
+            Removals.removeRit(rit2.getId());
+        }
+    }
+
+    @Test
+    public void zoekRittenVoor() throws Exception {
+        Rit rit1 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets.getRegistratienummer());
+        Rit rit2 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets2.getRegistratienummer());
+        Rit rit3 = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fiets3.getRegistratienummer());
+        try {
+            rit1.setId(ritDAO.toevoegenRit(rit1));
+            sluitAf(rit1);
+            rit2.setId(ritDAO.toevoegenRit(rit2));
+            sluitAf(rit2);
+            rit3.setId(ritDAO.toevoegenRit(rit3));
+
+            List<Rit> pagina = ritDAO.zoekRittenVoor(null, 2);
+            assertThat(pagina).extracting(Rit::getId).containsExactly(rit3.getId(), rit2.getId());
+
+            pagina = ritDAO.zoekRittenVoor(rit3.getId(), 1);
+            assertThat(pagina).extracting(Rit::getId).containsExactly(rit2.getId());
+
+            pagina = ritDAO.zoekRittenVoor(rit2.getId(), 10);
+            assertThat(pagina).extracting(Rit::getId).startsWith(rit1.getId());
+
+            assertThat(ritDAO.zoekRittenVoor(rit1.getId(), 10)).extracting(Rit::getId)
+                    .allMatch(id -> id < rit1.getId());
+        } finally {
+            Removals.removeRit(rit1.getId());
+            Removals.removeRit(rit2.getId());
+            Removals.removeRit(rit3.getId());
+        }
+    }
+}
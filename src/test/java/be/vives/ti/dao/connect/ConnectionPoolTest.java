@@ -0,0 +1,198 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.exception.DBException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class ConnectionPoolTest {
+    private final List<Connection> gemaakt = new CopyOnWriteArrayList<>();
+    private final List<PreparedStatement> voorbereid = new CopyOnWriteArrayList<>();
+    private ConnectionPool pool;
+
+    private ConnectionFactory factory() {
+        return () -> {
+            Connection c = mock(Connection.class);
+            when(c.isValid(anyInt())).thenReturn(true);
+            when(c.getAutoCommit()).thenReturn(true);
+            when(c.prepareStatement(anyString(), anyInt())).thenAnswer(i -> {
+                PreparedStatement stmt = mock(PreparedStatement.class);
+                voorbereid.add(stmt);
+                return stmt;
+            });
+            gemaakt.add(c);
+            return c;
+        };
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.sluit();
+        }
+    }
+
+    @Test
+    public void geefConnectie_hergebruiktTeruggegevenConnectie() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 2, 60000, 100, 0, 1, 0);
+
+        Connection eerste = pool.geefConnectie();
+        eerste.close();
+        Connection tweede = pool.geefConnectie();
+        tweede.close();
+
+        assertThat(gemaakt).hasSize(1);
+        verify(gemaakt.get(0), never()).close();
+        assertThat(pool.getAantalVrij()).isEqualTo(1);
+    }
+
+    @Test
+    public void geefConnectie_maximumBereikt() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 1, 60000, 50, 0, 1, 0);
+
+        Connection uitgeleend = pool.geefConnectie();
+
+        assertThatThrownBy(() -> pool.geefConnectie()).isInstanceOf(DBException.class);
+
+        uitgeleend.close();
+        assertThat(pool.geefConnectie()).isNotNull();
+    }
+
+    @Test
+    public void geefConnectie_ongeldigeConnectieWordtVervangen() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 2, 60000, 100, 0, 1, 0);
+
+        pool.geefConnectie().close();
+        when(gemaakt.get(0).isValid(anyInt())).thenReturn(false);
+
+        pool.geefConnectie().close();
+
+        assertThat(gemaakt).hasSize(2);
+        verify(gemaakt.get(0)).close();
+        assertThat(pool.getAantalOpen()).isEqualTo(1);
+    }
+
+    @Test
+    public void close_teruggegevenConnectieNietMeerBruikbaar() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 2, 60000, 100, 0, 1, 0);
+
+        Connection conn = pool.geefConnectie();
+        conn.close();
+
+        assertThat(conn.isClosed()).isTrue();
+        assertThatThrownBy(() -> conn.prepareStatement("select 1")).isInstanceOf(java.sql.SQLException.class);
+    }
+
+    @Test
+    public void close_openstaandeTransactieWordtTeruggedraaid() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 2, 60000, 100, 0, 1, 0);
+
+        Connection conn = pool.geefConnectie();
+        when(gemaakt.get(0).getAutoCommit()).thenReturn(false);
+        conn.close();
+
+        verify(gemaakt.get(0)).rollback();
+        verify(gemaakt.get(0)).setAutoCommit(true);
+    }
+
+    @Test
+    public void onderhoud_sluitInactieveConnectiesBovenMinimum() throws Exception {
+        pool = new ConnectionPool(factory(), 1, 3, 0, 100, 0, 1, 0);
+
+        Connection c1 = pool.geefConnectie();
+        Connection c2 = pool.geefConnectie();
+        Connection c3 = pool.geefConnectie();
+        c1.close();
+        c2.close();
+        c3.close();
+        Thread.sleep(5);
+
+        pool.onderhoud();
+
+        assertThat(pool.getAantalOpen()).isEqualTo(1);
+        assertThat(pool.getAantalVrij()).isEqualTo(1);
+    }
+
+    @Test
+    public void prepareStatement_hergebruiktStatementMetZelfdeSql() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 1, 60000, 100, 0, 1, 10);
+
+        try (Connection conn = pool.geefConnectie()) {
+            try (PreparedStatement stmt = conn.prepareStatement("select 1")) {
+                stmt.execute();
+            }
+        }
+        try (Connection conn = pool.geefConnectie()) {
+            try (PreparedStatement stmt = conn.prepareStatement("select 1")) {
+                stmt.execute();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("select 2")) {
+                stmt.execute();
+            }
+        }
+
+        verify(gemaakt.get(0), times(1)).prepareStatement("select 1", Statement.NO_GENERATED_KEYS);
+        assertThat(pool.getStatementCacheTreffers()).isEqualTo(1);
+        assertThat(pool.getStatementCacheMissers()).isEqualTo(2);
+    }
+
+    @Test
+    public void prepareStatement_statementBlijftOpenNaClose() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 1, 60000, 100, 0, 1, 10);
+
+        try (Connection conn = pool.geefConnectie()) {
+            PreparedStatement stmt = conn.prepareStatement("select 1");
+            stmt.close();
+            assertThat(stmt.isClosed()).isTrue();
+        }
+
+        verify(voorbereid.get(0), never()).close();
+        verify(voorbereid.get(0)).clearParameters();
+    }
+
+    @Test
+    public void prepareStatement_instellingenWordenTeruggezet() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 1, 60000, 100, 0, 1, 10);
+
+        try (Connection conn = pool.geefConnectie()) {
+            try (PreparedStatement stmt = conn.prepareStatement("select 1")) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                stmt.setMaxRows(5);
+                stmt.setQueryTimeout(30);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("select 1")) {
+                stmt.execute();
+            }
+        }
+
+        PreparedStatement fysiek = voorbereid.get(0);
+        verify(fysiek).setFetchSize(0);
+        verify(fysiek).setMaxRows(0);
+        verify(fysiek).setQueryTimeout(0);
+        verify(fysiek, times(2)).clearParameters();
+    }
+
+    @Test
+    public void getConnection_geeftUitgeleendeConnectie() throws Exception {
+        pool = new ConnectionPool(factory(), 0, 1, 60000, 100, 0, 1, 10);
+
+        try (Connection conn = pool.geefConnectie()) {
+            try (PreparedStatement gecachet = conn.prepareStatement("select 1")) {
+                assertThat(gecachet.getConnection()).isSameAs(conn);
+                // geneste query met dezelfde SQL: niet gecachet
+                try (PreparedStatement genest = conn.prepareStatement("select 1")) {
+                    assertThat(genest.getConnection()).isSameAs(conn);
+                }
+            }
+        }
+    }
+}
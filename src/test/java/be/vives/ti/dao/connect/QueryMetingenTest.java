@@ -0,0 +1,162 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.databag.Fiets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class QueryMetingenTest {
+    private static final String SELECT = "select id, naam from meting where id > ? order by id";
+
+    private final List<String> logboek = new CopyOnWriteArrayList<>();
+    private Connection h2;
+
+    @Before
+    public void setUp() throws Exception {
+        h2 = DriverManager.getConnection("jdbc:h2:mem:querymetingen", "sa", "");
+        try (Statement stmt = h2.createStatement()) {
+            stmt.execute("create table meting(id int primary key, naam varchar(20))");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ConnectionManager.setQueryMetingen(null);
+        h2.close();
+    }
+
+    private QueryMetingen.QueryStatistiek statistiek(QueryMetingen metingen, String sql) {
+        return metingen.getStatistieken().stream()
+                .filter(s -> s.getSql().equals(sql))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    @Test
+    public void meet_uitvoeren_en_doorlopen_per_sql() throws Exception {
+        QueryMetingen metingen = new QueryMetingen(0, 2, logboek::add);
+        String insert = "insert into meting(id, naam) values(?, ?)";
+        try (Connection conn = metingen.verpak(h2)) {
+            try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+                for (int i = 1; i <= 3; i++) {
+                    stmt.setInt(1, i);
+                    stmt.setString(2, "rij" + i);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                stmt.setInt(1, 4);
+                stmt.setNull(2, Types.VARCHAR);
+                stmt.execute();
+            }
+            for (int keer = 0; keer < 2; keer++) {
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT)) {
+                    stmt.setInt(1, 1);
+                    stmt.execute();
+                    try (ResultSet r = stmt.getResultSet()) {
+                        while (r.next()) {
+                            assertThat(r.getInt("id")).isGreaterThan(1);
+                        }
+                    }
+                }
+            }
+        }
+
+        QueryMetingen.QueryStatistiek toevoegen = statistiek(metingen, insert);
+        assertThat(toevoegen.getVoorbereidingen()).isEqualTo(1);
+        assertThat(toevoegen.getUitvoeringen()).isEqualTo(2);
+        QueryMetingen.QueryStatistiek zoeken = statistiek(metingen, SELECT);
+        assertThat(zoeken.getVoorbereidingen()).isEqualTo(2);
+        assertThat(zoeken.getUitvoeringen()).isEqualTo(2);
+        assertThat(zoeken.getRijen()).isEqualTo(6);
+        assertThat(zoeken.getDoorloopNanos()).isPositive();
+        assertThat(zoeken.getMaxNanos()).isLessThanOrEqualTo(zoeken.getTotaleDuurNanos());
+        assertThat(zoeken.getBron()).isEqualTo(QueryMetingen.BRON_ONBEKEND);
+
+        // drempel 0: elke uitvoering is traag en komt in het logboek, met de parameters zonder hun waarde
+        assertThat(metingen.getAantalTrage()).isEqualTo(4);
+        assertThat(metingen.getAantalUitvoeringen()).isEqualTo(4);
+        assertThat(logboek).hasSize(4);
+        assertThat(logboek).anyMatch(regel -> regel.startsWith("TRAGE QUERY") && regel.endsWith("[1=?, 2=?] batch van 3"));
+        assertThat(logboek).anyMatch(regel -> regel.endsWith("[1=?, 2=null]"));
+        assertThat(logboek).anyMatch(regel -> regel.contains("3 rijen") && regel.endsWith(SELECT + " [1=?]"));
+        assertThat(logboek).noneMatch(regel -> regel.contains("rij3"));
+        assertThat(metingen.rapport()).doesNotContain("rij3");
+
+        List<QueryMetingen.TrageQuery> traagste = metingen.getTraagste();
+        assertThat(traagste).hasSize(2);
+        assertThat(traagste.get(0).getDuurNanos()).isGreaterThanOrEqualTo(traagste.get(1).getDuurNanos());
+        assertThat(metingen.rapport()).contains("Per DAO").contains(SELECT);
+    }
+
+    @Test
+    public void toonWaarden_verbergtTekst() throws Exception {
+        QueryMetingen metingen = new QueryMetingen(0, 2, logboek::add, true);
+        try (Connection conn = metingen.verpak(h2);
+             PreparedStatement stmt = conn.prepareStatement("insert into meting(id, naam) values(?, ?)")) {
+            stmt.setInt(1, 42);
+            stmt.setString(2, "85010112345");
+            stmt.execute();
+        }
+
+        assertThat(logboek).hasSize(1);
+        assertThat(logboek.get(0)).endsWith("[1=42, 2=?]");
+        assertThat(metingen.rapport()).contains("[1=42, 2=?]").doesNotContain("85010112345");
+    }
+
+    @Test
+    public void fout_wordt_geteld_en_doorgegeven() throws Exception {
+        QueryMetingen metingen = new QueryMetingen(-1, 5, logboek::add);
+        String sql = "insert into meting(id, naam) values(?, 'dubbel')";
+        try (Connection conn = metingen.verpak(h2);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, 1);
+            stmt.executeUpdate();
+            assertThatThrownBy(stmt::executeUpdate).hasMessageContaining("PRIMARY KEY");
+        }
+
+        assertThat(statistiek(metingen, sql).getUitvoeringen()).isEqualTo(2);
+        assertThat(statistiek(metingen, sql).getFouten()).isEqualTo(1);
+        assertThat(metingen.getAantalTrage()).isZero();
+        assertThat(logboek).isEmpty();
+    }
+
+    @Test
+    public void bron_is_de_dao_methode() throws Exception {
+        ConnectionManager.initialiseer();
+        QueryMetingen metingen = new QueryMetingen(-1, 5);
+        ConnectionManager.setQueryMetingen(metingen);
+        FietsDAO fietsDAO = new FietsDAO();
+
+        List<Fiets> fietsen = fietsDAO.zoekAlleFietsen();
+        long aantal;
+        try (Stream<Fiets> stream = fietsDAO.streamAlleFietsen()) {
+            aantal = stream.count();
+        }
+
+        assertThat(aantal).isEqualTo(fietsen.size());
+        assertThat(metingen.getAantalConnecties()).isEqualTo(2);
+        assertThat(metingen.getStatistieken()).extracting(QueryMetingen.QueryStatistiek::getBron)
+                .contains("FietsDAO.zoekAlleFietsen", "FietsDAO.streamAlleFietsen");
+        assertThat(metingen.getDuurPerDaoNanos()).containsOnlyKeys("FietsDAO");
+        QueryMetingen.QueryStatistiek stream = metingen.getStatistieken().stream()
+                .filter(s -> s.getBron().equals("FietsDAO.streamAlleFietsen"))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        assertThat(stream.getRijen()).isEqualTo(aantal);
+        assertThat(stream.getUitvoeringen()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,185 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.exception.DBException;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SchemaMigratieTest {
+
+    // eigen, lege databank in het geheugen die verdwijnt wanneer de connectie sluit
+    private Connection legeDatabank(String naam) throws SQLException {
+        return DriverManager.getConnection("jdbc:h2:mem:" + naam + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+    }
+
+    // schema zoals het bestond voor er migraties waren
+    private void maakBestaandSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table fiets (registratienummer int not null auto_increment primary key,"
+                    + " status enum('actief', 'herstel', 'uit_omloop') not null,"
+                    + " standplaats enum('Roeselare', 'Torhout', 'Kortrijk', 'Brugge', 'Oostende', 'Tielt') not null,"
+                    + " opmerkingen varchar(500))");
+            stmt.execute("create index ix_fiets_status on fiets (status, registratienummer)");
+            stmt.execute("create table lid (rijksregisternummer varchar(11) not null primary key,"
+                    + " voornaam varchar(50) not null, naam varchar(50) not null, emailadres varchar(100) not null,"
+                    + " start_lidmaatschap date not null, einde_lidmaatschap date, opmerking varchar(500))");
+            stmt.execute("create table rit (id int not null auto_increment primary key,"
+                    + " starttijd timestamp not null default current_timestamp, eindtijd timestamp null,"
+                    + " prijs decimal(10, 0), lid_rijksregisternummer varchar(11) not null,"
+                    + " fiets_registratienummer int not null)");
+        }
+    }
+
+    @Test
+    public void leesMigraties() throws Exception {
+        List<SchemaMigratie.Migratie> migraties = new SchemaMigratie().leesMigraties();
+
+        assertThat(migraties).extracting(m -> m.versie).containsExactly(1, 2, 3, 4, 5);
+        assertThat(migraties.get(1).beschrijving).isEqualTo("indexen");
+        assertThat(migraties).allSatisfy(m -> assertThat(SchemaMigratie.splitsStatements(m.sql)).isNotEmpty());
+    }
+
+    @Test
+    public void leesMigraties_nietOplopend() {
+        assertThatThrownBy(() -> new SchemaMigratie("/database/migraties-ongeldig/").leesMigraties())
+                .isInstanceOf(DBException.class)
+                .hasMessageContaining("V1__eerste.sql");
+    }
+
+    @Test
+    public void leesMigraties_onbestaandeMap() {
+        assertThatThrownBy(() -> new SchemaMigratie("/database/bestaat-niet/").leesMigraties())
+                .isInstanceOf(DBException.class);
+    }
+
+    @Test
+    public void splitsStatements() {
+        String sql = "-- commentaar\n"
+                + "create table a (\n"
+                + "    id int\n"
+                + ");\n"
+                + "\n"
+                + "create index ix_a on a (id);\n"
+                + "insert into a values (1)";
+
+        assertThat(SchemaMigratie.splitsStatements(sql)).containsExactly(
+                "create table a (\n    id int\n)",
+                "create index ix_a on a (id)",
+                "insert into a values (1)");
+    }
+
+    @Test
+    public void checksum_wijzigtMetInhoud() {
+        assertThat(SchemaMigratie.checksum("create index ix_a on a (id);"))
+                .isEqualTo(SchemaMigratie.checksum("create index ix_a on a (id);"))
+                .isNotEqualTo(SchemaMigratie.checksum("create index ix_a on a (id, naam);"));
+    }
+
+    @Test
+    public void migreer_voertOntbrekendeVersiesEenKeerUit() throws Exception {
+        try (Connection conn = legeDatabank("migreer")) {
+            assertThat(new SchemaMigratie().migreer(conn)).containsExactly(1, 2, 3, 4, 5);
+            assertThat(new SchemaMigratie().migreer(conn)).isEmpty();
+
+            try (Statement stmt = conn.createStatement();
+                 ResultSet r = stmt.executeQuery("select count(*) from schema_versie")) {
+                r.next();
+                assertThat(r.getInt(1)).isEqualTo(5);
+            }
+        }
+    }
+
+    @Test
+    public void migreer_gewijzigdScript() throws Exception {
+        try (Connection conn = legeDatabank("gewijzigd")) {
+            new SchemaMigratie().migreer(conn);
+
+            assertThatThrownBy(() -> new SchemaMigratie("/database/migraties-gewijzigd/").migreer(conn))
+                    .isInstanceOf(DBException.class)
+                    .hasMessageContaining("V1__schema.sql");
+        }
+    }
+
+    @Test
+    public void migreer_neemtBestaandeDatabankOver() throws Exception {
+        try (Connection conn = legeDatabank("overname")) {
+            maakBestaandSchema(conn);
+
+            assertThat(new SchemaMigratie().migreer(conn)).containsExactly(1, 2, 3, 4, 5);
+
+            try (ResultSet r = conn.getMetaData().getColumns(null, null, "rit", "prijs")) {
+                assertThat(r.next()).isTrue();
+                assertThat(r.getInt("DECIMAL_DIGITS")).isEqualTo(2);
+            }
+            try (ResultSet r = conn.getMetaData().getIndexInfo(null, null, "rit", false, true)) {
+                List<String> indexen = new java.util.ArrayList<>();
+                while (r.next()) {
+                    indexen.add(r.getString("INDEX_NAME"));
+                }
+                assertThat(indexen).contains("ix_rit_fiets_eindtijd", "ix_rit_lid_eindtijd");
+            }
+        }
+    }
+
+    @Test
+    public void migreer_dubbeleOpenRittenFalenVoorEenWijziging() throws Exception {
+        try (Connection conn = legeDatabank("dubbel")) {
+            maakBestaandSchema(conn);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("insert into fiets (registratienummer, status, standplaats) values (1, 'actief', 'Brugge'), (2, 'actief', 'Brugge')");
+                stmt.execute("insert into lid values ('85010112345', 'Jan', 'Peeters', 'jan@vives.be', '2020-01-01', null, null)");
+                stmt.execute("insert into rit (id, lid_rijksregisternummer, fiets_registratienummer) values (7, '85010112345', 1), (9, '85010112345', 2)");
+            }
+
+            assertThatThrownBy(() -> new SchemaMigratie().migreer(conn))
+                    .isInstanceOf(DBException.class)
+                    .hasMessageContaining("V3__actieve_ritten.sql")
+                    .hasMessageContaining("lid 85010112345 heeft openstaande ritten 7, 9");
+            assertThat(bestaatKolom(conn, "rit", "actieve_fiets")).isFalse();
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("update rit set eindtijd = current_timestamp where id = 7");
+            }
+            assertThat(new SchemaMigratie().migreer(conn)).containsExactly(3, 4, 5);
+        }
+    }
+
+    @Test
+    public void migreer_hervatHalfToegepastScript() throws Exception {
+        try (Connection conn = legeDatabank("half")) {
+            new SchemaMigratie().migreer(conn);
+            // V3 faalde na de kolommen, V5 na de kolom standplaats
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("drop table rit_dagtotaal");
+                stmt.execute("drop index ix_rit_starttijd");
+                stmt.execute("drop index uq_rit_actief_lid");
+                stmt.execute("drop index uq_rit_actieve_fiets");
+                stmt.execute("delete from schema_versie where versie >= 3");
+            }
+
+            assertThat(new SchemaMigratie().migreer(conn)).containsExactly(3, 4, 5);
+            assertThat(bestaatKolom(conn, "rit", "standplaats")).isTrue();
+            try (ResultSet r = conn.getMetaData().getIndexInfo(null, null, "rit", true, true)) {
+                List<String> indexen = new java.util.ArrayList<>();
+                while (r.next()) {
+                    indexen.add(r.getString("INDEX_NAME"));
+                }
+                assertThat(indexen).contains("uq_rit_actief_lid", "uq_rit_actieve_fiets");
+            }
+        }
+    }
+
+    private boolean bestaatKolom(Connection conn, String tabel, String kolom) throws SQLException {
+        try (ResultSet r = conn.getMetaData().getColumns(null, null, tabel, kolom)) {
+            return r.next();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package be.vives.ti.datatype;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RijksregisternummerTest {
+
+    @Test
+    public void isGeldig() {
+        assertThat(Rijksregisternummer.isGeldig("64101612335")).isTrue();
+        // geboren na 1999
+        assertThat(Rijksregisternummer.isGeldig("01031200101")).isTrue();
+        assertThat(Rijksregisternummer.isGeldig("15010100030")).isTrue();
+    }
+
+    @Test
+    public void isGeldig_ongeldig() {
+        assertThat(Rijksregisternummer.isGeldig("64101612336")).isFalse();
+        assertThat(Rijksregisternummer.isGeldig("6410161233")).isFalse();
+        assertThat(Rijksregisternummer.isGeldig("641016123355")).isFalse();
+        assertThat(Rijksregisternummer.isGeldig("6410161233a")).isFalse();
+        assertThat(Rijksregisternummer.isGeldig("-4101612335")).isFalse();
+        assertThat(Rijksregisternummer.isGeldig(null)).isFalse();
+    }
+
+    @Test
+    public void constructor_ongeldig() {
+        assertThatThrownBy(() -> new Rijksregisternummer("64101612336"))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.LID_RIJKSREGISTERNUMMER_ONGELDIG.getMessage());
+        assertThatThrownBy(() -> new Rijksregisternummer(null))
+                .isInstanceOf(ApplicationException.class);
+    }
+
+    @Test
+    public void van_geeftZelfdeObjectTerug() throws ApplicationException {
+        Rijksregisternummer eerste = Rijksregisternummer.van(new String("93051822361"));
+        Rijksregisternummer tweede = Rijksregisternummer.van(new String("93051822361"));
+
+        assertThat(tweede).isSameAs(eerste);
+        assertThat(eerste).isEqualTo(new Rijksregisternummer("93051822361"));
+        assertThat(eerste.hashCode()).isEqualTo(new Rijksregisternummer("93051822361").hashCode());
+        assertThat(eerste.toString()).isEqualTo("93051822361");
+    }
+
+    @Test
+    public void van_ongeldig() {
+        assertThatThrownBy(() -> Rijksregisternummer.van("93051822362"))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.LID_RIJKSREGISTERNUMMER_ONGELDIG.getMessage());
+    }
+
+    @Test
+    public void van_houdtVaakGebruiktNummerBij() throws ApplicationException {
+        Rijksregisternummer vaak = Rijksregisternummer.van(new String("93051822361"));
+
+        // meer andere nummers dan de cache kan bevatten, het vaak gebruikte nummer blijft
+        for (int i = 0; i < 20000; i++) {
+            long deel1 = 100000000L + i;
+            Rijksregisternummer.van(String.format("%09d%02d", deel1, 97 - deel1 % 97));
+            if (i % 1000 == 0) {
+                Rijksregisternummer.van(new String("93051822361"));
+            }
+        }
+
+        assertThat(Rijksregisternummer.van(new String("93051822361"))).isSameAs(vaak);
+    }
+}
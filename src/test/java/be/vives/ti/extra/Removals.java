@@ -21,7 +21,7 @@ public class Removals {
         try (Connection conn = ConnectionManager.getConnection()) {
             // preparedStatement opstellen (en automtisch sluiten)
             try (PreparedStatement stmt = conn.prepareStatement(
-                    "delete from Lid where rijksregisternummer = ?")) {
+                    "delete from lid where rijksregisternummer = ?")) {
                 stmt.setString(1, rijksregisternummer);
                 // execute voert elke sql-statement uit, executeQuery enkel de select
                 stmt.execute();
@@ -36,8 +36,12 @@ public class Removals {
 
     public static void removeFiets(Integer regnr) throws DBException {
         try (Connection conn = ConnectionManager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement(
+            try (PreparedStatement dagtotalen = conn.prepareStatement(
+                    "delete from rit_dagtotaal where fiets_registratienummer = ?");
+                 PreparedStatement stmt = conn.prepareStatement(
                     "delete from fiets where registratienummer = ?")) {
+                dagtotalen.setInt(1, regnr);
+                dagtotalen.execute();
                 stmt.setInt(1, regnr);
                 stmt.execute();
             } catch (SQLException sqlEx) {
@@ -0,0 +1,95 @@
+package be.vives.ti.metriek;
+
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidCache;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+import be.vives.ti.service.VlootIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.*;
+
+public class GemetenServicesTest {
+
+    private Metingen metingen;
+
+    @Before
+    public void setUp() {
+        metingen = new Metingen();
+    }
+
+    private static void alleMethodesOverschreven(Class<?> service, Class<?> gemeten) {
+        for (Method methode : service.getDeclaredMethods()) {
+            if (Modifier.isPublic(methode.getModifiers()) && !Modifier.isStatic(methode.getModifiers())) {
+                try {
+                    gemeten.getDeclaredMethod(methode.getName(), methode.getParameterTypes());
+                } catch (NoSuchMethodException e) {
+                    throw new AssertionError(gemeten.getSimpleName() + " overschrijft " + methode + " niet");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void elke_publieke_methode_wordt_gemeten() {
+        // een nieuwe methode in een service moet ook in de gemeten service komen
+        alleMethodesOverschreven(FietsService.class, GemetenFietsService.class);
+        alleMethodesOverschreven(LidService.class, GemetenLidService.class);
+        alleMethodesOverschreven(RitService.class, GemetenRitService.class);
+    }
+
+    @Test
+    public void fietsService_geeft_door_en_meet() throws Exception {
+        FietsService doel = mock(FietsService.class);
+        VlootIndex vlootIndex = new VlootIndex();
+        when(doel.getVlootIndex()).thenReturn(vlootIndex);
+        Fiets fiets = new Fiets();
+        when(doel.zoekFiets(7)).thenReturn(fiets);
+        when(doel.zoekFiets(8)).thenThrow(new ApplicationException(ApplicationExceptionType.FIETS_BESTAAT_NIET));
+        doThrow(new DBException("SQL-exception")).when(doel).wijzigenStatusNaarHerstel(7);
+
+        FietsService gemeten = new GemetenFietsService(doel, metingen);
+
+        assertThat(gemeten.getVlootIndex()).isSameAs(vlootIndex);
+        assertThat(gemeten.zoekFiets(7)).isSameAs(fiets);
+        assertThatThrownBy(() -> gemeten.zoekFiets(8)).isInstanceOf(ApplicationException.class);
+        assertThatThrownBy(() -> gemeten.wijzigenStatusNaarHerstel(7)).isInstanceOf(DBException.class);
+
+        Meting zoekFiets = metingen.groep("FietsService").meting("zoekFiets");
+        assertThat(zoekFiets.getGelukt()).isEqualTo(1);
+        assertThat(zoekFiets.getApplicatieFouten()).containsOnly(entry("FIETS_BESTAAT_NIET", 1L));
+        assertThat(metingen.groep("FietsService").meting("wijzigenStatusNaarHerstel").getDbFouten()).isEqualTo(1);
+        verify(doel, times(2)).zoekFiets(anyInt());
+    }
+
+    @Test
+    public void lidService_en_ritService_geven_door() throws Exception {
+        LidService lidDoel = mock(LidService.class);
+        LidCache lidCache = new LidCache(10, 1000);
+        when(lidDoel.getLidCache()).thenReturn(lidCache);
+        RitService ritDoel = mock(RitService.class);
+        when(ritDoel.toevoegenRit(null)).thenReturn(3);
+
+        LidService lidService = new GemetenLidService(lidDoel, metingen);
+        RitService ritService = new GemetenRitService(ritDoel, metingen);
+
+        assertThat(lidService.getLidCache()).isSameAs(lidCache);
+        lidService.uitschrijvenLid("93051822361");
+        assertThat(ritService.toevoegenRit(null)).isEqualTo(3);
+
+        verify(lidDoel).uitschrijvenLid("93051822361");
+        assertThat(metingen.groep("LidService").meting("uitschrijvenLid").getGelukt()).isEqualTo(1);
+        assertThat(metingen.groep("RitService").meting("toevoegenRit").getGelukt()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,110 @@
+package be.vives.ti.metriek;
+
+import be.vives.ti.dao.connect.QueryMetingen;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class MetingenTest {
+
+    private Metingen metingen;
+    private Meting meting;
+
+    @Before
+    public void setUp() {
+        metingen = new Metingen();
+        meting = metingen.groep("RitService").meting("toevoegenRit");
+    }
+
+    @Test
+    public void telt_resultaten_per_soort() throws Exception {
+        assertThat(meting.meet(() -> 5)).isEqualTo(5);
+        assertThatThrownBy(() -> meting.meet(() -> {
+            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET);
+        })).isInstanceOf(ApplicationException.class);
+        assertThatThrownBy(() -> meting.meet(() -> {
+            throw new ApplicationException(ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK);
+        })).isInstanceOf(ApplicationException.class);
+        assertThatThrownBy(() -> meting.meet(() -> {
+            throw new ApplicationException("andere boodschap");
+        })).isInstanceOf(ApplicationException.class);
+        assertThatThrownBy(() -> meting.meetDB(() -> {
+            throw new DBException("SQL-exception");
+        })).isInstanceOf(DBException.class);
+        assertThatThrownBy(() -> meting.meetDB(() -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meting.getGelukt()).isEqualTo(1);
+        assertThat(meting.getApplicatieFouten()).containsOnly(entry("LID_BESTAAT_NIET", 1L),
+                entry("RIT_FIETS_IN_GEBRUIK", 1L), entry(Meting.TYPE_ONBEKEND, 1L));
+        assertThat(meting.getDbFouten()).isEqualTo(1);
+        assertThat(meting.getAndereFouten()).isEqualTo(1);
+        assertThat(meting.getDuur().getTotalCount()).isEqualTo(6);
+    }
+
+    @Test
+    public void zelfde_meting_per_service_en_methode() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            threads.submit(() -> metingen.groep("RitService").meting("toevoegenRit").meet(() -> null));
+        }
+        threads.shutdown();
+        assertThat(threads.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(metingen.groep("RitService").meting("toevoegenRit")).isSameAs(meting);
+        assertThat(meting.getGelukt()).isEqualTo(1000);
+        assertThat(meting.getDuur().getTotalCount()).isEqualTo(1000);
+    }
+
+    @Test
+    public void query_tellers() throws Exception {
+        QueryMetingen queryMetingen = new QueryMetingen(0, 5);
+        metingen.voegQueryTellersToe(queryMetingen);
+
+        assertThat(metingen.alsPrometheus())
+                .contains("# TYPE vivesbike_query_traag_total counter\n")
+                .contains("vivesbike_query_traag_total 0\n")
+                .contains("vivesbike_query_uitvoeringen_total 0\n");
+    }
+
+    @Test
+    public void prometheus_formaat() throws Exception {
+        meting.meet(() -> null);
+        assertThatThrownBy(() -> meting.meet(() -> {
+            throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET);
+        }));
+        metingen.groep("FietsService").meting("zoekFiets").meet(() -> null);
+        metingen.voegTellerToe("vivesbike_test_total", "Een teller.", () -> 42);
+
+        String tekst = metingen.alsPrometheus();
+
+        assertThat(tekst).contains("# TYPE vivesbike_service_duur_seconden summary\n")
+                .contains("vivesbike_service_duur_seconden{service=\"RitService\",methode=\"toevoegenRit\",quantile=\"0.99\"} ")
+                .contains("vivesbike_service_duur_seconden{service=\"RitService\",methode=\"toevoegenRit\",quantile=\"1.0\"} ")
+                .contains("vivesbike_service_duur_seconden_count{service=\"RitService\",methode=\"toevoegenRit\"} 2\n")
+                .contains("vivesbike_service_oproepen_total{service=\"RitService\",methode=\"toevoegenRit\",resultaat=\"gelukt\"} 1\n")
+                .contains("vivesbike_service_oproepen_total{service=\"RitService\",methode=\"toevoegenRit\","
+                        + "type=\"LID_BESTAAT_NIET\",resultaat=\"ApplicationException\"} 1\n")
+                .contains("vivesbike_service_oproepen_total{service=\"RitService\",methode=\"toevoegenRit\",resultaat=\"DBException\"} 0\n")
+                .contains("# TYPE vivesbike_test_total counter\nvivesbike_test_total 42\n");
+        // gesorteerd op service
+        assertThat(tekst.indexOf("service=\"FietsService\"")).isLessThan(tekst.indexOf("service=\"RitService\""));
+        // elke waarde is een getal zonder exponent
+        for (String regel : tekst.split("\n")) {
+            if (!regel.startsWith("#")) {
+                assertThat(regel).matches(".* [0-9]+(\\.[0-9]+)?");
+            }
+        }
+    }
+}
@@ -10,6 +10,8 @@ import be.vives.ti.exception.DBException;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -76,6 +78,20 @@ public class FietsServiceTest {
 
     }
 
+    @Test
+    public void toevoegenFiets_verhoogtVersie() throws Exception {
+        Fiets fiets = maakFiets(Status.actief, Standplaats.Kortrijk, "testen");
+        when(fietsDAO.toevoegenFiets(fiets)).thenReturn(7);
+        long versie = fietsService.getVersie();
+
+        fietsService.toevoegenFiets(fiets);
+        assertThat(fietsService.getVersie()).isGreaterThan(versie);
+
+        versie = fietsService.getVersie();
+        fietsService.wijzigenToestandFietsen(Collections.singletonList(7), Status.herstel);
+        assertThat(fietsService.getVersie()).isEqualTo(versie);
+    }
+
     @Test
     public void wijzigenStatusNaarHerstel() throws Exception {
         int fietsID = 123;
@@ -159,5 +175,65 @@ public class FietsServiceTest {
         assertThat(fietsService.zoekFiets(fietsID)).isEqualTo(fiets);
     }
 
+    @Test
+    public void isBeschikbaar_uitVlootIndex() throws Exception {
+        VlootIndex vlootIndex = new VlootIndex();
+        FietsService metIndex = new FietsService(fietsDAO, vlootIndex);
+        Fiets fiets = maakFiets(Status.actief, Standplaats.Brugge, "");
+        fiets.setRegistratienummer(1);
+        vlootIndex.laad(Collections.singletonList(fiets), new ArrayList<>());
+        when(fietsDAO.zoekFiets(1)).thenReturn(fiets);
+
+        assertThat(metIndex.isBeschikbaar(1)).isTrue();
+        metIndex.wijzigenStatusNaarHerstel(1);
+        assertThat(metIndex.isBeschikbaar(1)).isFalse();
+        assertThat(metIndex.zoekAlleBeschikbareFietsen()).isEmpty();
+
+        verify(fietsDAO, never()).isBeschikbaar(anyInt());
+        verify(fietsDAO, never()).zoekAlleBeschikbareFietsen();
+    }
+
+    @Test
+    public void telBeschikbareFietsen_zonderVlootIndex() throws Exception {
+        EnumMap<Standplaats, Integer> aantallen = new EnumMap<>(Standplaats.class);
+        aantallen.put(Standplaats.Brugge, 3);
+        when(fietsDAO.telBeschikbareFietsenPerStandplaats()).thenReturn(aantallen);
+
+        assertThat(fietsService.telBeschikbareFietsen(Standplaats.Brugge)).isEqualTo(3);
+        assertThatThrownBy(() -> fietsService.telBeschikbareFietsen(null))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.FIETS_STANDPLAATS_ONBEKEND.getMessage());
+    }
+
+    @Test
+    public void toevoegenFietsen_ongeldigeFiets() throws Exception {
+        List<Fiets> fietsen = new ArrayList<>();
+        fietsen.add(maakFiets(Status.actief, Standplaats.Brugge, ""));
+        fietsen.add(maakFiets(Status.actief, null, ""));
+
+        assertThatThrownBy(() -> fietsService.toevoegenFietsen(fietsen))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.FIETS_STANDPLAATS_ONBEKEND.getMessage());
+        verify(fietsDAO, never()).toevoegenFietsen(anyList());
+    }
+
+    @Test
+    public void wijzigenToestandFietsen_onbekendeFiets() throws Exception {
+        List<Integer> regnrs = new ArrayList<>();
+        regnrs.add(1);
+        regnrs.add(2);
+        when(fietsDAO.wijzigenToestandFietsen(regnrs, Status.herstel)).thenReturn(Collections.singletonList(2));
+
+        assertThatThrownBy(() -> fietsService.wijzigenToestandFietsen(regnrs, Status.herstel))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.FIETS_BESTAAT_NIET.getMessage());
+    }
 
+    @Test
+    public void isBeschikbaar_zonderVlootIndex() throws Exception {
+        when(fietsDAO.isBeschikbaar(1)).thenReturn(true);
+
+        assertThat(fietsService.isBeschikbaar(1)).isTrue();
+        verify(fietsDAO).isBeschikbaar(1);
+    }
 }
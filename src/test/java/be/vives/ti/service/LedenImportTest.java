@@ -0,0 +1,104 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class LedenImportTest {
+    private final LidDAO lidDAO = mock(LidDAO.class);
+    private final LedenImport ledenImport = new LedenImport(lidDAO);
+
+    @Test
+    public void importeer() throws Exception {
+        when(lidDAO.zoekBestaandeRijksregisternummers(anyList())).thenReturn(Collections.singleton("93051822361"));
+        when(lidDAO.toevoegenLeden(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+        String csv = "\uFEFFvoornaam;naam;rijksregisternummer;emailadres;opmerking\n"
+                + "Andres;Sabbe;64101612335;sabbeandres@outlook.com;\"met ; puntkomma\"\n"
+                + "Pieter;Post;93051822361;pieterpost@gmail.com;\n"
+                + "\n"
+                + "Test;Man;12345678901;test@man.be;\n"
+                + "Andres;Sabbe;64101612335;sabbeandres@outlook.com;\n"
+                + "Jan;;00031300147;jan@gmail.com;\n"
+                + "te;weinig;kolommen\n";
+
+        LedenImport.Resultaat resultaat = ledenImport.importeer(new StringReader(csv));
+
+        assertThat(resultaat.getAantalGelezen()).isEqualTo(6);
+        assertThat(resultaat.getAantalToegevoegd()).isEqualTo(1);
+        assertThat(resultaat.getAfgekeurd()).extracting(LedenImport.Afkeuring::toString).containsExactly(
+                "regel 5: " + ApplicationExceptionType.LID_RIJKSREGISTERNUMMER_ONGELDIG.getMessage(),
+                "regel 6: " + ApplicationExceptionType.IMPORT_LID_DUBBEL.getMessage(),
+                "regel 7: " + ApplicationExceptionType.LID_NAAM_LEEG.getMessage(),
+                "regel 8: " + ApplicationExceptionType.IMPORT_REGEL_ONGELDIG.getMessage(),
+                "regel 3: " + ApplicationExceptionType.LID_BESTAAT_AL.getMessage());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Lid>> toegevoegd = ArgumentCaptor.forClass(List.class);
+        verify(lidDAO).toevoegenLeden(toegevoegd.capture());
+        assertThat(toegevoegd.getValue()).hasSize(1);
+        Lid lid = toegevoegd.getValue().get(0);
+        assertThat(lid.getRijksregisternummer()).isEqualTo("64101612335");
+        assertThat(lid.getOpmerking()).isEqualTo("met ; puntkomma");
+        assertThat(lid.getStart_lidmaatschap()).isNotNull();
+    }
+
+    @Test
+    public void importeer_perBlok() throws Exception {
+        when(lidDAO.zoekBestaandeRijksregisternummers(anyList())).thenReturn(Collections.emptySet());
+        StringBuilder csv = new StringBuilder("rijksregisternummer,naam,voornaam,emailadres\n");
+        for (int i = 0; i <= LedenImport.BLOKGROOTTE; i++) {
+            csv.append("64101612335,Sabbe,Andres,sabbeandres@outlook.com\n");
+        }
+
+        LedenImport.Resultaat resultaat = ledenImport.importeer(new StringReader(csv.toString()));
+
+        assertThat(resultaat.getAfgekeurd()).hasSize(LedenImport.BLOKGROOTTE);
+        verify(lidDAO, times(1)).zoekBestaandeRijksregisternummers(anyList());
+    }
+
+    @Test
+    public void importeer_blokIsEenQuery() throws Exception {
+        when(lidDAO.zoekBestaandeRijksregisternummers(anyList())).thenReturn(Collections.emptySet());
+        StringBuilder csv = new StringBuilder("rijksregisternummer,naam,voornaam,emailadres\n");
+        for (int i = 0; i <= LedenImport.BLOKGROOTTE; i++) {
+            long deel1 = 100000000L + i;
+            csv.append(String.format("%09d%02d", deel1, 97 - deel1 % 97)).append(",Sabbe,Andres,sabbeandres@outlook.com\n");
+        }
+
+        ledenImport.importeer(new StringReader(csv.toString()));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> gezocht = ArgumentCaptor.forClass(List.class);
+        verify(lidDAO, times(2)).zoekBestaandeRijksregisternummers(gezocht.capture());
+        assertThat(gezocht.getAllValues()).extracting(List::size).containsExactly(LidDAO.IN_GROOTTE, 1);
+    }
+
+    @Test
+    public void importeer_hoofdingZonderVerplichteKolommen() throws Exception {
+        assertThatThrownBy(() -> ledenImport.importeer(new StringReader("naam;voornaam\nSabbe;Andres\n")))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.IMPORT_HOOFDING_ONGELDIG.getMessage());
+        assertThatThrownBy(() -> ledenImport.importeer(new StringReader("")))
+                .isInstanceOf(ApplicationException.class);
+
+        verifyNoInteractions(lidDAO);
+    }
+
+    @Test
+    public void splits() {
+        assertThat(LedenImport.splits("a;\"b;c\";\"zei \"\"hallo\"\"\";", ';'))
+                .containsExactly("a", "b;c", "zei \"hallo\"", "");
+        assertThat(LedenImport.splits("a,b", ',')).containsExactly("a", "b");
+    }
+}
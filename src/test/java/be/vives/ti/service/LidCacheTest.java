@@ -0,0 +1,72 @@
+package be.vives.ti.service;
+
+import be.vives.ti.databag.Lid;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LidCacheTest {
+    private long nu = 1000;
+    private final LidCache cache = new LidCache(2, 100, () -> nu);
+
+    private Lid maakLid(String rr, String naam) throws ApplicationException {
+        Lid lid = new Lid();
+        lid.setRijksregisternummer(new Rijksregisternummer(rr));
+        lid.setNaam(naam);
+        return lid;
+    }
+
+    @Test
+    public void geef_bewaardLidAlsKopie() throws Exception {
+        cache.bewaar(maakLid("64101612335", "Sabbe"), cache.getVersie());
+
+        Lid lid = cache.geef("64101612335");
+        lid.setNaam("Gewijzigd");
+
+        assertThat(cache.geef("64101612335").getNaam()).isEqualTo("Sabbe");
+        assertThat(cache.geef("93051822361")).isNull();
+        assertThat(cache.getTreffers()).isEqualTo(2);
+        assertThat(cache.getMissers()).isEqualTo(1);
+        assertThat(cache.getTrefkans()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    public void geef_verlopenNaTtl() throws Exception {
+        cache.bewaar(maakLid("64101612335", "Sabbe"), cache.getVersie());
+        nu += 100;
+
+        assertThat(cache.geef("64101612335")).isNull();
+        assertThat(cache.getGrootte()).isEqualTo(0);
+    }
+
+    @Test
+    public void bewaar_langstNietGebruikteLidValtWeg() throws Exception {
+        cache.bewaar(maakLid("64101612335", "Sabbe"), cache.getVersie());
+        cache.bewaar(maakLid("93051822361", "Post"), cache.getVersie());
+        cache.geef("64101612335");
+        cache.bewaar(maakLid("75120513714", "Testman"), cache.getVersie());
+
+        assertThat(cache.getGrootte()).isEqualTo(2);
+        assertThat(cache.geef("93051822361")).isNull();
+        assertThat(cache.geef("64101612335")).isNotNull();
+    }
+
+    @Test
+    public void bewaar_nietNaVerwijderingTijdensLezen() throws Exception {
+        long versie = cache.getVersie();
+        cache.verwijder("64101612335");
+        cache.bewaar(maakLid("64101612335", "Sabbe"), versie);
+
+        assertThat(cache.geef("64101612335")).isNull();
+    }
+
+    @Test
+    public void bewaar_uitgeschakeldeCacheBewaartNiets() throws Exception {
+        LidCache uit = new LidCache(0, 100);
+        uit.bewaar(maakLid("64101612335", "Sabbe"), uit.getVersie());
+
+        assertThat(uit.geef("64101612335")).isNull();
+    }
+}
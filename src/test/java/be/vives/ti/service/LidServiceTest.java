@@ -57,6 +57,20 @@ public class LidServiceTest {
 
     }
 
+    @Test
+    public void toevoegenLidVerhoogtVersie() throws Exception{
+        Lid lid = maakLid(new Rijksregisternummer("00031300147"), "Pieter", "Post", "pieterpost@gmail.com", "");
+        when(lidDAO.toevoegenLid(lid)).thenReturn(true);
+        long versie = lidService.getVersie();
+
+        lidService.toevoegenLid(lid);
+
+        assertThat(lidService.getVersie()).isGreaterThan(versie);
+        versie = lidService.getVersie();
+        assertThatThrownBy(() -> lidService.toevoegenLid(null)).isInstanceOf(ApplicationException.class);
+        assertThat(lidService.getVersie()).isEqualTo(versie);
+    }
+
     @Test
     public void toevoegenLidZonderVoornaam() throws Exception{
         Lid lid = maakLid(new Rijksregisternummer("00031300147"), "", "Post", "pieterpost@gmail.com", "");
@@ -251,6 +265,27 @@ public class LidServiceTest {
 
     }
 
+    @Test
+    public void zoekLidMetCache() throws Exception{
+        LidService metCache = new LidService(lidDAO, ritService, new LidCache(10, 60000));
+        Lid lid = maakLid(new Rijksregisternummer("00031300147"), "Pieter", "Post", "pieterpost@gmail.com", "");
+
+        when(lidDAO.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
+
+        metCache.zoekLid(lid.getRijksregisternummer());
+        Lid teZoekenLid = metCache.zoekLid(lid.getRijksregisternummer());
+        assertThat(teZoekenLid.getNaam()).isEqualTo("Post");
+        verify(lidDAO, Mockito.times(1)).zoekLid(lid.getRijksregisternummer());
+
+        lid.setNaam("Dutry");
+        metCache.wijzigenLid(lid);
+
+        teZoekenLid = metCache.zoekLid(lid.getRijksregisternummer());
+        assertThat(teZoekenLid.getNaam()).isEqualTo("Dutry");
+        verify(lidDAO, Mockito.times(2)).zoekLid(lid.getRijksregisternummer());
+        assertThat(metCache.getLidCache().getTreffers()).isEqualTo(2);
+    }
+
     @Ignore
     public void toevoegenLidZonderRijksregisternummer() throws Exception{
 
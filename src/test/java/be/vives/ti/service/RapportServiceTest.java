@@ -0,0 +1,61 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.DagtotaalDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.datatype.Groepering;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RapportServiceTest {
+    private final RitDAO ritDAO = mock(RitDAO.class);
+    private final DagtotaalDAO dagtotaalDAO = mock(DagtotaalDAO.class);
+    private final RapportService rapportService = new RapportService(ritDAO, dagtotaalDAO);
+
+    @Test
+    public void totaliseerRitten() throws Exception {
+        rapportService.totaliseerRitten(Groepering.STANDPLAATS, LocalDate.of(2024, 1, 1), null);
+
+        verify(ritDAO).totaliseerRitten(Groepering.STANDPLAATS, LocalDateTime.of(2024, 1, 1, 0, 0), null);
+    }
+
+    @Test
+    public void totaliseerRittenZonderGroepering() throws Exception {
+        assertThatThrownBy(() -> rapportService.totaliseerRitten(null, null, null))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.RAPPORT_GROEPERING_LEEG.getMessage());
+        verify(ritDAO, never()).totaliseerRitten(any(), any(), any());
+    }
+
+    @Test
+    public void totaliseerRittenTotNietNaVan() throws Exception {
+        LocalDate dag = LocalDate.of(2024, 1, 1);
+        assertThatThrownBy(() -> rapportService.totaliseerRitten(Groepering.DAG, dag, dag))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.RAPPORT_PERIODE_ONGELDIG.getMessage());
+        verify(ritDAO, never()).totaliseerRitten(any(), any(), any());
+    }
+
+    @Test
+    public void omzetPerMaand() throws Exception {
+        rapportService.omzetPerMaand(2024);
+
+        verify(dagtotaalDAO).totaliseer(Groepering.MAAND, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1));
+        verifyNoInteractions(ritDAO);
+    }
+
+    @Test
+    public void totaliseerDagtotalenPerLid() throws Exception {
+        assertThatThrownBy(() -> rapportService.totaliseerDagtotalen(Groepering.LID, null, null))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.RAPPORT_GROEPERING_NIET_BIJGEHOUDEN.getMessage());
+        verifyNoInteractions(dagtotaalDAO);
+    }
+}
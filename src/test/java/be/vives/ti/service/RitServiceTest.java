@@ -74,6 +74,7 @@ public class RitServiceTest {
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_STARTTIJD_AUTOMATISCH.getMessage());
 
         verify(ritDAO, never()).toevoegenRit(rit);
+        verify(ritDAO, never()).huurFiets(rit);
     }
 
     @Test
@@ -90,62 +91,43 @@ public class RitServiceTest {
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.LID_RIJSKREGISTERNUMMER_LEEG.getMessage());
 
         verify(ritDAO, never()).toevoegenRit(rit);
+        verify(ritDAO, never()).huurFiets(rit);
     }
 
     @Test
     public void toevoegenRit_LidBestaatNiet() throws Exception{
         int fietsId = 8;
-        String rrn = "00031300147";
-        Fiets fiets = maakFiets(Status.actief, Standplaats.Kortrijk, "Eerste fiets toegevoegd");
-        fiets.setRegistratienummer(fietsId);
-        Rit rit = maakRit(new Rijksregisternummer(rrn), fietsId);
+        Rit rit = maakRit(new Rijksregisternummer("00031300147"), fietsId);
 
-        when(lidService.zoekLid(rrn)).thenReturn(null);
-        when(fietsService.zoekFiets(fietsId)).thenReturn(fiets);
+        when(ritDAO.huurFiets(rit)).thenThrow(new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET));
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
 
         verify(ritDAO, never()).toevoegenRit(rit);
-        verify(lidDAO).zoekLid(rrn);
     }
 
     @Test
     public void toevoegenRit_LidHuurtAl() throws Exception{
         int fietsId = 8;
-        Fiets fiets = maakFiets(Status.actief, Standplaats.Kortrijk, "Eerste fiets toegevoegd");
-        fiets.setRegistratienummer(fietsId);
-        Lid lid = maakLid(new Rijksregisternummer("00031300147"), "Andres", "Sabbe", "sabbeandres@gmail.com", LocalDate.now());
-        Rit rit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fietsId);
+        Rit rit = maakRit(new Rijksregisternummer("00031300147"), fietsId);
 
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-        when(fietsService.zoekFiets(fietsId)).thenReturn(fiets);
-        ArrayList<Rit> ritten = new ArrayList<>();
-        Rit r = new Rit();
-        ritten.add(r);
-        when(ritDAO.zoekActieveRittenVanLid(lid.getRijksregisternummer())).thenReturn(ritten);
+        when(ritDAO.huurFiets(rit)).thenThrow(new ApplicationException(ApplicationExceptionType.RIT_LID_HUURT));
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_LID_HUURT.getMessage());
 
         verify(ritDAO, never()).toevoegenRit(rit);
-        verify(lidDAO, Mockito.times(2)).zoekLid(lid.getRijksregisternummer());
     }
 
     @Test
     public void toevoegenRit_FietsAlInGebruik() throws Exception{
         int fietsId = 8;
-        Fiets fiets = maakFiets(Status.actief, Standplaats.Kortrijk, "Eerste fiets toegevoegd");
-        fiets.setRegistratienummer(fietsId);
         Rit rit = maakRit(new Rijksregisternummer("00031300147"), fietsId);
 
-        when(fietsService.zoekFiets(fietsId)).thenReturn(fiets);
-        ArrayList<Rit> ritten = new ArrayList<>();
-        Rit r = new Rit();
-        ritten.add(r);
-        when(ritDAO.zoekActieveRittenVanFiets(fietsId)).thenReturn(ritten);
+        when(ritDAO.huurFiets(rit)).thenThrow(new ApplicationException(ApplicationExceptionType.RIT_FIETS_IN_GEBRUIK));
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
@@ -154,14 +136,24 @@ public class RitServiceTest {
         verify(ritDAO, never()).toevoegenRit(rit);
     }
 
+    @Test
+    public void toevoegenRit_FietsNietActief() throws Exception{
+        int fietsId = 8;
+        Rit rit = maakRit(new Rijksregisternummer("00031300147"), fietsId);
+
+        when(ritDAO.huurFiets(rit)).thenThrow(new ApplicationException(ApplicationExceptionType.FIETS_STATUS_NIET_ACTIEF));
+
+        assertThatThrownBy(() -> {
+            ritService.toevoegenRit(rit);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.FIETS_STATUS_NIET_ACTIEF.getMessage());
+    }
+
     @Test
     public void toevoegenRit_FietsBestaatNiet() throws Exception{
         int fietsId = 8;
-        Fiets fiets = maakFiets(Status.actief, Standplaats.Kortrijk, "Eerste fiets toegevoegd");
-        fiets.setRegistratienummer(fietsId);
         Rit rit = maakRit(new Rijksregisternummer("00031300147"), fietsId);
 
-        when(fietsService.zoekFiets(fietsId)).thenReturn(null);
+        when(ritDAO.huurFiets(rit)).thenThrow(new ApplicationException(ApplicationExceptionType.FIETS_BESTAAT_NIET));
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
@@ -173,20 +165,14 @@ public class RitServiceTest {
     @Test
     public void toevoegenRit_succesvol() throws Exception {
         int fietsId = 8;
-        Fiets fiets = maakFiets(Status.actief, Standplaats.Kortrijk, "Eerste fiets toegevoegd");
-        fiets.setRegistratienummer(fietsId);
-        Lid lid = maakLid(new Rijksregisternummer("00031300147"), "Andres", "Sabbe", "sabbeandres@gmail.com", LocalDate.now());
-        Rit rit = maakRit(new Rijksregisternummer(lid.getRijksregisternummer()), fietsId);
+        Rit rit = maakRit(new Rijksregisternummer("00031300147"), fietsId);
 
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-        when(fietsService.zoekFiets(fietsId)).thenReturn(fiets);
-        when(ritDAO.zoekActieveRittenVanFiets(fietsId)).thenReturn(Collections.emptyList());
-        when(ritDAO.zoekActieveRittenVanLid(lid.getRijksregisternummer())).thenReturn(Collections.emptyList());
-        when(ritDAO.toevoegenRit(rit)).thenReturn(2);
+        when(ritDAO.huurFiets(rit)).thenReturn(2);
 
         assertThat(ritService.toevoegenRit(rit)).isEqualTo(2);
-        verify(ritDAO, atLeastOnce()).toevoegenRit(rit);
-        verify(lidDAO, Mockito.times(2)).zoekLid(lid.getRijksregisternummer());
+        verify(ritDAO).huurFiets(rit);
+        verify(fietsService, never()).zoekFiets(fietsId);
+        verify(lidDAO, never()).zoekLid(rit.getLidRijksregisternummer());
     }
 
     @Test
@@ -218,6 +204,37 @@ public class RitServiceTest {
         verify(ritDAO, never()).afsluitenRit(rit);
     }
 
+    @Test
+    public void afsluitenRit_alAfgesloten() throws Exception {
+        Rit rit = maakRit(new Rijksregisternummer("00031300147"), 8);
+        rit.setId(2000);
+        rit.setStarttijd(LocalDateTime.now().minusHours(1));
+        rit.setEindtijd(LocalDateTime.now());
+
+        when(ritDAO.zoekRit(rit.getId())).thenReturn(rit);
+
+        assertThatThrownBy(() -> {
+            ritService.afsluitenRit(rit.getId());
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
+
+        verify(ritDAO, never()).afsluitenRit(any(Rit.class));
+    }
+
+    @Test
+    public void afsluitenRit_intussenAfgesloten() throws Exception {
+        Rit rit = maakRit(new Rijksregisternummer("00031300147"), 8);
+        rit.setId(2000);
+        rit.setStarttijd(LocalDateTime.now().minusHours(1));
+
+        when(ritDAO.zoekRit(rit.getId())).thenReturn(rit);
+        when(ritDAO.afsluitenRit(rit)).thenReturn(0);
+
+        assertThatThrownBy(() -> {
+            ritService.afsluitenRit(rit.getId());
+        }).isInstanceOf(ApplicationException.class)
+                .hasFieldOrPropertyWithValue("type", ApplicationExceptionType.RIT_AL_AFGESLOTEN);
+    }
+
     @Test
     public void prijsBerekenen_1uur() throws Exception {
         Rit rit = maakRit(new Rijksregisternummer("00031300147"), 2);
@@ -262,6 +279,7 @@ public class RitServiceTest {
         rit.setId(ritId);
 
         when(ritDAO.zoekRit(rit.getId())).thenReturn(rit);
+        when(ritDAO.afsluitenRit(rit)).thenReturn(1);
 
         assertThatCode(() -> {
             ritService.afsluitenRit(rit.getId());
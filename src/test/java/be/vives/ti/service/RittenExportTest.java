@@ -0,0 +1,86 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.exception.UncheckedDBException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RittenExportTest {
+    private final RitDAO ritDAO = mock(RitDAO.class);
+    private final RittenExport export = new RittenExport(ritDAO);
+    private final LocalDateTime van = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private final LocalDateTime tot = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private Rit maakRit(int id, LocalDateTime starttijd, LocalDateTime eindtijd, BigDecimal prijs) throws Exception {
+        Rit rit = new Rit();
+        rit.setId(id);
+        rit.setStarttijd(starttijd);
+        rit.setEindtijd(eindtijd);
+        rit.setPrijs(prijs);
+        rit.setLidRijksregisternummer(new Rijksregisternummer("64101612335"));
+        rit.setFietsRegistratienummer(7);
+        return rit;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        when(ritDAO.streamRitten(van, tot)).thenAnswer(i -> Stream.of(
+                maakRit(1, LocalDateTime.of(2024, 1, 3, 9, 0), LocalDateTime.of(2024, 1, 5, 17, 30, 15), new BigDecimal("3.00")),
+                maakRit(2, LocalDateTime.of(2024, 1, 31, 23, 59), null, null)));
+    }
+
+    @Test
+    public void exporteerCsv() throws Exception {
+        StringWriter csv = new StringWriter();
+
+        assertThat(export.exporteer(van, tot, RittenExport.Formaat.CSV, csv)).isEqualTo(2);
+        assertThat(csv.toString()).isEqualTo(
+                "id;starttijd;eindtijd;prijs;lid_rijksregisternummer;fiets_registratienummer\n"
+                        + "1;2024-01-03T09:00:00;2024-01-05T17:30:15;3.00;64101612335;7\n"
+                        + "2;2024-01-31T23:59:00;;;64101612335;7\n");
+    }
+
+    @Test
+    public void exporteerJsonGzip() throws Exception {
+        ByteArrayOutputStream uit = new ByteArrayOutputStream();
+
+        assertThat(export.exporteer(van, tot, RittenExport.Formaat.JSON, uit, true)).isEqualTo(2);
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(uit.toByteArray())), StandardCharsets.UTF_8))) {
+            assertThat(in.lines().collect(Collectors.toList())).containsExactly(
+                    "{\"id\":1,\"starttijd\":\"2024-01-03T09:00:00\",\"eindtijd\":\"2024-01-05T17:30:15\",\"prijs\":3.00,"
+                            + "\"lid_rijksregisternummer\":\"64101612335\",\"fiets_registratienummer\":7}",
+                    "{\"id\":2,\"starttijd\":\"2024-01-31T23:59:00\",\"eindtijd\":null,\"prijs\":null,"
+                            + "\"lid_rijksregisternummer\":\"64101612335\",\"fiets_registratienummer\":7}");
+        }
+    }
+
+    @Test
+    public void exporteer_foutTijdensLezen() throws Exception {
+        when(ritDAO.streamRitten(null, null)).thenAnswer(i -> Stream.generate(() -> {
+            throw new UncheckedDBException(new DBException("resultset"));
+        }));
+
+        assertThatThrownBy(() -> export.exporteer(null, null, RittenExport.Formaat.CSV, new StringWriter()))
+                .isInstanceOf(DBException.class).hasMessage("resultset");
+    }
+}
@@ -0,0 +1,174 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.extra.Removals;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class VlootIndexTest {
+    private VlootIndex index;
+
+    private Fiets maakFiets(int regnr, Status status, Standplaats standplaats) {
+        Fiets fiets = new Fiets();
+        fiets.setRegistratienummer(regnr);
+        fiets.setStatus(status);
+        fiets.setStandplaats(standplaats);
+        return fiets;
+    }
+
+    private Rit maakRit(int id, int regnr) {
+        Rit rit = new Rit();
+        rit.setId(id);
+        rit.setFietsRegistratienummer(regnr);
+        return rit;
+    }
+
+    @Before
+    public void setUp() {
+        index = new VlootIndex();
+        index.laad(Arrays.asList(
+                maakFiets(1, Status.actief, Standplaats.Brugge),
+                maakFiets(2, Status.actief, Standplaats.Brugge),
+                maakFiets(3, Status.herstel, Standplaats.Kortrijk),
+                maakFiets(4, Status.actief, Standplaats.Roeselare)),
+                Collections.singletonList(maakRit(10, 2)));
+    }
+
+    @Test
+    public void geefBeschikbareFietsen_zelfdeVolgordeAlsDatabank() throws Exception {
+        FietsDAO fietsDAO = new FietsDAO();
+        RitDAO ritDAO = new RitDAO();
+        List<Integer> regnrs = new ArrayList<>();
+        try {
+            // standplaatsen door elkaar, zodat de volgorde per standplaats verschilt van die op registratienummer
+            for (Standplaats standplaats : new Standplaats[]{Standplaats.Tielt, Standplaats.Brugge, Standplaats.Roeselare}) {
+                regnrs.add(fietsDAO.toevoegenFiets(maakFiets(0, Status.actief, standplaats)));
+            }
+            VlootIndex geladen = new VlootIndex();
+            geladen.laad(fietsDAO, ritDAO);
+
+            assertThat(new FietsService(fietsDAO, geladen).zoekAlleBeschikbareFietsen())
+                    .extracting(Fiets::getRegistratienummer, Fiets::getStandplaats)
+                    .containsExactlyElementsOf(new FietsService(fietsDAO).zoekAlleBeschikbareFietsen().stream()
+                            .map(f -> tuple(f.getRegistratienummer(), f.getStandplaats()))
+                            .collect(Collectors.toList()));
+        } finally {
+            for (Integer regnr : regnrs) {
+                Removals.removeFiets(regnr);
+            }
+        }
+    }
+
+    @Test
+    public void laad() {
+        assertThat(index.isGeladen()).isTrue();
+        assertThat(index.isBeschikbaar(1)).isTrue();
+        assertThat(index.isBeschikbaar(2)).isFalse();
+        assertThat(index.isBeschikbaar(3)).isFalse();
+        assertThat(index.isBeschikbaar(99)).isNull();
+        assertThat(index.geefOpenRit(2)).isEqualTo(10);
+        assertThat(index.geefBeschikbareFietsen()).extracting(Fiets::getRegistratienummer).containsExactly(1, 4);
+        assertThat(index.geefBeschikbareFietsen(Standplaats.Brugge)).extracting(Fiets::getRegistratienummer).containsExactly(1);
+    }
+
+    @Test
+    public void ritGestartEnAfgesloten() {
+        index.ritGestart(1, 11);
+        assertThat(index.isBeschikbaar(1)).isFalse();
+        assertThat(index.geefBeschikbareFietsen(Standplaats.Brugge)).isEmpty();
+
+        index.ritAfgesloten(2, 10);
+        assertThat(index.isBeschikbaar(2)).isTrue();
+        assertThat(index.geefOpenRit(2)).isNull();
+        assertThat(index.geefBeschikbareFietsen(Standplaats.Brugge)).extracting(Fiets::getRegistratienummer).containsExactly(2);
+    }
+
+    @Test
+    public void statusGewijzigdEnFietsToegevoegd() {
+        index.statusGewijzigd(3, Status.actief);
+        index.statusGewijzigd(4, Status.uit_omloop);
+        index.fietsToegevoegd(5, Standplaats.Kortrijk, Status.actief, "nieuw");
+
+        assertThat(index.geefBeschikbareFietsen(Standplaats.Kortrijk)).extracting(Fiets::getRegistratienummer).containsExactly(3, 5);
+        assertThat(index.geefBeschikbareFietsen(Standplaats.Roeselare)).isEmpty();
+    }
+
+    @Test
+    public void geefAantalBeschikbaar() {
+        assertThat(index.geefAantalBeschikbaar(Standplaats.Brugge)).isEqualTo(1);
+        assertThat(index.geefAantalBeschikbaar(Standplaats.Kortrijk)).isEqualTo(0);
+
+        index.ritAfgesloten(2, 10);
+        index.statusGewijzigd(4, Status.herstel);
+
+        assertThat(index.geefAantalBeschikbaarPerStandplaats())
+                .containsEntry(Standplaats.Brugge, 2)
+                .containsEntry(Standplaats.Roeselare, 0)
+                .hasSize(Standplaats.values().length);
+    }
+
+    @Test
+    public void nietGeladen_negeertWijzigingen() {
+        VlootIndex leeg = new VlootIndex();
+        leeg.fietsToegevoegd(5, Standplaats.Kortrijk, Status.actief, null);
+
+        assertThat(leeg.isGeladen()).isFalse();
+        assertThat(leeg.isBeschikbaar(5)).isNull();
+        assertThat(leeg.geefBeschikbareFietsen()).isEmpty();
+    }
+
+    @Test
+    public void ritAfgesloten_andereRitLaatFietsBezet() {
+        index.ritAfgesloten(2, 9);
+
+        assertThat(index.isBeschikbaar(2)).isFalse();
+        assertThat(index.geefOpenRit(2)).isEqualTo(10);
+    }
+
+    @Test
+    public void ritGestart_naAfsluitenGemeldWordtGenegeerd() {
+        // de rit werd afgesloten voor de melding van het starten de index bereikte
+        index.ritAfgesloten(1, 11);
+        index.ritGestart(1, 11);
+
+        assertThat(index.isBeschikbaar(1)).isTrue();
+        assertThat(index.geefOpenRit(1)).isNull();
+    }
+
+    @Test
+    public void laad_wijzigingTijdensLezenBlijftBehouden() throws Exception {
+        FietsDAO fietsDAO = mock(FietsDAO.class);
+        RitDAO ritDAO = mock(RitDAO.class);
+        when(fietsDAO.zoekAlleFietsen()).thenReturn(Arrays.asList(
+                maakFiets(1, Status.actief, Standplaats.Brugge),
+                maakFiets(2, Status.actief, Standplaats.Brugge)));
+        // terwijl de ritten gelezen worden, sluit een andere gebruiker rit 10 af en huurt fiets 1
+        when(ritDAO.zoekAlleActieveRitten()).thenAnswer(i -> {
+            index.ritAfgesloten(2, 10);
+            index.ritGestart(1, 12);
+            return Collections.singletonList(maakRit(10, 2));
+        });
+
+        index.laad(fietsDAO, ritDAO);
+
+        assertThat(index.isBeschikbaar(2)).isTrue();
+        assertThat(index.geefOpenRit(1)).isEqualTo(12);
+        assertThat(index.geefBeschikbareFietsen()).extracting(Fiets::getRegistratienummer).containsExactly(2);
+    }
+}
@@ -0,0 +1,100 @@
+package be.vives.ti.ui.controller;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PagineringTest {
+    private List<Integer> tabel;
+    private List<Integer> gevraagdNa;
+    private Paginering<Integer, Integer> paginering;
+
+    @Before
+    public void setUp() {
+        tabel = IntStream.rangeClosed(1, 7).boxed().collect(Collectors.toList());
+        gevraagdNa = new ArrayList<>();
+        paginering = new Paginering<>((na, aantal) -> {
+            gevraagdNa.add(na);
+            return tabel.stream()
+                    .filter(i -> na == null || i > na)
+                    .limit(aantal)
+                    .collect(Collectors.toList());
+        }, Function.identity(), 3);
+    }
+
+    // laadt de pagina zoals Achtergrond en toont ze zoals de controllers
+    private Paginering.Pagina<Integer, Integer> toon(Achtergrond.Werk<Paginering.Pagina<Integer, Integer>> werk) throws Exception {
+        Paginering.Pagina<Integer, Integer> pagina = werk.voerUit();
+        paginering.toon(pagina);
+        return pagina;
+    }
+
+    @Test
+    public void eerste() throws Exception {
+        Paginering.Pagina<Integer, Integer> pagina = toon(paginering.eerste());
+
+        assertThat(pagina.getRijen()).containsExactly(1, 2, 3);
+        assertThat(pagina.heeftVorige()).isFalse();
+        assertThat(pagina.heeftVolgende()).isTrue();
+        assertThat(pagina.getPaginanummer()).isEqualTo(1);
+    }
+
+    @Test
+    public void volgende_startNaLaatsteSleutel() throws Exception {
+        toon(paginering.eerste());
+
+        assertThat(toon(paginering.volgende()).getRijen()).containsExactly(4, 5, 6);
+        Paginering.Pagina<Integer, Integer> laatste = toon(paginering.volgende());
+        assertThat(laatste.getRijen()).containsExactly(7);
+        assertThat(laatste.heeftVolgende()).isFalse();
+        assertThat(toon(paginering.volgende()).getRijen()).containsExactly(7);
+
+        assertThat(gevraagdNa).containsExactly(null, 3, 6);
+        assertThat(laatste.getPaginanummer()).isEqualTo(3);
+    }
+
+    @Test
+    public void vorige() throws Exception {
+        toon(paginering.eerste());
+        toon(paginering.volgende());
+        toon(paginering.volgende());
+
+        assertThat(toon(paginering.vorige()).getRijen()).containsExactly(4, 5, 6);
+        Paginering.Pagina<Integer, Integer> eerste = toon(paginering.vorige());
+        assertThat(eerste.getRijen()).containsExactly(1, 2, 3);
+        assertThat(eerste.heeftVorige()).isFalse();
+        assertThat(toon(paginering.vorige()).getRijen()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void vernieuw_haaltHuidigePaginaOpnieuwOp() throws Exception {
+        toon(paginering.eerste());
+        toon(paginering.volgende());
+        tabel.add(5, 55);
+
+        Paginering.Pagina<Integer, Integer> pagina = toon(paginering.vernieuw());
+        assertThat(pagina.getRijen()).containsExactly(4, 5, 55);
+        assertThat(pagina.heeftVolgende()).isTrue();
+        assertThat(pagina.getPaginanummer()).isEqualTo(2);
+    }
+
+    @Test
+    public void geladenPaginaTeltPasNaToon() throws Exception {
+        toon(paginering.eerste());
+
+        // een lading die nog loopt (of geannuleerd wordt) verandert de huidige pagina niet
+        Paginering.Pagina<Integer, Integer> volgende = paginering.volgende().voerUit();
+        assertThat(volgende.getRijen()).containsExactly(4, 5, 6);
+        assertThat(toon(paginering.vernieuw()).getRijen()).containsExactly(1, 2, 3);
+
+        paginering.toon(volgende);
+        assertThat(toon(paginering.vernieuw()).getPaginanummer()).isEqualTo(2);
+    }
+}
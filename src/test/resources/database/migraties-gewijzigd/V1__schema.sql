@@ -0,0 +1,2 @@
+-- dit script verschilt van V1__schema.sql uit database/migraties
+create table if not exists lid (rijksregisternummer varchar(11) primary key);